@@ -0,0 +1,21 @@
+-- Storage and row-size report for post bodies (V3__post_body.sql).
+-- Run against the application database, e.g. mysql blogdb1 < report.sql
+
+-- Bodies still in the legacy post.content column, 0 once the migration is done.
+SELECT COUNT(*) AS legacy_bodies FROM post WHERE content IS NOT NULL;
+
+-- Stored bytes against original UTF-8 bytes, per codec and overall.
+SELECT codec,
+       COUNT(*) AS bodies,
+       SUM(original_length) AS original_bytes,
+       SUM(LENGTH(data)) AS stored_bytes,
+       ROUND(SUM(LENGTH(data)) / SUM(original_length), 2) AS stored_ratio
+FROM post_body
+GROUP BY codec WITH ROLLUP;
+
+-- Average row length of post, which is what list queries, feed loads and
+-- getPostById read. Compare with the same query taken before the migration.
+ANALYZE TABLE post, post_body;
+SELECT table_name, table_rows, avg_row_length, data_length
+FROM information_schema.tables
+WHERE table_schema = DATABASE() AND table_name IN ('post', 'post_body');
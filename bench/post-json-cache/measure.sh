@@ -0,0 +1,41 @@
+#!/usr/bin/env sh
+# Compares getPostById throughput with the DTO cache alone and with the
+# pre-serialized JSON cache (blogapp.json-response-cache.enabled). Needs the
+# database from application.properties running, with the post to request in
+# it, and ApacheBench (ab) on the path.
+#
+#   ./mvnw package -DskipTests
+#   bench/post-json-cache/measure.sh <postId> [requests] [concurrency]
+#
+# Both runs start the same jar, warm the caches up with one pass, then report
+# requests per second and bytes per response, without and with
+# Accept-Encoding: gzip; with gzip the DTO path is compressed on every request
+# (blogapp.compression.level), the JSON cache sends its precompressed copy.
+# Rate limiting and load shedding are turned off so they do not cap the result.
+set -e
+POST_ID="${1:?usage: measure.sh <postId> [requests] [concurrency]}"
+REQUESTS="${2:-20000}"
+CONCURRENCY="${3:-16}"
+ROOT="$(cd "$(dirname "$0")/../.." && pwd)"
+PORT=8080
+URL="http://localhost:$PORT/api/post/getPostById/$POST_ID"
+
+run() {
+    label="$1"; enabled="$2"
+    java -jar "$ROOT"/target/restfulblogapplication-*-SNAPSHOT.jar \
+        --blogapp.json-response-cache.enabled="$enabled" \
+        --blogapp.ratelimit.enabled=false --blogapp.concurrency.enabled=false > /dev/null 2>&1 &
+    pid=$!
+    until curl -s -o /dev/null "http://localhost:$PORT/"; do sleep 0.2; done
+    ab -q -k -n "$REQUESTS" -c "$CONCURRENCY" "$URL" > /dev/null
+    for encoding in identity gzip; do
+        result="$(ab -q -k -n "$REQUESTS" -c "$CONCURRENCY" -H "Accept-Encoding: $encoding" "$URL")"
+        rps="$(echo "$result" | grep 'Requests per second' | awk '{print $4}')"
+        size="$(echo "$result" | grep 'Document Length' | awk '{print $3}')"
+        echo "$label, $encoding: $rps requests/s, $size bytes per response"
+    done
+    kill "$pid"; wait "$pid" 2>/dev/null || true
+}
+
+run "DTO cache" false
+run "JSON cache" true
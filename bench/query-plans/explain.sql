@@ -0,0 +1,25 @@
+-- The statements Hibernate issues for each repository query path, with
+-- EXPLAIN ANALYZE so both the chosen plan and the measured time are printed.
+
+-- PostRepository.findByCategory
+EXPLAIN ANALYZE SELECT * FROM post WHERE category_id = 17;
+
+-- PostRepository.findByCategoryOrderByDateDescPostIdDesc (category feed)
+EXPLAIN ANALYZE SELECT * FROM post WHERE category_id = 17 ORDER BY date DESC, post_id DESC LIMIT 50;
+
+-- PostRepository.findByUser
+EXPLAIN ANALYZE SELECT * FROM post WHERE user_id = 42;
+
+-- PostRepository.findAllByOrderByDateDescPostIdDesc (global feed) and getAllPosts sorted by date
+EXPLAIN ANALYZE SELECT * FROM post ORDER BY date DESC, post_id DESC LIMIT 50;
+EXPLAIN ANALYZE SELECT * FROM post ORDER BY date DESC LIMIT 5 OFFSET 1000;
+
+-- UserRepository.findByEmail
+EXPLAIN ANALYZE SELECT * FROM users WHERE email = 'user500@example.com' LIMIT 10;
+
+-- comments of a post
+EXPLAIN ANALYZE SELECT * FROM comments WHERE post_id = 123456;
+
+-- PostRepository.findByTitleContaining (before) and searchByTitle (after)
+EXPLAIN ANALYZE SELECT * FROM post WHERE title LIKE '%Docker%';
+EXPLAIN ANALYZE SELECT * FROM post WHERE MATCH(title) AGAINST ('+Docker*' IN BOOLEAN MODE);
@@ -0,0 +1,50 @@
+-- Seeds a blog database for the query plan benchmark:
+-- 1,000 users, 50 categories, 200,000 posts and 1,000,000 comments.
+-- Run against a schema migrated with flyway (either -Dspring.flyway.target=1 or the latest version).
+
+DROP PROCEDURE IF EXISTS seed_blog;
+
+DELIMITER //
+CREATE PROCEDURE seed_blog(IN user_count INT, IN category_count INT, IN post_count INT, IN comments_per_post INT)
+BEGIN
+    DECLARE i INT DEFAULT 0;
+    SET autocommit = 0;
+
+    WHILE i < user_count DO
+        INSERT INTO users (id, user_name, email, password, about)
+        VALUES (i + 1, CONCAT('user', i), CONCAT('user', i, '@example.com'), 'secret', 'bench user');
+        SET i = i + 1;
+    END WHILE;
+    UPDATE users_seq SET next_val = user_count + 1;
+
+    SET i = 0;
+    WHILE i < category_count DO
+        INSERT INTO categories (title, description) VALUES (CONCAT('category ', i), 'bench category');
+        SET i = i + 1;
+    END WHILE;
+
+    SET i = 0;
+    WHILE i < post_count DO
+        INSERT INTO post (category_id, user_id, date, content, image_name, title)
+        VALUES (1 + (i % category_count), 1 + ((i * 7) % user_count),
+                TIMESTAMPADD(MINUTE, -i, NOW(6)), REPEAT('lorem ipsum ', 20), 'default.png',
+                CONCAT(ELT(1 + (i % 5), 'Spring', 'Java', 'MySQL', 'Docker', 'Kotlin'), ' post number ', i));
+        IF i % 10000 = 0 THEN
+            COMMIT;
+        END IF;
+        SET i = i + 1;
+    END WHILE;
+    COMMIT;
+
+    INSERT INTO comments (post_id, content)
+    SELECT p.post_id, CONCAT('comment ', n.n)
+    FROM post p
+    JOIN (SELECT 1 AS n UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4 UNION ALL SELECT 5) n
+      ON n.n <= comments_per_post;
+    COMMIT;
+    SET autocommit = 1;
+END //
+DELIMITER ;
+
+CALL seed_blog(1000, 50, 200000, 5);
+ANALYZE TABLE users, categories, post, comments;
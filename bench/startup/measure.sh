@@ -0,0 +1,38 @@
+#!/usr/bin/env sh
+# Compares startup time and first-request latency of the regular jar with the
+# fast-startup build. Needs the database from application.properties running.
+#
+#   ./mvnw -Pfast-startup package -DskipTests
+#   bench/startup/measure.sh [runs]
+#
+# For each run it reports the "Started ... in N seconds" line, the time until
+# the port answers, and the latency of the first request to a hot endpoint.
+set -e
+RUNS="${1:-5}"
+ROOT="$(cd "$(dirname "$0")/../.." && pwd)"
+PORT=8080
+URL="http://localhost:$PORT/api/category/getAllCategories"
+
+now_ms() { date +%s%3N; }
+
+measure() {
+    label="$1"; shift
+    i=1
+    while [ "$i" -le "$RUNS" ]; do
+        log="$(mktemp)"
+        start="$(now_ms)"
+        "$@" > "$log" 2>&1 &
+        pid=$!
+        until curl -s -o /dev/null "http://localhost:$PORT/"; do sleep 0.05; done
+        up="$(now_ms)"
+        first="$(curl -s -o /dev/null -w '%{time_total}' "$URL")"
+        started="$(grep -o 'Started .* in [0-9.]* seconds' "$log" | grep -o '[0-9.]* seconds')"
+        echo "$label run $i: started in $started, port open after $((up - start)) ms, first request ${first}s"
+        kill "$pid"; wait "$pid" 2>/dev/null || true
+        rm -f "$log"
+        i=$((i + 1))
+    done
+}
+
+measure "regular jar" java -jar "$ROOT"/target/restfulblogapplication-*-SNAPSHOT.jar
+measure "fast-startup" "$ROOT/bench/startup/run-fast.sh"
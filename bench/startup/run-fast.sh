@@ -0,0 +1,10 @@
+#!/usr/bin/env sh
+# Starts the application built with ./mvnw -Pfast-startup package using the
+# AOT-generated context, the AppCDS archive from the training run and the
+# faststart profile (lazy initialization of non-critical beans).
+set -e
+CDS_DIR="$(dirname "$0")/../../target/cds"
+exec java -XX:SharedArchiveFile="$CDS_DIR/app.jsa" -Xshare:auto \
+    -Dspring.aot.enabled=true \
+    -Dspring.profiles.active=faststart \
+    -jar "$CDS_DIR"/restfulblogapplication-*-cds.jar "$@"
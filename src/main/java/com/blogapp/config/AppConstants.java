@@ -5,4 +5,14 @@ public class AppConstants {
     public static final String PAGE_SIZE = "5";
     public static final String SORT_BY = "postId";
     public static final String SORT_DIR = "asc";
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final String FEED_SIZE = "10";
+    public static final int EXCERPT_LENGTH = 200;
+    public static final String AUTOCOMPLETE_SIZE = "10";
+    public static final int MAX_AUTOCOMPLETE_SIZE = 20;
+    public static final String TRENDING_SIZE = "10";
+    public static final int MAX_TRENDING_SIZE = 50;
+    public static final int MAX_BATCH_SIZE = 100;
+    public static final String RELATED_SIZE = "5";
+    public static final int MAX_RELATED_SIZE = 20;
 }
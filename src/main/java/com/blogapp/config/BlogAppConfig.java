@@ -1,10 +1,20 @@
 package com.blogapp.config;
 
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
 import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import jakarta.persistence.EntityManagerFactory;
 
 @Configuration
+@EnableScheduling
 public class BlogAppConfig {
 	
 	@Bean
@@ -12,5 +22,22 @@ public class BlogAppConfig {
 		return new ModelMapper();
 	}
 	
+	// Decided at runtime rather than through spring.flyway.enabled, whose condition is
+	// fixed at build time in an AOT-processed application (see the cds-training profile).
+	@Bean
+	public FlywayMigrationStrategy flywayMigrationStrategy(@Value("${blogapp.flyway.migrate-on-startup:true}") boolean migrateOnStartup) {
+		return flyway -> {
+			if (migrateOnStartup) {
+				flyway.migrate();
+			}
+		};
+	}
+
+	// With spring.main.lazy-initialization the connection pool, migrations and JPA
+	// stay eager so that their cost is paid at startup and not by the first request.
+	@Bean
+	static LazyInitializationExcludeFilter eagerDataAccessBeans() {
+		return LazyInitializationExcludeFilter.forBeanTypes(DataSource.class, Flyway.class, EntityManagerFactory.class);
+	}
 
 }
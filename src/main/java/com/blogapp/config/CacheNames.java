@@ -0,0 +1,28 @@
+package com.blogapp.config;
+
+/**
+ * Names of the Spring caches, declared in {@code spring.cache.cache-names}.
+ * Entries are keyed by entity id and evicted through the
+ * {@link com.blogapp.invalidation.InvalidationBus}.
+ */
+public final class CacheNames {
+
+	// PostDTO by post id, including the post's user, category and comments.
+	public static final String POSTS = "posts";
+
+	// CategoryDTO by category id.
+	public static final String CATEGORIES = "categories";
+
+	// UserDTO by user id.
+	public static final String USERS = "users";
+
+	// Serialized getPostById response by post id, see JsonResponseCacheService. Not
+	// declared in spring.cache.cache-names, it is bounded by bytes (InvalidationConfig).
+	public static final String POST_JSON = "postJson";
+
+	// Serialized getAllCategories response, a single entry, like POST_JSON.
+	public static final String CATEGORY_LIST_JSON = "categoryListJson";
+
+	private CacheNames() {
+	}
+}
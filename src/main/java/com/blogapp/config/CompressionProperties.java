@@ -0,0 +1,36 @@
+package com.blogapp.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Settings of the gzip response compression, bound from
+ * {@code blogapp.compression.*}.
+ */
+@Component
+@ConfigurationProperties(prefix = "blogapp.compression")
+@Getter
+@Setter
+public class CompressionProperties {
+
+	private boolean enabled = true;
+
+	// Responses shorter than this many bytes go out uncompressed, gzip saves little on them.
+	private int minResponseSize = 1024;
+
+	// Content types that are compressed, parameters such as charset are ignored.
+	private List<String> mimeTypes = new ArrayList<>(List.of("application/json", "application/problem+json",
+			"text/plain", "text/html", "text/css", "application/javascript", "image/svg+xml"));
+
+	// Deflate level of responses compressed on every request, 1 (least CPU) to 9 (fewest bytes).
+	private int level = 4;
+
+	// Deflate level of cached responses, which are compressed once and served many times.
+	private int precompressedLevel = 9;
+}
@@ -0,0 +1,75 @@
+package com.blogapp.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.blogapp.datasource.ReplicaLagMonitor;
+import com.blogapp.datasource.ReplicaNode;
+import com.blogapp.datasource.ReplicaRoutingDataSource;
+import com.blogapp.datasource.WriteStickiness;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Replaces the single auto-configured data source with one that routes
+ * read-only transactions to the replicas listed under
+ * {@code blogapp.datasource.routing.replicas}. Only active when
+ * {@code blogapp.datasource.routing.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "blogapp.datasource.routing", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(DataSourceRoutingProperties.class)
+public class DataSourceRoutingConfig {
+
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+		HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		dataSource.setPoolName("primary");
+		return dataSource;
+	}
+
+	@Bean
+	public ReplicaLagMonitor replicaLagMonitor(DataSourceRoutingProperties properties) {
+		List<ReplicaNode> replicas = new ArrayList<>();
+		for (DataSourceRoutingProperties.Replica replica : properties.getReplicas()) {
+			String name = replica.getName() != null ? replica.getName() : "replica-" + replicas.size();
+			HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class).url(replica.getUrl())
+					.username(replica.getUsername()).password(replica.getPassword())
+					.driverClassName(replica.getDriverClassName()).build();
+			dataSource.setPoolName(name);
+			dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+			dataSource.setReadOnly(true);
+			// Matches spring.datasource.hikari.auto-commit=false, which hibernate is told to rely on.
+			dataSource.setAutoCommit(false);
+			replicas.add(new ReplicaNode(name, dataSource));
+		}
+		return new ReplicaLagMonitor(replicas, properties.getLagQuery(), properties.getMaxLagSeconds());
+	}
+
+	@Bean
+	public WriteStickiness writeStickiness(DataSourceRoutingProperties properties) {
+		return new WriteStickiness(properties.getStickinessMs());
+	}
+
+	@Bean
+	@Primary
+	public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaLagMonitor replicaLagMonitor,
+			WriteStickiness writeStickiness, DataSourceRoutingProperties properties) {
+		ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primaryDataSource,
+				replicaLagMonitor.getReplicas(), properties.getSelection(), writeStickiness);
+		routing.afterPropertiesSet();
+		return new LazyConnectionDataSourceProxy(routing);
+	}
+}
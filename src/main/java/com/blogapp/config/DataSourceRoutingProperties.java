@@ -0,0 +1,51 @@
+package com.blogapp.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Read replicas and routing settings, bound from
+ * {@code blogapp.datasource.routing.*}.
+ */
+@ConfigurationProperties(prefix = "blogapp.datasource.routing")
+@Getter
+@Setter
+public class DataSourceRoutingProperties {
+
+	public enum Selection {
+		ROUND_ROBIN, LEAST_LOADED
+	}
+
+	private boolean enabled = false;
+
+	private Selection selection = Selection.ROUND_ROBIN;
+
+	// Replicas lagging more than this are skipped until they catch up.
+	private long maxLagSeconds = 5;
+
+	// Query returning the replica lag in seconds; SHOW REPLICA STATUS is read from its Seconds_Behind_Source column.
+	private String lagQuery = "SHOW REPLICA STATUS";
+
+	private long lagCheckIntervalMs = 2000;
+
+	// After a client writes, its reads go to the primary for this long.
+	private long stickinessMs = 5000;
+
+	private List<Replica> replicas = new ArrayList<>();
+
+	@Getter
+	@Setter
+	public static class Replica {
+		private String name;
+		private String url;
+		private String username;
+		private String password;
+		private String driverClassName;
+		private int maximumPoolSize = 10;
+	}
+}
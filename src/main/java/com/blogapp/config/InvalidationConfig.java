@@ -0,0 +1,71 @@
+package com.blogapp.config;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.blogapp.invalidation.InMemoryInvalidationTransport;
+import com.blogapp.invalidation.InvalidationBus;
+import com.blogapp.invalidation.InvalidationTransport;
+import com.blogapp.invalidation.JdbcInvalidationTransport;
+import com.blogapp.services.JsonResponseCacheService;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Enables the entity caches and picks the transport of the invalidation bus
+ * from {@code blogapp.invalidation.transport}.
+ */
+@Configuration
+// The cache interceptor runs outside the transaction one, so a cache hit does not open a transaction.
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+@EnableConfigurationProperties(InvalidationProperties.class)
+public class InvalidationConfig {
+
+	// Decided at runtime rather than through a condition, which is fixed at build
+	// time in an AOT-processed application (see the cds-training profile).
+	@Bean
+	public InvalidationTransport invalidationTransport(InvalidationProperties properties, JdbcTemplate jdbcTemplate,
+			PlatformTransactionManager transactionManager) {
+		return switch (properties.getTransport()) {
+			case MEMORY -> new InMemoryInvalidationTransport(properties.getChannel());
+			case JDBC -> new JdbcInvalidationTransport(jdbcTemplate, new TransactionTemplate(transactionManager),
+					properties.getPollBatchSize(), properties.getGapTimeoutMs(), properties.getRetentionMinutes());
+		};
+	}
+
+	// Entries differ in size by orders of magnitude, so unlike the entity caches these
+	// are bounded by the bytes they hold rather than by a number of entries.
+	@Bean
+	public CacheManagerCustomizer<CaffeineCacheManager> jsonResponseCaches(
+			@Value("${blogapp.json-response-cache.max-size-mb:64}") long maxSizeMb,
+			@Value("${blogapp.json-response-cache.expire-after-write-ms:600000}") long expireAfterWriteMs) {
+		return cacheManager -> {
+			for (String cacheName : List.of(CacheNames.POST_JSON, CacheNames.CATEGORY_LIST_JSON)) {
+				cacheManager.registerCustomCache(cacheName, Caffeine.newBuilder()
+						.maximumWeight(maxSizeMb * 1024 * 1024)
+						.weigher((Object key, Object serialized) -> ((JsonResponseCacheService.SerializedResponse) serialized).size())
+						.expireAfterWrite(Duration.ofMillis(expireAfterWriteMs))
+						.recordStats()
+						.build());
+			}
+		};
+	}
+
+	// The bus has to subscribe and poll from startup, not from the first write.
+	@Bean
+	static LazyInitializationExcludeFilter eagerInvalidationBeans() {
+		return LazyInitializationExcludeFilter.forBeanTypes(InvalidationBus.class, InvalidationTransport.class);
+	}
+}
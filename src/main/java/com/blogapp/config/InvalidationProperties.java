@@ -0,0 +1,50 @@
+package com.blogapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Settings of the cache invalidation bus, bound from
+ * {@code blogapp.invalidation.*}.
+ */
+@ConfigurationProperties(prefix = "blogapp.invalidation")
+@Getter
+@Setter
+public class InvalidationProperties {
+
+	public enum Transport {
+		// Polls the cache_invalidation table, reaches every instance on the same database.
+		JDBC,
+		// Only reaches application contexts in the same JVM, for tests.
+		MEMORY
+	}
+
+	private Transport transport = Transport.JDBC;
+
+	// Identifies this instance on the bus; a random id per start when unset.
+	private String nodeId;
+
+	// Contexts using the in-memory transport only see events of the same channel.
+	private String channel = "default";
+
+	private long flushIntervalMs = 100;
+
+	// Pending events are sent right away once this many distinct ones are waiting.
+	private int maxBatchSize = 200;
+
+	// Past this many pending events they collapse into one clear per cache.
+	private int maxPending = 10000;
+
+	private long pollIntervalMs = 500;
+
+	private int pollBatchSize = 500;
+
+	// How long a skipped id is asked for again before it is taken for a rolled-back insert.
+	private long gapTimeoutMs = 10000;
+
+	private long retentionMinutes = 60;
+
+	private long purgeIntervalMs = 600000;
+}
@@ -0,0 +1,64 @@
+package com.blogapp.config;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Settings of the per-client rate limiter and the adaptive concurrency limiter,
+ * bound from {@code blogapp.ratelimit.*} and {@code blogapp.concurrency.*}.
+ */
+@Component
+@ConfigurationProperties(prefix = "blogapp")
+@Getter
+@Setter
+public class RateLimitProperties {
+
+	private RateLimit ratelimit = new RateLimit();
+
+	private Concurrency concurrency = new Concurrency();
+
+	@Getter
+	@Setter
+	public static class RateLimit {
+		private boolean enabled = true;
+		// Tokens a client can spend in a burst.
+		private long capacity = 100;
+		// Tokens given back to a client per second.
+		private double refillPerSecond = 20;
+		// Header carrying an API key; clients without a known one are keyed by IP address.
+		private String apiKeyHeader = "X-API-Key";
+		// Issued API keys, each gets a bucket of its own. Any other key is ignored, so made-up keys cannot buy fresh buckets.
+		private Set<String> apiKeys = new LinkedHashSet<>();
+		// Most clients tracked at once, the least recently seen are forgotten beyond it.
+		private long maxClients = 100_000;
+		// Use the first X-Forwarded-For address when running behind a trusted proxy.
+		private boolean trustForwardedFor = false;
+		// Cost per request by Ant path pattern, first match wins; unmatched requests cost 1.
+		private Map<String, Integer> costs = new LinkedHashMap<>();
+		// getAllPosts and getPostsByIds cost one extra token per this many requested rows.
+		private int pageSizeCostUnit = 10;
+	}
+
+	@Getter
+	@Setter
+	public static class Concurrency {
+		private boolean enabled = true;
+		private int initialLimit = 50;
+		private int minLimit = 5;
+		private int maxLimit = 200;
+		// Completions slower than this shrink the limit.
+		private long latencyThresholdMs = 500;
+		private double backoffRatio = 0.9;
+		private long cooldownMs = 1000;
+		// Shed new requests while more threads than this wait for a pooled connection.
+		private int maxPoolWaiters = 10;
+	}
+}
@@ -2,6 +2,8 @@ package com.blogapp.contollers;
 
 import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -10,10 +12,12 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import com.blogapp.dto.CategoryDTO;
 import com.blogapp.services.CategoryService;
+import com.blogapp.services.JsonResponseCacheService;
 import jakarta.validation.Valid;
 
 /**
@@ -28,6 +32,16 @@ public class CategoryController {
     @Autowired
     CategoryService categoryService;
 
+    // Autowiring the JsonResponseCacheService to serve the category list as pre-serialized bytes.
+    @Autowired
+    JsonResponseCacheService jsonResponseCacheService;
+
+    @Autowired
+    SerializedResponseWriter serializedResponseWriter;
+
+    @Value("${blogapp.json-response-cache.enabled:true}")
+    private boolean jsonResponseCacheEnabled;
+
     /**
      * Creates a new category.
      * @param categoryDTO The data transfer object containing category details.
@@ -72,10 +86,16 @@ public class CategoryController {
 
     /**
      * Retrieves all categories.
-     * @return ResponseEntity containing a list of all CategoryDTO and HTTP status.
+     * With blogapp.json-response-cache.enabled the list is written from cached, pre-serialized
+     * and precompressed bytes.
+     * @param acceptEncoding The Accept-Encoding header of the request.
+     * @return ResponseEntity containing a list of all CategoryDTO, or its JSON bytes, and HTTP status.
      */
     @GetMapping("/getAllCategories")
-    public ResponseEntity<List<CategoryDTO>> getAllCategories() {
+    public ResponseEntity<?> getAllCategories(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        if (jsonResponseCacheEnabled) {
+            return serializedResponseWriter.write(jsonResponseCacheService.getAllCategories(), acceptEncoding);
+        }
         return new ResponseEntity<List<CategoryDTO>>(categoryService.getAllCategories(), HttpStatus.OK);
     }
 }
@@ -3,20 +3,30 @@ package com.blogapp.contollers;
 
 import com.blogapp.dto.CommentDTO;
 import com.blogapp.services.CommentService;
+import com.blogapp.services.CommentStreamService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/comments")
 public class CommentController {
     @Autowired
     private CommentService commentService;
+    @Autowired
+    private CommentStreamService commentStreamService;
 
     @PostMapping("/createComment/{postId}")
     public ResponseEntity<CommentDTO>createComment(@RequestBody CommentDTO commentDTO,@PathVariable Integer postId){
         return ResponseEntity.ok(commentService.createComment(commentDTO, postId));
     }
+    //Server-Sent Events: comment-created and comment-deleted as they happen, post-deleted before the stream closes.
+    @GetMapping(value = "/stream/{postId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamComments(@PathVariable Integer postId){
+        return commentStreamService.subscribe(postId);
+    }
     @DeleteMapping("/deleteComment/{commentId}")
     public ResponseEntity<String> deleteComment(@PathVariable Integer commentId){
         commentService.deleteComment(commentId);
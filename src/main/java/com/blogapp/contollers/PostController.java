@@ -1,22 +1,39 @@
 package com.blogapp.contollers;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.List;
+import java.util.Locale;
 import com.blogapp.config.AppConstants;
+import com.blogapp.dto.PostBatchEntryDTO;
+import com.blogapp.dto.PostPageDTO;
 import com.blogapp.dto.PostRespose;
+import com.blogapp.dto.PostSummaryDTO;
+import com.blogapp.dto.SuggestionDTO;
+import com.blogapp.dto.TrendingPostDTO;
+import com.blogapp.exception.ResouceNotFoundException;
+import com.blogapp.filters.WarmupRequestToken;
+import com.blogapp.services.AutocompleteService;
+import com.blogapp.services.ExistenceFilterService;
+import com.blogapp.services.JsonResponseCacheService;
+import com.blogapp.services.PostArchiveService;
+import com.blogapp.services.PostPageService;
+import com.blogapp.services.RelatedPostsService;
+import com.blogapp.services.TrendingService;
+import com.blogapp.services.PostFeedService;
 import com.blogapp.services.FileService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.*;
 import com.blogapp.dto.PostDTO;
 import com.blogapp.services.PostService;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
 
 /**
  * This class acts as a controller for handling HTTP requests related to blog posts.
@@ -34,6 +51,48 @@ public class PostController {
 
     @Autowired
     FileService fileService;
+
+    // Autowiring the PostFeedService to serve the latest posts from memory.
+    @Autowired
+    PostFeedService postFeedService;
+
+    // Autowiring the AutocompleteService to suggest titles from memory.
+    @Autowired
+    AutocompleteService autocompleteService;
+
+    // Autowiring the TrendingService to count views and serve trending posts.
+    @Autowired
+    TrendingService trendingService;
+
+    // Autowiring the ExistenceFilterService to answer requests for missing posts and images from memory.
+    @Autowired
+    ExistenceFilterService existenceFilterService;
+
+    // Autowiring the JsonResponseCacheService to serve hot posts as pre-serialized bytes.
+    @Autowired
+    JsonResponseCacheService jsonResponseCacheService;
+
+    @Autowired
+    SerializedResponseWriter serializedResponseWriter;
+
+    // Autowiring the PostArchiveService to read archived posts when a request asks for them.
+    @Autowired
+    PostArchiveService postArchiveService;
+
+    // Autowiring the PostPageService to read a whole post page in one request.
+    @Autowired
+    PostPageService postPageService;
+
+    // Autowiring the RelatedPostsService to find related posts from memory.
+    @Autowired
+    RelatedPostsService relatedPostsService;
+
+    // Autowiring the WarmupRequestToken to tell the startup warm-up requests from real views.
+    @Autowired
+    WarmupRequestToken warmupRequestToken;
+
+    @Value("${blogapp.json-response-cache.enabled:true}")
+    private boolean jsonResponseCacheEnabled;
     
     /**
      * Creates a new post.
@@ -50,23 +109,52 @@ public class PostController {
     /**
      * Retrieves all posts created by a specific user.
      * @param userId The ID of the user whose posts are to be retrieved.
-     * @return ResponseEntity containing a list of PostDTO and HTTP status.
+     * @param fields Optional field names; without them each post is a PostSummaryDTO.
+     * @param includeArchived Whether archived posts follow the recent ones, as summaries only.
+     * @return ResponseEntity containing a list of posts and HTTP status.
      */
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<PostDTO>> getPostByUser(@PathVariable Integer userId) {
-        return new ResponseEntity<List<PostDTO>>(postService.getAllPostByUser(userId), HttpStatus.OK);
+    public ResponseEntity<List<?>> getPostByUser(@PathVariable Integer userId, @RequestParam(value = "fields", required = false) List<String> fields, @RequestParam(value = "includeArchived", defaultValue = "false", required = false) boolean includeArchived) {
+        requireSummariesForArchive(fields, includeArchived);
+        List<?> posts = fields == null ? postService.getAllPostByUser(userId, includeArchived) : postService.getAllPostByUser(userId, fields);
+        return new ResponseEntity<List<?>>(posts, HttpStatus.OK);
     }
     
     /**
      * Retrieves all posts in a specific category.
      * @param categoryId The ID of the category whose posts are to be retrieved.
-     * @return ResponseEntity containing a list of PostDTO and HTTP status.
+     * @param fields Optional field names; without them each post is a PostSummaryDTO.
+     * @param includeArchived Whether archived posts follow the recent ones, as summaries only.
+     * @return ResponseEntity containing a list of posts and HTTP status.
      */
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<List<PostDTO>> getPostByCategory(@PathVariable Integer categoryId) {
-        return new ResponseEntity<List<PostDTO>>(postService.getAllPostByCategoryId(categoryId), HttpStatus.OK);
+    public ResponseEntity<List<?>> getPostByCategory(@PathVariable Integer categoryId, @RequestParam(value = "fields", required = false) List<String> fields, @RequestParam(value = "includeArchived", defaultValue = "false", required = false) boolean includeArchived) {
+        requireSummariesForArchive(fields, includeArchived);
+        List<?> posts = fields == null ? postService.getAllPostByCategoryId(categoryId, includeArchived) : postService.getAllPostByCategoryId(categoryId, fields);
+        return new ResponseEntity<List<?>>(posts, HttpStatus.OK);
     }
     
+    /**
+     * Retrieves the newest posts across all categories, served from memory.
+     * @param limit The maximum number of posts to return.
+     * @return ResponseEntity containing a list of PostSummaryDTO and HTTP status.
+     */
+    @GetMapping("/latest")
+    public ResponseEntity<List<PostSummaryDTO>> getLatestPosts(@RequestParam(value = "limit", defaultValue = AppConstants.FEED_SIZE, required = false) Integer limit) {
+        return new ResponseEntity<List<PostSummaryDTO>>(postFeedService.getLatestPosts(limit), HttpStatus.OK);
+    }
+
+    /**
+     * Retrieves the newest posts of a category, served from memory.
+     * @param categoryId The ID of the category.
+     * @param limit The maximum number of posts to return.
+     * @return ResponseEntity containing a list of PostSummaryDTO and HTTP status.
+     */
+    @GetMapping("/category/{categoryId}/latest")
+    public ResponseEntity<List<PostSummaryDTO>> getLatestPostsByCategory(@PathVariable Integer categoryId, @RequestParam(value = "limit", defaultValue = AppConstants.FEED_SIZE, required = false) Integer limit) {
+        return new ResponseEntity<List<PostSummaryDTO>>(postFeedService.getLatestPostsByCategory(categoryId, limit), HttpStatus.OK);
+    }
+
     /**
      * Updates an existing post.
      * @param postDTO The data transfer object containing updated post details.
@@ -78,6 +166,17 @@ public class PostController {
        return new ResponseEntity<PostDTO>(postService.updatePost(postDTO, postId), HttpStatus.OK);
     }
     
+    /**
+     * Updates only the fields of a post that are present in the request body.
+     * @param postDTO The data transfer object containing the fields to change.
+     * @param postId The ID of the post to be updated.
+     * @return ResponseEntity containing the changed fields and HTTP status.
+     */
+    @PatchMapping("/patchPost/{postId}")
+    public ResponseEntity<PostDTO> patchPost(@RequestBody PostDTO postDTO, @PathVariable Integer postId) {
+        return new ResponseEntity<PostDTO>(postService.patchPost(postDTO, postId), HttpStatus.OK);
+    }
+
     /**
      * Deletes a post.
      * @param postId The ID of the post to be deleted.
@@ -90,40 +189,153 @@ public class PostController {
     }
     
     /**
-     * Retrieves all posts.
-     * @return ResponseEntity containing a list of all PostDTO and HTTP status.
+     * Retrieves a page of posts.
+     * @param fields Optional field names, e.g. fields=postId,title; the SQL then selects only those columns.
+     *               Without them each post is a PostSummaryDTO.
+     * @param includeArchived Whether the pages go on into the archived posts, as summaries only; requires sortBy date or postId.
+     * @return ResponseEntity containing a page of posts and HTTP status.
      */
     @GetMapping("/getAllPosts")
-    public ResponseEntity<PostRespose> getAllPosts(@RequestParam(value = "pageNumber", defaultValue = AppConstants.PAGE_NUMBER, required = false) Integer pageNumber, @RequestParam(value = "pageSize", defaultValue =AppConstants.PAGE_SIZE, required = false) Integer pageSize, @RequestParam(value = "sortBy",defaultValue =AppConstants.SORT_BY,required = false) String sortBy, @RequestParam(value = "sortDir",defaultValue =AppConstants.SORT_DIR,required = false) @PathVariable("sortDir") String sortDir) {
-        return new ResponseEntity<PostRespose>(postService.getAllPosts(pageNumber, pageSize,sortBy,sortDir), HttpStatus.OK);
+    public ResponseEntity<PostRespose<?>> getAllPosts(@RequestParam(value = "pageNumber", defaultValue = AppConstants.PAGE_NUMBER, required = false) Integer pageNumber, @RequestParam(value = "pageSize", defaultValue =AppConstants.PAGE_SIZE, required = false) Integer pageSize, @RequestParam(value = "sortBy",defaultValue =AppConstants.SORT_BY,required = false) String sortBy, @RequestParam(value = "sortDir",defaultValue =AppConstants.SORT_DIR,required = false) @PathVariable("sortDir") String sortDir, @RequestParam(value = "fields", required = false) List<String> fields, @RequestParam(value = "includeArchived", defaultValue = "false", required = false) boolean includeArchived) {
+        requireSummariesForArchive(fields, includeArchived);
+        PostRespose<?> posts = fields == null ? postService.getAllPosts(pageNumber, pageSize,sortBy,sortDir,includeArchived) : postService.getAllPosts(pageNumber, pageSize,sortBy,sortDir,fields);
+        return new ResponseEntity<PostRespose<?>>(posts, HttpStatus.OK);
     }
     
     /**
      * Retrieves a post by its ID.
+     * With blogapp.json-response-cache.enabled the body is written from cached, pre-serialized bytes,
+     * gzipped when the client accepts it, and 304 is returned when If-None-Match holds its ETag.
      * @param postId The ID of the post to be retrieved.
-     * @return ResponseEntity containing the PostDTO and HTTP status.
+     * @param acceptEncoding The Accept-Encoding header of the request.
+     * @param request The request, whose view is not counted when it is one of the startup warm-up requests.
+     * @param includeArchived Whether a post that is not among the recent posts is looked up in the archive.
+     * @return ResponseEntity containing the PostDTO, or its JSON bytes, and HTTP status.
      */
     @GetMapping("/getPostById/{postId}")
-    public ResponseEntity<PostDTO> getPostById(@PathVariable Integer postId) {
-        return new ResponseEntity<PostDTO>(postService.getPostById(postId), HttpStatus.OK);
+    public ResponseEntity<?> getPostById(@PathVariable Integer postId, @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding, HttpServletRequest request, @RequestParam(value = "includeArchived", defaultValue = "false", required = false) boolean includeArchived) {
+        if (!includeArchived) {
+            return getRecentPost(postId, acceptEncoding, request);
+        }
+        try {
+            return getRecentPost(postId, acceptEncoding, request);
+        } catch (ResouceNotFoundException e) {
+            //archived posts are not cached nor counted as views
+            return new ResponseEntity<PostDTO>(postArchiveService.getArchivedPost(postId), HttpStatus.OK);
+        }
+    }
+
+    private ResponseEntity<?> getRecentPost(Integer postId, String acceptEncoding, HttpServletRequest request) {
+        //checked before the cached, transactional service call, so a missing post costs no connection
+        if (!existenceFilterService.mightHavePost(postId)) {
+            throw new ResouceNotFoundException("Post with given ID " + postId + " not found!");
+        }
+        if (jsonResponseCacheEnabled) {
+            JsonResponseCacheService.SerializedResponse post = jsonResponseCacheService.getPost(postId);
+            if (!warmupRequestToken.matches(request)) {
+                trendingService.postViewed(postId);
+            }
+            return serializedResponseWriter.write(post, acceptEncoding);
+        }
+        PostDTO post = postService.getPostById(postId);
+        //counted here rather than in the service, whose cached calls do not run
+        if (!warmupRequestToken.matches(request)) {
+            trendingService.postViewed(postId);
+        }
+        return new ResponseEntity<PostDTO>(post, HttpStatus.OK);
+    }
+    /**
+     * Retrieves everything a post page shows: the post, its newest comments, the newest
+     * other posts of its author and of its category, and its related posts, read at the same time.
+     * @param postId The ID of the post.
+     * @param request The request, whose view is not counted when it is one of the startup warm-up requests.
+     * @return ResponseEntity containing the PostPageDTO, without the sections not read in time, and HTTP status.
+     */
+    @GetMapping("/getPostPage/{postId}")
+    public ResponseEntity<PostPageDTO> getPostPage(@PathVariable Integer postId, HttpServletRequest request) {
+        if (!existenceFilterService.mightHavePost(postId)) {
+            throw new ResouceNotFoundException("Post with given ID " + postId + " not found!");
+        }
+        PostPageDTO page = postPageService.getPostPage(postId);
+        if (!warmupRequestToken.matches(request)) {
+            trendingService.postViewed(postId);
+        }
+        return new ResponseEntity<PostPageDTO>(page, HttpStatus.OK);
+    }
+    /**
+     * Retrieves several posts at once, from the cache or with a single query for the rest.
+     * @param postIds The IDs of the posts, at most {@link AppConstants#MAX_BATCH_SIZE}.
+     * @return ResponseEntity containing one PostBatchEntryDTO per ID in request order, found or not, and HTTP status.
+     */
+    @GetMapping("/getPostsByIds")
+    public ResponseEntity<List<PostBatchEntryDTO>> getPostsByIds(@RequestParam("ids") List<Integer> postIds) {
+        if (postIds.isEmpty() || postIds.size() > AppConstants.MAX_BATCH_SIZE || postIds.contains(null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Between 1 and " + AppConstants.MAX_BATCH_SIZE + " post ids are expected");
+        }
+        return new ResponseEntity<List<PostBatchEntryDTO>>(postService.getPostsByIds(postIds), HttpStatus.OK);
+    }
+    /**
+     * Retrieves the posts with the most views and comments over a recent window, served from memory.
+     * @param window The window, hour or day.
+     * @param limit The maximum number of posts to return.
+     * @return ResponseEntity containing a list of TrendingPostDTO, highest score first, and HTTP status.
+     */
+    @GetMapping("/trending")
+    public ResponseEntity<List<TrendingPostDTO>> getTrendingPosts(@RequestParam(value = "window", defaultValue = "hour", required = false) String window, @RequestParam(value = "limit", defaultValue = AppConstants.TRENDING_SIZE, required = false) Integer limit) {
+        TrendingService.Window trendingWindow;
+        try {
+            trendingWindow = TrendingService.Window.valueOf(window.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown window " + window + ", expected hour or day");
+        }
+        return new ResponseEntity<List<TrendingPostDTO>>(trendingService.getTrendingPosts(trendingWindow, limit), HttpStatus.OK);
+    }
+
+    /**
+     * Retrieves the posts most similar in words to a post, found from memory.
+     * @param postId The ID of the post.
+     * @param limit The maximum number of posts to return.
+     * @return ResponseEntity containing a list of PostSummaryDTO, most similar first, and HTTP status.
+     */
+    @GetMapping("/getRelatedPosts/{postId}")
+    public ResponseEntity<List<PostSummaryDTO>> getRelatedPosts(@PathVariable Integer postId, @RequestParam(value = "limit", defaultValue = AppConstants.RELATED_SIZE, required = false) Integer limit) {
+        return new ResponseEntity<List<PostSummaryDTO>>(relatedPostsService.getRelatedPosts(postId, limit), HttpStatus.OK);
+    }
+
+    /**
+     * Suggests post and category titles for a partially typed query, served from memory.
+     * @param query The text typed so far.
+     * @param limit The maximum number of suggestions to return.
+     * @return ResponseEntity containing a list of SuggestionDTO, most popular first, and HTTP status.
+     */
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<SuggestionDTO>> autocomplete(@RequestParam("q") String query, @RequestParam(value = "limit", defaultValue = AppConstants.AUTOCOMPLETE_SIZE, required = false) Integer limit) {
+        return new ResponseEntity<List<SuggestionDTO>>(autocompleteService.suggest(query, limit), HttpStatus.OK);
     }
     @GetMapping("/getPostByTitle/{keyword}")
-    public  ResponseEntity<List<PostDTO>> searchPostByTitle(@PathVariable String keyword) {
-        return new ResponseEntity<List<PostDTO>>(postService.searchPostByKeyword(keyword), HttpStatus.OK);
+    public  ResponseEntity<List<?>> searchPostByTitle(@PathVariable String keyword, @RequestParam(value = "fields", required = false) List<String> fields) {
+        List<?> posts = fields == null ? postService.searchPostByKeyword(keyword) : postService.searchPostByKeyword(keyword, fields);
+        return new ResponseEntity<List<?>>(posts, HttpStatus.OK);
     }
     @PostMapping("/uploadImage/{postId}")
     public  ResponseEntity<PostDTO> uploadImage(@PathVariable Integer postId, @RequestParam MultipartFile image) throws IOException {
         String fileName = fileService.uploadFile(path, image);
-        PostDTO post = postService.getPostById(postId);
-        post.setImageName(fileName);
-        postService.updatePost(post, postId);
-        return new ResponseEntity<PostDTO>(post, HttpStatus.OK);
+        existenceFilterService.imageStored(fileName);
+        return new ResponseEntity<PostDTO>(postService.updatePostImage(postId, fileName), HttpStatus.OK);
+    }
+
+    private static void requireSummariesForArchive(List<String> fields, boolean includeArchived) {
+        if (fields != null && includeArchived) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Archived posts are listed as summaries only, without fields");
+        }
     }
 
     @GetMapping(value = "/downloadImage/{fileName}",produces = MediaType.IMAGE_JPEG_VALUE)
     public void downloadImage(@PathVariable String fileName, HttpServletResponse response) throws IOException {
-        InputStream resource = fileService.getResource(path, fileName);
+        if (!existenceFilterService.mightHaveImage(fileName)) {
+            throw new ResouceNotFoundException("Image " + fileName + " not found!");
+        }
         response.setContentType(MediaType.IMAGE_JPEG_VALUE);
-        StreamUtils.copy(resource, response.getOutputStream());
+        fileService.copyResource(path, fileName, response.getOutputStream());
     }
 }
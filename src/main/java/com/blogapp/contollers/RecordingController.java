@@ -0,0 +1,83 @@
+package com.blogapp.contollers;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.blogapp.dto.RecordingStatusDTO;
+import com.blogapp.services.RecordingService;
+
+/**
+ * This class acts as an admin controller for on-demand Java Flight Recorder
+ * recordings of the running instance. Recordings hold the environment and
+ * system properties of the process, so the controller only exists with
+ * {@code blogapp.jfr.endpoint.enabled=true} and is guarded by the
+ * {@link com.blogapp.filters.AdminTokenFilter}.
+ */
+@RestController
+@ConditionalOnProperty(name = "blogapp.jfr.endpoint.enabled", havingValue = "true")
+@RequestMapping("/api/admin/jfr")
+public class RecordingController {
+
+    // Autowiring the RecordingService to control the flight recorder.
+    @Autowired
+    private RecordingService recordingService;
+
+    /**
+     * Starts a bounded recording.
+     * @param maxAgeSeconds How long recorded data is kept.
+     * @param maxSizeMb How much recorded data is kept.
+     * @param durationSeconds After how long the recording stops on its own.
+     * @return ResponseEntity containing the RecordingStatusDTO and HTTP status.
+     */
+    @PostMapping("/start")
+    public ResponseEntity<RecordingStatusDTO> startRecording(@RequestParam(required = false) Long maxAgeSeconds,
+            @RequestParam(required = false) Long maxSizeMb, @RequestParam(required = false) Long durationSeconds) {
+        return new ResponseEntity<RecordingStatusDTO>(recordingService.startRecording(maxAgeSeconds, maxSizeMb, durationSeconds), HttpStatus.CREATED);
+    }
+
+    /**
+     * Stops the running recording.
+     * @return ResponseEntity containing the RecordingStatusDTO and HTTP status.
+     */
+    @PostMapping("/stop")
+    public ResponseEntity<RecordingStatusDTO> stopRecording() throws IOException {
+        return new ResponseEntity<RecordingStatusDTO>(recordingService.stopRecording(), HttpStatus.OK);
+    }
+
+    /**
+     * Retrieves the status of the current or last recording.
+     * @return ResponseEntity containing the RecordingStatusDTO and HTTP status.
+     */
+    @GetMapping("/status")
+    public ResponseEntity<RecordingStatusDTO> getStatus() {
+        return new ResponseEntity<RecordingStatusDTO>(recordingService.getStatus(), HttpStatus.OK);
+    }
+
+    /**
+     * Downloads the last stopped recording as a .jfr file.
+     * @return ResponseEntity containing the recording file and HTTP status.
+     */
+    @GetMapping("/download")
+    public ResponseEntity<Resource> downloadRecording() {
+        Path file = recordingService.getRecordingFile();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+        headers.setContentDisposition(ContentDisposition.attachment().filename(file.getFileName().toString()).build());
+        return new ResponseEntity<Resource>(new FileSystemResource(file), headers, HttpStatus.OK);
+    }
+}
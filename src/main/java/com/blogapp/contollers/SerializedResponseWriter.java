@@ -0,0 +1,42 @@
+package com.blogapp.contollers;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import com.blogapp.monitoring.CompressionMetrics;
+import com.blogapp.services.JsonResponseCacheService;
+import com.blogapp.utils.ContentEncodings;
+
+/**
+ * Turns cached, pre-serialized JSON into a response: the gzip copy when the
+ * client accepts it, the plain bytes otherwise. Each has its own ETag, which
+ * makes Spring answer a matching If-None-Match with 304, and byte[] bodies are
+ * copied to the response as they are, without a JSON converter.
+ */
+@Component
+class SerializedResponseWriter {
+
+    private final CompressionMetrics compressionMetrics;
+
+    SerializedResponseWriter(CompressionMetrics compressionMetrics) {
+        this.compressionMetrics = compressionMetrics;
+    }
+
+    /**
+     * @param response The cached response.
+     * @param acceptEncoding The Accept-Encoding header of the request.
+     * @return ResponseEntity containing the JSON or gzip bytes and HTTP status.
+     */
+    ResponseEntity<byte[]> write(JsonResponseCacheService.SerializedResponse response, String acceptEncoding) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (response.gzip() != null && ContentEncodings.acceptsGzip(acceptEncoding)) {
+            compressionMetrics.record(CompressionMetrics.PRECOMPRESSED, response.json().length, response.gzip().length);
+            return builder.eTag(response.gzipEtag()).header(HttpHeaders.CONTENT_ENCODING, "gzip").body(response.gzip());
+        }
+        return builder.eTag(response.etag()).body(response.json());
+    }
+}
@@ -13,6 +13,8 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import com.blogapp.dto.UserDTO;
+import com.blogapp.exception.ResouceNotFoundException;
+import com.blogapp.services.ExistenceFilterService;
 import com.blogapp.services.UserService;
 import jakarta.validation.Valid;
 
@@ -28,6 +30,10 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    // Autowiring the ExistenceFilterService to answer requests for missing users from memory.
+    @Autowired
+    private ExistenceFilterService existenceFilterService;
+
     /**
      * Creates a new user.
      * @param dto The data transfer object containing user details.
@@ -56,6 +62,10 @@ public class UserController {
      */
     @GetMapping("/getUserById/{id}")
     public ResponseEntity<UserDTO> getUserById(@Valid @PathVariable("id") Integer userId) {
+        //checked before the cached, transactional service call, so a missing user costs no connection
+        if (!existenceFilterService.mightHaveUser(userId)) {
+            throw new ResouceNotFoundException("User with id " + userId + " not found!!");
+        }
         return new ResponseEntity<UserDTO>(userService.getUserById(userId), HttpStatus.OK);
     }
 
@@ -0,0 +1,90 @@
+package com.blogapp.datasource;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Periodically measures replication lag on every replica and takes replicas
+ * that lag too far, or cannot be reached, out of the read rotation.
+ */
+@Slf4j
+public class ReplicaLagMonitor implements AutoCloseable {
+
+	private static final String LAG_COLUMN = "Seconds_Behind_Source";
+
+	private final List<ReplicaNode> replicas;
+
+	private final String lagQuery;
+
+	private final long maxLagSeconds;
+
+	public ReplicaLagMonitor(List<ReplicaNode> replicas, String lagQuery, long maxLagSeconds) {
+		this.replicas = replicas;
+		this.lagQuery = lagQuery;
+		this.maxLagSeconds = maxLagSeconds;
+	}
+
+	public List<ReplicaNode> getReplicas() {
+		return replicas;
+	}
+
+	@Scheduled(fixedDelayString = "${blogapp.datasource.routing.lag-check-interval-ms:2000}")
+	public void checkLag() {
+		for (ReplicaNode replica : replicas) {
+			boolean wasHealthy = replica.isHealthy();
+			try {
+				replica.markLag(queryLag(replica), maxLagSeconds);
+			} catch (SQLException e) {
+				replica.markUnavailable();
+			}
+			if (wasHealthy != replica.isHealthy()) {
+				log.atWarn().addKeyValue("replica", replica.getName()).addKeyValue("lagSeconds", replica.getLagSeconds())
+						.log(replica.isHealthy() ? "Replica back in rotation" : "Replica taken out of rotation");
+			}
+		}
+	}
+
+	// Returns -1 when the replica reports no lag value, i.e. replication is not running.
+	private long queryLag(ReplicaNode replica) throws SQLException {
+		try (Connection connection = replica.getDataSource().getConnection();
+				Statement statement = connection.createStatement();
+				ResultSet resultSet = statement.executeQuery(lagQuery)) {
+			if (!resultSet.next()) {
+				return -1;
+			}
+			int column = lagColumn(resultSet.getMetaData());
+			long lag = resultSet.getLong(column);
+			return resultSet.wasNull() ? -1 : lag;
+		}
+	}
+
+	private static int lagColumn(ResultSetMetaData metaData) throws SQLException {
+		for (int i = 1; i <= metaData.getColumnCount(); i++) {
+			if (LAG_COLUMN.equalsIgnoreCase(metaData.getColumnLabel(i))) {
+				return i;
+			}
+		}
+		return 1;
+	}
+
+	@Override
+	public void close() {
+		for (ReplicaNode replica : replicas) {
+			if (replica.getDataSource() instanceof AutoCloseable closeable) {
+				try {
+					closeable.close();
+				} catch (Exception e) {
+					log.atWarn().addKeyValue("replica", replica.getName()).log("Could not close replica pool");
+				}
+			}
+		}
+	}
+}
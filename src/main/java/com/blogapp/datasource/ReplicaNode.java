@@ -0,0 +1,63 @@
+package com.blogapp.datasource;
+
+import javax.sql.DataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+/**
+ * A read replica together with the health state kept by the lag monitor.
+ */
+public class ReplicaNode {
+
+	private final String name;
+
+	private final DataSource dataSource;
+
+	private volatile boolean healthy = true;
+
+	private volatile long lagSeconds;
+
+	public ReplicaNode(String name, DataSource dataSource) {
+		this.name = name;
+		this.dataSource = dataSource;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public DataSource getDataSource() {
+		return dataSource;
+	}
+
+	public boolean isHealthy() {
+		return healthy;
+	}
+
+	public long getLagSeconds() {
+		return lagSeconds;
+	}
+
+	void markLag(long lagSeconds, long maxLagSeconds) {
+		this.lagSeconds = lagSeconds;
+		this.healthy = lagSeconds >= 0 && lagSeconds <= maxLagSeconds;
+	}
+
+	void markUnavailable() {
+		this.lagSeconds = -1;
+		this.healthy = false;
+	}
+
+	/**
+	 * @return Connections currently borrowed from this replica's pool, 0 when
+	 *         the pool does not expose it.
+	 */
+	int getActiveConnections() {
+		if (dataSource instanceof HikariDataSource hikari) {
+			HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+			return pool == null ? 0 : pool.getActiveConnections();
+		}
+		return 0;
+	}
+}
@@ -0,0 +1,96 @@
+package com.blogapp.datasource;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.blogapp.config.DataSourceRoutingProperties.Selection;
+
+/**
+ * Sends read-only transactions to a healthy replica and everything else to the
+ * primary.
+ * <p>
+ * The read-only flag of a transaction is only known after the transaction
+ * manager has begun it, so this data source must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}
+ * which defers picking the target until the first statement runs.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+	public static final String PRIMARY = "primary";
+
+	private final List<ReplicaNode> replicas;
+
+	private final Selection selection;
+
+	private final WriteStickiness stickiness;
+
+	private final AtomicInteger cursor = new AtomicInteger();
+
+	public ReplicaRoutingDataSource(DataSource primary, List<ReplicaNode> replicas, Selection selection,
+			WriteStickiness stickiness) {
+		this.replicas = List.copyOf(replicas);
+		this.selection = selection;
+		this.stickiness = stickiness;
+		Map<Object, Object> targets = new HashMap<>();
+		targets.put(PRIMARY, primary);
+		for (ReplicaNode replica : replicas) {
+			targets.put(replica.getName(), replica.getDataSource());
+		}
+		setTargetDataSources(targets);
+		setDefaultTargetDataSource(primary);
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		String client = WriteStickiness.currentClient();
+		if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			if (TransactionSynchronizationManager.isActualTransactionActive()) {
+				stickiness.recordWrite(client);
+			}
+			return PRIMARY;
+		}
+		if (stickiness.isSticky(client)) {
+			return PRIMARY;
+		}
+		ReplicaNode replica = selectReplica();
+		return replica == null ? PRIMARY : replica.getName();
+	}
+
+	private ReplicaNode selectReplica() {
+		int size = replicas.size();
+		if (size == 0) {
+			return null;
+		}
+		if (selection == Selection.LEAST_LOADED) {
+			ReplicaNode best = null;
+			int bestLoad = Integer.MAX_VALUE;
+			for (ReplicaNode replica : replicas) {
+				int load = replica.getActiveConnections();
+				if (replica.isHealthy() && load < bestLoad) {
+					best = replica;
+					bestLoad = load;
+				}
+			}
+			return best;
+		}
+		int start = Math.floorMod(cursor.getAndIncrement(), size);
+		for (int i = 0; i < size; i++) {
+			ReplicaNode replica = replicas.get((start + i) % size);
+			if (replica.isHealthy()) {
+				return replica;
+			}
+		}
+		return null;
+	}
+
+	public List<ReplicaNode> getReplicas() {
+		return replicas;
+	}
+}
@@ -0,0 +1,59 @@
+package com.blogapp.datasource;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Remembers which clients wrote recently so that their next reads go to the
+ * primary and see their own writes even when the replicas lag behind.
+ */
+public class WriteStickiness {
+
+	private static final ThreadLocal<String> CURRENT_CLIENT = new ThreadLocal<>();
+
+	private final long stickinessNanos;
+
+	private final Map<String, Long> stickyUntil = new ConcurrentHashMap<>();
+
+	public WriteStickiness(long stickinessMs) {
+		this.stickinessNanos = TimeUnit.MILLISECONDS.toNanos(stickinessMs);
+	}
+
+	/**
+	 * Binds the client of the current request to this thread.
+	 */
+	public static void bindClient(String clientKey) {
+		CURRENT_CLIENT.set(clientKey);
+	}
+
+	public static void clearClient() {
+		CURRENT_CLIENT.remove();
+	}
+
+	public static String currentClient() {
+		return CURRENT_CLIENT.get();
+	}
+
+	public void recordWrite(String clientKey) {
+		if (clientKey != null) {
+			stickyUntil.put(clientKey, System.nanoTime() + stickinessNanos);
+		}
+	}
+
+	public boolean isSticky(String clientKey) {
+		if (clientKey == null) {
+			return false;
+		}
+		Long until = stickyUntil.get(clientKey);
+		return until != null && until - System.nanoTime() > 0;
+	}
+
+	@Scheduled(fixedDelayString = "${blogapp.datasource.routing.stickiness-ms:5000}")
+	public void evictExpired() {
+		long now = System.nanoTime();
+		stickyUntil.values().removeIf(until -> until - now <= 0);
+	}
+}
@@ -0,0 +1,22 @@
+package com.blogapp.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+// One requested id of a batch lookup, the post is left out when it was not found.
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PostBatchEntryDTO {
+    private Integer postId;
+    private boolean found;
+    private PostDTO post;
+}
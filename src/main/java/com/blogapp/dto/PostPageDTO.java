@@ -0,0 +1,25 @@
+package com.blogapp.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Everything a post page shows, read in one request. The post itself comes
+ * without its comments, which are in their own section. A section that could
+ * not be read in time is null and named in unavailable.
+ */
+@Getter
+@Setter
+@ToString
+public class PostPageDTO {
+    private PostDTO post;
+    private List<CommentDTO> comments;
+    private List<PostSummaryDTO> authorPosts;
+    private List<PostSummaryDTO> categoryPosts;
+    private List<PostSummaryDTO> relatedPosts;
+    private List<String> unavailable = new ArrayList<>();
+}
@@ -9,8 +9,8 @@ import java.util.List;
 @AllArgsConstructor
 @NoArgsConstructor
 @ToString
-public class PostRespose {
-    private List<PostDTO> posts;
+public class PostRespose<T> {
+    private List<T> posts;
     private int pageNumber;
     private int pageSize;
     private long totalElements;
@@ -0,0 +1,24 @@
+package com.blogapp.dto;
+
+import java.util.Date;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class PostSummaryDTO {
+    private Integer postId;
+    private String title;
+    private String excerpt;
+    private Date date;
+    private String authorName;
+    private String categoryTitle;
+    private String imageName;
+}
@@ -0,0 +1,25 @@
+package com.blogapp.dto;
+
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class RecordingStatusDTO {
+    private long recordingId;
+    private String state;
+    private Instant startTime;
+    private long maxAgeSeconds;
+    private long maxSizeBytes;
+    private long durationSeconds;
+    private String fileName;
+    private long fileSizeBytes;
+}
@@ -0,0 +1,22 @@
+package com.blogapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+// Immutable, instances are stored in the autocomplete index and compared by value.
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class SuggestionDTO {
+
+    public enum Type {
+        POST, CATEGORY
+    }
+
+    private final Type type;
+    private final Integer id;
+    private final String text;
+}
@@ -0,0 +1,18 @@
+package com.blogapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class TrendingPostDTO {
+    private PostSummaryDTO post;
+    // Views plus weighted comments over the window, estimated.
+    private long score;
+}
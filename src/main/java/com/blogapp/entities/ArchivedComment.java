@@ -0,0 +1,31 @@
+package com.blogapp.entities;
+
+import java.util.Date;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A comment of an archived post, archived with it and keeping its id.
+ */
+@Entity
+@Table(name = "comments_archive")
+@Getter
+@Setter
+@NoArgsConstructor
+public class ArchivedComment {
+
+	@Id
+	private Integer id;
+
+	@Column(nullable = false)
+	private Integer postId;
+
+	// The date of the post, which the table is partitioned by.
+	@Column(nullable = false)
+	private Date postDate;
+
+	private String content;
+}
@@ -0,0 +1,59 @@
+package com.blogapp.entities;
+
+import java.util.Date;
+
+import com.blogapp.config.AppConstants;
+import com.blogapp.utils.BodyCompressor;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A post moved out of the post table by the archiver, with its body in the
+ * same row. Rows are only written by the archiver's INSERT ... SELECT and
+ * never change afterwards. The user and category are plain ids: the archive
+ * has no foreign keys, see V6__post_archive.sql.
+ */
+@Entity
+@Table(name = "post_archive")
+@Getter
+@Setter
+@NoArgsConstructor
+public class ArchivedPost {
+
+	@Id
+	private Integer postId;
+
+	@Column(nullable = false)
+	private String title;
+
+	@Column(length = AppConstants.EXCERPT_LENGTH)
+	private String excerpt;
+
+	// Body of a post archived before its body was migrated to post_body.
+	@Column(name = "content")
+	private String legacyContent;
+
+	private String imageName;
+
+	@Column(nullable = false)
+	private Date date;
+
+	private Integer categoryId;
+
+	private Integer userId;
+
+	@Enumerated(EnumType.STRING)
+	@Column(length = 16)
+	private BodyCompressor.Codec bodyCodec;
+
+	private Integer bodyOriginalLength;
+
+	@Lob
+	private byte[] bodyData;
+
+	@Column(nullable = false)
+	private Date archivedAt;
+}
@@ -0,0 +1,71 @@
+package com.blogapp.entities;
+
+import java.util.Date;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * A change to a post or its comments, written in the same transaction as the
+ * change and delivered to the outbox handlers after it commits. Every type is
+ * keyed by the id of the post, so the events of a post are delivered in order.
+ */
+@Entity
+@Table(name = "outbox_event")
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+public class OutboxEvent {
+
+	public enum Type {
+		POST_CREATED,
+		POST_UPDATED,
+		POST_DELETED,
+		POST_IMAGE_CHANGED,
+		// Moved to the archive, so gone from the hot tables like a deleted post.
+		POST_ARCHIVED,
+		COMMENT_ADDED,
+		COMMENT_DELETED
+	}
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	// The instance that wrote the event, and delivers it.
+	@Column(nullable = false, length = 64)
+	private String origin;
+
+	@Enumerated(EnumType.STRING)
+	@Column(name = "event_type", nullable = false, length = 32)
+	private Type type;
+
+	// The ID of the post.
+	@Column(nullable = false)
+	private Integer aggregateId;
+
+	@Column(nullable = false)
+	private Date createdAt;
+
+	// Failed deliveries so far.
+	@Column(nullable = false)
+	private int attempts;
+
+	@Column(nullable = false)
+	private Date nextAttemptAt;
+
+	@Column(length = 512)
+	private String lastError;
+
+	public OutboxEvent(String origin, Type type, Integer aggregateId, Date createdAt) {
+		this.origin = origin;
+		this.type = type;
+		this.aggregateId = aggregateId;
+		this.createdAt = createdAt;
+		this.nextAttemptAt = createdAt;
+	}
+}
@@ -2,6 +2,8 @@ package com.blogapp.entities;
 
 import java.util.*;
 
+import com.blogapp.config.AppConstants;
+
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -22,7 +24,12 @@ public class Post {
 	private Integer postId;
 	@Column(nullable = false)
 	private String title;
-	private String content;
+	// Start of the body, the body itself is a PostBody.
+	@Column(length = AppConstants.EXCERPT_LENGTH)
+	private String excerpt;
+	// Body as stored before post_body existed, cleared once PostBodyService migrates it.
+	@Column(name = "content")
+	private String legacyContent;
 	private String imageName;
 	private Date date;
 	
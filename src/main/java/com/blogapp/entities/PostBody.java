@@ -0,0 +1,64 @@
+package com.blogapp.entities;
+
+import org.springframework.data.domain.Persistable;
+
+import com.blogapp.utils.BodyCompressor;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * The body of a post, kept out of the post row so that it is only read when a
+ * single post is requested. It shares the post's id.
+ */
+@Entity
+@Table(name = "post_body")
+@Getter
+@Setter
+@NoArgsConstructor
+public class PostBody implements Persistable<Integer> {
+
+	@Id
+	@Column(name = "post_id")
+	private Integer postId;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false, length = 16)
+	private BodyCompressor.Codec codec;
+
+	@Column(nullable = false)
+	private int originalLength;
+
+	@Lob
+	@Column(nullable = false)
+	private byte[] data;
+
+	// The id is assigned, so save() would otherwise select before every insert.
+	@Transient
+	private boolean isNew = true;
+
+	public PostBody(Integer postId, BodyCompressor.Compressed compressed) {
+		this.postId = postId;
+		this.codec = compressed.codec();
+		this.originalLength = compressed.originalLength();
+		this.data = compressed.data();
+	}
+
+	@Override
+	public Integer getId() {
+		return postId;
+	}
+
+	@Override
+	public boolean isNew() {
+		return isNew;
+	}
+
+	@PostLoad
+	@PostPersist
+	void markNotNew() {
+		isNew = false;
+	}
+}
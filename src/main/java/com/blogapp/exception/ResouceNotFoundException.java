@@ -1,14 +1,17 @@
 package com.blogapp.exception;
 
 
+/**
+ * Thrown when a requested entity or file does not exist, answered with 404 by
+ * GlobalExceptionHandler. Requests for missing ids are common and the trace is
+ * never logged, so none is captured.
+ */
 public class ResouceNotFoundException extends RuntimeException {
 	public ResouceNotFoundException() {
-		super();
-		// TODO Auto-generated constructor stub
+		this(null);
 	}
 
 	public ResouceNotFoundException(String message) {
-		super(message);
-		// TODO Auto-generated constructor stub
+		super(message, null, false, false);
 	}
 }
@@ -0,0 +1,61 @@
+package com.blogapp.filters;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Lets requests to {@code /api/admin/} through only with the configured
+ * {@code blogapp.admin.token} in the {@code X-Admin-Token} header. Without a
+ * configured token every admin request is refused. Requests are matched on
+ * their decoded path, as the controllers are. Runs after the rate limiter,
+ * so guessing the token costs tokens like any other request.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 15)
+public class AdminTokenFilter extends OncePerRequestFilter {
+
+	public static final String HEADER = "X-Admin-Token";
+
+	private final byte[] token;
+
+	private final ErrorResponseWriter errorResponseWriter;
+
+	public AdminTokenFilter(@Value("${blogapp.admin.token:}") String token, ErrorResponseWriter errorResponseWriter) {
+		this.token = StringUtils.hasText(token) ? token.getBytes(StandardCharsets.UTF_8) : null;
+		this.errorResponseWriter = errorResponseWriter;
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return !RequestPaths.lookupPath(request).startsWith("/api/admin/");
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		if (token == null) {
+			errorResponseWriter.write(request, response, HttpStatus.FORBIDDEN, "Admin endpoints are disabled");
+			return;
+		}
+		String sent = request.getHeader(HEADER);
+		if (sent == null || !MessageDigest.isEqual(token, sent.getBytes(StandardCharsets.UTF_8))) {
+			errorResponseWriter.write(request, response, HttpStatus.UNAUTHORIZED, "Missing or wrong " + HEADER);
+			return;
+		}
+		filterChain.doFilter(request, response);
+	}
+}
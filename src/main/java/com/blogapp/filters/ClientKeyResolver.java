@@ -0,0 +1,37 @@
+package com.blogapp.filters;
+
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import com.blogapp.config.RateLimitProperties;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Identifies the client behind a request: its API key when it sends one of
+ * the configured {@code blogapp.ratelimit.api-keys}, otherwise its IP address.
+ */
+@Component
+public class ClientKeyResolver {
+
+	private final RateLimitProperties properties;
+
+	public ClientKeyResolver(RateLimitProperties properties) {
+		this.properties = properties;
+	}
+
+	public String resolve(HttpServletRequest request) {
+		String apiKey = request.getHeader(properties.getRatelimit().getApiKeyHeader());
+		if (StringUtils.hasText(apiKey) && properties.getRatelimit().getApiKeys().contains(apiKey)) {
+			return "key:" + apiKey;
+		}
+		if (properties.getRatelimit().isTrustForwardedFor()) {
+			String forwardedFor = request.getHeader("X-Forwarded-For");
+			if (StringUtils.hasText(forwardedFor)) {
+				int comma = forwardedFor.indexOf(',');
+				return "ip:" + (comma < 0 ? forwardedFor : forwardedFor.substring(0, comma)).trim();
+			}
+		}
+		return "ip:" + request.getRemoteAddr();
+	}
+}
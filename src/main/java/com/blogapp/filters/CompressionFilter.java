@@ -0,0 +1,398 @@
+package com.blogapp.filters;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.blogapp.config.CompressionProperties;
+import com.blogapp.monitoring.CompressionMetrics;
+import com.blogapp.utils.ContentEncodings;
+import com.blogapp.utils.Gzip;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * gzips responses for clients that accept it, when their content type is one
+ * of {@code blogapp.compression.mime-types} and they are at least
+ * {@code min-response-size} bytes long.
+ * <p>
+ * Whether a response is compressed is decided when its body is first written:
+ * by its Content-Length when the handler set one, otherwise by buffering up to
+ * {@code min-response-size} bytes, so short bodies still go out as they are and
+ * with their length. Responses that already carry a Content-Encoding, such as
+ * the precompressed cache entries, are passed through untouched, as are server
+ * sent event streams, whose content type is not compressible, and responses
+ * written with non-blocking I/O.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 40)
+public class CompressionFilter extends OncePerRequestFilter {
+
+	private final CompressionProperties properties;
+
+	private final CompressionMetrics metrics;
+
+	private final Set<String> mimeTypes;
+
+	public CompressionFilter(CompressionProperties properties, CompressionMetrics metrics) {
+		this.properties = properties;
+		this.metrics = metrics;
+		this.mimeTypes = properties.getMimeTypes().stream().map(type -> type.trim().toLowerCase(Locale.ROOT))
+				.collect(Collectors.toUnmodifiableSet());
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return !properties.isEnabled() || "HEAD".equals(request.getMethod())
+				|| !ContentEncodings.acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		CompressingResponse compressing = new CompressingResponse(response);
+		filterChain.doFilter(request, compressing);
+		if (request.isAsyncStarted()) {
+			request.getAsyncContext().addListener(new AsyncListener() {
+				@Override
+				public void onComplete(AsyncEvent event) throws IOException {
+					compressing.finish();
+				}
+
+				@Override
+				public void onTimeout(AsyncEvent event) {
+				}
+
+				@Override
+				public void onError(AsyncEvent event) {
+				}
+
+				@Override
+				public void onStartAsync(AsyncEvent event) {
+				}
+			});
+		} else {
+			compressing.finish();
+		}
+	}
+
+	private final class CompressingResponse extends HttpServletResponseWrapper {
+
+		// Content-Length set by the handler, held back until it is known whether the body is compressed.
+		private long contentLength = -1;
+
+		private ServletOutputStream outputStream;
+
+		private PrintWriter writer;
+
+		// Body written before the decision, when the length was not known up front.
+		private ByteArrayOutputStream buffer;
+
+		// Where the body goes once decided: the response itself or the gzip stream.
+		private OutputStream target;
+
+		private GZIPOutputStream gzip;
+
+		private CountingOutputStream compressed;
+
+		private long originalBytes;
+
+		private boolean finished;
+
+		// The response's own stream once the handler asked for non-blocking writes.
+		private ServletOutputStream nonBlocking;
+
+		private CompressingResponse(HttpServletResponse response) {
+			super(response);
+		}
+
+		@Override
+		public void setContentLength(int len) {
+			setContentLengthLong(len);
+		}
+
+		@Override
+		public void setContentLengthLong(long len) {
+			if (target == null) {
+				contentLength = len;
+			} else if (gzip == null) {
+				super.setContentLengthLong(len);
+			}
+		}
+
+		@Override
+		public void setHeader(String name, String value) {
+			if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+				setContentLengthLong(value == null ? -1 : Long.parseLong(value));
+			} else {
+				super.setHeader(name, value);
+			}
+		}
+
+		@Override
+		public void addHeader(String name, String value) {
+			if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+				setContentLengthLong(Long.parseLong(value));
+			} else {
+				super.addHeader(name, value);
+			}
+		}
+
+		@Override
+		public void setIntHeader(String name, int value) {
+			if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+				setContentLengthLong(value);
+			} else {
+				super.setIntHeader(name, value);
+			}
+		}
+
+		@Override
+		public void addIntHeader(String name, int value) {
+			if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+				setContentLengthLong(value);
+			} else {
+				super.addIntHeader(name, value);
+			}
+		}
+
+		@Override
+		public ServletOutputStream getOutputStream() throws IOException {
+			if (writer != null) {
+				throw new IllegalStateException("getWriter() has already been called for this response");
+			}
+			return stream();
+		}
+
+		@Override
+		public PrintWriter getWriter() throws IOException {
+			if (writer == null) {
+				if (outputStream != null) {
+					throw new IllegalStateException("getOutputStream() has already been called for this response");
+				}
+				writer = new PrintWriter(new OutputStreamWriter(stream(), getCharacterEncoding()));
+			}
+			return writer;
+		}
+
+		@Override
+		public void flushBuffer() throws IOException {
+			if (writer != null) {
+				writer.flush();
+			}
+			// A buffered body stays buffered and the response uncommitted, message converters
+			// flush once they are done writing and its length is only known at the end.
+			if (target != null) {
+				target.flush();
+				super.flushBuffer();
+			}
+		}
+
+		@Override
+		public void resetBuffer() {
+			if (target == null && buffer != null) {
+				buffer.reset();
+			}
+			super.resetBuffer();
+		}
+
+		@Override
+		public void reset() {
+			if (target == null) {
+				buffer = null;
+				contentLength = -1;
+			}
+			super.reset();
+		}
+
+		private ServletOutputStream stream() {
+			if (outputStream == null) {
+				outputStream = new ServletOutputStream() {
+					@Override
+					public void write(int b) throws IOException {
+						CompressingResponse.this.write(new byte[] { (byte) b }, 0, 1);
+					}
+
+					@Override
+					public void write(byte[] b, int off, int len) throws IOException {
+						CompressingResponse.this.write(b, off, len);
+					}
+
+					@Override
+					public void flush() throws IOException {
+						if (target != null) {
+							target.flush();
+						}
+					}
+
+					@Override
+					public boolean isReady() {
+						return nonBlocking == null || nonBlocking.isReady();
+					}
+
+					@Override
+					public void setWriteListener(WriteListener writeListener) {
+						nonBlocking = nonBlocking();
+						nonBlocking.setWriteListener(writeListener);
+					}
+				};
+			}
+			return outputStream;
+		}
+
+		// A gzip stream writes whenever its deflater fills up, which a write listener cannot
+		// drive, so non-blocking responses are passed through uncompressed.
+		private ServletOutputStream nonBlocking() {
+			if (gzip != null) {
+				throw new IllegalStateException("Non-blocking writes requested after the response started compressing");
+			}
+			try {
+				if (target == null) {
+					passThrough();
+				}
+				return super.getOutputStream();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		private void write(byte[] b, int off, int len) throws IOException {
+			if (target == null && buffer == null) {
+				decideOnFirstWrite();
+			}
+			if (target == null) {
+				if (buffer.size() + len < properties.getMinResponseSize()) {
+					buffer.write(b, off, len);
+					return;
+				}
+				startCompressing();
+			}
+			if (gzip != null) {
+				originalBytes += len;
+			}
+			target.write(b, off, len);
+		}
+
+		private void decideOnFirstWrite() throws IOException {
+			if (!isCompressible()) {
+				passThrough();
+			} else if (contentLength >= 0) {
+				if (contentLength < properties.getMinResponseSize()) {
+					passThrough();
+				} else {
+					startCompressing();
+				}
+			} else {
+				buffer = new ByteArrayOutputStream(properties.getMinResponseSize());
+			}
+		}
+
+		private boolean isCompressible() {
+			int status = getStatus();
+			if (getHeader(HttpHeaders.CONTENT_ENCODING) != null || status < 200 || status == 204 || status == 304) {
+				return false;
+			}
+			String contentType = getContentType();
+			if (contentType == null) {
+				return false;
+			}
+			int parameters = contentType.indexOf(';');
+			String mimeType = parameters < 0 ? contentType : contentType.substring(0, parameters);
+			return mimeTypes.contains(mimeType.trim().toLowerCase(Locale.ROOT));
+		}
+
+		private void passThrough() throws IOException {
+			if (contentLength >= 0) {
+				super.setContentLengthLong(contentLength);
+			}
+			target = super.getOutputStream();
+			if (buffer != null) {
+				buffer.writeTo(target);
+				buffer = null;
+			}
+		}
+
+		private void startCompressing() throws IOException {
+			super.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+			if (getHeaders(HttpHeaders.VARY).stream().noneMatch(vary -> vary.toLowerCase(Locale.ROOT).contains("accept-encoding"))) {
+				super.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+			}
+			// The compressed body is not byte-for-byte the entity a strong ETag stands for.
+			String etag = getHeader(HttpHeaders.ETAG);
+			if (etag != null && !etag.startsWith("W/")) {
+				super.setHeader(HttpHeaders.ETAG, "W/" + etag);
+			}
+			compressed = new CountingOutputStream(super.getOutputStream());
+			gzip = Gzip.newOutputStream(compressed, properties.getLevel());
+			target = gzip;
+			if (buffer != null) {
+				originalBytes += buffer.size();
+				buffer.writeTo(gzip);
+				buffer = null;
+			}
+		}
+
+		private void finish() throws IOException {
+			if (finished) {
+				return;
+			}
+			finished = true;
+			if (writer != null) {
+				writer.flush();
+			}
+			if (target == null && buffer != null) {
+				// Never written past the threshold: sent as it is, with its length now that it is known.
+				contentLength = buffer.size();
+				passThrough();
+			} else if (target == null && contentLength >= 0) {
+				super.setContentLengthLong(contentLength);
+			} else if (gzip != null) {
+				gzip.finish();
+				metrics.record(CompressionMetrics.DYNAMIC, originalBytes, compressed.count);
+			}
+		}
+	}
+
+	private static final class CountingOutputStream extends FilterOutputStream {
+
+		private long count;
+
+		private CountingOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			count += len;
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package com.blogapp.filters;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.blogapp.config.RateLimitProperties;
+import com.blogapp.utils.AdaptiveConcurrencyLimiter;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Sheds load with a 503 when the instance is saturated: either more requests
+ * are in flight than the adaptive limit allows, or too many threads are
+ * already queued for a database connection.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+	private final RateLimitProperties.Concurrency properties;
+
+	private final AdaptiveConcurrencyLimiter limiter;
+
+	private final ErrorResponseWriter errorResponseWriter;
+
+	private final WarmupRequestToken warmupRequestToken;
+
+	private final DataSource dataSource;
+
+	private volatile HikariPoolMXBean pool;
+
+	public ConcurrencyLimitFilter(RateLimitProperties properties, ErrorResponseWriter errorResponseWriter,
+			DataSource dataSource, WarmupRequestToken warmupRequestToken) {
+		this.properties = properties.getConcurrency();
+		this.errorResponseWriter = errorResponseWriter;
+		this.warmupRequestToken = warmupRequestToken;
+		this.dataSource = dataSource;
+		this.limiter = new AdaptiveConcurrencyLimiter(this.properties.getInitialLimit(), this.properties.getMinLimit(),
+				this.properties.getMaxLimit(), TimeUnit.MILLISECONDS.toNanos(this.properties.getLatencyThresholdMs()),
+				this.properties.getBackoffRatio(), TimeUnit.MILLISECONDS.toNanos(this.properties.getCooldownMs()));
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return !properties.isEnabled() || !RequestPaths.lookupPath(request).startsWith("/api/")
+				|| warmupRequestToken.matches(request);
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		if (poolWaiters() > properties.getMaxPoolWaiters() || !limiter.tryAcquire()) {
+			response.setHeader("Retry-After", "1");
+			errorResponseWriter.write(request, response, HttpStatus.SERVICE_UNAVAILABLE, "Server is overloaded, try again later");
+			return;
+		}
+		long start = System.nanoTime();
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			long end = System.nanoTime();
+			limiter.release(end - start, end);
+		}
+	}
+
+	private int poolWaiters() {
+		HikariPoolMXBean pool = pool();
+		return pool == null ? 0 : pool.getThreadsAwaitingConnection();
+	}
+
+	// The pool is created on first use and may sit behind routing or lazy proxies, so it is unwrapped lazily.
+	private HikariPoolMXBean pool() {
+		HikariPoolMXBean current = pool;
+		if (current == null) {
+			try {
+				if (dataSource.isWrapperFor(HikariDataSource.class)) {
+					current = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+					pool = current;
+				}
+			} catch (SQLException e) {
+				return null;
+			}
+		}
+		return current;
+	}
+
+	public AdaptiveConcurrencyLimiter getLimiter() {
+		return limiter;
+	}
+}
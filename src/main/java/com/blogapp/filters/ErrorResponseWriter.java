@@ -0,0 +1,37 @@
+package com.blogapp.filters;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import com.blogapp.exception.ExceptionResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Writes the same {@link ExceptionResponse} body as the global exception
+ * handler, for requests rejected by a servlet filter before they reach MVC.
+ */
+@Component
+class ErrorResponseWriter {
+
+	private final ObjectMapper objectMapper;
+
+	ErrorResponseWriter(ObjectMapper objectMapper) {
+		this.objectMapper = objectMapper;
+	}
+
+	void write(HttpServletRequest request, HttpServletResponse response, HttpStatus status, String message)
+			throws IOException {
+		ExceptionResponse body = new ExceptionResponse(LocalDate.now(), message, "uri=" + request.getRequestURI(),
+				status.getReasonPhrase());
+		response.setStatus(status.value());
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		objectMapper.writeValue(response.getOutputStream(), body);
+	}
+}
@@ -0,0 +1,133 @@
+package com.blogapp.filters;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.blogapp.config.RateLimitProperties;
+import com.blogapp.utils.TokenBucket;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Per-client token-bucket rate limiter for the API. Each request spends a
+ * number of tokens from its client's bucket, weighted by how expensive the
+ * endpoint is, and gets a 429 with {@code Retry-After} when the bucket is empty.
+ * At most {@code max-clients} buckets are kept, so a flood of distinct clients
+ * cannot exhaust the heap. Endpoints and their costs are matched on the
+ * decoded request path, as the controllers are.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+	private static final String GET_ALL_POSTS = "/api/post/getAllPosts";
+
+	private static final String GET_POSTS_BY_IDS = "/api/post/getPostsByIds";
+
+	private final RateLimitProperties.RateLimit properties;
+
+	private final ClientKeyResolver clientKeyResolver;
+
+	private final ErrorResponseWriter errorResponseWriter;
+
+	private final WarmupRequestToken warmupRequestToken;
+
+	private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+	private final Cache<String, TokenBucket> buckets;
+
+	public RateLimitFilter(RateLimitProperties properties, ClientKeyResolver clientKeyResolver,
+			ErrorResponseWriter errorResponseWriter, WarmupRequestToken warmupRequestToken) {
+		this.properties = properties.getRatelimit();
+		this.clientKeyResolver = clientKeyResolver;
+		this.errorResponseWriter = errorResponseWriter;
+		this.warmupRequestToken = warmupRequestToken;
+		this.buckets = Caffeine.newBuilder().maximumSize(this.properties.getMaxClients()).build();
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return !properties.isEnabled() || !RequestPaths.lookupPath(request).startsWith("/api/")
+				|| warmupRequestToken.matches(request);
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		long now = System.nanoTime();
+		TokenBucket bucket = buckets.get(clientKeyResolver.resolve(request),
+				key -> new TokenBucket(properties.getCapacity(), properties.getRefillPerSecond(), now));
+		long waitNanos = bucket.tryAcquire(cost(request), now);
+		if (waitNanos > 0) {
+			response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos))));
+			errorResponseWriter.write(request, response, HttpStatus.TOO_MANY_REQUESTS, "Rate limit exceeded");
+			return;
+		}
+		filterChain.doFilter(request, response);
+	}
+
+	private int cost(HttpServletRequest request) {
+		String uri = RequestPaths.lookupPath(request);
+		int cost = 1;
+		for (Map.Entry<String, Integer> entry : properties.getCosts().entrySet()) {
+			if (pathMatcher.match(entry.getKey(), uri)) {
+				cost = entry.getValue();
+				break;
+			}
+		}
+		if (uri.equals(GET_ALL_POSTS)) {
+			cost += pageSize(request) / properties.getPageSizeCostUnit();
+		} else if (uri.equals(GET_POSTS_BY_IDS)) {
+			cost += idCount(request) / properties.getPageSizeCostUnit();
+		}
+		// A single request never costs more than a full bucket, otherwise it could never pass.
+		return (int) Math.min(cost, properties.getCapacity());
+	}
+
+	private static int pageSize(HttpServletRequest request) {
+		String pageSize = request.getParameter("pageSize");
+		if (pageSize == null) {
+			return 0;
+		}
+		try {
+			return Math.max(0, Integer.parseInt(pageSize));
+		} catch (NumberFormatException e) {
+			return 0;
+		}
+	}
+
+	// Ids may come comma separated, as repeated parameters or both.
+	private static int idCount(HttpServletRequest request) {
+		String[] values = request.getParameterValues("ids");
+		if (values == null) {
+			return 0;
+		}
+		int count = 0;
+		for (String value : values) {
+			count += value.split(",").length;
+		}
+		return count;
+	}
+
+	// Buckets that have refilled completely carry no state worth keeping.
+	@Scheduled(fixedDelayString = "${blogapp.ratelimit.cleanup-interval-ms:60000}")
+	void evictIdleBuckets() {
+		long now = System.nanoTime();
+		buckets.asMap().values().removeIf(bucket -> bucket.isIdle(now));
+	}
+}
@@ -0,0 +1,43 @@
+package com.blogapp.filters;
+
+import java.io.IOException;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.blogapp.datasource.WriteStickiness;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Binds the client of each request to the request thread, so that the routing
+ * data source can send a client's reads to the primary right after it wrote.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 30)
+@ConditionalOnProperty(prefix = "blogapp.datasource.routing", name = "enabled", havingValue = "true")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+	private final ClientKeyResolver clientKeyResolver;
+
+	public ReadYourWritesFilter(ClientKeyResolver clientKeyResolver) {
+		this.clientKeyResolver = clientKeyResolver;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		WriteStickiness.bindClient(clientKeyResolver.resolve(request));
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			WriteStickiness.clearClient();
+		}
+	}
+}
@@ -0,0 +1,21 @@
+package com.blogapp.filters;
+
+import org.springframework.web.util.UrlPathHelper;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * The path of a request as the handler mappings match it: decoded, without
+ * path parameters and without the context path. Filters that apply to part of
+ * the API match on it, since the raw request URI of {@code /api;x=1/admin/...}
+ * or {@code /api/%61dmin/...} reaches the same handler as {@code /api/admin/...}.
+ */
+final class RequestPaths {
+
+	private RequestPaths() {
+	}
+
+	static String lookupPath(HttpServletRequest request) {
+		return UrlPathHelper.defaultInstance.getLookupPathForRequest(request);
+	}
+}
@@ -0,0 +1,33 @@
+package com.blogapp.filters;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.UUID;
+
+import org.springframework.stereotype.Component;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Marks the synthetic requests the instance sends itself while warming up.
+ * The token is random per process, so only the warm-up can send it, and its
+ * requests are let past the rate and concurrency limits and are not counted
+ * as post views.
+ */
+@Component
+public class WarmupRequestToken {
+
+	public static final String HEADER = "X-Warmup-Token";
+
+	private final String value = UUID.randomUUID().toString();
+
+	public String value() {
+		return value;
+	}
+
+	public boolean matches(HttpServletRequest request) {
+		String token = request.getHeader(HEADER);
+		return token != null && MessageDigest.isEqual(value.getBytes(StandardCharsets.US_ASCII),
+				token.getBytes(StandardCharsets.US_ASCII));
+	}
+}
@@ -0,0 +1,51 @@
+package com.blogapp.invalidation;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.DisposableBean;
+
+/**
+ * Delivers batches to the other application contexts of the same JVM that use
+ * the same channel, synchronously on the publishing thread. Meant for tests
+ * that start several contexts to stand in for several instances.
+ */
+public class InMemoryInvalidationTransport implements InvalidationTransport, DisposableBean {
+
+	private static final Map<String, Map<String, Consumer<List<InvalidationEvent>>>> CHANNELS = new ConcurrentHashMap<>();
+
+	private final String channel;
+
+	private volatile String nodeId;
+
+	public InMemoryInvalidationTransport(String channel) {
+		this.channel = channel;
+	}
+
+	@Override
+	public void publish(String nodeId, List<InvalidationEvent> events) {
+		List<InvalidationEvent> batch = List.copyOf(events);
+		CHANNELS.getOrDefault(channel, Map.of()).forEach((subscriber, receiver) -> {
+			if (!subscriber.equals(nodeId)) {
+				receiver.accept(batch);
+			}
+		});
+	}
+
+	@Override
+	public void subscribe(String nodeId, Consumer<List<InvalidationEvent>> receiver) {
+		this.nodeId = nodeId;
+		CHANNELS.computeIfAbsent(channel, key -> new ConcurrentHashMap<>()).put(nodeId, receiver);
+	}
+
+	// A closed context must stop receiving, the registry outlives it.
+	@Override
+	public void destroy() {
+		Map<String, Consumer<List<InvalidationEvent>>> subscribers = CHANNELS.get(channel);
+		if (subscribers != null && nodeId != null) {
+			subscribers.remove(nodeId);
+		}
+	}
+}
@@ -0,0 +1,217 @@
+package com.blogapp.invalidation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.blogapp.config.CacheNames;
+import com.blogapp.config.InvalidationProperties;
+import com.blogapp.services.RequestCoalescingService;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the caches of every instance consistent with writes made on any of
+ * them.
+ * <p>
+ * Services publish an event for each entity they change. Once the surrounding
+ * transaction commits, the local caches are evicted right away and the event
+ * is queued; queued events are coalesced and sent as one batch through the
+ * {@link InvalidationTransport} every {@code flush-interval-ms}, or earlier
+ * when {@code max-batch-size} distinct events are waiting. Received batches
+ * evict the same caches and are then handed to the
+ * {@link InvalidationListener} beans.
+ * <p>
+ * A read that loaded an entity before a concurrent write committed can still
+ * put the old value in the cache after the eviction; the cache expiry bounds
+ * how long such an entry lives.
+ */
+@Component
+@Slf4j
+public class InvalidationBus {
+
+	private final InvalidationTransport transport;
+
+	private final CacheManager cacheManager;
+
+	private final ObjectProvider<InvalidationListener> listeners;
+
+	private final InvalidationProperties properties;
+
+	private final RequestCoalescingService requestCoalescingService;
+
+	private final String nodeId;
+
+	// Committed events waiting for the next flush. Guarded by itself.
+	private final Set<InvalidationEvent> pending = new LinkedHashSet<>();
+
+	public InvalidationBus(InvalidationTransport transport, CacheManager cacheManager,
+			ObjectProvider<InvalidationListener> listeners, InvalidationProperties properties,
+			RequestCoalescingService requestCoalescingService) {
+		this.transport = transport;
+		this.cacheManager = cacheManager;
+		this.listeners = listeners;
+		this.properties = properties;
+		this.requestCoalescingService = requestCoalescingService;
+		this.nodeId = properties.getNodeId() != null ? properties.getNodeId() : UUID.randomUUID().toString();
+	}
+
+	@PostConstruct
+	void subscribe() {
+		transport.subscribe(nodeId, this::receive);
+	}
+
+	/**
+	 * Publishes a change to an entity, after commit when a transaction is active.
+	 *
+	 * @param type The type of the changed entity.
+	 * @param id The ID of the changed entity, or null for all of them.
+	 */
+	public void publish(InvalidationEvent.Type type, Integer id) {
+		InvalidationEvent event = new InvalidationEvent(type, id);
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					committed(event);
+				}
+			});
+		} else {
+			committed(event);
+		}
+	}
+
+	/**
+	 * Sends the pending events as one batch. A failed batch is queued again.
+	 */
+	@Scheduled(fixedDelayString = "${blogapp.invalidation.flush-interval-ms:100}")
+	public void flush() {
+		List<InvalidationEvent> batch;
+		synchronized (pending) {
+			if (pending.isEmpty()) {
+				return;
+			}
+			batch = new ArrayList<>(pending);
+			pending.clear();
+		}
+		try {
+			transport.publish(nodeId, batch);
+			log.atDebug().addKeyValue("events", batch.size()).log("Cache invalidations published");
+		} catch (RuntimeException e) {
+			log.atWarn().addKeyValue("events", batch.size()).addKeyValue("error", e.getMessage())
+					.log("Could not publish cache invalidations, retrying");
+			synchronized (pending) {
+				batch.forEach(this::enqueue);
+			}
+		}
+	}
+
+	public String getNodeId() {
+		return nodeId;
+	}
+
+	private void committed(InvalidationEvent event) {
+		evict(List.of(event));
+		boolean full;
+		synchronized (pending) {
+			enqueue(event);
+			full = pending.size() >= properties.getMaxBatchSize();
+		}
+		if (full) {
+			flush();
+		}
+	}
+
+	// Must hold the pending lock. Past max-pending, e.g. while the transport is down,
+	// the queue collapses into one type-wide event per type so it stays bounded.
+	private void enqueue(InvalidationEvent event) {
+		coalesce(pending, event);
+		if (pending.size() > properties.getMaxPending()) {
+			Set<InvalidationEvent.Type> types = new LinkedHashSet<>();
+			pending.forEach(queued -> types.add(queued.type()));
+			pending.clear();
+			types.forEach(type -> pending.add(InvalidationEvent.all(type)));
+		}
+	}
+
+	private void receive(List<InvalidationEvent> events) {
+		Set<InvalidationEvent> batch = new LinkedHashSet<>();
+		events.forEach(event -> coalesce(batch, event));
+		evict(batch);
+		listeners.orderedStream().forEach(listener -> {
+			try {
+				listener.onRemoteInvalidation(batch);
+			} catch (RuntimeException e) {
+				log.atWarn().addKeyValue("listener", listener.getClass().getSimpleName())
+						.addKeyValue("error", e.getMessage()).log("Invalidation listener failed");
+			}
+		});
+		log.atDebug().addKeyValue("received", events.size()).addKeyValue("events", batch.size())
+				.log("Cache invalidations applied");
+	}
+
+	// Post DTOs embed their category and user, so a change to either reaches every cached post.
+	private void evict(Collection<InvalidationEvent> events) {
+		for (InvalidationEvent event : events) {
+			switch (event.type()) {
+				case POST -> evictPosts(event.id());
+				case CATEGORY -> {
+					evict(CacheNames.CATEGORIES, event.id());
+					evict(CacheNames.CATEGORY_LIST_JSON, null);
+					evictPosts(null);
+				}
+				case USER -> {
+					evict(CacheNames.USERS, event.id());
+					evictPosts(null);
+				}
+				case CATEGORY_LIST -> evict(CacheNames.CATEGORY_LIST_JSON, null);
+			}
+		}
+	}
+
+	// The serialized responses are made from the post DTOs and go with them. Loads already
+	// running may have read the post before the change, later reads must not join them.
+	private void evictPosts(Integer id) {
+		evict(CacheNames.POSTS, id);
+		evict(CacheNames.POST_JSON, id);
+		requestCoalescingService.postsChanged(id);
+	}
+
+	private void evict(String cacheName, Integer id) {
+		Cache cache = cacheManager.getCache(cacheName);
+		if (cache == null) {
+			return;
+		}
+		if (id == null) {
+			cache.invalidate();
+		} else {
+			cache.evictIfPresent(id);
+		}
+	}
+
+	/**
+	 * Adds an event to a set of events, dropping duplicates and events already
+	 * covered by a type-wide event.
+	 */
+	static void coalesce(Set<InvalidationEvent> events, InvalidationEvent event) {
+		if (events.contains(InvalidationEvent.all(event.type()))) {
+			return;
+		}
+		if (event.isTypeWide()) {
+			events.removeIf(queued -> queued.type() == event.type());
+		}
+		events.add(event);
+	}
+}
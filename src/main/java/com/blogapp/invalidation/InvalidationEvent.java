@@ -0,0 +1,26 @@
+package com.blogapp.invalidation;
+
+/**
+ * Tells every instance that cached data about an entity changed. A null id
+ * stands for every entity of the type.
+ */
+public record InvalidationEvent(Type type, Integer id) {
+
+	/**
+	 * Entities with cached representations. Comments are cached as part of
+	 * their post, so a comment change is published as a {@link #POST} event.
+	 * A {@link #CATEGORY_LIST} event carries a category that was created: only
+	 * the list of categories changed, no cached category or post mentions it.
+	 */
+	public enum Type {
+		POST, CATEGORY, USER, CATEGORY_LIST
+	}
+
+	public static InvalidationEvent all(Type type) {
+		return new InvalidationEvent(type, null);
+	}
+
+	public boolean isTypeWide() {
+		return id == null;
+	}
+}
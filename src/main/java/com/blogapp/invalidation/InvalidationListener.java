@@ -0,0 +1,17 @@
+package com.blogapp.invalidation;
+
+import java.util.Collection;
+
+/**
+ * Implemented by beans that keep in-memory state other than the Spring caches
+ * and need to refresh it when another instance changes data.
+ */
+public interface InvalidationListener {
+
+	/**
+	 * Called once per received batch, after the caches were evicted.
+	 *
+	 * @param events The coalesced events published by another instance.
+	 */
+	void onRemoteInvalidation(Collection<InvalidationEvent> events);
+}
@@ -0,0 +1,29 @@
+package com.blogapp.invalidation;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Carries batches of invalidation events between instances. A batch published
+ * by a node is delivered to every other subscribed node, never back to itself.
+ * Delivery is at least once: receivers must tolerate duplicates, which
+ * evictions do.
+ */
+public interface InvalidationTransport {
+
+	/**
+	 * Sends a batch to the other nodes.
+	 *
+	 * @param nodeId The publishing node, whose own receiver is skipped.
+	 * @param events The coalesced batch.
+	 */
+	void publish(String nodeId, List<InvalidationEvent> events);
+
+	/**
+	 * Registers the receiver of a node. Each node subscribes once.
+	 *
+	 * @param nodeId The subscribing node.
+	 * @param receiver Called with each batch published by another node.
+	 */
+	void subscribe(String nodeId, Consumer<List<InvalidationEvent>> receiver);
+}
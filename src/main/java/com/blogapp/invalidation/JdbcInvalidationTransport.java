@@ -0,0 +1,181 @@
+package com.blogapp.invalidation;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Shares invalidation events through the {@code cache_invalidation} table.
+ * Publishing inserts one row per event; every node polls for rows with a
+ * higher id than the last it has seen and skips the rows it wrote itself.
+ * <p>
+ * Auto-increment ids are assigned at insert but become visible at commit, so
+ * a slow transaction can commit a lower id after a higher one was read. Ids
+ * skipped over this way are remembered and asked for again on the following
+ * polls, until they show up or {@code gapTimeoutMs} passes, which is what a
+ * rolled-back insert looks like. Ids beyond the first {@value #MAX_GAPS} gaps
+ * are not followed; the receiver gets a type-wide event of every type instead.
+ */
+@Slf4j
+public class JdbcInvalidationTransport implements InvalidationTransport {
+
+	private static final String INSERT = "INSERT INTO cache_invalidation (origin, entity_type, entity_id, created_at) VALUES (?, ?, ?, ?)";
+
+	private static final String SELECT = "SELECT id, origin, entity_type, entity_id FROM cache_invalidation";
+
+	// Keeps the IN list of the gap query bounded after a burst of rollbacks.
+	private static final int MAX_GAPS = 1000;
+
+	private static final RowMapper<Row> ROW_MAPPER = (rs, rowNum) -> new Row(rs.getLong("id"), rs.getString("origin"),
+			new InvalidationEvent(InvalidationEvent.Type.valueOf(rs.getString("entity_type")),
+					(Integer) rs.getObject("entity_id", Integer.class)));
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final int pollBatchSize;
+
+	private final long gapTimeoutMs;
+
+	private final long retentionMs;
+
+	private volatile String nodeId;
+
+	private volatile Consumer<List<InvalidationEvent>> receiver;
+
+	// Guarded by this; -1 until the first poll starts from the current end of the table.
+	private long lastSeenId = -1;
+
+	// Unseen ids below lastSeenId, mapped to the time they were first missed. Guarded by this.
+	private final Map<Long, Long> gaps = new LinkedHashMap<>();
+
+	public JdbcInvalidationTransport(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+			int pollBatchSize, long gapTimeoutMs, long retentionMinutes) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = transactionTemplate;
+		this.pollBatchSize = pollBatchSize;
+		this.gapTimeoutMs = gapTimeoutMs;
+		this.retentionMs = TimeUnit.MINUTES.toMillis(retentionMinutes);
+	}
+
+	@Override
+	public void publish(String nodeId, List<InvalidationEvent> events) {
+		Timestamp now = new Timestamp(System.currentTimeMillis());
+		// Pooled connections have auto-commit off, so the insert needs a transaction to be kept.
+		transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT, events, events.size(),
+				(ps, event) -> {
+					ps.setString(1, nodeId);
+					ps.setString(2, event.type().name());
+					ps.setObject(3, event.id());
+					ps.setTimestamp(4, now);
+				}));
+	}
+
+	@Override
+	public void subscribe(String nodeId, Consumer<List<InvalidationEvent>> receiver) {
+		this.nodeId = nodeId;
+		this.receiver = receiver;
+	}
+
+	@Scheduled(fixedDelayString = "${blogapp.invalidation.poll-interval-ms:500}")
+	public void poll() {
+		Consumer<List<InvalidationEvent>> current = receiver;
+		if (current == null) {
+			return;
+		}
+		List<InvalidationEvent> events;
+		try {
+			events = fetch();
+		} catch (DataAccessException e) {
+			log.atWarn().addKeyValue("error", e.getMessage()).log("Could not poll cache invalidations");
+			return;
+		}
+		if (!events.isEmpty()) {
+			current.accept(events);
+		}
+	}
+
+	private synchronized List<InvalidationEvent> fetch() {
+		if (lastSeenId < 0) {
+			// Caches start empty, so nothing written before this node started needs replaying.
+			Long maxId = transactionTemplate.execute(status -> jdbcTemplate
+					.queryForObject("SELECT COALESCE(MAX(id), 0) FROM cache_invalidation", Long.class));
+			lastSeenId = maxId == null ? 0 : maxId;
+			return List.of();
+		}
+		List<Long> missing = new ArrayList<>(gaps.keySet());
+		List<Row> rows = transactionTemplate.execute(status -> {
+			List<Row> found = new ArrayList<>();
+			if (!missing.isEmpty()) {
+				String in = String.join(", ", Collections.nCopies(missing.size(), "?"));
+				found.addAll(jdbcTemplate.query(SELECT + " WHERE id IN (" + in + ")", ROW_MAPPER, missing.toArray()));
+			}
+			found.addAll(jdbcTemplate.query(SELECT + " WHERE id > ? ORDER BY id LIMIT ?", ROW_MAPPER, lastSeenId,
+					pollBatchSize));
+			return found;
+		});
+		long now = System.currentTimeMillis();
+		List<InvalidationEvent> events = new ArrayList<>();
+		long dropped = 0;
+		for (Row row : rows) {
+			if (row.id() > lastSeenId) {
+				long id = lastSeenId + 1;
+				for (; id < row.id() && gaps.size() < MAX_GAPS; id++) {
+					gaps.put(id, now);
+				}
+				dropped += row.id() - id;
+				lastSeenId = row.id();
+			} else {
+				gaps.remove(row.id());
+			}
+			if (!row.origin().equals(nodeId)) {
+				events.add(row.event());
+			}
+		}
+		for (Iterator<Long> firstMissed = gaps.values().iterator(); firstMissed.hasNext();) {
+			if (now - firstMissed.next() > gapTimeoutMs) {
+				firstMissed.remove();
+			}
+		}
+		if (dropped > 0) {
+			// The events of the dropped ids are unknown, so every cached entity may be stale.
+			log.atWarn().addKeyValue("ids", dropped).addKeyValue("maxGaps", MAX_GAPS)
+					.log("Too many cache invalidations missed, invalidating every entity type");
+			for (InvalidationEvent.Type type : InvalidationEvent.Type.values()) {
+				events.add(InvalidationEvent.all(type));
+			}
+		}
+		return events;
+	}
+
+	// Every node purges, the delete is idempotent and rows are only needed for a few poll intervals.
+	@Scheduled(fixedDelayString = "${blogapp.invalidation.purge-interval-ms:600000}")
+	public void purge() {
+		Timestamp cutoff = new Timestamp(System.currentTimeMillis() - retentionMs);
+		try {
+			Integer deleted = transactionTemplate.execute(
+					status -> jdbcTemplate.update("DELETE FROM cache_invalidation WHERE created_at < ?", cutoff));
+			log.atDebug().addKeyValue("rows", deleted).log("Old cache invalidations purged");
+		} catch (DataAccessException e) {
+			log.atWarn().addKeyValue("error", e.getMessage()).log("Could not purge cache invalidations");
+		}
+	}
+
+	private record Row(long id, String origin, InvalidationEvent event) {
+	}
+}
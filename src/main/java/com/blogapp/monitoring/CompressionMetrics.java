@@ -0,0 +1,65 @@
+package com.blogapp.monitoring;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Meters of the gzip response compression, by source: {@code dynamic} for
+ * responses compressed while they are written, {@code precompressed} for
+ * cached bytes compressed once and served as they are.
+ * <p>
+ * {@code blogapp.compression.ratio} is compressed over original size per
+ * response; the two byte counters give the overall ratio and the bandwidth
+ * saved.
+ */
+@Component
+public class CompressionMetrics {
+
+	public static final String DYNAMIC = "dynamic";
+
+	public static final String PRECOMPRESSED = "precompressed";
+
+	private final Source dynamic;
+
+	private final Source precompressed;
+
+	public CompressionMetrics(MeterRegistry registry) {
+		this.dynamic = new Source(registry, DYNAMIC);
+		this.precompressed = new Source(registry, PRECOMPRESSED);
+	}
+
+	/**
+	 * @param source          {@link #DYNAMIC} or {@link #PRECOMPRESSED}.
+	 * @param originalBytes   Size of the response before compression.
+	 * @param compressedBytes Size of the response that was sent.
+	 */
+	public void record(String source, long originalBytes, long compressedBytes) {
+		Source meters = PRECOMPRESSED.equals(source) ? precompressed : dynamic;
+		meters.original.increment(originalBytes);
+		meters.compressed.increment(compressedBytes);
+		if (originalBytes > 0) {
+			meters.ratio.record((double) compressedBytes / originalBytes);
+		}
+	}
+
+	private static final class Source {
+
+		private final Counter original;
+
+		private final Counter compressed;
+
+		private final DistributionSummary ratio;
+
+		private Source(MeterRegistry registry, String source) {
+			this.original = Counter.builder("blogapp.compression.original").baseUnit("bytes").tag("source", source)
+					.register(registry);
+			this.compressed = Counter.builder("blogapp.compression.compressed").baseUnit("bytes").tag("source", source)
+					.register(registry);
+			this.ratio = DistributionSummary.builder("blogapp.compression.ratio").tag("source", source)
+					.publishPercentiles(0.5, 0.9).register(registry);
+		}
+	}
+}
@@ -0,0 +1,49 @@
+package com.blogapp.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event emitted around image reads and writes in the file service.
+ */
+@Name("com.blogapp.FileIo")
+@Label("Image File I/O")
+@Category({ "Blog App", "File" })
+@Description("An image upload or download handled by the file service")
+@StackTrace(false)
+public class FileIoEvent extends Event {
+
+	@Label("Operation")
+	String operation;
+
+	@Label("File Name")
+	String fileName;
+
+	@Label("Bytes")
+	@DataAmount
+	long bytes;
+
+	@Label("Failed")
+	boolean failed;
+
+	public void setOperation(String operation) {
+		this.operation = operation;
+	}
+
+	public void setFileName(String fileName) {
+		this.fileName = fileName;
+	}
+
+	public void setBytes(long bytes) {
+		this.bytes = bytes;
+	}
+
+	public void setFailed(boolean failed) {
+		this.failed = failed;
+	}
+}
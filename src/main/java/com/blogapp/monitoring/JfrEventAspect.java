@@ -0,0 +1,121 @@
+package com.blogapp.monitoring;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import com.blogapp.dto.PostRespose;
+
+/**
+ * Wraps service implementations and Spring Data repositories in JFR events.
+ * When no recording has the events enabled the advice only pays for an
+ * {@code isEnabled()} check.
+ */
+@Aspect
+@Component
+public class JfrEventAspect {
+
+	private static final String REPOSITORY_PACKAGE = "com.blogapp.repositories";
+
+	// Repository proxies are JDK proxies, so the interface name is resolved once per proxy class.
+	private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+
+	@Around("within(com.blogapp.serviceImpl..*) && execution(public * *(..))")
+	public Object recordServiceCall(ProceedingJoinPoint joinPoint) throws Throwable {
+		ServiceCallEvent event = new ServiceCallEvent();
+		if (!event.isEnabled()) {
+			return joinPoint.proceed();
+		}
+		event.begin();
+		try {
+			Object result = joinPoint.proceed();
+			event.rowCount = rowCount(result);
+			return result;
+		} catch (Throwable ex) {
+			event.failed = true;
+			throw ex;
+		} finally {
+			event.end();
+			if (event.shouldCommit()) {
+				event.service = joinPoint.getSignature().getDeclaringType().getSimpleName();
+				event.method = joinPoint.getSignature().getName();
+				event.entityId = entityId(joinPoint.getArgs());
+				event.commit();
+			}
+		}
+	}
+
+	@Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+	public Object recordRepositoryQuery(ProceedingJoinPoint joinPoint) throws Throwable {
+		RepositoryQueryEvent event = new RepositoryQueryEvent();
+		if (!event.isEnabled()) {
+			return joinPoint.proceed();
+		}
+		event.begin();
+		try {
+			Object result = joinPoint.proceed();
+			event.rowCount = rowCount(result);
+			return result;
+		} catch (Throwable ex) {
+			event.failed = true;
+			throw ex;
+		} finally {
+			event.end();
+			if (event.shouldCommit()) {
+				event.repository = repositoryName(joinPoint.getThis());
+				event.method = joinPoint.getSignature().getName();
+				event.entityId = entityId(joinPoint.getArgs());
+				event.commit();
+			}
+		}
+	}
+
+	private String repositoryName(Object proxy) {
+		return repositoryNames.computeIfAbsent(proxy.getClass(), proxyClass -> {
+			for (Class<?> candidate : proxyClass.getInterfaces()) {
+				if (candidate.getPackageName().startsWith(REPOSITORY_PACKAGE)) {
+					return candidate.getSimpleName();
+				}
+			}
+			return proxyClass.getSimpleName();
+		});
+	}
+
+	private static long entityId(Object[] args) {
+		for (Object arg : args) {
+			if (arg instanceof Integer id) {
+				return id;
+			}
+		}
+		return -1;
+	}
+
+	private static int rowCount(Object result) {
+		if (result == null) {
+			return 0;
+		}
+		if (result instanceof Collection<?> collection) {
+			return collection.size();
+		}
+		if (result instanceof Slice<?> slice) {
+			return slice.getNumberOfElements();
+		}
+		if (result instanceof Optional<?> optional) {
+			return optional.isPresent() ? 1 : 0;
+		}
+		if (result instanceof PostRespose<?> response) {
+			return response.getPosts() == null ? 0 : response.getPosts().size();
+		}
+		if (result instanceof Number || result instanceof Boolean) {
+			return 0;
+		}
+		return 1;
+	}
+}
@@ -0,0 +1,33 @@
+package com.blogapp.monitoring;
+
+import org.slf4j.Logger;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+import org.slf4j.spi.LoggingEventBuilder;
+import org.slf4j.spi.NOPLoggingEventBuilder;
+
+/**
+ * Markers that logging configuration can act on.
+ */
+public final class LogMarkers {
+
+	/**
+	 * Per-request success logs that are only written for a sampled fraction of
+	 * requests, see {@link SampledLogFilter}.
+	 */
+	public static final Marker SAMPLED = MarkerFactory.getMarker("SAMPLED");
+
+	private LogMarkers() {
+	}
+
+	/**
+	 * Starts an INFO event marked {@link #SAMPLED}. The sampling decision is
+	 * taken here, and a dropped event gets a builder that ignores everything.
+	 *
+	 * @param logger The logger.
+	 * @return The builder of the event.
+	 */
+	public static LoggingEventBuilder atInfoSampled(Logger logger) {
+		return logger.isInfoEnabled(SAMPLED) ? logger.atInfo().addMarker(SAMPLED) : NOPLoggingEventBuilder.singleton();
+	}
+}
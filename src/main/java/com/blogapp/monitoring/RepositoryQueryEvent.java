@@ -0,0 +1,36 @@
+package com.blogapp.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event emitted around every Spring Data repository call.
+ */
+@Name("com.blogapp.RepositoryQuery")
+@Label("Repository Query")
+@Category({ "Blog App", "Repository" })
+@Description("A call into a Spring Data repository")
+@StackTrace(false)
+public class RepositoryQueryEvent extends Event {
+
+	@Label("Repository")
+	String repository;
+
+	@Label("Method")
+	String method;
+
+	@Label("Entity Id")
+	@Description("First integer argument of the call, -1 when there is none")
+	long entityId = -1;
+
+	@Label("Row Count")
+	@Description("Number of rows returned by the call")
+	int rowCount;
+
+	@Label("Failed")
+	boolean failed;
+}
@@ -0,0 +1,43 @@
+package com.blogapp.monitoring;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Marker;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+
+/**
+ * Logback turbo filter that lets through only a fraction of the events carrying
+ * the {@link LogMarkers#SAMPLED} marker. It decides before the event is built,
+ * so a dropped event costs no formatting and no MDC copy. Events without the
+ * marker are left to the rest of the configuration.
+ * <p>
+ * The fluent API only consults turbo filters through the enabled check, so
+ * sampled events are logged with {@link LogMarkers#atInfoSampled}.
+ */
+public class SampledLogFilter extends TurboFilter {
+
+	private double sampleRate = 1.0;
+
+	@Override
+	public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+		if (marker == null || !marker.contains(LogMarkers.SAMPLED) || sampleRate >= 1.0) {
+			return FilterReply.NEUTRAL;
+		}
+		if (sampleRate <= 0.0 || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+			return FilterReply.DENY;
+		}
+		return FilterReply.NEUTRAL;
+	}
+
+	public void setSampleRate(double sampleRate) {
+		this.sampleRate = sampleRate;
+	}
+
+	public double getSampleRate() {
+		return sampleRate;
+	}
+}
@@ -0,0 +1,37 @@
+package com.blogapp.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event emitted around every public method of the service layer in
+ * {@code com.blogapp.serviceImpl}.
+ */
+@Name("com.blogapp.ServiceCall")
+@Label("Service Call")
+@Category({ "Blog App", "Service" })
+@Description("A call into a service implementation")
+@StackTrace(false)
+public class ServiceCallEvent extends Event {
+
+	@Label("Service")
+	String service;
+
+	@Label("Method")
+	String method;
+
+	@Label("Entity Id")
+	@Description("First integer argument of the call, -1 when there is none")
+	long entityId = -1;
+
+	@Label("Row Count")
+	@Description("Number of rows returned by the call")
+	int rowCount;
+
+	@Label("Failed")
+	boolean failed;
+}
@@ -0,0 +1,256 @@
+package com.blogapp.outbox;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.blogapp.entities.OutboxEvent;
+import com.blogapp.invalidation.InvalidationBus;
+import com.blogapp.repositories.OutboxEventRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Transactional outbox for the data derived from posts and comments.
+ * <p>
+ * Services append an event in the transaction that changes a post or its
+ * comments, so the event exists if and only if the change committed. Events are
+ * delivered to the {@link OutboxHandler} beans by the instance that wrote them,
+ * which is also the one whose in-memory state needs them, from
+ * {@code blogapp.outbox.poll-interval-ms} polls: right after a commit, or every
+ * {@code idle-poll-interval-ms} when nothing was written, for retries.
+ * <p>
+ * Up to {@code batch-size} events are handed to the handlers at once and
+ * deleted once they took them. When a batch fails, its posts are delivered one
+ * by one so that a failing post holds back its own later events only; its events
+ * are retried with an exponential backoff and kept for inspection after
+ * {@code max-attempts}. Events an instance left undelivered for
+ * {@code orphan-timeout-ms}, because it stopped, are taken over by another.
+ */
+@Component
+@Slf4j
+public class Outbox {
+
+	// Longest error message kept with an event, the length of its column.
+	private static final int MAX_ERROR_LENGTH = 512;
+
+	private final OutboxEventRepository repository;
+
+	private final ObjectProvider<OutboxHandler> handlers;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final String nodeId;
+
+	private final int batchSize;
+
+	private final int maxAttempts;
+
+	private final long retryBackoffMs;
+
+	private final long maxRetryBackoffMs;
+
+	private final long idlePollIntervalMs;
+
+	private final long orphanTimeoutMs;
+
+	private final Timer lag;
+
+	private final Counter delivered;
+
+	private final Counter retried;
+
+	private final Counter dead;
+
+	// Set by commits that appended events, cleared by the poll that reads them.
+	private volatile boolean pending = true;
+
+	// Only read and written by the poll.
+	private long nextPollAt;
+
+	public Outbox(OutboxEventRepository repository, ObjectProvider<OutboxHandler> handlers,
+			TransactionTemplate transactionTemplate, InvalidationBus invalidationBus, MeterRegistry meterRegistry,
+			@Value("${blogapp.outbox.batch-size:100}") int batchSize,
+			@Value("${blogapp.outbox.max-attempts:10}") int maxAttempts,
+			@Value("${blogapp.outbox.retry-backoff-ms:1000}") long retryBackoffMs,
+			@Value("${blogapp.outbox.max-retry-backoff-ms:300000}") long maxRetryBackoffMs,
+			@Value("${blogapp.outbox.idle-poll-interval-ms:5000}") long idlePollIntervalMs,
+			@Value("${blogapp.outbox.orphan-timeout-ms:600000}") long orphanTimeoutMs) {
+		this.repository = repository;
+		this.handlers = handlers;
+		this.transactionTemplate = transactionTemplate;
+		this.nodeId = invalidationBus.getNodeId();
+		this.batchSize = batchSize;
+		this.maxAttempts = maxAttempts;
+		this.retryBackoffMs = retryBackoffMs;
+		this.maxRetryBackoffMs = maxRetryBackoffMs;
+		this.idlePollIntervalMs = idlePollIntervalMs;
+		this.orphanTimeoutMs = orphanTimeoutMs;
+		this.lag = Timer.builder("blogapp.outbox.lag").description("Time from writing an event to its delivery")
+				.register(meterRegistry);
+		this.delivered = Counter.builder("blogapp.outbox.delivered").description("Events delivered to the handlers")
+				.register(meterRegistry);
+		this.retried = Counter.builder("blogapp.outbox.retried").description("Failed deliveries that will be retried")
+				.register(meterRegistry);
+		this.dead = Counter.builder("blogapp.outbox.dead")
+				.description("Events given up on after max-attempts failed deliveries").register(meterRegistry);
+	}
+
+	/**
+	 * Writes an event in the current transaction, to be delivered once it commits.
+	 *
+	 * @param type The type of the change.
+	 * @param postId The ID of the changed post, or of the post of the changed comment.
+	 */
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void append(OutboxEvent.Type type, Integer postId) {
+		repository.save(new OutboxEvent(nodeId, type, postId, new Date()));
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				pending = true;
+			}
+		});
+	}
+
+	/**
+	 * Delivers the events due, when a commit appended some or the idle interval passed.
+	 */
+	@Scheduled(fixedDelayString = "${blogapp.outbox.poll-interval-ms:50}")
+	public void poll() {
+		long now = System.currentTimeMillis();
+		if (!pending && now < nextPollAt) {
+			return;
+		}
+		// Cleared before the read, so a commit that comes in during the delivery is polled for next time.
+		pending = false;
+		List<OutboxEvent> events;
+		try {
+			events = transactionTemplate.execute(status -> repository.findPending(nodeId, maxAttempts, new Date(now),
+					PageRequest.of(0, batchSize)));
+		} catch (RuntimeException e) {
+			log.atWarn().addKeyValue("error", e.getMessage()).log("Could not read the outbox");
+			nextPollAt = now + idlePollIntervalMs;
+			return;
+		}
+		int deliveredEvents;
+		try {
+			deliveredEvents = deliver(events);
+		} catch (RuntimeException e) {
+			// Delivered events that could not be deleted are delivered again, handlers are idempotent.
+			log.atWarn().addKeyValue("error", e.getMessage()).log("Could not record outbox deliveries");
+			nextPollAt = now + idlePollIntervalMs;
+			return;
+		}
+		// A full batch may have more behind it, unless none of it went through and the rest waits for its retries.
+		if (events.size() == batchSize && deliveredEvents > 0) {
+			nextPollAt = now;
+			return;
+		}
+		nextPollAt = now + idlePollIntervalMs;
+		try {
+			Date retryAt = transactionTemplate.execute(status -> repository.findNextAttemptAfter(nodeId, maxAttempts,
+					new Date(now)));
+			if (retryAt != null) {
+				nextPollAt = Math.min(nextPollAt, retryAt.getTime());
+			}
+		} catch (RuntimeException e) {
+			log.atWarn().addKeyValue("error", e.getMessage()).log("Could not read the outbox retries");
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${blogapp.outbox.orphan-check-interval-ms:60000}")
+	public void adoptOrphans() {
+		Date cutoff = new Date(System.currentTimeMillis() - orphanTimeoutMs);
+		try {
+			Integer adopted = transactionTemplate.execute(status -> repository.adopt(nodeId, cutoff, maxAttempts));
+			if (adopted != null && adopted > 0) {
+				log.atInfo().addKeyValue("events", adopted).log("Undelivered outbox events of other instances taken over");
+				pending = true;
+			}
+		} catch (RuntimeException e) {
+			log.atWarn().addKeyValue("error", e.getMessage()).log("Could not take over undelivered outbox events");
+		}
+	}
+
+	// Returns how many of the events were delivered. The events are all due, and none waits behind a retry.
+	private int deliver(List<OutboxEvent> events) {
+		if (events.isEmpty()) {
+			return 0;
+		}
+		if (handle(events) == null) {
+			delivered(events);
+			return events.size();
+		}
+		Map<Integer, List<OutboxEvent>> byPost = new LinkedHashMap<>();
+		events.forEach(event -> byPost.computeIfAbsent(event.getAggregateId(), id -> new ArrayList<>()).add(event));
+		int deliveredEvents = 0;
+		for (List<OutboxEvent> postEvents : byPost.values()) {
+			RuntimeException failure = handle(postEvents);
+			if (failure == null) {
+				delivered(postEvents);
+				deliveredEvents += postEvents.size();
+			} else {
+				failed(postEvents, failure);
+			}
+		}
+		return deliveredEvents;
+	}
+
+	private RuntimeException handle(List<OutboxEvent> events) {
+		try {
+			handlers.orderedStream().forEach(handler -> handler.onOutboxEvents(events));
+			return null;
+		} catch (RuntimeException e) {
+			return e;
+		}
+	}
+
+	private void delivered(List<OutboxEvent> events) {
+		transactionTemplate.executeWithoutResult(status -> repository.deleteAllByIdInBatch(
+				events.stream().map(OutboxEvent::getId).toList()));
+		long now = System.currentTimeMillis();
+		events.forEach(event -> lag.record(now - event.getCreatedAt().getTime(), TimeUnit.MILLISECONDS));
+		delivered.increment(events.size());
+	}
+
+	private void failed(List<OutboxEvent> events, RuntimeException failure) {
+		int attempts = events.get(0).getAttempts() + 1;
+		long backoff = Math.min(maxRetryBackoffMs, retryBackoffMs << Math.min(attempts - 1, 30));
+		long retryAt = System.currentTimeMillis() + backoff;
+		String error = failure.toString();
+		for (OutboxEvent event : events) {
+			event.setAttempts(attempts);
+			event.setNextAttemptAt(new Date(retryAt));
+			event.setLastError(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+		}
+		transactionTemplate.executeWithoutResult(status -> repository.saveAll(events));
+		Integer postId = events.get(0).getAggregateId();
+		if (attempts >= maxAttempts) {
+			dead.increment(events.size());
+			log.atError().setCause(failure).addKeyValue("postId", postId).addKeyValue("events", events.size())
+					.log("Outbox events given up on");
+			return;
+		}
+		retried.increment(events.size());
+		log.atWarn().addKeyValue("postId", postId).addKeyValue("attempts", attempts).addKeyValue("error", failure.getMessage())
+				.log("Outbox delivery failed, retrying");
+	}
+}
@@ -0,0 +1,22 @@
+package com.blogapp.outbox;
+
+import java.util.List;
+
+import com.blogapp.entities.OutboxEvent;
+
+/**
+ * Implemented by beans that keep data derived from posts and comments, such as
+ * the feeds and the title index, and bring it up to date from the outbox rather
+ * than in the transaction of the write.
+ */
+public interface OutboxHandler {
+
+	/**
+	 * Called with committed events, oldest first. Events of the same post come
+	 * in the order they were written, but may be handed over again after a
+	 * failed delivery, so handling them must be idempotent.
+	 *
+	 * @param events The events to apply.
+	 */
+	void onOutboxEvents(List<OutboxEvent> events);
+}
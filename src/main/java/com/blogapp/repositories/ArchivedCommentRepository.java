@@ -0,0 +1,32 @@
+package com.blogapp.repositories;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import com.blogapp.entities.ArchivedComment;
+
+public interface ArchivedCommentRepository extends JpaRepository<ArchivedComment, Integer> {
+
+	//reads idx_comments_archive_post in every partition, the post date narrows it down to one
+	List<ArchivedComment> findByPostIdAndPostDateOrderById(Integer postId, Date postDate);
+
+	//copies the comments of posts being archived, in the same statement for the whole batch
+	@Modifying
+	@Query(value = "INSERT INTO comments_archive (id, post_id, post_date, content) "
+			+ "SELECT c.id, c.post_id, p.date, c.content FROM comments c JOIN post p ON p.post_id = c.post_id "
+			+ "WHERE c.post_id IN ?1", nativeQuery = true)
+	int copyFromPosts(Collection<Integer> postIds);
+
+	@Modifying
+	@Query("DELETE FROM ArchivedComment c WHERE c.postId IN (SELECT a.postId FROM ArchivedPost a WHERE a.userId = ?1)")
+	int deleteByUserId(Integer userId);
+
+	@Modifying
+	@Query("DELETE FROM ArchivedComment c WHERE c.postId IN (SELECT a.postId FROM ArchivedPost a WHERE a.categoryId = ?1)")
+	int deleteByCategoryId(Integer categoryId);
+}
@@ -0,0 +1,49 @@
+package com.blogapp.repositories;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import com.blogapp.config.AppConstants;
+import com.blogapp.dto.PostSummaryDTO;
+import com.blogapp.entities.ArchivedPost;
+
+public interface ArchivedPostRepository extends JpaRepository<ArchivedPost, Integer> {
+
+	//same summaries as PostRepository.SUMMARY_QUERY, the user and category are joined by id as the archive has no relations
+	String SUMMARY_QUERY = "SELECT new com.blogapp.dto.PostSummaryDTO(a.postId, a.title, "
+			+ "COALESCE(a.excerpt, SUBSTRING(a.legacyContent, 1, " + AppConstants.EXCERPT_LENGTH + ")), a.date, u.name, c.categoryTitle, a.imageName) "
+			+ "FROM ArchivedPost a LEFT JOIN User u ON u.id = a.userId LEFT JOIN Category c ON c.categoryId = a.categoryId";
+
+	//no count query, the caller reads on from wherever the hot posts ended
+	@Query(SUMMARY_QUERY)
+	List<PostSummaryDTO> findSummaries(Pageable pageable);
+
+	@Query(SUMMARY_QUERY + " WHERE a.categoryId = ?1 ORDER BY a.date DESC, a.postId DESC")
+	List<PostSummaryDTO> findSummariesByCategoryId(Integer categoryId);
+
+	@Query(SUMMARY_QUERY + " WHERE a.userId = ?1 ORDER BY a.date DESC, a.postId DESC")
+	List<PostSummaryDTO> findSummariesByUserId(Integer userId);
+
+	//copies posts being archived together with their body, the legacy content is kept for bodies never migrated
+	@Modifying
+	@Query(value = "INSERT INTO post_archive (post_id, category_id, user_id, date, title, excerpt, content, image_name, "
+			+ "body_codec, body_original_length, body_data, archived_at) "
+			+ "SELECT p.post_id, p.category_id, p.user_id, p.date, p.title, p.excerpt, p.content, p.image_name, "
+			+ "b.codec, b.original_length, b.data, ?2 FROM post p LEFT JOIN post_body b ON b.post_id = p.post_id "
+			+ "WHERE p.post_id IN ?1", nativeQuery = true)
+	int copyFromPosts(Collection<Integer> postIds, Date archivedAt);
+
+	@Modifying
+	@Query("DELETE FROM ArchivedPost a WHERE a.userId = ?1")
+	int deleteByUserId(Integer userId);
+
+	@Modifying
+	@Query("DELETE FROM ArchivedPost a WHERE a.categoryId = ?1")
+	int deleteByCategoryId(Integer categoryId);
+}
@@ -1,7 +1,31 @@
 package com.blogapp.repositories;
 
+import java.util.Collection;
+import java.util.List;
+
+import com.blogapp.dto.CommentDTO;
 import com.blogapp.entities.Comment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
 public interface CommentRepository extends JpaRepository<Comment,Integer> {
+
+    //ids only, compared with the comments a stream has already sent
+    @Query("SELECT c.id FROM Comment c WHERE c.post.postId = ?1")
+    List<Integer> findIdsByPostId(Integer postId);
+
+    //newest comments of a post, without loading the post
+    @Query("SELECT new com.blogapp.dto.CommentDTO(c.id, c.content) FROM Comment c WHERE c.post.postId = ?1 ORDER BY c.id DESC")
+    List<CommentDTO> findLatestByPostId(Integer postId, Pageable pageable);
+
+    //posts with the most comments, read from idx_comments_post and loaded into the caches at startup
+    @Query("SELECT c.post.postId FROM Comment c GROUP BY c.post.postId ORDER BY COUNT(c) DESC")
+    List<Integer> findMostCommentedPostIds(Pageable pageable);
+
+    //removes the comments of archived posts, once they are copied to comments_archive
+    @Modifying
+    @Query("DELETE FROM Comment c WHERE c.post.postId IN ?1")
+    int deleteByPostIdIn(Collection<Integer> postIds);
 }
@@ -0,0 +1,75 @@
+package com.blogapp.repositories;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+/**
+ * A Pageable whose offset need not be a multiple of its size, for reading a
+ * number of rows from any position, e.g. where another result left off.
+ * Repository queries use its offset and size as they are.
+ */
+public final class OffsetPageRequest implements Pageable {
+
+	private final long offset;
+
+	private final int limit;
+
+	private final Sort sort;
+
+	public OffsetPageRequest(long offset, int limit, Sort sort) {
+		if (offset < 0) {
+			throw new IllegalArgumentException("Offset must not be negative");
+		}
+		if (limit < 1) {
+			throw new IllegalArgumentException("Limit must be at least 1");
+		}
+		this.offset = offset;
+		this.limit = limit;
+		this.sort = sort;
+	}
+
+	@Override
+	public int getPageNumber() {
+		return (int) (offset / limit);
+	}
+
+	@Override
+	public int getPageSize() {
+		return limit;
+	}
+
+	@Override
+	public long getOffset() {
+		return offset;
+	}
+
+	@Override
+	public Sort getSort() {
+		return sort;
+	}
+
+	@Override
+	public Pageable next() {
+		return new OffsetPageRequest(offset + limit, limit, sort);
+	}
+
+	@Override
+	public Pageable previousOrFirst() {
+		return new OffsetPageRequest(Math.max(0, offset - limit), limit, sort);
+	}
+
+	@Override
+	public Pageable first() {
+		return new OffsetPageRequest(0, limit, sort);
+	}
+
+	@Override
+	public Pageable withPage(int pageNumber) {
+		return new OffsetPageRequest((long) pageNumber * limit, limit, sort);
+	}
+
+	@Override
+	public boolean hasPrevious() {
+		return offset > 0;
+	}
+}
@@ -0,0 +1,30 @@
+package com.blogapp.repositories;
+
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import com.blogapp.entities.OutboxEvent;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+	//oldest undelivered events of an instance that are due, read from idx_outbox_event_origin. An event waits behind an
+	//earlier one of its post that waits for a retry, found through idx_outbox_event_origin_aggregate
+	@Query("SELECT e FROM OutboxEvent e WHERE e.origin = ?1 AND e.attempts < ?2 AND e.nextAttemptAt <= ?3"
+			+ " AND NOT EXISTS (SELECT w FROM OutboxEvent w WHERE w.origin = ?1 AND w.aggregateId = e.aggregateId"
+			+ " AND w.id < e.id AND w.attempts < ?2 AND w.nextAttemptAt > ?3) ORDER BY e.id")
+	List<OutboxEvent> findPending(String origin, int maxAttempts, Date now, Pageable pageable);
+
+	//when the first of the events of an instance waiting for a retry is due, null when none is
+	@Query("SELECT MIN(e.nextAttemptAt) FROM OutboxEvent e WHERE e.origin = ?1 AND e.attempts < ?2 AND e.nextAttemptAt > ?3")
+	Date findNextAttemptAfter(String origin, int maxAttempts, Date now);
+
+	//takes over the events other instances left undelivered for too long, e.g. because they stopped
+	@Modifying
+	@Query("UPDATE OutboxEvent e SET e.origin = ?1 WHERE e.origin <> ?1 AND e.createdAt < ?2 AND e.attempts < ?3")
+	int adopt(String origin, Date createdBefore, int maxAttempts);
+}
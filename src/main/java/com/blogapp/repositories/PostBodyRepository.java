@@ -0,0 +1,16 @@
+package com.blogapp.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import com.blogapp.entities.PostBody;
+import com.blogapp.utils.BodyCompressor;
+
+public interface PostBodyRepository extends JpaRepository<PostBody, Integer> {
+
+	//replaces a body in one statement, returns 0 when the post has no body row yet
+	@Modifying
+	@Query("UPDATE PostBody b SET b.codec = ?2, b.originalLength = ?3, b.data = ?4 WHERE b.postId = ?1")
+	int updateBody(Integer postId, BodyCompressor.Codec codec, int originalLength, byte[] data);
+}
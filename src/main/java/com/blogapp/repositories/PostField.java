@@ -0,0 +1,37 @@
+package com.blogapp.repositories;
+
+import java.util.Optional;
+
+/**
+ * Post columns a client can pick with the {@code fields} parameter of the
+ * list endpoints.
+ */
+public enum PostField {
+
+	POST_ID("postId"),
+	TITLE("title"),
+	EXCERPT("excerpt"),
+	DATE("date"),
+	IMAGE_NAME("imageName"),
+	AUTHOR_NAME("authorName"),
+	CATEGORY_TITLE("categoryTitle");
+
+	private final String fieldName;
+
+	PostField(String fieldName) {
+		this.fieldName = fieldName;
+	}
+
+	public String getFieldName() {
+		return fieldName;
+	}
+
+	public static Optional<PostField> fromFieldName(String fieldName) {
+		for (PostField field : values()) {
+			if (field.fieldName.equals(fieldName)) {
+				return Optional.of(field);
+			}
+		}
+		return Optional.empty();
+	}
+}
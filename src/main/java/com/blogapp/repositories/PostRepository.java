@@ -1,20 +1,164 @@
 package com.blogapp.repositories;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import com.blogapp.config.AppConstants;
+import com.blogapp.dto.PostSummaryDTO;
 import com.blogapp.entities.Category;
 import com.blogapp.entities.Post;
-import com.blogapp.entities.User;
 
-public interface PostRepository extends JpaRepository<Post,Integer> {
-	
-	//custom finder methods
-	//https://www.baeldung.com/spring-data-derived-queries
-	List<Post>findByUser(User user);
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+public interface PostRepository extends JpaRepository<Post,Integer>, PostRepositoryCustom {
 	
-	List<Post>findByCategory(Category category);
+	//list endpoints read summaries only: no full content, no user details, no comments
+	String SUMMARY_QUERY = "SELECT new com.blogapp.dto.PostSummaryDTO(p.postId, p.title, "
+			+ "COALESCE(p.excerpt, SUBSTRING(p.legacyContent, 1, " + AppConstants.EXCERPT_LENGTH + ")), p.date, u.name, c.categoryTitle, p.imageName) "
+			+ "FROM Post p LEFT JOIN p.user u LEFT JOIN p.category c";
+
+	@Query(value = SUMMARY_QUERY, countQuery = "SELECT count(p) FROM Post p")
+	Page<PostSummaryDTO> findSummaries(Pageable pageable);
+
+	//no count query, for reading the hot posts together with the archive
+	@Query(SUMMARY_QUERY)
+	List<PostSummaryDTO> findSummarySlice(Pageable pageable);
+
+	@Query(SUMMARY_QUERY + " WHERE p.category.categoryId = ?1")
+	List<PostSummaryDTO> findSummariesByCategoryId(Integer categoryId);
+
+	@Query(SUMMARY_QUERY + " WHERE p.user.id = ?1")
+	List<PostSummaryDTO> findSummariesByUserId(Integer userId);
+
+	//newest other posts by the author of a post, a backward scan of idx_post_user_date
+	@Query(SUMMARY_QUERY + " WHERE p.user.id = (SELECT q.user.id FROM Post q WHERE q.postId = ?1) AND p.postId <> ?1 "
+			+ "ORDER BY p.date DESC, p.postId DESC")
+	List<PostSummaryDTO> findSummariesBySameUser(Integer postId, Pageable pageable);
+
+	//newest other posts in the category of a post, a backward scan of idx_post_category_date
+	@Query(SUMMARY_QUERY + " WHERE p.category.categoryId = (SELECT q.category.categoryId FROM Post q WHERE q.postId = ?1) "
+			+ "AND p.postId <> ?1 ORDER BY p.date DESC, p.postId DESC")
+	List<PostSummaryDTO> findSummariesBySameCategory(Integer postId, Pageable pageable);
+
+	@Query(SUMMARY_QUERY + " WHERE p.title LIKE %?1%")
+	List<PostSummaryDTO> findSummariesByTitleContaining(String title);
+
+	@Query(SUMMARY_QUERY + " WHERE p.postId IN ?1")
+	List<PostSummaryDTO> findSummariesByPostIdIn(Collection<Integer> postIds);
+
+	//uses the ft_post_title full-text index, the argument is a boolean mode query
+	@Query(value = "SELECT post_id FROM post WHERE MATCH(title) AGAINST (?1 IN BOOLEAN MODE)", nativeQuery = true)
+	List<Integer> searchIdsByTitle(String booleanQuery);
+
+	//full posts for the batch endpoint, with their user, category and comments in the same query
+	@EntityGraph(attributePaths = { "user", "category", "comments" })
+	List<Post> findByPostIdIn(Collection<Integer> postIds);
+
+	//newest posts first, used to load the in-memory feeds
+	List<Post> findAllByOrderByDateDescPostIdDesc(Pageable pageable);
+
+	List<Post> findByCategoryOrderByDateDescPostIdDesc(Category category, Pageable pageable);
+
+	//posts with their user and category but no comments, for the feeds
+	@EntityGraph(attributePaths = { "user", "category" })
+	@Query("SELECT p FROM Post p WHERE p.postId IN ?1")
+	List<Post> findWithUserAndCategoryByPostIdIn(Collection<Integer> postIds);
+
+	//ids of the newest posts, a backward scan of idx_post_date, loaded into the caches at startup
+	@Query("SELECT p.postId FROM Post p ORDER BY p.date DESC, p.postId DESC")
+	List<Integer> findRecentPostIds(Pageable pageable);
+
+	//authors who posted since the given date, most recent first, loaded into the user cache at startup
+	@Query("SELECT p.user.id FROM Post p WHERE p.date >= ?1 GROUP BY p.user.id ORDER BY MAX(p.date) DESC")
+	List<Integer> findActiveUserIds(Date since, Pageable pageable);
+
+	//checks that both the user and the category exist and reads the names shown in the feeds, in one query
+	@Query("SELECT u.name AS authorName, c.categoryTitle AS categoryTitle FROM User u, Category c WHERE u.id = ?1 AND c.categoryId = ?2")
+	Optional<AuthorAndCategory> findAuthorAndCategory(Integer userId, Integer categoryId);
+
+	//single UPDATE statement, returns the number of updated rows
+	@Modifying
+	@Query("UPDATE Post p SET p.imageName = ?2 WHERE p.postId = ?1")
+	int updateImageName(Integer postId, String imageName);
+
+	//next posts whose body is still in the post row, rows being edited are skipped and picked up later
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+	@Query("SELECT p FROM Post p WHERE p.postId > ?1 AND p.legacyContent IS NOT NULL ORDER BY p.postId")
+	List<Post> findLegacyBodies(Integer afterPostId, Pageable pageable);
+
+	//without locking, so rows skipped by findLegacyBodies are seen
+	boolean existsByLegacyContentIsNotNull();
+
+	//oldest posts first, a forward scan of idx_post_date; posts without a date are never archived.
+	//Rows locked by an edit or by the archiver of another instance are skipped and picked up later.
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+	@Query("SELECT p.postId FROM Post p WHERE p.date < ?1 ORDER BY p.date, p.postId")
+	List<Integer> findIdsToArchive(Date before, Pageable pageable);
+
+	//ids in ascending order, read in batches to build the not-found filter
+	@Query("SELECT p.postId FROM Post p WHERE p.postId > ?1 ORDER BY p.postId")
+	List<Integer> findPostIdsAfter(Integer afterPostId, Pageable pageable);
+
+	//posts without an image have no name to add to the image filter
+	@Query("SELECT p.imageName FROM Post p WHERE p.postId IN ?1 AND p.imageName IS NOT NULL")
+	List<String> findImageNamesByPostIdIn(Collection<Integer> postIds);
+
+	//titles and comment counts for the autocomplete index, no bodies
+	String TITLE_INDEX_QUERY = "SELECT p.postId AS postId, p.title AS title, p.category.categoryId AS categoryId, p.user.id AS userId, "
+			+ "(SELECT COUNT(c) FROM Comment c WHERE c.post = p) AS comments FROM Post p";
+
+	@Query(TITLE_INDEX_QUERY)
+	List<TitleIndexEntry> findTitleIndexEntries();
+
+	@Query(TITLE_INDEX_QUERY + " WHERE p.postId IN ?1")
+	List<TitleIndexEntry> findTitleIndexEntriesByPostIdIn(Collection<Integer> postIds);
+
+	//titles, pre-migration bodies and owners for the related-posts index, the other bodies are read from post_body
+	@Query("SELECT p.postId AS postId, p.title AS title, p.legacyContent AS legacyContent, "
+			+ "p.category.categoryId AS categoryId, p.user.id AS userId FROM Post p WHERE p.postId IN ?1")
+	List<RelatedIndexEntry> findRelatedIndexEntriesByPostIdIn(Collection<Integer> postIds);
+
+	interface AuthorAndCategory {
+		String getAuthorName();
+
+		String getCategoryTitle();
+	}
+
+	interface TitleIndexEntry {
+		Integer getPostId();
+
+		String getTitle();
+
+		Integer getCategoryId();
+
+		Integer getUserId();
+
+		Long getComments();
+	}
+
+	interface RelatedIndexEntry {
+		Integer getPostId();
+
+		String getTitle();
+
+		String getLegacyContent();
+
+		Integer getCategoryId();
 
-	List<Post> findByTitleContaining(String title);
+		Integer getUserId();
+	}
 }
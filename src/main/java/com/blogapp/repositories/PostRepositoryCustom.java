@@ -0,0 +1,20 @@
+package com.blogapp.repositories;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.blogapp.entities.Post;
+
+public interface PostRepositoryCustom {
+
+	//selects only the requested columns, one map per post keyed by field name
+	Page<Map<String, Object>> findFields(List<PostField> fields, Specification<Post> spec, Pageable pageable);
+
+	//updates only the non-null fields in one UPDATE statement, returns the number of updated rows;
+	//a new excerpt means a new body, so it also clears the legacy content column
+	int updateNonNullFields(Integer postId, String title, String excerpt, String imageName);
+}
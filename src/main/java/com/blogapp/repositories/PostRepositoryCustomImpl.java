@@ -0,0 +1,114 @@
+package com.blogapp.repositories;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import com.blogapp.config.AppConstants;
+import com.blogapp.entities.Post;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+/**
+ * Queries on posts that are built from what the request asked for: partial
+ * updates from the fields actually sent, so a PATCH is a single UPDATE without
+ * loading the post first, and sparse selects from the {@code fields}
+ * parameter, so the SQL reads only those columns. Post bodies are not
+ * selectable here, they live in {@code post_body}.
+ */
+public class PostRepositoryCustomImpl implements PostRepositoryCustom {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	public int updateNonNullFields(Integer postId, String title, String excerpt, String imageName) {
+		CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+		CriteriaUpdate<Post> update = builder.createCriteriaUpdate(Post.class);
+		Root<Post> post = update.from(Post.class);
+		if (title != null) {
+			update.set(post.<String>get("title"), title);
+		}
+		if (excerpt != null) {
+			update.set(post.<String>get("excerpt"), excerpt);
+			update.set(post.<String>get("legacyContent"), (String) null);
+		}
+		if (imageName != null) {
+			update.set(post.<String>get("imageName"), imageName);
+		}
+		update.where(builder.equal(post.get("postId"), postId));
+		return entityManager.createQuery(update).executeUpdate();
+	}
+
+	@Override
+	public Page<Map<String, Object>> findFields(List<PostField> fields, Specification<Post> spec, Pageable pageable) {
+		CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+		CriteriaQuery<Tuple> query = builder.createTupleQuery();
+		Root<Post> post = query.from(Post.class);
+		List<Selection<?>> selections = new ArrayList<>(fields.size());
+		for (PostField field : fields) {
+			selections.add(select(field, post, builder).alias(field.getFieldName()));
+		}
+		query.multiselect(selections);
+		if (spec != null) {
+			query.where(spec.toPredicate(post, query, builder));
+		}
+		query.orderBy(QueryUtils.toOrders(pageable.getSort(), post, builder));
+		TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+		if (pageable.isPaged()) {
+			typedQuery.setFirstResult((int) pageable.getOffset());
+			typedQuery.setMaxResults(pageable.getPageSize());
+		}
+		List<Map<String, Object>> rows = new ArrayList<>();
+		for (Tuple tuple : typedQuery.getResultList()) {
+			Map<String, Object> row = new LinkedHashMap<>();
+			for (int i = 0; i < fields.size(); i++) {
+				row.put(fields.get(i).getFieldName(), tuple.get(i));
+			}
+			rows.add(row);
+		}
+		return PageableExecutionUtils.getPage(rows, pageable, () -> count(spec));
+	}
+
+	// Author and category are left joins so posts without them still come back.
+	private static Expression<?> select(PostField field, Root<Post> post, CriteriaBuilder builder) {
+		return switch (field) {
+		case POST_ID -> post.get("postId");
+		case TITLE -> post.get("title");
+		case EXCERPT -> builder.coalesce(post.<String>get("excerpt"),
+				builder.substring(post.get("legacyContent"), 1, AppConstants.EXCERPT_LENGTH));
+		case DATE -> post.get("date");
+		case IMAGE_NAME -> post.get("imageName");
+		case AUTHOR_NAME -> post.join("user", JoinType.LEFT).get("name");
+		case CATEGORY_TITLE -> post.join("category", JoinType.LEFT).get("categoryTitle");
+		};
+	}
+
+	private long count(Specification<Post> spec) {
+		CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+		CriteriaQuery<Long> query = builder.createQuery(Long.class);
+		Root<Post> post = query.from(Post.class);
+		query.select(builder.count(post));
+		if (spec != null) {
+			query.where(spec.toPredicate(post, query, builder));
+		}
+		return entityManager.createQuery(query).getSingleResult();
+	}
+}
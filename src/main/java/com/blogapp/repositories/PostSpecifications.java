@@ -0,0 +1,33 @@
+package com.blogapp.repositories;
+
+import java.util.Collection;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.blogapp.entities.Post;
+
+/**
+ * Filters for {@link PostRepositoryCustom#findFields}. They compare foreign
+ * keys, so they add no join.
+ */
+public final class PostSpecifications {
+
+	private PostSpecifications() {
+	}
+
+	public static Specification<Post> byCategoryId(Integer categoryId) {
+		return (post, query, builder) -> builder.equal(post.get("category").get("categoryId"), categoryId);
+	}
+
+	public static Specification<Post> byUserId(Integer userId) {
+		return (post, query, builder) -> builder.equal(post.get("user").get("id"), userId);
+	}
+
+	public static Specification<Post> titleContaining(String title) {
+		return (post, query, builder) -> builder.like(post.get("title"), "%" + title + "%");
+	}
+
+	public static Specification<Post> postIdIn(Collection<Integer> postIds) {
+		return (post, query, builder) -> post.get("postId").in(postIds);
+	}
+}
@@ -1,8 +1,11 @@
 package com.blogapp.repositories;
 
+import java.util.List;
+
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.blogapp.entities.User;
@@ -10,4 +13,8 @@ import com.blogapp.entities.User;
 @Repository
 public interface UserRepository  extends JpaRepository<User,Integer>{
     Page<User> findByEmail(String email, Pageable pageable);
+
+    //ids in ascending order, read in batches to build the not-found filter
+    @Query("SELECT u.id FROM User u WHERE u.id > ?1 ORDER BY u.id")
+    List<Integer> findUserIdsAfter(Integer afterUserId, Pageable pageable);
 }
@@ -0,0 +1,375 @@
+package com.blogapp.serviceImpl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.blogapp.config.AppConstants;
+import com.blogapp.dto.SuggestionDTO;
+import com.blogapp.entities.Category;
+import com.blogapp.entities.OutboxEvent;
+import com.blogapp.entities.User;
+import com.blogapp.invalidation.InvalidationEvent;
+import com.blogapp.invalidation.InvalidationListener;
+import com.blogapp.outbox.OutboxHandler;
+import com.blogapp.repositories.CategoryRepository;
+import com.blogapp.repositories.PostRepository;
+import com.blogapp.repositories.UserRepository;
+import com.blogapp.services.AutocompleteService;
+import com.blogapp.utils.RadixTrie;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * This class implements the AutocompleteService interface to suggest post and
+ * category titles from an in-memory {@link RadixTrie}, without a database
+ * query per keystroke.
+ * <p>
+ * Titles are lower-cased with punctuation removed and indexed from the start of
+ * each of their first words, so "boot" finds "Getting started with Spring
+ * Boot". Suggestions are ranked by popularity: the number of comments of a
+ * post and the number of posts of a category. The index is loaded at startup,
+ * brought up to date from the outbox for post and comment changes made on
+ * this instance, and refreshed from the database for changes made on other
+ * instances. Its size is published as the
+ * {@code blogapp.autocomplete.*} gauges.
+ */
+@Service
+@Slf4j
+public class AutocompleteServiceImpl implements AutocompleteService, InvalidationListener, OutboxHandler {
+
+    // Keys and queries are cut to this many characters, longer prefixes add no selectivity.
+    private static final int MAX_KEY_LENGTH = 48;
+
+    // Bounds the number of keys a long title adds to the index.
+    private static final int MAX_WORD_STARTS = 8;
+
+    // Autowiring the PostRepository to load post titles and comment counts.
+    @Autowired
+    private PostRepository postRepository;
+
+    // Autowiring the CategoryRepository to load category titles.
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    // Autowiring the UserRepository to tell deleted users from updated ones.
+    @Autowired
+    private UserRepository userRepository;
+
+    // Reads share the index, writes and reloads are rare and take it exclusively.
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock.
+    private TitleIndex index = new TitleIndex();
+
+    // Taken after every write, so the gauges read it without the lock.
+    private volatile RadixTrie.Footprint footprint = index.trie.footprint();
+
+    public AutocompleteServiceImpl(MeterRegistry meterRegistry) {
+        Gauge.builder("blogapp.autocomplete.entries", this, service -> service.footprint.values())
+                .description("Title keys and values stored in the autocomplete index").register(meterRegistry);
+        Gauge.builder("blogapp.autocomplete.nodes", this, service -> service.footprint.nodes())
+                .description("Nodes of the autocomplete radix tree").register(meterRegistry);
+        Gauge.builder("blogapp.autocomplete.memory", this, service -> service.footprint.estimatedBytes())
+                .description("Estimated heap used by the autocomplete radix tree").baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Suggests post and category titles containing a word that starts with the
+     * query, most popular first.
+     *
+     * @param query The text typed so far.
+     * @param limit Maximum number of suggestions, capped at
+     *              {@link AppConstants#MAX_AUTOCOMPLETE_SIZE}.
+     * @return The suggestions, empty when the query has no letters or digits.
+     */
+    @Override
+    public List<SuggestionDTO> suggest(String query, int limit) {
+        String prefix = truncate(normalize(query));
+        if (prefix.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            return index.trie.top(prefix, Math.min(limit, AppConstants.MAX_AUTOCOMPLETE_SIZE));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reads the title and comment count of the posts of the events again, and
+     * removes the posts that were deleted. Image changes are ignored, the index
+     * holds no images. The posts are read from the primary, where a post that
+     * is not found was deleted, and not from a replica that may lag behind.
+     *
+     * @param events The committed post and comment events.
+     */
+    @Override
+    @Transactional
+    public void onOutboxEvents(List<OutboxEvent> events) {
+        Set<Integer> postIds = new HashSet<>();
+        for (OutboxEvent event : events) {
+            if (event.getType() != OutboxEvent.Type.POST_IMAGE_CHANGED) {
+                postIds.add(event.getAggregateId());
+            }
+        }
+        reloadPosts(postIds);
+    }
+
+    /**
+     * Adds a created category, or replaces the title of an updated one.
+     *
+     * @param categoryId The ID of the category.
+     * @param title The title of the category.
+     */
+    @Override
+    public void categorySaved(Integer categoryId, String title) {
+        write(index -> index.putCategory(categoryId, title));
+    }
+
+    /**
+     * Removes a deleted category and its posts, which are deleted with it.
+     *
+     * @param categoryId The ID of the deleted category.
+     */
+    @Override
+    public void categoryDeleted(Integer categoryId) {
+        write(index -> {
+            index.removeCategory(categoryId);
+            index.removePosts(post -> categoryId.equals(post.categoryId()));
+        });
+    }
+
+    /**
+     * Removes the posts of a deleted user, which are deleted with it.
+     *
+     * @param userId The ID of the deleted user.
+     */
+    @Override
+    public void userDeleted(Integer userId) {
+        write(index -> index.removePosts(post -> userId.equals(post.userId())));
+    }
+
+    /**
+     * Builds the index from the database and replaces the current one.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long start = System.nanoTime();
+        TitleIndex loaded = new TitleIndex();
+        categoryRepository.findAll().forEach(category -> loaded.putCategory(category.getCategoryId(), category.getCategoryTitle()));
+        postRepository.findTitleIndexEntries().forEach(entry -> loaded.putPost(entry.getPostId(), entry.getTitle(),
+                entry.getCategoryId(), entry.getUserId(), Math.toIntExact(entry.getComments())));
+        write(index -> this.index = loaded);
+        log.atInfo().addKeyValue("posts", loaded.posts.size()).addKeyValue("categories", loaded.categories.size())
+                .addKeyValue("nodes", footprint.nodes()).addKeyValue("bytes", footprint.estimatedBytes())
+                .addKeyValue("millis", (System.nanoTime() - start) / 1_000_000).log("Autocomplete index loaded");
+    }
+
+    /**
+     * Reloads the posts, categories and users changed on another instance,
+     * from the primary.
+     *
+     * @param events The events published by the other instance.
+     */
+    @Override
+    @Transactional
+    public void onRemoteInvalidation(Collection<InvalidationEvent> events) {
+        if (events.stream().anyMatch(InvalidationEvent::isTypeWide)) {
+            warmUp();
+            return;
+        }
+        Set<Integer> postIds = ids(events, InvalidationEvent.Type.POST);
+        Set<Integer> categoryIds = ids(events, InvalidationEvent.Type.CATEGORY);
+        // Created categories are announced only as a change to the category list.
+        categoryIds.addAll(ids(events, InvalidationEvent.Type.CATEGORY_LIST));
+        Set<Integer> userIds = ids(events, InvalidationEvent.Type.USER);
+        List<Category> categories = categoryIds.isEmpty() ? List.of() : categoryRepository.findAllById(categoryIds);
+        List<User> users = userIds.isEmpty() ? List.of() : userRepository.findAllById(userIds);
+        categories.forEach(category -> categoryIds.remove(category.getCategoryId()));
+        users.forEach(user -> userIds.remove(user.getId()));
+        categories.forEach(category -> categorySaved(category.getCategoryId(), category.getCategoryTitle()));
+        // The ids left over are those of deleted categories and users.
+        categoryIds.forEach(this::categoryDeleted);
+        userIds.forEach(this::userDeleted);
+        reloadPosts(postIds);
+    }
+
+    // Posts that are not found any more were deleted.
+    private void reloadPosts(Set<Integer> postIds) {
+        if (postIds.isEmpty()) {
+            return;
+        }
+        List<PostRepository.TitleIndexEntry> posts = postRepository.findTitleIndexEntriesByPostIdIn(postIds);
+        write(index -> {
+            for (PostRepository.TitleIndexEntry entry : posts) {
+                postIds.remove(entry.getPostId());
+                index.putPost(entry.getPostId(), entry.getTitle(), entry.getCategoryId(), entry.getUserId(),
+                        Math.toIntExact(entry.getComments()));
+            }
+            postIds.forEach(index::removePost);
+        });
+    }
+
+    private void write(Consumer<TitleIndex> update) {
+        lock.writeLock().lock();
+        try {
+            update.accept(index);
+            footprint = index.trie.footprint();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static Set<Integer> ids(Collection<InvalidationEvent> events, InvalidationEvent.Type type) {
+        Set<Integer> ids = new HashSet<>();
+        events.stream().filter(event -> event.type() == type).forEach(event -> ids.add(event.id()));
+        return ids;
+    }
+
+    // Lower case letters and digits, words separated by single spaces.
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean separator = false;
+        for (int i = 0; i < text.length();) {
+            int codePoint = text.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (Character.isLetterOrDigit(codePoint)) {
+                if (separator && normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                separator = false;
+                normalized.appendCodePoint(Character.toLowerCase(codePoint));
+            } else {
+                separator = true;
+            }
+        }
+        return normalized.toString();
+    }
+
+    private static String truncate(String key) {
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+    }
+
+    // The title from its first word and from each of the following ones.
+    private static List<String> keys(String title) {
+        String normalized = normalize(title);
+        List<String> keys = new ArrayList<>();
+        int start = 0;
+        while (start < normalized.length() && keys.size() < MAX_WORD_STARTS) {
+            keys.add(truncate(normalized.substring(start)));
+            int space = normalized.indexOf(' ', start);
+            if (space < 0) {
+                break;
+            }
+            start = space + 1;
+        }
+        return keys;
+    }
+
+    private record IndexedPost(SuggestionDTO suggestion, Integer categoryId, Integer userId, int comments) {
+    }
+
+    private record IndexedCategory(SuggestionDTO suggestion, int posts) {
+    }
+
+    // The tree plus what is needed to find and rescore its values. Not thread-safe.
+    private static final class TitleIndex {
+
+        private final RadixTrie<SuggestionDTO> trie = new RadixTrie<>();
+
+        private final Map<Integer, IndexedPost> posts = new HashMap<>();
+
+        private final Map<Integer, IndexedCategory> categories = new HashMap<>();
+
+        void putPost(Integer postId, String title, Integer categoryId, Integer userId, int comments) {
+            IndexedPost old = posts.get(postId);
+            if (old != null) {
+                unindex(old.suggestion());
+            }
+            if (old == null || !Objects.equals(old.categoryId(), categoryId)) {
+                if (old != null) {
+                    addCategoryPosts(old.categoryId(), -1);
+                }
+                addCategoryPosts(categoryId, 1);
+            }
+            IndexedPost post = new IndexedPost(new SuggestionDTO(SuggestionDTO.Type.POST, postId, title), categoryId,
+                    userId, comments);
+            posts.put(postId, post);
+            index(post.suggestion(), comments);
+        }
+
+        void removePost(Integer postId) {
+            IndexedPost old = posts.remove(postId);
+            if (old != null) {
+                unindex(old.suggestion());
+                addCategoryPosts(old.categoryId(), -1);
+            }
+        }
+
+        void removePosts(Predicate<IndexedPost> filter) {
+            posts.values().stream().filter(filter).map(post -> post.suggestion().getId()).toList()
+                    .forEach(this::removePost);
+        }
+
+        void putCategory(Integer categoryId, String title) {
+            IndexedCategory old = categories.get(categoryId);
+            if (old != null) {
+                unindex(old.suggestion());
+            }
+            IndexedCategory category = new IndexedCategory(
+                    new SuggestionDTO(SuggestionDTO.Type.CATEGORY, categoryId, title), old == null ? 0 : old.posts());
+            categories.put(categoryId, category);
+            index(category.suggestion(), category.posts());
+        }
+
+        void removeCategory(Integer categoryId) {
+            IndexedCategory old = categories.remove(categoryId);
+            if (old != null) {
+                unindex(old.suggestion());
+            }
+        }
+
+        private void addCategoryPosts(Integer categoryId, int delta) {
+            IndexedCategory old = categoryId == null ? null : categories.get(categoryId);
+            if (old != null) {
+                IndexedCategory category = new IndexedCategory(old.suggestion(), Math.max(0, old.posts() + delta));
+                categories.put(categoryId, category);
+                index(category.suggestion(), category.posts());
+            }
+        }
+
+        // Putting an indexed value again only changes its score.
+        private void index(SuggestionDTO suggestion, int score) {
+            keys(suggestion.getText()).forEach(key -> trie.put(key, suggestion, score));
+        }
+
+        private void unindex(SuggestionDTO suggestion) {
+            keys(suggestion.getText()).forEach(key -> trie.remove(key, suggestion));
+        }
+    }
+}
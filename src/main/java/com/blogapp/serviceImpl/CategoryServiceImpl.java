@@ -5,13 +5,23 @@ import java.util.Optional;
 
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.blogapp.config.CacheNames;
 import com.blogapp.dto.CategoryDTO;
 import com.blogapp.entities.Category;
 import com.blogapp.exception.ResouceNotFoundException;
+import com.blogapp.invalidation.InvalidationBus;
+import com.blogapp.invalidation.InvalidationEvent;
+import com.blogapp.monitoring.LogMarkers;
 import com.blogapp.repositories.CategoryRepository;
+import com.blogapp.services.AutocompleteService;
 import com.blogapp.services.CategoryService;
+import com.blogapp.services.PostArchiveService;
+import com.blogapp.services.PostFeedService;
+import com.blogapp.services.RelatedPostsService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -32,6 +42,26 @@ public class CategoryServiceImpl implements CategoryService {
     @Autowired
     private ModelMapper modelMapper;
 
+    // Autowiring the PostFeedService to drop the posts of deleted categories from the feeds.
+    @Autowired
+    private PostFeedService postFeedService;
+
+    // Autowiring the InvalidationBus to evict cached categories, and the posts embedding them, on every instance.
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    // Autowiring the AutocompleteService to keep category titles suggestible.
+    @Autowired
+    private AutocompleteService autocompleteService;
+
+    // Autowiring the PostArchiveService to remove the archived posts of deleted categories.
+    @Autowired
+    private PostArchiveService postArchiveService;
+
+    // Autowiring the RelatedPostsService to drop the deleted categories' posts from the related-posts index.
+    @Autowired
+    private RelatedPostsService relatedPostsService;
+
     /**
      * Creates a new category.
      * 
@@ -39,11 +69,15 @@ public class CategoryServiceImpl implements CategoryService {
      * @return The created CategoryDTO.
      */
     @Override
+    @Transactional
     public CategoryDTO createCategory(CategoryDTO categoryDTO) {
-        logger.info("Creating new category with title: {}", categoryDTO.getCategoryTitle());
+        logger.atDebug().addKeyValue("title", categoryDTO.getCategoryTitle()).log("Creating category");
         Category category = this.modelMapper.map(categoryDTO, Category.class);
         Category savedCategory = categoryRepository.save(category);
-        logger.info("Category created successfully with ID: {}", savedCategory.getCategoryId());
+        autocompleteService.categorySaved(savedCategory.getCategoryId(), savedCategory.getCategoryTitle());
+        //Evicts only the cached category list, no cached post or category refers to a new category yet.
+        invalidationBus.publish(InvalidationEvent.Type.CATEGORY_LIST, savedCategory.getCategoryId());
+        logger.atInfo().addKeyValue("categoryId", savedCategory.getCategoryId()).log("Category created");
         return this.modelMapper.map(savedCategory, CategoryDTO.class);
     }
 
@@ -57,14 +91,18 @@ public class CategoryServiceImpl implements CategoryService {
      * @throws ResouceNotFoundException if the category is not found.
      */
     @Override
+    @Transactional
     public CategoryDTO updateCategory(CategoryDTO categoryDTO, Integer categoryId) {
-        logger.info("Updating category with ID: {}", categoryId);
+        logger.atDebug().addKeyValue("categoryId", categoryId).log("Updating category");
         Category category = categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new ResouceNotFoundException("Category with given id " + categoryId + " does not exists!"));
         category.setCategoryDescription(categoryDTO.getCategoryDescription());
         category.setCategoryTitle(categoryDTO.getCategoryDescription());
         categoryRepository.save(category);
-        logger.info("Category with ID: {} updated successfully", categoryId);
+        autocompleteService.categorySaved(categoryId, category.getCategoryTitle());
+        postFeedService.categoryUpdated(categoryId, category.getCategoryTitle());
+        invalidationBus.publish(InvalidationEvent.Type.CATEGORY, categoryId);
+        logger.atInfo().addKeyValue("categoryId", categoryId).log("Category updated");
         return modelMapper.map(category, CategoryDTO.class);
     }
 
@@ -75,43 +113,53 @@ public class CategoryServiceImpl implements CategoryService {
      * @throws ResouceNotFoundException if the category is not found.
      */
     @Override
+    @Transactional
     public void deleteCategory(Integer categoryId) {
-        logger.info("Deleting category with ID: {}", categoryId);
+        logger.atDebug().addKeyValue("categoryId", categoryId).log("Deleting category");
         Optional<Category> categoryOptional = categoryRepository.findById(categoryId);
         if (categoryOptional.isEmpty()) {
-            logger.error("Category with ID: {} not found", categoryId);
+            logger.atWarn().addKeyValue("categoryId", categoryId).log("Category not found");
             throw new ResouceNotFoundException("Category with the given id " + categoryId + " not found!");
         }
         categoryRepository.deleteById(categoryId);
-        logger.info("Category with ID: {} deleted successfully", categoryId);
+        postArchiveService.categoryDeleted(categoryId);
+        postFeedService.categoryDeleted(categoryId);
+        autocompleteService.categoryDeleted(categoryId);
+        relatedPostsService.categoryDeleted(categoryId);
+        invalidationBus.publish(InvalidationEvent.Type.CATEGORY, categoryId);
+        logger.atInfo().addKeyValue("categoryId", categoryId).log("Category deleted");
     }
 
     /**
-     * Retrieves a category by its ID.
+     * Retrieves a category by its ID, from the primary, so that a lagging replica
+     * cannot put a category back in the cache as it was before a change.
      * 
      * @param categoryId The ID of the category to be retrieved.
      * @return The CategoryDTO.
      * @throws ResouceNotFoundException if the category is not found.
      */
     @Override
+    @Transactional
+    @Cacheable(cacheNames = CacheNames.CATEGORIES, key = "#categoryId")
     public CategoryDTO getCategory(Integer categoryId) {
-        logger.info("Retrieving category with ID: {}", categoryId);
+        logger.atDebug().addKeyValue("categoryId", categoryId).log("Retrieving category");
         Category category = categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new ResouceNotFoundException("Category with given id " + categoryId + " does not exists!"));
-        logger.info("Category with ID: {} retrieved successfully", categoryId);
+        LogMarkers.atInfoSampled(logger).addKeyValue("categoryId", categoryId).log("Category retrieved");
         return modelMapper.map(category, CategoryDTO.class);
     }
 
     /**
-     * Retrieves all categories.
+     * Retrieves all categories, from the primary, as the list is cached as JSON.
      * 
      * @return A list of all CategoryDTO.
      */
     @Override
+    @Transactional
     public List<CategoryDTO> getAllCategories() {
-        logger.info("Retrieving all categories");
+        logger.debug("Retrieving all categories");
         List<Category> categories = categoryRepository.findAll();
-        logger.info("All categories retrieved successfully");
+        LogMarkers.atInfoSampled(logger).addKeyValue("rows", categories.size()).log("Categories retrieved");
         return categories.stream().map(category -> modelMapper.map(category, CategoryDTO.class)).toList();
     }
 }
@@ -2,36 +2,81 @@ package com.blogapp.serviceImpl;
 
 import com.blogapp.dto.CommentDTO;
 import com.blogapp.entities.Comment;
-import com.blogapp.entities.Post;
+import com.blogapp.entities.OutboxEvent;
 import com.blogapp.exception.ResouceNotFoundException;
+import com.blogapp.invalidation.InvalidationBus;
+import com.blogapp.invalidation.InvalidationEvent;
+import com.blogapp.outbox.Outbox;
 import com.blogapp.repositories.CommentRepository;
 import com.blogapp.repositories.PostRepository;
 import com.blogapp.services.CommentService;
+import com.blogapp.services.CommentStreamService;
+import com.blogapp.services.TrendingService;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class CommentServiceImpl implements CommentService {
 
+    //Name of the comments.post_id foreign key, from the baseline schema.
+    private static final String POST_FOREIGN_KEY = "FKbqnvawwwv4gtlctsi3o7vs131";
+
     @Autowired
     private PostRepository postRepository;
     @Autowired
     private CommentRepository commentRepository;
+    //Comments are cached inside their post, so a comment change evicts the post on every instance.
+    @Autowired
+    private InvalidationBus invalidationBus;
+    //Comment counts rank the autocomplete suggestions, which are brought up to date from the outbox.
+    @Autowired
+    private Outbox outbox;
+    @Autowired
+    private TrendingService trendingService;
+    //Pushes comment changes to the clients streaming the post.
+    @Autowired
+    private CommentStreamService commentStreamService;
 
     @Override
+    @Transactional
     public CommentDTO createComment(CommentDTO commentDTO, Integer postId) {
-        Post post = postRepository.findById(postId).orElseThrow(() -> new ResouceNotFoundException("Post with id" + postId + "not found!"));
         Comment comment = new Comment();
         comment.setContent(commentDTO.getContent());
-        comment.setPost(post);
-        commentRepository.save(comment);
+        //The reference only carries the foreign key; a missing post surfaces as a constraint violation on insert.
+        comment.setPost(postRepository.getReferenceById(postId));
+        try {
+            commentRepository.save(comment);
+        } catch (DataIntegrityViolationException e) {
+            if (violatesPostForeignKey(e)) {
+                throw new ResouceNotFoundException("Post with id" + postId + "not found!");
+            }
+            throw e;
+        }
+        outbox.append(OutboxEvent.Type.COMMENT_ADDED, postId);
+        trendingService.postCommented(postId);
+        invalidationBus.publish(InvalidationEvent.Type.POST, postId);
         commentDTO.setId(comment.getId());
+        commentStreamService.commentCreated(postId, commentDTO);
         return commentDTO;
     }
 
     @Override
+    @Transactional
     public void deleteComment(Integer commentId) {
-     commentRepository.findById(commentId).orElseThrow(() -> new ResouceNotFoundException("Comment with id" + commentId + "not found!"));
+     Comment comment = commentRepository.findById(commentId).orElseThrow(() -> new ResouceNotFoundException("Comment with id" + commentId + "not found!"));
      commentRepository.deleteById(commentId);
+     if (comment.getPost() != null) {
+         outbox.append(OutboxEvent.Type.COMMENT_DELETED, comment.getPost().getPostId());
+         invalidationBus.publish(InvalidationEvent.Type.POST, comment.getPost().getPostId());
+         commentStreamService.commentDeleted(comment.getPost().getPostId(), commentId);
+     }
+    }
+
+    private static boolean violatesPostForeignKey(DataIntegrityViolationException e) {
+        return e.getCause() instanceof ConstraintViolationException violation
+                && POST_FOREIGN_KEY.equalsIgnoreCase(violation.getConstraintName());
     }
 }
@@ -0,0 +1,506 @@
+package com.blogapp.serviceImpl;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.blogapp.dto.CommentDTO;
+import com.blogapp.entities.Comment;
+import com.blogapp.exception.ResouceNotFoundException;
+import com.blogapp.invalidation.InvalidationEvent;
+import com.blogapp.invalidation.InvalidationListener;
+import com.blogapp.repositories.CommentRepository;
+import com.blogapp.repositories.PostRepository;
+import com.blogapp.services.CommentStreamService;
+import com.blogapp.services.ExistenceFilterService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * This class implements the CommentStreamService interface to push the
+ * comments created and deleted on a post to its Server-Sent Events
+ * subscribers, instead of clients polling the whole post.
+ * <p>
+ * An event is rendered to its SSE frame once and offered to every subscriber
+ * of the post, which only queues it: each subscriber has a queue of
+ * {@code buffer-size} frames, drained by a small pool of sender threads, so a
+ * slow client never holds up the comment request or the other subscribers. A
+ * subscriber whose queue is full is evicted and its stream closed, the client
+ * reconnects and reloads the post. A heartbeat comment every
+ * {@code heartbeat-interval-ms} keeps proxies from closing idle streams and
+ * finds the clients that are gone.
+ * <p>
+ * Comments created or deleted on another instance arrive as post events on
+ * the invalidation bus. For the posts this instance streams, the comment ids
+ * are read again and compared with the ones already sent.
+ */
+@Service
+@Slf4j
+public class CommentStreamServiceImpl implements CommentStreamService, InvalidationListener, DisposableBean {
+
+    private static final MediaType FRAME_TYPE = new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8);
+
+    private static final Set<DataWithMediaType> CONNECTED = frame(":connected\n\n");
+
+    private static final Set<DataWithMediaType> HEARTBEAT = frame(":heartbeat\n\n");
+
+    // Local changes racing a re-read make it start over, this many times at most.
+    private static final int RESYNC_ATTEMPTS = 3;
+
+    // Autowiring the CommentRepository to read the comments changed on other instances.
+    @Autowired
+    private CommentRepository commentRepository;
+
+    // Autowiring the PostRepository to check that a streamed post exists.
+    @Autowired
+    private PostRepository postRepository;
+
+    // Autowiring the ExistenceFilterService to refuse streams of missing posts without a query.
+    @Autowired
+    private ExistenceFilterService existenceFilterService;
+
+    // Autowiring the TransactionTemplate, a read-write transaction reads from the primary and not from a lagging replica.
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Autowiring the ObjectMapper to render each event once for all subscribers.
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final long timeoutMillis;
+
+    private final int bufferSize;
+
+    private final int maxSubscribers;
+
+    private final Map<Integer, PostStream> streams = new ConcurrentHashMap<>();
+
+    private final AtomicInteger openStreams = new AtomicInteger();
+
+    private final ExecutorService senders;
+
+    private final Counter evictions;
+
+    public CommentStreamServiceImpl(@Value("${blogapp.comment-stream.timeout-ms:600000}") long timeoutMillis,
+            @Value("${blogapp.comment-stream.buffer-size:32}") int bufferSize,
+            @Value("${blogapp.comment-stream.max-subscribers:10000}") int maxSubscribers,
+            @Value("${blogapp.comment-stream.sender-threads:4}") int senderThreads, MeterRegistry meterRegistry) {
+        this.timeoutMillis = timeoutMillis;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        AtomicInteger threads = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senderThreads, task -> {
+            Thread thread = new Thread(task, "comment-stream-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("blogapp.comments.stream.subscribers", openStreams, AtomicInteger::get)
+                .description("Open comment streams").register(meterRegistry);
+        this.evictions = Counter.builder("blogapp.comments.stream.evicted")
+                .description("Comment streams closed because the client did not keep up").register(meterRegistry);
+    }
+
+    /**
+     * Opens a stream of the comments created and deleted on a post.
+     *
+     * @param postId The ID of the post.
+     * @return The emitter the events are sent through.
+     * @throws ResouceNotFoundException if the post is not found.
+     * @throws ResponseStatusException with 503 when this instance streams to max-subscribers clients already.
+     */
+    @Override
+    public SseEmitter subscribe(Integer postId) {
+        if (!existenceFilterService.mightHavePost(postId) || !postRepository.existsById(postId)) {
+            throw new ResouceNotFoundException("Post with given ID " + postId + " not found!");
+        }
+        if (openStreams.incrementAndGet() > maxSubscribers) {
+            openStreams.decrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many comment streams, try again later");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        // Added under the map's lock, which the removal of the last subscriber takes too.
+        Subscriber[] created = new Subscriber[1];
+        PostStream stream = streams.compute(postId, (id, current) -> {
+            PostStream joined = current != null ? current : new PostStream(id);
+            created[0] = new Subscriber(joined, emitter);
+            joined.subscribers.add(created[0]);
+            return joined;
+        });
+        Subscriber subscriber = created[0];
+        emitter.onCompletion(subscriber::detach);
+        // Completing on timeout ends the response normally instead of with an AsyncRequestTimeoutException.
+        emitter.onTimeout(() -> {
+            subscriber.detach();
+            emitter.complete();
+        });
+        emitter.onError(error -> subscriber.detach());
+        stream.loadCommentIds();
+        subscriber.offer(CONNECTED);
+        log.atDebug().addKeyValue("postId", postId).addKeyValue("subscribers", stream.subscribers.size()).log("Comment stream opened");
+        return emitter;
+    }
+
+    /**
+     * Sends a new comment to the subscribers of its post, after commit when a
+     * transaction is active.
+     *
+     * @param postId The ID of the commented post.
+     * @param comment The created comment.
+     */
+    @Override
+    public void commentCreated(Integer postId, CommentDTO comment) {
+        CommentDTO sent = new CommentDTO();
+        sent.setId(comment.getId());
+        sent.setContent(comment.getContent());
+        afterCommit(() -> {
+            PostStream stream = streams.get(postId);
+            if (stream != null) {
+                synchronized (stream) {
+                    stream.version++;
+                    if (stream.commentIds == null || stream.commentIds.add(sent.getId())) {
+                        stream.broadcast(commentFrame("comment-created", sent.getId(), sent));
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Tells the subscribers of a post that a comment was deleted, after commit
+     * when a transaction is active.
+     *
+     * @param postId The ID of the post the comment belonged to.
+     * @param commentId The ID of the deleted comment.
+     */
+    @Override
+    public void commentDeleted(Integer postId, Integer commentId) {
+        afterCommit(() -> {
+            PostStream stream = streams.get(postId);
+            if (stream != null) {
+                synchronized (stream) {
+                    stream.version++;
+                    if (stream.commentIds == null || stream.commentIds.remove(commentId)) {
+                        stream.broadcast(commentFrame("comment-deleted", commentId, Map.of("id", commentId)));
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Tells the subscribers of a post that it was deleted and closes their
+     * streams, after commit when a transaction is active.
+     *
+     * @param postId The ID of the deleted post.
+     */
+    @Override
+    public void postDeleted(Integer postId) {
+        afterCommit(() -> closeStream(postId));
+    }
+
+    /**
+     * Sends a heartbeat comment to every subscriber.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${blogapp.comment-stream.heartbeat-interval-ms:15000}")
+    public void sendHeartbeats() {
+        streams.values().forEach(stream -> stream.broadcast(HEARTBEAT));
+    }
+
+    /**
+     * Sends the comments created and deleted on another instance to the
+     * subscribers of the changed posts.
+     */
+    @Override
+    public void onRemoteInvalidation(Collection<InvalidationEvent> events) {
+        Set<Integer> postIds = new HashSet<>();
+        for (InvalidationEvent event : events) {
+            if (event.type() != InvalidationEvent.Type.POST) {
+                continue;
+            }
+            if (event.isTypeWide()) {
+                postIds.addAll(streams.keySet());
+            } else if (streams.containsKey(event.id())) {
+                postIds.add(event.id());
+            }
+        }
+        postIds.forEach(this::resync);
+    }
+
+    @Override
+    public void destroy() {
+        streams.keySet().forEach(this::closeStream);
+        senders.shutdown();
+    }
+
+    // Compares the stored comment ids with the ones already sent. A local change
+    // while they are read makes the comparison unreliable, so it starts over.
+    private void resync(Integer postId) {
+        for (int attempt = 0; attempt < RESYNC_ATTEMPTS; attempt++) {
+            PostStream stream = streams.get(postId);
+            if (stream == null) {
+                return;
+            }
+            long version;
+            synchronized (stream) {
+                version = stream.version;
+            }
+            Set<Integer> stored = transactionTemplate.execute(status -> postRepository.existsById(postId)
+                    ? new HashSet<>(commentRepository.findIdsByPostId(postId)) : null);
+            if (stored == null) {
+                closeStream(postId);
+                return;
+            }
+            List<Integer> added = new ArrayList<>();
+            List<Integer> removed = new ArrayList<>();
+            synchronized (stream) {
+                if (stream.version != version) {
+                    continue;
+                }
+                if (stream.commentIds == null) {
+                    return;
+                }
+                stored.stream().filter(id -> !stream.commentIds.contains(id)).forEach(added::add);
+                stream.commentIds.stream().filter(id -> !stored.contains(id)).forEach(removed::add);
+            }
+            List<Comment> comments = added.isEmpty() ? List.of() : commentRepository.findAllById(added);
+            synchronized (stream) {
+                for (Integer commentId : removed) {
+                    if (stream.commentIds.remove(commentId)) {
+                        stream.broadcast(commentFrame("comment-deleted", commentId, Map.of("id", commentId)));
+                    }
+                }
+                comments.stream().sorted(Comparator.comparingInt(Comment::getId)).forEach(comment -> {
+                    if (stream.commentIds.add(comment.getId())) {
+                        CommentDTO sent = new CommentDTO();
+                        sent.setId(comment.getId());
+                        sent.setContent(comment.getContent());
+                        stream.broadcast(commentFrame("comment-created", sent.getId(), sent));
+                    }
+                });
+            }
+            return;
+        }
+    }
+
+    private void closeStream(Integer postId) {
+        PostStream stream = streams.remove(postId);
+        if (stream != null) {
+            Set<DataWithMediaType> frame = frame("event:post-deleted\ndata:" + postId + "\n\n");
+            stream.subscribers.forEach(subscriber -> {
+                subscriber.offer(frame);
+                subscriber.close();
+            });
+        }
+    }
+
+    private Set<DataWithMediaType> commentFrame(String event, Integer commentId, Object data) {
+        try {
+            return frame("id:" + commentId + "\nevent:" + event + "\ndata:" + objectMapper.writeValueAsString(data) + "\n\n");
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Set<DataWithMediaType> frame(String text) {
+        return Set.of(new DataWithMediaType(text, FRAME_TYPE));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * The subscribers of one post and the ids of the comments they were sent.
+     */
+    private final class PostStream {
+
+        private final Integer postId;
+
+        private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+        // Guarded by this, null until loaded.
+        private Set<Integer> commentIds;
+
+        // Guarded by this, counts local changes.
+        private long version;
+
+        private PostStream(Integer postId) {
+            this.postId = postId;
+        }
+
+        private void loadCommentIds() {
+            synchronized (this) {
+                if (commentIds != null) {
+                    return;
+                }
+            }
+            List<Integer> ids = transactionTemplate.execute(status -> commentRepository.findIdsByPostId(postId));
+            synchronized (this) {
+                if (commentIds == null) {
+                    commentIds = new HashSet<>(ids);
+                }
+            }
+        }
+
+        private void broadcast(Set<DataWithMediaType> frame) {
+            subscribers.forEach(subscriber -> subscriber.offer(frame));
+        }
+
+        private void remove(Subscriber subscriber) {
+            subscribers.remove(subscriber);
+            streams.computeIfPresent(postId, (id, stream) -> stream == this && subscribers.isEmpty() ? null : stream);
+        }
+    }
+
+    /**
+     * One client: a bounded queue of frames and at most one sender task
+     * draining it.
+     */
+    private final class Subscriber implements Runnable {
+
+        private final PostStream stream;
+
+        private final SseEmitter emitter;
+
+        private final ArrayBlockingQueue<Set<DataWithMediaType>> queue = new ArrayBlockingQueue<>(bufferSize);
+
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private final AtomicBoolean detached = new AtomicBoolean();
+
+        // No more frames are queued, the queued ones are sent and the emitter completed.
+        private volatile boolean closed;
+
+        private Subscriber(PostStream stream, SseEmitter emitter) {
+            this.stream = stream;
+            this.emitter = emitter;
+        }
+
+        private void offer(Set<DataWithMediaType> frame) {
+            if (closed) {
+                return;
+            }
+            if (!queue.offer(frame)) {
+                evictions.increment();
+                log.atDebug().addKeyValue("postId", stream.postId).log("Slow comment stream subscriber evicted");
+                closed = true;
+                queue.clear();
+            }
+            schedule();
+        }
+
+        // Completing the emitter waits for a send in progress, so it is left to the sender.
+        private void close() {
+            closed = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this);
+                } catch (RejectedExecutionException e) {
+                    detach();
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            boolean failed = false;
+            try {
+                while (true) {
+                    // Everything queued goes out in one write and one flush.
+                    Set<DataWithMediaType> batch = new LinkedHashSet<>();
+                    for (Set<DataWithMediaType> frame = queue.poll(); frame != null; frame = queue.poll()) {
+                        batch.addAll(frame);
+                    }
+                    if (batch.isEmpty()) {
+                        break;
+                    }
+                    emitter.send(batch);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // The client went away, or the emitter completed or timed out.
+                failed = true;
+            }
+            if (failed) {
+                detach();
+                return;
+            }
+            if (closed) {
+                // Unless a timeout or an error detached it first, the emitter is still open.
+                if (detach()) {
+                    complete();
+                }
+                return;
+            }
+            scheduled.set(false);
+            // A frame queued or a close after the last poll would otherwise wait for the next event.
+            if (closed || !queue.isEmpty()) {
+                schedule();
+            }
+        }
+
+        private boolean detach() {
+            if (!detached.compareAndSet(false, true)) {
+                return false;
+            }
+            closed = true;
+            stream.remove(this);
+            openStreams.decrementAndGet();
+            return true;
+        }
+
+        private void complete() {
+            try {
+                emitter.complete();
+            } catch (IllegalStateException e) {
+                // The container recycled the request in the meantime, e.g. on timeout or shutdown.
+            }
+        }
+    }
+}
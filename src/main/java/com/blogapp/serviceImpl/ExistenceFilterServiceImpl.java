@@ -0,0 +1,412 @@
+package com.blogapp.serviceImpl;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.blogapp.invalidation.InvalidationEvent;
+import com.blogapp.invalidation.InvalidationListener;
+import com.blogapp.repositories.PostRepository;
+import com.blogapp.repositories.UserRepository;
+import com.blogapp.services.ExistenceFilterService;
+import com.blogapp.utils.BloomFilter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * This class implements the ExistenceFilterService interface to answer "this
+ * post, user or image does not exist" from memory, so requests for ids and
+ * file names that were never there get their 404 without a query or a file
+ * system lookup.
+ * <p>
+ * Each entity has a {@link BloomFilter}: a miss is definite, a hit goes on to
+ * the database or the disk as before. The post and user filters are built from
+ * the id columns at startup and every {@code rebuild-interval-ms}, and catch up
+ * with new rows every {@code catch-up-interval-ms}, whichever instance created
+ * them. Because a row can commit after rows with higher ids were already read,
+ * the last {@code recheck-ids} ids below the highest one read are never treated
+ * as missing and are read again by every catch-up. The same number of ids above
+ * it are looked up too, for the rows other instances create between two
+ * catch-ups, and ids beyond are missing while the last catch-up is recent,
+ * unless this instance created them and added them to the filter.
+ * Both assume that fewer than {@code recheck-ids} posts or users are created
+ * while one insert commits or between two catch-ups. Deleted ids cannot be taken
+ * out of a Bloom filter, they are looked up until the next rebuild, which comes
+ * early after many local deletes.
+ * <p>
+ * The image filter holds the file names in the image directory, listed at
+ * startup and at every rebuild, plus the images uploaded since: locally and,
+ * through the invalidation bus, on the other instances when they share the
+ * directory. Until a filter is built everything is looked up.
+ */
+@Service
+@Slf4j
+public class ExistenceFilterServiceImpl implements ExistenceFilterService, InvalidationListener {
+
+    // Ids read per query while building or catching up.
+    private static final int BATCH_SIZE = 10_000;
+
+    // Smallest number of keys a filter is sized for.
+    private static final long MIN_CAPACITY = 1024;
+
+    // Autowiring the PostRepository to read post ids and image names.
+    @Autowired
+    private PostRepository postRepository;
+
+    // Autowiring the UserRepository to read user ids.
+    @Autowired
+    private UserRepository userRepository;
+
+    private final boolean enabled;
+
+    private final double falsePositiveRate;
+
+    private final int recheckIds;
+
+    // Ids above the range are only missing while the last catch-up is younger than this.
+    private final long maxCatchUpAgeMillis;
+
+    private final String imagePath;
+
+    private final IdFilter posts;
+
+    private final IdFilter users;
+
+    private volatile BloomFilter images;
+
+    private final AtomicLong imagesAdded = new AtomicLong();
+
+    private volatile long imageCapacity;
+
+    private final Counter filteredPosts;
+
+    private final Counter filteredUsers;
+
+    private final Counter filteredImages;
+
+    public ExistenceFilterServiceImpl(@Value("${blogapp.not-found-filter.enabled:true}") boolean enabled,
+            @Value("${blogapp.not-found-filter.false-positive-rate:0.01}") double falsePositiveRate,
+            @Value("${blogapp.not-found-filter.recheck-ids:1000}") int recheckIds,
+            @Value("${blogapp.not-found-filter.catch-up-interval-ms:5000}") long catchUpIntervalMs,
+            @Value("${project.image}") String imagePath, MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.falsePositiveRate = falsePositiveRate;
+        this.recheckIds = recheckIds;
+        this.maxCatchUpAgeMillis = catchUpIntervalMs * 3;
+        this.imagePath = imagePath;
+        this.posts = new IdFilter("post", (after, page) -> postRepository.findPostIdsAfter(after, page), () -> postRepository.count());
+        this.users = new IdFilter("user", (after, page) -> userRepository.findUserIdsAfter(after, page), () -> userRepository.count());
+        this.filteredPosts = filteredCounter("post", meterRegistry);
+        this.filteredUsers = filteredCounter("user", meterRegistry);
+        this.filteredImages = filteredCounter("image", meterRegistry);
+        falsePositiveGauge("post", posts, meterRegistry);
+        falsePositiveGauge("user", users, meterRegistry);
+        Gauge.builder("blogapp.notfound.filter.fpp", this, service -> service.images == null ? 1 : service.images.expectedFalsePositiveRate())
+                .description("Estimated share of missing keys the not-found filter lets through").tag("entity", "image")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Tells whether a post may exist.
+     *
+     * @param postId The ID of the requested post.
+     * @return false only when the post does not exist.
+     */
+    @Override
+    public boolean mightHavePost(Integer postId) {
+        return mightExist(posts, postId, filteredPosts);
+    }
+
+    /**
+     * Tells whether a user may exist.
+     *
+     * @param userId The ID of the requested user.
+     * @return false only when the user does not exist.
+     */
+    @Override
+    public boolean mightHaveUser(Integer userId) {
+        return mightExist(users, userId, filteredUsers);
+    }
+
+    /**
+     * Tells whether an image may be in the image directory.
+     *
+     * @param fileName The name of the requested image.
+     * @return false only when no such image was listed or stored.
+     */
+    @Override
+    public boolean mightHaveImage(String fileName) {
+        BloomFilter filter = images;
+        if (!enabled || filter == null || filter.mightContain(fileName)) {
+            return true;
+        }
+        filteredImages.increment();
+        return false;
+    }
+
+    @Override
+    public void postCreated(Integer postId) {
+        posts.add(postId);
+    }
+
+    @Override
+    public void postDeleted(Integer postId) {
+        posts.deleted.incrementAndGet();
+    }
+
+    @Override
+    public void userCreated(Integer userId) {
+        users.add(userId);
+    }
+
+    @Override
+    public void userDeleted(Integer userId) {
+        users.deleted.incrementAndGet();
+    }
+
+    /**
+     * Adds the name of an image written to the image directory.
+     *
+     * @param fileName The name of the stored image.
+     */
+    @Override
+    public void imageStored(String fileName) {
+        BloomFilter filter;
+        do {
+            filter = images;
+            if (filter == null) {
+                return;
+            }
+            filter.add(fileName);
+            imagesAdded.incrementAndGet();
+            // A rescan may have listed the directory before the file was written and swapped its filter in since.
+        } while (filter != images);
+    }
+
+    /**
+     * Builds every filter again from the database and the image directory,
+     * which also forgets deleted ids.
+     */
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${blogapp.not-found-filter.rebuild-interval-ms:3600000}", initialDelayString = "${blogapp.not-found-filter.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            posts.rebuild();
+            users.rebuild();
+            rescanImages();
+        } catch (RuntimeException e) {
+            // Startup goes on, the filters that are not built let every request through.
+            log.atWarn().setCause(e).log("Not-found filters could not be rebuilt");
+        }
+    }
+
+    /**
+     * Adds the ids created since the last catch-up, on any instance, and
+     * rebuilds the filters that are full or hold many deleted ids.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${blogapp.not-found-filter.catch-up-interval-ms:5000}")
+    public void catchUp() {
+        if (!enabled) {
+            return;
+        }
+        posts.catchUp();
+        users.catchUp();
+        if (images != null && imagesAdded.get() > imageCapacity) {
+            rescanImages();
+        }
+    }
+
+    /**
+     * Adds the images of posts changed on another instance, which are on this
+     * instance's disk when the image directory is shared.
+     */
+    @Override
+    public void onRemoteInvalidation(Collection<InvalidationEvent> events) {
+        if (!enabled || images == null) {
+            return;
+        }
+        if (events.stream().anyMatch(event -> event.type() == InvalidationEvent.Type.POST && event.isTypeWide())) {
+            rescanImages();
+            return;
+        }
+        Set<Integer> postIds = events.stream().filter(event -> event.type() == InvalidationEvent.Type.POST)
+                .map(InvalidationEvent::id).collect(Collectors.toSet());
+        if (!postIds.isEmpty()) {
+            postRepository.findImageNamesByPostIdIn(postIds).forEach(this::imageStored);
+        }
+    }
+
+    private boolean mightExist(IdFilter filter, Integer id, Counter filtered) {
+        if (!enabled || id == null || filter.mightExist(id)) {
+            return true;
+        }
+        filtered.increment();
+        return false;
+    }
+
+    private synchronized void rescanImages() {
+        long start = System.nanoTime();
+        List<String> names;
+        try (Stream<Path> files = Files.list(Paths.get(imagePath))) {
+            names = files.map(file -> file.getFileName().toString()).toList();
+        } catch (NoSuchFileException e) {
+            names = List.of();
+        } catch (IOException e) {
+            log.atWarn().setCause(e).addKeyValue("path", imagePath).log("Image directory could not be listed");
+            return;
+        }
+        long capacity = Math.max(MIN_CAPACITY, names.size() * 2L);
+        BloomFilter filter = new BloomFilter(capacity, falsePositiveRate);
+        names.forEach(filter::add);
+        imagesAdded.set(names.size());
+        imageCapacity = capacity;
+        images = filter;
+        log.atInfo().addKeyValue("entity", "image").addKeyValue("keys", names.size()).addKeyValue("bits", filter.bitSize())
+                .addKeyValue("millis", (System.nanoTime() - start) / 1_000_000).log("Not-found filter rebuilt");
+    }
+
+    private static Counter filteredCounter(String entity, MeterRegistry meterRegistry) {
+        return Counter.builder("blogapp.notfound.filtered").description("Requests answered 404 by the not-found filter")
+                .tag("entity", entity).register(meterRegistry);
+    }
+
+    // The gauge holds its object weakly, the filter is kept by this service.
+    private static void falsePositiveGauge(String entity, IdFilter filter, MeterRegistry meterRegistry) {
+        Gauge.builder("blogapp.notfound.filter.fpp", filter, IdFilter::expectedFalsePositiveRate)
+                .description("Estimated share of missing keys the not-found filter lets through").tag("entity", entity)
+                .register(meterRegistry);
+    }
+
+    /**
+     * A filter and the range of ids it is authoritative for, replaced together.
+     */
+    private record Snapshot(BloomFilter bloom, int maxRead, long readAtMillis) {
+    }
+
+    private final class IdFilter {
+
+        private final String entity;
+
+        private final BiFunction<Integer, Pageable, List<Integer>> idsAfter;
+
+        private final LongSupplier count;
+
+        private final AtomicLong deleted = new AtomicLong();
+
+        private volatile Snapshot snapshot;
+
+        // Guarded by this.
+        private int maxRead;
+
+        private long added;
+
+        private long capacity;
+
+        private IdFilter(String entity, BiFunction<Integer, Pageable, List<Integer>> idsAfter, LongSupplier count) {
+            this.entity = entity;
+            this.idsAfter = idsAfter;
+            this.count = count;
+        }
+
+        private boolean mightExist(int id) {
+            Snapshot current = snapshot;
+            if (current == null) {
+                return true;
+            }
+            // Longs, so that the range does not overflow near Integer.MAX_VALUE.
+            long distance = (long) id - current.maxRead();
+            if (distance < 0) {
+                return -distance < recheckIds || current.bloom().mightContain(id);
+            }
+            // Ids created on this instance beyond the range are in the filter, see add.
+            return distance < recheckIds || current.bloom().mightContain(id)
+                    || System.currentTimeMillis() - current.readAtMillis() > maxCatchUpAgeMillis;
+        }
+
+        private double expectedFalsePositiveRate() {
+            Snapshot current = snapshot;
+            return current == null ? 1 : current.bloom().expectedFalsePositiveRate();
+        }
+
+        private void add(Integer id) {
+            Snapshot current = snapshot;
+            if (id != null && current != null) {
+                current.bloom().add(id);
+            }
+        }
+
+        private synchronized void rebuild() {
+            long start = System.nanoTime();
+            long readAt = System.currentTimeMillis();
+            capacity = Math.max(MIN_CAPACITY, count.getAsLong() * 2);
+            BloomFilter bloom = new BloomFilter(capacity, falsePositiveRate);
+            deleted.set(0);
+            added = 0;
+            maxRead = 0;
+            load(bloom, 0);
+            snapshot = new Snapshot(bloom, maxRead, readAt);
+            log.atInfo().addKeyValue("entity", entity).addKeyValue("keys", added).addKeyValue("bits", bloom.bitSize())
+                    .addKeyValue("millis", (System.nanoTime() - start) / 1_000_000).log("Not-found filter rebuilt");
+        }
+
+        private synchronized void catchUp() {
+            Snapshot current = snapshot;
+            if (current == null) {
+                return;
+            }
+            if (added > capacity || deleted.get() * 10 > capacity) {
+                rebuild();
+                return;
+            }
+            long readAt = System.currentTimeMillis();
+            load(current.bloom(), maxRead - recheckIds);
+            snapshot = new Snapshot(current.bloom(), maxRead, readAt);
+        }
+
+        // Adds the ids above afterId, in batches, and returns with maxRead at the highest one.
+        private void load(BloomFilter bloom, int afterId) {
+            int after = afterId;
+            while (true) {
+                List<Integer> ids = idsAfter.apply(after, PageRequest.of(0, BATCH_SIZE));
+                for (Integer id : ids) {
+                    bloom.add(id);
+                    if (id > maxRead) {
+                        added++;
+                        maxRead = id;
+                    }
+                }
+                if (ids.size() < BATCH_SIZE) {
+                    return;
+                }
+                after = ids.get(ids.size() - 1);
+            }
+        }
+    }
+}
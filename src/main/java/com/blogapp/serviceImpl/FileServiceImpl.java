@@ -1,5 +1,7 @@
 package com.blogapp.serviceImpl;
 
+import com.blogapp.exception.ResouceNotFoundException;
+import com.blogapp.monitoring.FileIoEvent;
 import com.blogapp.services.FileService;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
@@ -12,29 +14,53 @@ import java.util.UUID;
 public class FileServiceImpl implements FileService {
     @Override
     public String uploadFile(String path, MultipartFile file) throws IOException {
-        //Get file name
-        String name= file.getOriginalFilename();
-        String randomID= UUID.randomUUID().toString();
-        //random file name
-        String fileName1=randomID.concat(name.substring(name.lastIndexOf(".")));
-        //full path
-        String filePath=path+File.separator+fileName1;
-        File f=new File(path);
-        if(!f.exists()){
-            f.mkdir();
+        FileIoEvent event = new FileIoEvent();
+        event.begin();
+        try {
+            //Get file name
+            String name= file.getOriginalFilename();
+            String randomID= UUID.randomUUID().toString();
+            //random file name
+            String fileName1=randomID.concat(name.substring(name.lastIndexOf(".")));
+            //full path
+            String filePath=path+File.separator+fileName1;
+            File f=new File(path);
+            if(!f.exists()){
+                f.mkdir();
+            }
+            long bytes = Files.copy(file.getInputStream(), Paths.get(filePath));
+            event.setFileName(fileName1);
+            event.setBytes(bytes);
+            return fileName1;
+        } catch (IOException | RuntimeException e) {
+            event.setFailed(true);
+            throw e;
+        } finally {
+            event.setOperation("upload");
+            event.commit();
         }
-        Files.copy(file.getInputStream(), Paths.get(filePath));
-        return fileName1;
     }
 
+    //Copies the image to the stream, so the event times the whole download and not only opening the file.
     @Override
-    public InputStream getResource(String path, String fileName) {
+    public long copyResource(String path, String fileName, OutputStream out) throws IOException {
+        FileIoEvent event = new FileIoEvent();
+        event.begin();
         String fullPath=path+File.separator+fileName;
-        try{
-         InputStream is=new FileInputStream(fullPath);
-            return is;
-        }catch (IOException e) {
-            throw new RuntimeException("File not found");
+        try (InputStream is=new FileInputStream(fullPath)) {
+            long bytes = is.transferTo(out);
+            event.setBytes(bytes);
+            return bytes;
+        }catch (FileNotFoundException e) {
+            event.setFailed(true);
+            throw new ResouceNotFoundException("Image " + fileName + " not found!");
+        } catch (IOException | RuntimeException e) {
+            event.setFailed(true);
+            throw e;
+        } finally {
+            event.setOperation("download");
+            event.setFileName(fileName);
+            event.commit();
         }
     }
 }
@@ -0,0 +1,120 @@
+package com.blogapp.serviceImpl;
+
+import java.util.concurrent.Callable;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import com.blogapp.config.CacheNames;
+import com.blogapp.config.CompressionProperties;
+import com.blogapp.services.CategoryService;
+import com.blogapp.services.JsonResponseCacheService;
+import com.blogapp.services.PostService;
+import com.blogapp.utils.Gzip;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * This class implements the JsonResponseCacheService interface to keep the
+ * responses of hot posts and of the category list as bytes, so that a hit
+ * skips Jackson and gzip and is copied straight to the response.
+ * <p>
+ * Posts live in the {@link CacheNames#POST_JSON} cache and are built from the
+ * PostDTO that {@link PostService#getPostById(Integer)} returns, the category
+ * list in {@link CacheNames#CATEGORY_LIST_JSON}. Both are written with the same
+ * ObjectMapper the message converters use, so the bytes are the ones the DTOs
+ * would have been written as, and gzipped once at
+ * {@code blogapp.compression.precompressed-level}. The invalidation bus evicts a
+ * post on every post edit and comment change, and everything on a user or
+ * category change.
+ */
+@Service
+@Slf4j
+public class JsonResponseCacheServiceImpl implements JsonResponseCacheService {
+
+    // The category list cache holds a single entry.
+    private static final String ALL_CATEGORIES = "all";
+
+    // Autowiring the PostService to read the post, from the DTO cache when it holds it.
+    @Autowired
+    private PostService postService;
+
+    // Autowiring the CategoryService to read the category list.
+    @Autowired
+    private CategoryService categoryService;
+
+    // Autowiring the ObjectMapper of the message converters to serialize the responses.
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Autowiring the CacheManager to reach the serialized response caches.
+    @Autowired
+    private CacheManager cacheManager;
+
+    // Autowiring the CompressionProperties for the size threshold and level of the gzip copies.
+    @Autowired
+    private CompressionProperties compressionProperties;
+
+    /**
+     * Returns the serialized post, serializing and caching it on a miss.
+     *
+     * @param postId The ID of the post.
+     * @return The serialized post.
+     * @throws com.blogapp.exception.ResouceNotFoundException if the post is not found.
+     */
+    @Override
+    public SerializedResponse getPost(Integer postId) {
+        return get(CacheNames.POST_JSON, postId, () -> serialize(postService.getPostById(postId)));
+    }
+
+    /**
+     * Returns the serialized list of all categories, serializing and caching it on a miss.
+     *
+     * @return The serialized category list.
+     */
+    @Override
+    public SerializedResponse getAllCategories() {
+        return get(CacheNames.CATEGORY_LIST_JSON, ALL_CATEGORIES, () -> serialize(categoryService.getAllCategories()));
+    }
+
+    // Concurrent misses for a key wait for one serialization, and an eviction that comes in
+    // while it runs removes its result once it is stored, so data read before a write commits
+    // is not left in the cache.
+    private SerializedResponse get(String cacheName, Object key, Callable<SerializedResponse> loader) {
+        Cache cache = cacheManager.getCache(cacheName);
+        try {
+            return cache == null ? loader.call() : cache.get(key, loader);
+        } catch (Cache.ValueRetrievalException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private SerializedResponse serialize(Object body) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + body.getClass().getSimpleName(), e);
+        }
+        byte[] gzip = json.length >= compressionProperties.getMinResponseSize()
+                ? Gzip.compress(json, compressionProperties.getPrecompressedLevel()) : null;
+        if (gzip != null && gzip.length >= json.length) {
+            gzip = null;
+        }
+        log.atDebug().addKeyValue("bytes", json.length).addKeyValue("gzipBytes", gzip == null ? 0 : gzip.length)
+                .log("Response serialized");
+        return new SerializedResponse(json, gzip, "\"" + DigestUtils.md5DigestAsHex(json) + "\"");
+    }
+}
@@ -0,0 +1,345 @@
+package com.blogapp.serviceImpl;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.blogapp.dto.CategoryDTO;
+import com.blogapp.dto.CommentDTO;
+import com.blogapp.dto.PostDTO;
+import com.blogapp.dto.PostSummaryDTO;
+import com.blogapp.dto.UserDTO;
+import com.blogapp.entities.ArchivedComment;
+import com.blogapp.entities.ArchivedPost;
+import com.blogapp.entities.OutboxEvent;
+import com.blogapp.exception.ResouceNotFoundException;
+import com.blogapp.invalidation.InvalidationBus;
+import com.blogapp.invalidation.InvalidationEvent;
+import com.blogapp.monitoring.LogMarkers;
+import com.blogapp.outbox.Outbox;
+import com.blogapp.repositories.ArchivedCommentRepository;
+import com.blogapp.repositories.ArchivedPostRepository;
+import com.blogapp.repositories.CategoryRepository;
+import com.blogapp.repositories.CommentRepository;
+import com.blogapp.repositories.OffsetPageRequest;
+import com.blogapp.repositories.PostBodyRepository;
+import com.blogapp.repositories.PostRepository;
+import com.blogapp.repositories.UserRepository;
+import com.blogapp.services.CommentStreamService;
+import com.blogapp.services.ExistenceFilterService;
+import com.blogapp.services.PostArchiveService;
+import com.blogapp.utils.BodyCompressor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * This class implements the PostArchiveService interface to keep the post and
+ * comments tables down to recent history. Posts older than
+ * {@code blogapp.archive.max-age-days} are moved to post_archive, with their
+ * body, and their comments to comments_archive, both partitioned by year.
+ * <p>
+ * The archiver moves one batch of at most {@code batch-size} posts per tick, in
+ * one transaction of a few set-based statements, so the scheduler thread is
+ * never held for long. Once a batch comes back short, the backlog is done and
+ * the table is looked at again after {@code check-interval-ms}. Archived posts
+ * leave the caches, feeds and title index as deleted posts do, through the
+ * invalidation bus and the outbox.
+ * <p>
+ * Archived posts are read-only. They are only read when a request asks for
+ * them with includeArchived=true.
+ */
+@Service
+@Slf4j
+public class PostArchiveServiceImpl implements PostArchiveService {
+
+    // Autowiring the PostRepository to find the posts due for the archive and remove them.
+    @Autowired
+    private PostRepository postRepository;
+
+    // Autowiring the CommentRepository to remove the comments of archived posts.
+    @Autowired
+    private CommentRepository commentRepository;
+
+    // Autowiring the PostBodyRepository to remove the bodies of archived posts.
+    @Autowired
+    private PostBodyRepository postBodyRepository;
+
+    // Autowiring the ArchivedPostRepository to copy posts into the archive and read them back.
+    @Autowired
+    private ArchivedPostRepository archivedPostRepository;
+
+    // Autowiring the ArchivedCommentRepository to copy comments into the archive and read them back.
+    @Autowired
+    private ArchivedCommentRepository archivedCommentRepository;
+
+    // Autowiring the UserRepository to read the author of an archived post.
+    @Autowired
+    private UserRepository userRepository;
+
+    // Autowiring the CategoryRepository to read the category of an archived post.
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    // Autowiring the ModelMapper to convert the author and category of an archived post.
+    @Autowired
+    private ModelMapper mapper;
+
+    // Autowiring the Outbox to take archived posts out of the feeds and the title index.
+    @Autowired
+    private Outbox outbox;
+
+    // Autowiring the InvalidationBus to evict archived posts from the caches on every instance.
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    // Autowiring the ExistenceFilterService to count archived posts as removed from the not-found filter.
+    @Autowired
+    private ExistenceFilterService existenceFilterService;
+
+    // Autowiring the CommentStreamService to close the comment streams of archived posts.
+    @Autowired
+    private CommentStreamService commentStreamService;
+
+    // Autowiring the TransactionTemplate to move each batch in its own transaction.
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Autowiring the MeterRegistry to count the archived rows and time the batches.
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${blogapp.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${blogapp.archive.max-age-days:365}")
+    private int maxAgeDays;
+
+    @Value("${blogapp.archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${blogapp.archive.check-interval-ms:3600000}")
+    private long checkIntervalMs;
+
+    @Value("${blogapp.archive.count-cache-ms:60000}")
+    private long countCacheMs;
+
+    // When the archiver next looks for posts, once it has caught up.
+    private volatile long nextCheckAt;
+
+    // Cached size of the archive, it only grows by the archiver's batches.
+    private volatile long archivedCount = -1;
+
+    private volatile long archivedCountAt;
+
+    private Counter archivedPosts;
+
+    private Counter archivedComments;
+
+    private Timer batches;
+
+    @PostConstruct
+    void registerMeters() {
+        archivedPosts = Counter.builder("blogapp.archive.posts").description("Posts moved to the archive")
+                .register(meterRegistry);
+        archivedComments = Counter.builder("blogapp.archive.comments").description("Comments moved to the archive")
+                .register(meterRegistry);
+        batches = Timer.builder("blogapp.archive.batch").description("Time taken to move one batch of posts to the archive")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Moves one batch of posts older than the maximum age to the archive, with
+     * their bodies and comments. Posts locked by a concurrent edit, or by the
+     * archiver of another instance, are skipped and moved by a later batch.
+     *
+     * @return The number of archived posts.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${blogapp.archive.batch-interval-ms:1000}", initialDelayString = "${blogapp.archive.initial-delay-ms:60000}")
+    public int archiveOldPosts() {
+        long now = System.currentTimeMillis();
+        if (!enabled || now < nextCheckAt) {
+            return 0;
+        }
+        Date before = new Date(now - TimeUnit.DAYS.toMillis(maxAgeDays));
+        Integer archived = batches.record(() -> transactionTemplate.execute(status -> archiveBatch(before)));
+        if (archived < batchSize) {
+            nextCheckAt = now + checkIntervalMs;
+        }
+        if (archived > 0) {
+            archivedCount = -1;
+        }
+        return archived;
+    }
+
+    /**
+     * Retrieves an archived post with its body, author, category and comments.
+     *
+     * @param postId The ID of the post.
+     * @return The PostDTO.
+     * @throws ResouceNotFoundException if the post is not in the archive.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public PostDTO getArchivedPost(Integer postId) {
+        log.atDebug().addKeyValue("postId", postId).log("Retrieving archived post");
+        ArchivedPost post = archivedPostRepository.findById(postId)
+                .orElseThrow(() -> new ResouceNotFoundException("Post with given ID " + postId + " not found!"));
+        PostDTO postDTO = new PostDTO();
+        postDTO.setPostId(post.getPostId());
+        postDTO.setTitle(post.getTitle());
+        postDTO.setImageName(post.getImageName());
+        postDTO.setDate(post.getDate());
+        postDTO.setContent(body(post));
+        if (post.getUserId() != null) {
+            userRepository.findById(post.getUserId()).ifPresent(user -> postDTO.setUser(mapper.map(user, UserDTO.class)));
+        }
+        if (post.getCategoryId() != null) {
+            categoryRepository.findById(post.getCategoryId())
+                    .ifPresent(category -> postDTO.setCategory(mapper.map(category, CategoryDTO.class)));
+        }
+        for (ArchivedComment comment : archivedCommentRepository.findByPostIdAndPostDateOrderById(postId, post.getDate())) {
+            CommentDTO commentDTO = new CommentDTO();
+            commentDTO.setId(comment.getId());
+            commentDTO.setContent(comment.getContent());
+            postDTO.getComments().add(commentDTO);
+        }
+        LogMarkers.atInfoSampled(log).addKeyValue("postId", postId).log("Archived post retrieved");
+        return postDTO;
+    }
+
+    /**
+     * Retrieves archived post summaries from any position, without counting them.
+     *
+     * @param offset The number of archived posts to skip.
+     * @param limit The maximum number of posts to return.
+     * @param sort The order of the posts.
+     * @return A list of PostSummaryDTO.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<PostSummaryDTO> getArchivedPosts(long offset, int limit, Sort sort) {
+        return archivedPostRepository.findSummaries(new OffsetPageRequest(offset, limit, sort));
+    }
+
+    /**
+     * Counts the archived posts, re-counted at most every {@code count-cache-ms}
+     * as a count reads every partition.
+     *
+     * @return The number of archived posts.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long countArchivedPosts() {
+        long now = System.currentTimeMillis();
+        long count = archivedCount;
+        if (count < 0 || now - archivedCountAt > countCacheMs) {
+            count = archivedPostRepository.count();
+            archivedCountAt = now;
+            archivedCount = count;
+        }
+        return count;
+    }
+
+    /**
+     * Retrieves the archived post summaries of a category, newest first.
+     *
+     * @param categoryId The ID of the category.
+     * @return A list of PostSummaryDTO.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<PostSummaryDTO> getArchivedPostsByCategory(Integer categoryId) {
+        return archivedPostRepository.findSummariesByCategoryId(categoryId);
+    }
+
+    /**
+     * Retrieves the archived post summaries of a user, newest first.
+     *
+     * @param userId The ID of the user.
+     * @return A list of PostSummaryDTO.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<PostSummaryDTO> getArchivedPostsByUser(Integer userId) {
+        return archivedPostRepository.findSummariesByUserId(userId);
+    }
+
+    /**
+     * Removes the archived posts of a deleted category, in the caller's
+     * transaction, as the hot posts of the category are removed with it.
+     *
+     * @param categoryId The ID of the deleted category.
+     */
+    @Override
+    @Transactional
+    public void categoryDeleted(Integer categoryId) {
+        archivedCommentRepository.deleteByCategoryId(categoryId);
+        if (archivedPostRepository.deleteByCategoryId(categoryId) > 0) {
+            archivedCount = -1;
+        }
+    }
+
+    /**
+     * Removes the archived posts of a deleted user, in the caller's
+     * transaction, as the hot posts of the user are removed with it.
+     *
+     * @param userId The ID of the deleted user.
+     */
+    @Override
+    @Transactional
+    public void userDeleted(Integer userId) {
+        archivedCommentRepository.deleteByUserId(userId);
+        if (archivedPostRepository.deleteByUserId(userId) > 0) {
+            archivedCount = -1;
+        }
+    }
+
+    private int archiveBatch(Date before) {
+        List<Integer> postIds = postRepository.findIdsToArchive(before, PageRequest.of(0, batchSize));
+        if (postIds.isEmpty()) {
+            return 0;
+        }
+        //Copied with INSERT ... SELECT, so the rows, bodies included, never travel through the application.
+        archivedPostRepository.copyFromPosts(postIds, new Date());
+        int comments = archivedCommentRepository.copyFromPosts(postIds);
+        commentRepository.deleteByPostIdIn(postIds);
+        postBodyRepository.deleteAllByIdInBatch(postIds);
+        postRepository.deleteAllByIdInBatch(postIds);
+        for (Integer postId : postIds) {
+            outbox.append(OutboxEvent.Type.POST_ARCHIVED, postId);
+            existenceFilterService.postDeleted(postId);
+            commentStreamService.postDeleted(postId);
+            invalidationBus.publish(InvalidationEvent.Type.POST, postId);
+        }
+        archivedPosts.increment(postIds.size());
+        archivedComments.increment(comments);
+        log.atInfo().addKeyValue("posts", postIds.size()).addKeyValue("comments", comments)
+                .addKeyValue("before", before).log("Posts archived");
+        return postIds.size();
+    }
+
+    private static String body(ArchivedPost post) {
+        if (post.getLegacyContent() != null) {
+            return post.getLegacyContent();
+        }
+        if (post.getBodyData() == null) {
+            return null;
+        }
+        return BodyCompressor.decompress(post.getBodyCodec(), post.getBodyOriginalLength(), post.getBodyData());
+    }
+}
@@ -0,0 +1,175 @@
+package com.blogapp.serviceImpl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.blogapp.entities.Post;
+import com.blogapp.entities.PostBody;
+import com.blogapp.repositories.PostBodyRepository;
+import com.blogapp.repositories.PostRepository;
+import com.blogapp.services.PostBodyService;
+import com.blogapp.utils.BodyCompressor;
+import com.blogapp.utils.PostExcerpts;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * This class implements the PostBodyService interface to store post bodies in
+ * the post_body table, compressed above {@code blogapp.post-body.compression-threshold-bytes},
+ * and to move bodies still held in the legacy post.content column over to it.
+ * Callers run these methods inside their own transaction.
+ */
+@Service
+@Slf4j
+public class PostBodyServiceImpl implements PostBodyService {
+
+    // Autowiring the PostBodyRepository to read and write the bodies.
+    @Autowired
+    private PostBodyRepository postBodyRepository;
+
+    // Autowiring the PostRepository to find posts whose body is not migrated yet.
+    @Autowired
+    private PostRepository postRepository;
+
+    // Autowiring the TransactionTemplate to run each migration batch in its own transaction.
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${blogapp.post-body.compression-threshold-bytes:512}")
+    private int compressionThreshold;
+
+    @Value("${blogapp.post-body.compression-level:6}")
+    private int compressionLevel;
+
+    @Value("${blogapp.post-body.migration-batch-size:200}")
+    private int migrationBatchSize;
+
+    // Highest post id the migration has passed; migrated rows are never selected again.
+    private volatile int migratedUpTo;
+
+    private volatile boolean migrationDone;
+
+    /**
+     * Reads the full body of a post.
+     *
+     * @param post The post.
+     * @return The body, or null when the post has none.
+     */
+    @Override
+    public String getBody(Post post) {
+        if (post.getLegacyContent() != null) {
+            return post.getLegacyContent();
+        }
+        return postBodyRepository.findById(post.getPostId())
+                .map(body -> BodyCompressor.decompress(body.getCodec(), body.getOriginalLength(), body.getData()))
+                .orElse(null);
+    }
+
+    /**
+     * Reads the full bodies of several posts with one query.
+     *
+     * @param posts The posts.
+     * @return The bodies by post ID, posts without a body are left out.
+     */
+    @Override
+    public Map<Integer, String> getBodies(Collection<Post> posts) {
+        Map<Integer, String> bodies = new HashMap<>();
+        List<Integer> stored = new ArrayList<>();
+        for (Post post : posts) {
+            if (post.getLegacyContent() != null) {
+                bodies.put(post.getPostId(), post.getLegacyContent());
+            } else {
+                stored.add(post.getPostId());
+            }
+        }
+        if (!stored.isEmpty()) {
+            postBodyRepository.findAllById(stored).forEach(body -> bodies.put(body.getPostId(),
+                    BodyCompressor.decompress(body.getCodec(), body.getOriginalLength(), body.getData())));
+        }
+        return bodies;
+    }
+
+    /**
+     * Stores the body of a new post with a single insert.
+     *
+     * @param postId The ID of the post.
+     * @param content The body, nothing is stored when it is null.
+     */
+    @Override
+    public void createBody(Integer postId, String content) {
+        if (content != null) {
+            postBodyRepository.save(new PostBody(postId, compress(content)));
+        }
+    }
+
+    /**
+     * Replaces the body of a post, inserting it when the post had none.
+     *
+     * @param postId The ID of the post.
+     * @param content The new body, the stored body is removed when it is null.
+     */
+    @Override
+    public void updateBody(Integer postId, String content) {
+        if (content == null) {
+            postBodyRepository.deleteById(postId);
+            return;
+        }
+        BodyCompressor.Compressed compressed = compress(content);
+        if (postBodyRepository.updateBody(postId, compressed.codec(), compressed.originalLength(), compressed.data()) == 0) {
+            postBodyRepository.save(new PostBody(postId, compressed));
+        }
+    }
+
+    /**
+     * Moves one batch of bodies from post.content to post_body and fills in
+     * their excerpts. Runs on a schedule until a pass over the whole table finds
+     * no legacy body. Each batch locks its rows and skips rows that are locked
+     * by a concurrent edit; the next pass retries them.
+     *
+     * @return The number of migrated posts.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${blogapp.post-body.migration-interval-ms:5000}", initialDelayString = "${blogapp.post-body.migration-interval-ms:5000}")
+    public int migrateLegacyBodies() {
+        if (migrationDone) {
+            return 0;
+        }
+        Integer migrated = transactionTemplate.execute(status -> {
+            List<Post> posts = postRepository.findLegacyBodies(migratedUpTo, PageRequest.of(0, migrationBatchSize));
+            for (Post post : posts) {
+                String content = post.getLegacyContent();
+                updateBody(post.getPostId(), content);
+                post.setExcerpt(PostExcerpts.of(content));
+                post.setLegacyContent(null);
+            }
+            if (!posts.isEmpty()) {
+                migratedUpTo = posts.get(posts.size() - 1).getPostId();
+            }
+            return posts.size();
+        });
+        if (migrated == 0 && migratedUpTo == 0 && !postRepository.existsByLegacyContentIsNotNull()) {
+            migrationDone = true;
+            log.info("Post body migration complete");
+        } else if (migrated == 0) {
+            // Another pass from the start picks up rows that were skipped while locked.
+            migratedUpTo = 0;
+        } else {
+            log.atInfo().addKeyValue("posts", migrated).addKeyValue("upToPostId", migratedUpTo).log("Post bodies migrated");
+        }
+        return migrated;
+    }
+
+    private BodyCompressor.Compressed compress(String content) {
+        return BodyCompressor.compress(content, compressionThreshold, compressionLevel);
+    }
+}
@@ -0,0 +1,359 @@
+package com.blogapp.serviceImpl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.blogapp.dto.PostSummaryDTO;
+import com.blogapp.entities.Category;
+import com.blogapp.entities.OutboxEvent;
+import com.blogapp.entities.Post;
+import com.blogapp.entities.User;
+import com.blogapp.invalidation.InvalidationEvent;
+import com.blogapp.invalidation.InvalidationListener;
+import com.blogapp.outbox.OutboxHandler;
+import com.blogapp.repositories.CategoryRepository;
+import com.blogapp.repositories.PostRepository;
+import com.blogapp.repositories.UserRepository;
+import com.blogapp.services.PostFeedService;
+import com.blogapp.utils.LatestPostsFeed;
+import com.blogapp.utils.PostExcerpts;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * This class implements the PostFeedService interface to serve "latest posts"
+ * lists, globally and per category, from memory. Each feed keeps at most
+ * {@code blogapp.feed.capacity} post summaries, and is refilled from the
+ * database when a full feed loses posts.
+ */
+@Service
+@Slf4j
+public class PostFeedServiceImpl implements PostFeedService, InvalidationListener, OutboxHandler {
+
+    private static final Comparator<FeedEntry> NEWEST_FIRST = Comparator
+            .comparing((FeedEntry entry) -> entry.summary().getDate(), Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(entry -> entry.summary().getPostId(), Comparator.reverseOrder());
+
+    // Autowiring the PostRepository to load the feeds at startup and refill them after removals.
+    @Autowired
+    private PostRepository postRepository;
+
+    // Autowiring the CategoryRepository to load one feed per category at startup.
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    // Autowiring the UserRepository to read the users renamed on other instances.
+    @Autowired
+    private UserRepository userRepository;
+
+    private final int capacity;
+
+    // Replaced as a whole by warmUp.
+    private volatile Feeds feeds;
+
+    // Updates made while warmUp builds new feeds, applied to them once in place. Null when not loading. Guarded by this.
+    private List<Consumer<Feeds>> updatesWhileLoading;
+
+    public PostFeedServiceImpl(@Value("${blogapp.feed.capacity:50}") int capacity) {
+        this.capacity = capacity;
+        this.feeds = new Feeds(newFeed(), new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Retrieves the newest posts across all categories.
+     *
+     * @param limit Maximum number of posts, capped at the feed capacity.
+     * @return The newest post summaries, newest first.
+     */
+    @Override
+    public List<PostSummaryDTO> getLatestPosts(int limit) {
+        return summaries(feeds.global().latest(limit));
+    }
+
+    /**
+     * Retrieves the newest posts of a category.
+     *
+     * @param categoryId The ID of the category.
+     * @param limit Maximum number of posts, capped at the feed capacity.
+     * @return The newest post summaries of the category, newest first.
+     */
+    @Override
+    public List<PostSummaryDTO> getLatestPostsByCategory(Integer categoryId, int limit) {
+        LatestPostsFeed<FeedEntry> feed = feeds.categories().get(categoryId);
+        return feed == null ? List.of() : summaries(feed.latest(limit));
+    }
+
+    /**
+     * Brings the posts of the events up to date in the feeds: posts that still
+     * exist are read again, with their author and category, and put in the
+     * feeds they belong to, the others are removed from every feed. Comment
+     * events are ignored, the feeds do not show comments. Read from the
+     * primary: a replica may not have the posts yet, and would have them removed.
+     *
+     * @param events The committed post and comment events.
+     */
+    @Override
+    @Transactional
+    public void onOutboxEvents(List<OutboxEvent> events) {
+        Set<Integer> postIds = new HashSet<>();
+        for (OutboxEvent event : events) {
+            if (event.getType() != OutboxEvent.Type.COMMENT_ADDED && event.getType() != OutboxEvent.Type.COMMENT_DELETED) {
+                postIds.add(event.getAggregateId());
+            }
+        }
+        reloadPosts(postIds);
+    }
+
+    /**
+     * Drops the feed of a deleted category and its posts from the global feed,
+     * once the delete is committed.
+     *
+     * @param categoryId The ID of the deleted category.
+     */
+    @Override
+    public void categoryDeleted(Integer categoryId) {
+        afterCommit(() -> apply(feeds -> {
+            feeds.categories().remove(categoryId);
+            removeFromFeeds(feeds, entry -> categoryId.equals(entry.categoryId()));
+        }));
+    }
+
+    /**
+     * Removes the posts of a deleted user from every feed, once the delete is
+     * committed.
+     *
+     * @param userId The ID of the deleted user.
+     */
+    @Override
+    public void userDeleted(Integer userId) {
+        afterCommit(() -> apply(feeds -> removeFromFeeds(feeds, entry -> userId.equals(entry.userId()))));
+    }
+
+    /**
+     * Shows the new title of a category on its posts, once the update is committed.
+     *
+     * @param categoryId The ID of the category.
+     * @param title The new title.
+     */
+    @Override
+    public void categoryUpdated(Integer categoryId, String title) {
+        afterCommit(() -> apply(feeds -> feeds.replaceIf(entry -> categoryId.equals(entry.categoryId()),
+                entry -> entry.with(summary -> summary.setCategoryTitle(title)))));
+    }
+
+    /**
+     * Shows the new name of a user on their posts, once the update is committed.
+     *
+     * @param userId The ID of the user.
+     * @param name The new name.
+     */
+    @Override
+    public void userUpdated(Integer userId, String name) {
+        afterCommit(() -> apply(feeds -> feeds.replaceIf(entry -> userId.equals(entry.userId()),
+                entry -> entry.with(summary -> summary.setAuthorName(name)))));
+    }
+
+    /**
+     * Loads the global feed and one feed per category from the database. The
+     * new feeds are built aside and replace the current ones at once; updates
+     * made meanwhile are applied to both.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long start = System.nanoTime();
+        synchronized (this) {
+            updatesWhileLoading = new ArrayList<>();
+        }
+        List<Consumer<Feeds>> updates;
+        Feeds loaded;
+        try {
+            PageRequest newest = PageRequest.of(0, capacity);
+            LatestPostsFeed<FeedEntry> global = newFeed();
+            global.reset(postRepository.findAllByOrderByDateDescPostIdDesc(newest).stream().map(this::toEntry).toList());
+            Map<Integer, LatestPostsFeed<FeedEntry>> categories = new ConcurrentHashMap<>();
+            for (Category category : categoryRepository.findAll()) {
+                LatestPostsFeed<FeedEntry> feed = newFeed();
+                feed.reset(postRepository.findByCategoryOrderByDateDescPostIdDesc(category, newest).stream()
+                        .map(this::toEntry).toList());
+                categories.put(category.getCategoryId(), feed);
+            }
+            loaded = new Feeds(global, categories);
+        } finally {
+            synchronized (this) {
+                updates = updatesWhileLoading;
+                updatesWhileLoading = null;
+            }
+        }
+        synchronized (this) {
+            feeds = loaded;
+        }
+        updates.forEach(update -> update.accept(loaded));
+        log.atInfo().addKeyValue("categories", loaded.categories().size()).addKeyValue("posts", loaded.global().size())
+                .addKeyValue("replayed", updates.size())
+                .addKeyValue("millis", (System.nanoTime() - start) / 1_000_000).log("Post feeds loaded");
+    }
+
+    /**
+     * Brings the feeds up to date after another instance changed posts,
+     * categories or users: the posts of the events are read again, renamed
+     * categories and users are renamed in the feeds and deleted ones removed.
+     * A type-wide event reloads the feeds. Read from the primary, like the
+     * outbox events.
+     *
+     * @param events The events published by the other instance.
+     */
+    @Override
+    @Transactional
+    public void onRemoteInvalidation(Collection<InvalidationEvent> events) {
+        if (events.stream().anyMatch(InvalidationEvent::isTypeWide)) {
+            warmUp();
+            return;
+        }
+        Set<Integer> categoryIds = ids(events, InvalidationEvent.Type.CATEGORY);
+        Set<Integer> userIds = ids(events, InvalidationEvent.Type.USER);
+        List<Category> categories = categoryIds.isEmpty() ? List.of() : categoryRepository.findAllById(categoryIds);
+        List<User> users = userIds.isEmpty() ? List.of() : userRepository.findAllById(userIds);
+        categories.forEach(category -> categoryIds.remove(category.getCategoryId()));
+        users.forEach(user -> userIds.remove(user.getId()));
+        categories.forEach(category -> categoryUpdated(category.getCategoryId(), category.getCategoryTitle()));
+        users.forEach(user -> userUpdated(user.getId(), user.getName()));
+        // The ids left over are those of deleted categories and users.
+        categoryIds.forEach(this::categoryDeleted);
+        userIds.forEach(this::userDeleted);
+        reloadPosts(ids(events, InvalidationEvent.Type.POST));
+    }
+
+    // Reads the posts again; those not found any more were deleted or archived.
+    private void reloadPosts(Set<Integer> postIds) {
+        if (postIds.isEmpty()) {
+            return;
+        }
+        List<FeedEntry> entries = postRepository.findWithUserAndCategoryByPostIdIn(postIds).stream().map(this::toEntry)
+                .toList();
+        Set<Integer> missing = new HashSet<>(postIds);
+        entries.forEach(entry -> missing.remove(entry.summary().getPostId()));
+        apply(feeds -> {
+            entries.forEach(entry -> upsert(feeds, entry));
+            if (!missing.isEmpty()) {
+                removeFromFeeds(feeds, entry -> missing.contains(entry.summary().getPostId()));
+            }
+        });
+    }
+
+    // Applies an update to the current feeds, and to those being loaded if any.
+    private void apply(Consumer<Feeds> update) {
+        Feeds current;
+        synchronized (this) {
+            current = feeds;
+            if (updatesWhileLoading != null) {
+                updatesWhileLoading.add(update);
+            }
+        }
+        update.accept(current);
+    }
+
+    private void upsert(Feeds feeds, FeedEntry entry) {
+        feeds.global().upsert(entry);
+        if (entry.categoryId() != null) {
+            feeds.categories().computeIfAbsent(entry.categoryId(), id -> newFeed()).upsert(entry);
+        }
+    }
+
+    // A full feed that lost entries is refilled with the newest posts it does not hold yet,
+    // leaving out those just removed in case the read does not see the removal yet.
+    private void removeFromFeeds(Feeds feeds, Predicate<FeedEntry> removed) {
+        PageRequest newest = PageRequest.of(0, capacity);
+        if (feeds.global().removeIf(removed)) {
+            feeds.global().fill(postRepository.findAllByOrderByDateDescPostIdDesc(newest).stream().map(this::toEntry)
+                    .filter(removed.negate()).toList());
+        }
+        feeds.categories().forEach((categoryId, feed) -> {
+            if (feed.removeIf(removed)) {
+                feed.fill(postRepository
+                        .findByCategoryOrderByDateDescPostIdDesc(categoryRepository.getReferenceById(categoryId), newest)
+                        .stream().map(this::toEntry).filter(removed.negate()).toList());
+            }
+        });
+    }
+
+    private static Set<Integer> ids(Collection<InvalidationEvent> events, InvalidationEvent.Type type) {
+        Set<Integer> ids = new HashSet<>();
+        events.stream().filter(event -> event.type() == type).forEach(event -> ids.add(event.id()));
+        return ids;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private LatestPostsFeed<FeedEntry> newFeed() {
+        return new LatestPostsFeed<>(capacity, NEWEST_FIRST, entry -> entry.summary().getPostId());
+    }
+
+    private FeedEntry toEntry(Post post) {
+        PostSummaryDTO summary = new PostSummaryDTO(post.getPostId(), post.getTitle(), excerpt(post), post.getDate(),
+                post.getUser() == null ? null : post.getUser().getName(),
+                post.getCategory() == null ? null : post.getCategory().getCategoryTitle(), post.getImageName());
+        return new FeedEntry(summary, post.getCategory() == null ? null : post.getCategory().getCategoryId(),
+                post.getUser() == null ? null : post.getUser().getId());
+    }
+
+    // Posts whose body has not been migrated to post_body yet have no stored excerpt.
+    private static String excerpt(Post post) {
+        return post.getExcerpt() != null ? post.getExcerpt() : PostExcerpts.of(post.getLegacyContent());
+    }
+
+    private static List<PostSummaryDTO> summaries(List<FeedEntry> entries) {
+        return entries.stream().map(FeedEntry::summary).toList();
+    }
+
+    // Category and user ids are kept next to the summary so deletes and renames can be applied without a query.
+    private record FeedEntry(PostSummaryDTO summary, Integer categoryId, Integer userId) {
+
+        // A copy with a changed summary, the summaries being shared with the readers.
+        FeedEntry with(Consumer<PostSummaryDTO> change) {
+            PostSummaryDTO copy = new PostSummaryDTO(summary.getPostId(), summary.getTitle(), summary.getExcerpt(),
+                    summary.getDate(), summary.getAuthorName(), summary.getCategoryTitle(), summary.getImageName());
+            change.accept(copy);
+            return new FeedEntry(copy, categoryId, userId);
+        }
+    }
+
+    private record Feeds(LatestPostsFeed<FeedEntry> global, Map<Integer, LatestPostsFeed<FeedEntry>> categories) {
+
+        void replaceIf(Predicate<FeedEntry> filter, UnaryOperator<FeedEntry> update) {
+            global.replaceIf(filter, update);
+            categories.values().forEach(feed -> feed.replaceIf(filter, update));
+        }
+    }
+}
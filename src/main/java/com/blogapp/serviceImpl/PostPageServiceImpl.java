@@ -0,0 +1,244 @@
+package com.blogapp.serviceImpl;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.blogapp.datasource.WriteStickiness;
+import com.blogapp.dto.CommentDTO;
+import com.blogapp.dto.PostDTO;
+import com.blogapp.dto.PostPageDTO;
+import com.blogapp.dto.PostSummaryDTO;
+import com.blogapp.monitoring.LogMarkers;
+import com.blogapp.repositories.CommentRepository;
+import com.blogapp.repositories.PostRepository;
+import com.blogapp.services.PostPageService;
+import com.blogapp.services.PostService;
+import com.blogapp.services.RelatedPostsService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * This class implements the PostPageService interface to read everything a
+ * post page shows in one call: the post, its newest comments, the newest
+ * other posts of its author and of its category, and its related posts.
+ * <p>
+ * The five parts are read at the same time on a pool of
+ * {@code blogapp.post-page.threads} threads, which also bounds the database
+ * connections the endpoint holds, so a page takes about as long as its slowest
+ * part. Only the post is required, and it may take up to {@code post-timeout-ms}.
+ * The other parts must finish within {@code part-timeout-ms} of the request,
+ * otherwise they are left out and named as unavailable, as are parts that fail
+ * or find the pool full. A part that timed out before it started is not run.
+ */
+@Service
+@Slf4j
+public class PostPageServiceImpl implements PostPageService {
+
+    private static final String POST = "post";
+
+    private static final String COMMENTS = "comments";
+
+    private static final String AUTHOR_POSTS = "authorPosts";
+
+    private static final String CATEGORY_POSTS = "categoryPosts";
+
+    private static final String RELATED_POSTS = "relatedPosts";
+
+    // Autowiring the PostService to read the post through the post cache.
+    @Autowired
+    private PostService postService;
+
+    // Autowiring the PostRepository to read the other posts of the author and the category.
+    @Autowired
+    private PostRepository postRepository;
+
+    // Autowiring the CommentRepository to read the newest comments.
+    @Autowired
+    private CommentRepository commentRepository;
+
+    // Autowiring the RelatedPostsService to find the related posts from memory.
+    @Autowired
+    private RelatedPostsService relatedPostsService;
+
+    // Autowiring the MeterRegistry to time the parts and count the ones left out.
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${blogapp.post-page.threads:8}")
+    private int threads;
+
+    @Value("${blogapp.post-page.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${blogapp.post-page.post-timeout-ms:2000}")
+    private long postTimeoutMs;
+
+    @Value("${blogapp.post-page.part-timeout-ms:500}")
+    private long partTimeoutMs;
+
+    @Value("${blogapp.post-page.comments:20}")
+    private int commentLimit;
+
+    @Value("${blogapp.post-page.author-posts:5}")
+    private int authorPostLimit;
+
+    @Value("${blogapp.post-page.category-posts:5}")
+    private int categoryPostLimit;
+
+    @Value("${blogapp.post-page.related-posts:5}")
+    private int relatedPostLimit;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger count = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "post-page-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Reads a post page, its parts at the same time.
+     *
+     * @param postId The ID of the post.
+     * @return The PostPageDTO, without the parts that were not read in time.
+     * @throws com.blogapp.exception.ResouceNotFoundException if the post is not found.
+     * @throws ResponseStatusException with 503 when the post itself is not read in time.
+     */
+    @Override
+    public PostPageDTO getPostPage(Integer postId) {
+        log.atDebug().addKeyValue("postId", postId).log("Retrieving post page");
+        long start = System.nanoTime();
+        long postDeadline = start + TimeUnit.MILLISECONDS.toNanos(postTimeoutMs);
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(partTimeoutMs);
+        CompletableFuture<PostDTO> post = submit(POST, () -> withoutComments(postService.getPostById(postId)));
+        CompletableFuture<List<CommentDTO>> comments = submit(COMMENTS,
+                () -> commentRepository.findLatestByPostId(postId, PageRequest.of(0, commentLimit)));
+        CompletableFuture<List<PostSummaryDTO>> authorPosts = submit(AUTHOR_POSTS,
+                () -> postRepository.findSummariesBySameUser(postId, PageRequest.of(0, authorPostLimit)));
+        CompletableFuture<List<PostSummaryDTO>> categoryPosts = submit(CATEGORY_POSTS,
+                () -> postRepository.findSummariesBySameCategory(postId, PageRequest.of(0, categoryPostLimit)));
+        CompletableFuture<List<PostSummaryDTO>> relatedPosts = submit(RELATED_POSTS,
+                () -> relatedPostsService.getRelatedPosts(postId, relatedPostLimit));
+        PostPageDTO page = new PostPageDTO();
+        try {
+            page.setPost(await(POST, post, postDeadline));
+        } catch (RuntimeException e) {
+            comments.cancel(false);
+            authorPosts.cancel(false);
+            categoryPosts.cancel(false);
+            relatedPosts.cancel(false);
+            throw e;
+        }
+        page.setComments(awaitOptional(COMMENTS, comments, deadline, page));
+        page.setAuthorPosts(awaitOptional(AUTHOR_POSTS, authorPosts, deadline, page));
+        page.setCategoryPosts(awaitOptional(CATEGORY_POSTS, categoryPosts, deadline, page));
+        page.setRelatedPosts(awaitOptional(RELATED_POSTS, relatedPosts, deadline, page));
+        LogMarkers.atInfoSampled(log).addKeyValue("postId", postId)
+                .addKeyValue("unavailable", page.getUnavailable()).log("Post page retrieved");
+        return page;
+    }
+
+    // Runs a part on the pool, with the client bound so that its reads see the client's own writes.
+    private <T> CompletableFuture<T> submit(String part, Supplier<T> supplier) {
+        String client = WriteStickiness.currentClient();
+        Timer timer = Timer.builder("blogapp.post-page.part").description("Time taken to read a part of a post page")
+                .tag("part", part).register(meterRegistry);
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                WriteStickiness.bindClient(client);
+                try {
+                    return timer.record(supplier);
+                } finally {
+                    WriteStickiness.clearClient();
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private <T> T await(String part, CompletableFuture<T> future, long deadline) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            //the post's own exception, e.g. not found
+            if (e.getCause() instanceof RuntimeException cause && !(cause instanceof RejectedExecutionException)) {
+                throw cause;
+            }
+            unavailable(part, "rejected");
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many post pages being read");
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            unavailable(part, "timeout");
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Timed out reading post");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading post", e);
+        }
+    }
+
+    private <T> T awaitOptional(String part, CompletableFuture<T> future, long deadline, PostPageDTO page) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            String reason = e.getCause() instanceof RejectedExecutionException ? "rejected" : "error";
+            log.atWarn().setCause(e.getCause()).addKeyValue("part", part).log("Post page part failed");
+            unavailable(part, reason);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            unavailable(part, "timeout");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            unavailable(part, "interrupted");
+        }
+        page.getUnavailable().add(part);
+        return null;
+    }
+
+    private void unavailable(String part, String reason) {
+        meterRegistry.counter("blogapp.post-page.unavailable", "part", part, "reason", reason).increment();
+    }
+
+    // A copy, as the cached PostDTO is shared, without the comments, which are a part of their own.
+    private static PostDTO withoutComments(PostDTO post) {
+        PostDTO copy = new PostDTO();
+        copy.setPostId(post.getPostId());
+        copy.setTitle(post.getTitle());
+        copy.setContent(post.getContent());
+        copy.setImageName(post.getImageName());
+        copy.setDate(post.getDate());
+        copy.setCategory(post.getCategory());
+        copy.setUser(post.getUser());
+        return copy;
+    }
+}
@@ -1,27 +1,57 @@
 package com.blogapp.serviceImpl;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
 
+import com.blogapp.config.AppConstants;
+import com.blogapp.config.CacheNames;
 import com.blogapp.dto.PostRespose;
+import com.blogapp.dto.PostSummaryDTO;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import com.blogapp.dto.CategoryDTO;
+import com.blogapp.dto.PostBatchEntryDTO;
 import com.blogapp.dto.PostDTO;
-import com.blogapp.entities.Category;
+import com.blogapp.dto.UserDTO;
+import com.blogapp.entities.OutboxEvent;
 import com.blogapp.entities.Post;
-import com.blogapp.entities.User;
 import com.blogapp.exception.ResouceNotFoundException;
+import com.blogapp.invalidation.InvalidationBus;
+import com.blogapp.invalidation.InvalidationEvent;
+import com.blogapp.monitoring.LogMarkers;
+import com.blogapp.outbox.Outbox;
 import com.blogapp.repositories.CategoryRepository;
+import com.blogapp.repositories.OffsetPageRequest;
+import com.blogapp.repositories.PostField;
 import com.blogapp.repositories.PostRepository;
+import com.blogapp.repositories.PostSpecifications;
 import com.blogapp.repositories.UserRepository;
+import com.blogapp.services.CommentStreamService;
+import com.blogapp.services.ExistenceFilterService;
+import com.blogapp.services.PostArchiveService;
+import com.blogapp.services.PostBodyService;
 import com.blogapp.services.PostService;
+import com.blogapp.services.RequestCoalescingService;
+import com.blogapp.utils.PostExcerpts;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -32,6 +62,12 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class PostServiceImpl implements PostService {
 
+    // InnoDB default for innodb_ft_min_token_size.
+    private static final int FULL_TEXT_MIN_TOKEN_SIZE = 3;
+
+    // Sorts under which the archived posts come wholly before or after the hot ones.
+    private static final Set<String> ARCHIVE_SORTS = Set.of("date", "postId");
+
     // Autowiring the PostRepository to interact with the database.
     @Autowired
     PostRepository postRepository;
@@ -48,6 +84,42 @@ public class PostServiceImpl implements PostService {
     @Autowired
     CategoryRepository categoryRepository;
 
+    // Autowiring the PostBodyService to store post bodies outside the post row.
+    @Autowired
+    PostBodyService postBodyService;
+
+    // Autowiring the PostArchiveService to read on into the archive when a request asks for it.
+    @Autowired
+    PostArchiveService postArchiveService;
+
+    // Autowiring the InvalidationBus to evict cached posts on every instance.
+    @Autowired
+    InvalidationBus invalidationBus;
+
+    // Autowiring the Outbox to bring the feeds and the title index up to date after commit.
+    @Autowired
+    Outbox outbox;
+
+    // Autowiring the ExistenceFilterService to keep the not-found filter current.
+    @Autowired
+    ExistenceFilterService existenceFilterService;
+
+    // Autowiring the CommentStreamService to close the comment streams of deleted posts.
+    @Autowired
+    CommentStreamService commentStreamService;
+
+    // Autowiring the CacheManager to serve batch lookups from the post cache.
+    @Autowired
+    CacheManager cacheManager;
+
+    // Autowiring the TransactionTemplate to read the posts a batch misses in the cache, without a transaction for cache hits.
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    // Autowiring the RequestCoalescingService to share one load between concurrent identical reads.
+    @Autowired
+    RequestCoalescingService requestCoalescingService;
+
     /**
      * Creates a new post.
      * 
@@ -57,20 +129,34 @@ public class PostServiceImpl implements PostService {
      * @return The created PostDTO.
      */
     @Override
+    @Transactional
     public PostDTO createPost(PostDTO postDTO, Integer userId, Integer categoryId) {
-        log.info("Creating new post for user ID: {} and category ID: {}", userId, categoryId);
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResouceNotFoundException("User with given id " + userId + " not found!"));
-        Category category = categoryRepository.findById(categoryId)
-                .orElseThrow(() -> new ResouceNotFoundException("Category with given id " + categoryId + " not found!"));
+        log.atDebug().addKeyValue("userId", userId).addKeyValue("categoryId", categoryId).log("Creating post");
+        //One query checks both ids and reads the names the feed and the response need.
+        PostRepository.AuthorAndCategory names = postRepository.findAuthorAndCategory(userId, categoryId)
+                .orElseThrow(() -> userRepository.existsById(userId)
+                        ? new ResouceNotFoundException("Category with given id " + categoryId + " not found!")
+                        : new ResouceNotFoundException("User with given id " + userId + " not found!"));
         Post post = mapper.map(postDTO, Post.class);
+        //PostDTO.postId is a primitive and maps to 0, which would make save() merge (and select) instead of insert.
+        post.setPostId(null);
         post.setImageName("default.png");
         post.setDate(new Date());
-        post.setUser(user);
-        post.setCategory(category);
+        post.setExcerpt(PostExcerpts.of(postDTO.getContent()));
+        //References only carry the foreign keys, the user and category rows are not loaded.
+        post.setUser(userRepository.getReferenceById(userId));
+        post.setCategory(categoryRepository.getReferenceById(categoryId));
         Post savedPost = postRepository.save(post);
-        log.info("Post created successfully with ID: {}", savedPost.getPostId());
-        return mapper.map(savedPost, PostDTO.class);
+        postBodyService.createBody(savedPost.getPostId(), postDTO.getContent());
+        outbox.append(OutboxEvent.Type.POST_CREATED, savedPost.getPostId());
+        existenceFilterService.postCreated(savedPost.getPostId());
+        invalidationBus.publish(InvalidationEvent.Type.POST, savedPost.getPostId());
+        log.atInfo().addKeyValue("postId", savedPost.getPostId()).log("Post created");
+        PostDTO created = toDTO(savedPost);
+        created.setContent(postDTO.getContent());
+        created.setUser(new UserDTO(userId, names.getAuthorName(), null, null, null));
+        created.setCategory(new CategoryDTO(categoryId, names.getCategoryTitle(), null));
+        return created;
     }
 
     /**
@@ -82,16 +168,23 @@ public class PostServiceImpl implements PostService {
      * @throws ResouceNotFoundException if the post is not found.
      */
     @Override
+    @Transactional
     public PostDTO updatePost(PostDTO postDTO, Integer postId) {
-        log.info("Updating post with ID: {}", postId);
+        log.atDebug().addKeyValue("postId", postId).log("Updating post");
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new ResouceNotFoundException("Post with given id " + postId + " not found!"));
-        post.setContent(postDTO.getContent());
+        post.setExcerpt(PostExcerpts.of(postDTO.getContent()));
+        post.setLegacyContent(null);
         post.setTitle(postDTO.getTitle());
         post.setImageName(postDTO.getImageName());
         Post savedPost = postRepository.save(post);
-        log.info("Post with ID: {} updated successfully", postId);
-        return mapper.map(savedPost, PostDTO.class);
+        postBodyService.updateBody(postId, postDTO.getContent());
+        outbox.append(OutboxEvent.Type.POST_UPDATED, postId);
+        invalidationBus.publish(InvalidationEvent.Type.POST, postId);
+        log.atInfo().addKeyValue("postId", postId).log("Post updated");
+        PostDTO updated = mapper.map(savedPost, PostDTO.class);
+        updated.setContent(postDTO.getContent());
+        return updated;
     }
 
     /**
@@ -101,99 +194,430 @@ public class PostServiceImpl implements PostService {
      * @throws ResouceNotFoundException if the post is not found.
      */
     @Override
+    @Transactional
     public void deletePost(Integer postId) {
-        log.info("Deleting post with ID: {}", postId);
+        log.atDebug().addKeyValue("postId", postId).log("Deleting post");
         Post post = postRepository.findById(postId)
                 .orElseThrow(() ->  new ResouceNotFoundException("Post with given id " + postId + " not found!"));
         postRepository.delete(post);
-        log.info("Post with ID: {} deleted successfully", postId);
+        outbox.append(OutboxEvent.Type.POST_DELETED, postId);
+        existenceFilterService.postDeleted(postId);
+        commentStreamService.postDeleted(postId);
+        invalidationBus.publish(InvalidationEvent.Type.POST, postId);
+        log.atInfo().addKeyValue("postId", postId).log("Post deleted");
+    }
+
+    /**
+     * Updates only the fields of a post that are not null, without loading it.
+     *
+     * @param postDTO The data transfer object containing the fields to change.
+     * @param postId The ID of the post to be updated.
+     * @return A PostDTO holding the post ID and the changed fields.
+     * @throws ResouceNotFoundException if the post is not found.
+     */
+    @Override
+    @Transactional
+    public PostDTO patchPost(PostDTO postDTO, Integer postId) {
+        log.atDebug().addKeyValue("postId", postId).log("Patching post");
+        if (postDTO.getTitle() == null && postDTO.getContent() == null && postDTO.getImageName() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No post fields to update");
+        }
+        int updated = postRepository.updateNonNullFields(postId, postDTO.getTitle(), PostExcerpts.of(postDTO.getContent()), postDTO.getImageName());
+        if (updated == 0) {
+            throw new ResouceNotFoundException("Post with given id " + postId + " not found!");
+        }
+        if (postDTO.getContent() != null) {
+            postBodyService.updateBody(postId, postDTO.getContent());
+        }
+        outbox.append(OutboxEvent.Type.POST_UPDATED, postId);
+        invalidationBus.publish(InvalidationEvent.Type.POST, postId);
+        log.atInfo().addKeyValue("postId", postId).log("Post patched");
+        PostDTO patched = new PostDTO();
+        patched.setPostId(postId);
+        patched.setTitle(postDTO.getTitle());
+        patched.setContent(postDTO.getContent());
+        patched.setImageName(postDTO.getImageName());
+        return patched;
     }
 
     /**
-     * Retrieves all posts.
+     * Sets the image of a post with a single update statement.
+     *
+     * @param postId The ID of the post.
+     * @param imageName The name of the uploaded image.
+     * @return A PostDTO holding the post ID and the new image name.
+     * @throws ResouceNotFoundException if the post is not found.
+     */
+    @Override
+    @Transactional
+    public PostDTO updatePostImage(Integer postId, String imageName) {
+        log.atDebug().addKeyValue("postId", postId).log("Updating post image");
+        if (postRepository.updateImageName(postId, imageName) == 0) {
+            throw new ResouceNotFoundException("Post with given id " + postId + " not found!");
+        }
+        outbox.append(OutboxEvent.Type.POST_IMAGE_CHANGED, postId);
+        invalidationBus.publish(InvalidationEvent.Type.POST, postId);
+        log.atInfo().addKeyValue("postId", postId).log("Post image updated");
+        PostDTO post = new PostDTO();
+        post.setPostId(postId);
+        post.setImageName(imageName);
+        return post;
+    }
+
+    /**
+     * Retrieves a page of post summaries. Concurrent requests for the same page
+     * share one read, in a transaction of its own, so waiting requests hold no connection.
      * 
-     * @return A list of all PostDTO.
+     * @param includeArchived Whether the pages go on into the archive after the hot posts.
+     * @return A PostRespose of PostSummaryDTO, shared with those requests.
+     * @throws ResponseStatusException with 400 when includeArchived is set and sortBy is not date or postId.
      */
     @Override
-    public PostRespose getAllPosts(int pageNumber, int pageSize,String sortBy,String sortDir) {
-        log.info("Retrieving all posts");
-        //Pagination is often helpful when we have a large dataset and we want to present it to the user in smaller chunks.
-        Sort sort=sortDir.equalsIgnoreCase("asc") ? Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
-        Pageable pageable =  PageRequest.of(pageNumber, pageSize,sort);
-        Page<Post> postPage = postRepository.findAll(pageable);
-        List<Post> posts = postPage.getContent();
-        log.info("{} Posts retrieved successfully", posts.size());
-        List<PostDTO> listOFPostDto = posts.stream().map(post -> mapper.map(post, PostDTO.class)).collect(Collectors.toList());
-        PostRespose response = new PostRespose();
-        response.setPosts(listOFPostDto);
-        response.setPageNumber(postPage.getNumber());
-        response.setPageSize(postPage.getSize());
-        response.setTotalElements(postPage.getTotalElements());
-        response.setTotalPages(postPage.getTotalPages());
-        response.setLastPage(postPage.isLast());
-        return response;
+    public PostRespose<PostSummaryDTO> getAllPosts(int pageNumber, int pageSize,String sortBy,String sortDir,boolean includeArchived) {
+        if (includeArchived && !ARCHIVE_SORTS.contains(sortBy)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Pages that include archived posts are sorted by date or postId only");
+        }
+        log.atDebug().addKeyValue("pageNumber", pageNumber).addKeyValue("pageSize", pageSize).addKeyValue("includeArchived", includeArchived).log("Retrieving posts");
+        return requestCoalescingService.getPostPage(new PageKey(pageNumber, pageSize, sortBy, sortDir, null, includeArchived), () -> readOnly().execute(status -> {
+            Pageable pageable = pageable(pageNumber, pageSize, sortBy, sortDir);
+            Page<PostSummaryDTO> postPage = includeArchived ? withArchive(pageable) : postRepository.findSummaries(pageable);
+            LogMarkers.atInfoSampled(log).addKeyValue("rows", postPage.getNumberOfElements()).log("Posts retrieved");
+            return toResponse(postPage);
+        }));
+    }
+
+    /**
+     * Retrieves a page of posts holding only the requested fields, sharing one
+     * read between concurrent requests for the same page.
+     * 
+     * @param fields The names of the fields to return, see PostField.
+     * @return A PostRespose of field name to value maps, shared with those requests.
+     */
+    @Override
+    public PostRespose<Map<String, Object>> getAllPosts(int pageNumber, int pageSize, String sortBy, String sortDir, List<String> fields) {
+        log.atDebug().addKeyValue("pageNumber", pageNumber).addKeyValue("pageSize", pageSize).addKeyValue("fields", fields).log("Retrieving posts");
+        List<PostField> postFields = toPostFields(fields);
+        return requestCoalescingService.getPostPage(new PageKey(pageNumber, pageSize, sortBy, sortDir, postFields, false), () -> readOnly().execute(status -> {
+            Page<Map<String, Object>> postPage = postRepository.findFields(postFields, null, pageable(pageNumber, pageSize, sortBy, sortDir));
+            LogMarkers.atInfoSampled(log).addKeyValue("rows", postPage.getNumberOfElements()).log("Posts retrieved");
+            return toResponse(postPage);
+        }));
     }
 
     /**
-     * Retrieves a post by its ID.
+     * Retrieves a post by its ID. On a cache miss, concurrent requests for the
+     * post share one read, in a transaction of its own, so waiting requests hold no connection.
+     * The read is read-write, so that it goes to the primary: a replica that has not caught up
+     * with a write would refill the cache, just evicted for it, with the old post.
      * 
      * @param postId The ID of the post to be retrieved.
      * @return The PostDTO.
      * @throws ResouceNotFoundException if the post is not found.
      */
     @Override
+    @Cacheable(cacheNames = CacheNames.POSTS, key = "#postId")
     public PostDTO getPostById(Integer postId) {
-        log.info("Retrieving post with ID: {}", postId);
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new ResouceNotFoundException("Post with given ID " + postId + " not found!"));
-        log.info("Post with ID: {} retrieved successfully", postId);
-        return mapper.map(post, PostDTO.class);
+        log.atDebug().addKeyValue("postId", postId).log("Retrieving post");
+        return requestCoalescingService.getPost(postId, () -> transactionTemplate.execute(status -> {
+            Post post = postRepository.findById(postId)
+                    .orElseThrow(() -> new ResouceNotFoundException("Post with given ID " + postId + " not found!"));
+            LogMarkers.atInfoSampled(log).addKeyValue("postId", postId).log("Post retrieved");
+            PostDTO postDTO = mapper.map(post, PostDTO.class);
+            //The body is its own row and is only read here, where the full post is requested.
+            postDTO.setContent(postBodyService.getBody(post));
+            return postDTO;
+        }));
+    }
+
+    /**
+     * Retrieves several posts by their IDs. Posts in the post cache are taken
+     * from it, the others are read with one query together with their user,
+     * category and comments, and one query for their bodies, on the primary as
+     * {@link #getPostById(Integer)} does, then cached.
+     *
+     * @param postIds The IDs of the posts, at most {@link AppConstants#MAX_BATCH_SIZE}.
+     * @return One entry per requested ID, in request order, marked as not found
+     *         for posts that do not exist.
+     */
+    @Override
+    public List<PostBatchEntryDTO> getPostsByIds(List<Integer> postIds) {
+        log.atDebug().addKeyValue("postIds", postIds.size()).log("Retrieving posts by id");
+        Cache cache = cacheManager.getCache(CacheNames.POSTS);
+        Map<Integer, PostDTO> found = new HashMap<>();
+        Set<Integer> misses = new LinkedHashSet<>();
+        for (Integer postId : postIds) {
+            PostDTO cached = cache == null ? null : cache.get(postId, PostDTO.class);
+            if (cached != null) {
+                found.put(postId, cached);
+            } else if (existenceFilterService.mightHavePost(postId)) {
+                misses.add(postId);
+            }
+        }
+        if (!misses.isEmpty()) {
+            List<PostDTO> loaded = transactionTemplate.execute(status -> {
+                List<Post> posts = postRepository.findByPostIdIn(misses);
+                Map<Integer, String> bodies = postBodyService.getBodies(posts);
+                List<PostDTO> postDTOs = new ArrayList<>(posts.size());
+                for (Post post : posts) {
+                    PostDTO postDTO = mapper.map(post, PostDTO.class);
+                    postDTO.setContent(bodies.get(post.getPostId()));
+                    postDTOs.add(postDTO);
+                }
+                return postDTOs;
+            });
+            for (PostDTO postDTO : loaded) {
+                found.put(postDTO.getPostId(), postDTO);
+                if (cache != null) {
+                    cache.put(postDTO.getPostId(), postDTO);
+                }
+            }
+        }
+        LogMarkers.atInfoSampled(log).addKeyValue("postIds", postIds.size()).addKeyValue("misses", misses.size())
+                .addKeyValue("found", found.size()).log("Posts retrieved by id");
+        return postIds.stream().map(postId -> new PostBatchEntryDTO(postId, found.containsKey(postId), found.get(postId))).toList();
     }
 
     /**
-     * Retrieves all posts by category ID.
+     * Retrieves the post summaries of a category.
      * 
      * @param categoryId The ID of the category.
-     * @return A list of PostDTO belonging to the specified category.
+     * @param includeArchived Whether the archived posts of the category follow the hot ones.
+     * @return A list of PostSummaryDTO belonging to the specified category.
      * @throws ResouceNotFoundException if the category is not found.
      */
     @Override
-    public List<PostDTO> getAllPostByCategoryId(Integer categoryId) {
-        log.info("Retrieving all posts for category ID: {}", categoryId);
-        Category category = categoryRepository.findById(categoryId)
-                .orElseThrow(() -> new ResouceNotFoundException("Category with given id " + categoryId + " not found!"));
-        List<Post> posts = postRepository.findByCategory(category);
-        log.info("All posts for category ID: {} retrieved successfully", categoryId);
-        return posts.stream().map(post -> mapper.map(post, PostDTO.class)).collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<PostSummaryDTO> getAllPostByCategoryId(Integer categoryId, boolean includeArchived) {
+        log.atDebug().addKeyValue("categoryId", categoryId).log("Retrieving posts by category");
+        requireCategory(categoryId);
+        List<PostSummaryDTO> posts = postRepository.findSummariesByCategoryId(categoryId);
+        if (includeArchived) {
+            posts = new ArrayList<>(posts);
+            posts.addAll(postArchiveService.getArchivedPostsByCategory(categoryId));
+        }
+        LogMarkers.atInfoSampled(log).addKeyValue("categoryId", categoryId).addKeyValue("rows", posts.size()).log("Posts by category retrieved");
+        return posts;
     }
 
     /**
-     * Retrieves all posts by user ID.
+     * Retrieves the posts of a category holding only the requested fields.
+     * 
+     * @param categoryId The ID of the category.
+     * @param fields The names of the fields to return, see PostField.
+     * @return A list of field name to value maps.
+     * @throws ResouceNotFoundException if the category is not found.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getAllPostByCategoryId(Integer categoryId, List<String> fields) {
+        log.atDebug().addKeyValue("categoryId", categoryId).addKeyValue("fields", fields).log("Retrieving posts by category");
+        List<PostField> postFields = toPostFields(fields);
+        requireCategory(categoryId);
+        List<Map<String, Object>> posts = postRepository.findFields(postFields, PostSpecifications.byCategoryId(categoryId), Pageable.unpaged()).getContent();
+        LogMarkers.atInfoSampled(log).addKeyValue("categoryId", categoryId).addKeyValue("rows", posts.size()).log("Posts by category retrieved");
+        return posts;
+    }
+
+    /**
+     * Retrieves the post summaries of a user.
+     * 
+     * @param userId The ID of the user.
+     * @param includeArchived Whether the archived posts of the user follow the hot ones.
+     * @return A list of PostSummaryDTO belonging to the specified user.
+     * @throws ResouceNotFoundException if the user is not found.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<PostSummaryDTO> getAllPostByUser(Integer userId, boolean includeArchived) {
+        log.atDebug().addKeyValue("userId", userId).log("Retrieving posts by user");
+        requireUser(userId);
+        List<PostSummaryDTO> posts = postRepository.findSummariesByUserId(userId);
+        if (includeArchived) {
+            posts = new ArrayList<>(posts);
+            posts.addAll(postArchiveService.getArchivedPostsByUser(userId));
+        }
+        LogMarkers.atInfoSampled(log).addKeyValue("userId", userId).addKeyValue("rows", posts.size()).log("Posts by user retrieved");
+        return posts;
+    }
+
+    /**
+     * Retrieves the posts of a user holding only the requested fields.
      * 
      * @param userId The ID of the user.
-     * @return A list of PostDTO belonging to the specified user.
+     * @param fields The names of the fields to return, see PostField.
+     * @return A list of field name to value maps.
      * @throws ResouceNotFoundException if the user is not found.
      */
     @Override
-    public List<PostDTO> getAllPostByUser(Integer userId) {
-        log.info("Retrieving all posts for user ID: {}", userId);
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResouceNotFoundException("User with given id " + userId + " not found!"));
-        List<Post> posts = postRepository.findByUser(user);
-        log.info("All posts for user ID: {} retrieved successfully", userId);
-        return posts.stream().map(post -> mapper.map(post, PostDTO.class)).collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getAllPostByUser(Integer userId, List<String> fields) {
+        log.atDebug().addKeyValue("userId", userId).addKeyValue("fields", fields).log("Retrieving posts by user");
+        List<PostField> postFields = toPostFields(fields);
+        requireUser(userId);
+        List<Map<String, Object>> posts = postRepository.findFields(postFields, PostSpecifications.byUserId(userId), Pageable.unpaged()).getContent();
+        LogMarkers.atInfoSampled(log).addKeyValue("userId", userId).addKeyValue("rows", posts.size()).log("Posts by user retrieved");
+        return posts;
+    }
+
+    /**
+     * Searches for post summaries by keyword.
+     * 
+     * @param keyword The keyword to search for.
+     * @return A list of summaries of the posts whose title contains the keyword.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<PostSummaryDTO> searchPostByKeyword(String keyword) {
+        log.atDebug().addKeyValue("keyword", keyword).log("Searching posts");
+        String booleanQuery = toFullTextQuery(keyword);
+        //Words shorter than the full-text minimum token size are not indexed, so those searches fall back to LIKE.
+        if (booleanQuery.isEmpty()) {
+            return postRepository.findSummariesByTitleContaining(keyword);
+        }
+        List<Integer> postIds = postRepository.searchIdsByTitle(booleanQuery);
+        return postIds.isEmpty() ? List.of() : postRepository.findSummariesByPostIdIn(postIds);
     }
 
     /**
-     * Searches for posts by keyword.
+     * Searches for posts by keyword, holding only the requested fields.
      * 
      * @param keyword The keyword to search for.
-     * @return A list of posts that contain the specified keyword.
+     * @param fields The names of the fields to return, see PostField.
+     * @return A list of field name to value maps.
      */
     @Override
-    public List<PostDTO> searchPostByKeyword(String keyword) {
-        log.info("Searching for posts with keyword: {}", keyword);
-        List<Post> byTitleContaining = postRepository.findByTitleContaining(keyword);
-        return byTitleContaining.stream().map(post ->this.mapper.map(post, PostDTO.class)).collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> searchPostByKeyword(String keyword, List<String> fields) {
+        log.atDebug().addKeyValue("keyword", keyword).addKeyValue("fields", fields).log("Searching posts");
+        List<PostField> postFields = toPostFields(fields);
+        String booleanQuery = toFullTextQuery(keyword);
+        Specification<Post> spec;
+        if (booleanQuery.isEmpty()) {
+            spec = PostSpecifications.titleContaining(keyword);
+        } else {
+            List<Integer> postIds = postRepository.searchIdsByTitle(booleanQuery);
+            if (postIds.isEmpty()) {
+                return List.of();
+            }
+            spec = PostSpecifications.postIdIn(postIds);
+        }
+        return postRepository.findFields(postFields, spec, Pageable.unpaged()).getContent();
+    }
+
+    // Read-only, so that the read goes to a replica when routing is enabled. Not for reads that fill a cache.
+    private TransactionTemplate readOnly() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+        return readOnly;
+    }
+
+    private void requireCategory(Integer categoryId) {
+        if (!categoryRepository.existsById(categoryId)) {
+            throw new ResouceNotFoundException("Category with given id " + categoryId + " not found!");
+        }
+    }
+
+    private void requireUser(Integer userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResouceNotFoundException("User with given id " + userId + " not found!");
+        }
+    }
+
+    // Identifies a page of posts for request coalescing, fields is null for summaries.
+    private record PageKey(int pageNumber, int pageSize, String sortBy, String sortDir, List<PostField> fields, boolean includeArchived) {
+    }
+
+    /**
+     * Reads a page of the hot posts followed by the archived ones, sorted by one
+     * of {@link #ARCHIVE_SORTS}. Archived posts are older than every hot post and
+     * have lower IDs, so for an ascending sort the archive comes first and for a
+     * descending one last, which is the order of all posts.
+     */
+    private Page<PostSummaryDTO> withArchive(Pageable pageable) {
+        long hotPosts = postRepository.count();
+        long archivedPosts = postArchiveService.countArchivedPosts();
+        Sort.Order order = pageable.getSort().iterator().next();
+        boolean archiveFirst = order.isAscending();
+        long firstPosts = archiveFirst ? archivedPosts : hotPosts;
+        List<PostSummaryDTO> posts = new ArrayList<>(pageable.getPageSize());
+        if (pageable.getOffset() < firstPosts) {
+            posts.addAll(slice(archiveFirst, pageable.getOffset(), pageable.getPageSize(), pageable.getSort()));
+        }
+        if (posts.size() < pageable.getPageSize() && pageable.getOffset() + posts.size() < hotPosts + archivedPosts) {
+            long offset = Math.max(0, pageable.getOffset() - firstPosts);
+            posts.addAll(slice(!archiveFirst, offset, pageable.getPageSize() - posts.size(), pageable.getSort()));
+        }
+        return new PageImpl<>(posts, pageable, hotPosts + archivedPosts);
+    }
+
+    private List<PostSummaryDTO> slice(boolean archived, long offset, int limit, Sort sort) {
+        return archived ? postArchiveService.getArchivedPosts(offset, limit, sort)
+                : postRepository.findSummarySlice(new OffsetPageRequest(offset, limit, sort));
+    }
+
+    private static Pageable pageable(int pageNumber, int pageSize, String sortBy, String sortDir) {
+        //Pagination is often helpful when we have a large dataset and we want to present it to the user in smaller chunks.
+        Sort sort=sortDir.equalsIgnoreCase("asc") ? Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
+        //Page size is capped so a single request cannot pull the whole table.
+        return PageRequest.of(pageNumber, Math.min(pageSize, AppConstants.MAX_PAGE_SIZE), sort);
+    }
+
+    private static <T> PostRespose<T> toResponse(Page<T> postPage) {
+        PostRespose<T> response = new PostRespose<>();
+        response.setPosts(postPage.getContent());
+        response.setPageNumber(postPage.getNumber());
+        response.setPageSize(postPage.getSize());
+        response.setTotalElements(postPage.getTotalElements());
+        response.setTotalPages(postPage.getTotalPages());
+        response.setLastPage(postPage.isLast());
+        return response;
+    }
+
+    // Maps the post's own columns only, so its user and category stay unloaded.
+    private static PostDTO toDTO(Post post) {
+        PostDTO postDTO = new PostDTO();
+        postDTO.setPostId(post.getPostId());
+        postDTO.setTitle(post.getTitle());
+        postDTO.setImageName(post.getImageName());
+        postDTO.setDate(post.getDate());
+        return postDTO;
+    }
+
+    /**
+     * Resolves the names of the {@code fields} parameter.
+     *
+     * @param fields The requested field names, duplicates are ignored.
+     * @return The matching PostFields in request order.
+     * @throws ResponseStatusException with 400 for an unknown or empty field list.
+     */
+    private static List<PostField> toPostFields(List<String> fields) {
+        Set<PostField> postFields = new LinkedHashSet<>();
+        for (String field : fields) {
+            if (!field.isBlank()) {
+                postFields.add(PostField.fromFieldName(field.trim()).orElseThrow(
+                        () -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown post field " + field.trim())));
+            }
+        }
+        if (postFields.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No post fields requested");
+        }
+        return List.copyOf(postFields);
+    }
+
+    /**
+     * Turns a search keyword into a full-text boolean query that requires every
+     * word as a prefix, e.g. "spring boot" becomes "+spring* +boot*".
+     *
+     * @param keyword The keyword to search for.
+     * @return The boolean query, empty when no word is long enough to be indexed.
+     */
+    private static String toFullTextQuery(String keyword) {
+        StringBuilder query = new StringBuilder();
+        for (String word : keyword.split("[^\\p{L}\\p{N}_]+")) {
+            if (word.length() >= FULL_TEXT_MIN_TOKEN_SIZE) {
+                query.append(query.isEmpty() ? "" : " ").append('+').append(word).append('*');
+            }
+        }
+        return query.toString();
     }
 }
@@ -0,0 +1,186 @@
+package com.blogapp.serviceImpl;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.blogapp.dto.RecordingStatusDTO;
+import com.blogapp.exception.ResouceNotFoundException;
+import com.blogapp.services.RecordingService;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * This class implements the RecordingService interface to run a single
+ * bounded, on-demand Java Flight Recorder recording inside the running JVM.
+ */
+@Service
+@Slf4j
+public class RecordingServiceImpl implements RecordingService {
+
+    private static final String[] APPLICATION_EVENTS = {
+            "com.blogapp.ServiceCall", "com.blogapp.RepositoryQuery", "com.blogapp.FileIo" };
+
+    @Value("${blogapp.jfr.settings:profile}")
+    private String settings;
+
+    @Value("${blogapp.jfr.directory:${java.io.tmpdir}}")
+    private String directory;
+
+    @Value("${blogapp.jfr.max-age-seconds:3600}")
+    private long maxAgeLimit;
+
+    @Value("${blogapp.jfr.max-size-mb:256}")
+    private long maxSizeLimitMb;
+
+    @Value("${blogapp.jfr.max-duration-seconds:1800}")
+    private long maxDurationLimit;
+
+    private Recording recording;
+
+    private Path recordingFile;
+
+    /**
+     * Starts a new recording, bounded in age, size and duration. Requested
+     * values above the configured limits are clamped to those limits.
+     *
+     * @param maxAgeSeconds   How long recorded data is kept in the ring.
+     * @param maxSizeMb       How much recorded data is kept in the ring.
+     * @param durationSeconds After how long the recording stops on its own.
+     * @return The status of the started recording.
+     */
+    @Override
+    public synchronized RecordingStatusDTO startRecording(Long maxAgeSeconds, Long maxSizeMb, Long durationSeconds) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "A recording is already running");
+        }
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings);
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("JFR settings '" + settings + "' could not be loaded", e);
+        }
+        discardRecording();
+
+        Recording newRecording = new Recording(configuration);
+        for (String event : APPLICATION_EVENTS) {
+            newRecording.enable(event).withoutThreshold();
+        }
+        Path destination = Paths.get(directory, "blogapp-" + System.currentTimeMillis() + ".jfr");
+        newRecording.setName("blogapp-on-demand");
+        newRecording.setToDisk(true);
+        newRecording.setMaxAge(Duration.ofSeconds(clamp(maxAgeSeconds, maxAgeLimit)));
+        newRecording.setMaxSize(clamp(maxSizeMb, maxSizeLimitMb) * 1024 * 1024);
+        newRecording.setDuration(Duration.ofSeconds(clamp(durationSeconds, maxDurationLimit)));
+        try {
+            newRecording.setDestination(destination);
+        } catch (IOException e) {
+            newRecording.close();
+            throw new IllegalStateException("JFR destination " + destination + " is not writable", e);
+        }
+        newRecording.start();
+        recording = newRecording;
+        recordingFile = destination;
+        log.info("Started JFR recording {} writing to {}", newRecording.getId(), destination);
+        return toStatus();
+    }
+
+    /**
+     * Stops the running recording and writes it to its destination file.
+     *
+     * @return The status of the stopped recording.
+     * @throws ResouceNotFoundException if no recording was started.
+     */
+    @Override
+    public synchronized RecordingStatusDTO stopRecording() throws IOException {
+        if (recording == null) {
+            throw new ResouceNotFoundException("No recording has been started!");
+        }
+        if (recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+            log.info("Stopped JFR recording {}", recording.getId());
+        }
+        return toStatus();
+    }
+
+    /**
+     * Retrieves the status of the current or last recording.
+     *
+     * @return The recording status.
+     * @throws ResouceNotFoundException if no recording was started.
+     */
+    @Override
+    public synchronized RecordingStatusDTO getStatus() {
+        if (recording == null) {
+            throw new ResouceNotFoundException("No recording has been started!");
+        }
+        return toStatus();
+    }
+
+    /**
+     * Retrieves the file of the last stopped recording.
+     *
+     * @return The path of the .jfr file.
+     * @throws ResouceNotFoundException if there is no finished recording.
+     */
+    @Override
+    public synchronized Path getRecordingFile() {
+        if (recording == null || recording.getState() != RecordingState.STOPPED
+                || recordingFile == null || !Files.exists(recordingFile)) {
+            throw new ResouceNotFoundException("No finished recording is available!");
+        }
+        return recordingFile;
+    }
+
+    // Only one recording is kept at a time, so the previous file is removed before a new start.
+    private void discardRecording() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+        if (recordingFile != null) {
+            try {
+                Files.deleteIfExists(recordingFile);
+            } catch (IOException e) {
+                log.warn("Could not delete previous recording {}", recordingFile);
+            }
+            recordingFile = null;
+        }
+    }
+
+    private RecordingStatusDTO toStatus() {
+        long fileSize = 0;
+        if (recordingFile != null && Files.exists(recordingFile)) {
+            try {
+                fileSize = Files.size(recordingFile);
+            } catch (IOException e) {
+                fileSize = -1;
+            }
+        }
+        Instant startTime = recording.getStartTime();
+        Duration duration = recording.getDuration();
+        return new RecordingStatusDTO(recording.getId(), recording.getState().name(), startTime,
+                recording.getMaxAge() == null ? 0 : recording.getMaxAge().toSeconds(), recording.getMaxSize(),
+                duration == null ? 0 : duration.toSeconds(),
+                recordingFile == null ? null : recordingFile.getFileName().toString(), fileSize);
+    }
+
+    private static long clamp(Long requested, long limit) {
+        if (requested == null || requested <= 0) {
+            return limit;
+        }
+        return Math.min(requested, limit);
+    }
+}
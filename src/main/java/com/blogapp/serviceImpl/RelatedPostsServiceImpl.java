@@ -0,0 +1,483 @@
+package com.blogapp.serviceImpl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.blogapp.config.AppConstants;
+import com.blogapp.dto.PostSummaryDTO;
+import com.blogapp.entities.OutboxEvent;
+import com.blogapp.invalidation.InvalidationEvent;
+import com.blogapp.invalidation.InvalidationListener;
+import com.blogapp.outbox.OutboxHandler;
+import com.blogapp.repositories.CategoryRepository;
+import com.blogapp.repositories.PostBodyRepository;
+import com.blogapp.repositories.PostRepository;
+import com.blogapp.repositories.UserRepository;
+import com.blogapp.services.RelatedPostsService;
+import com.blogapp.utils.BodyCompressor;
+import com.blogapp.utils.MinHashIndex;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * This class implements the RelatedPostsService interface to find the posts
+ * most similar to a post from an in-memory {@link MinHashIndex}, without
+ * comparing its content to every other post at request time.
+ * <p>
+ * A post is reduced to the set of distinct words of its title and body,
+ * lower-cased, without words under three letters and common English words.
+ * Its MinHash signature is bucketed with LSH, and a lookup only scores the
+ * posts sharing a bucket with it, a number bounded by the bands and the bucket
+ * size whatever the number of posts. With the defaults of 64 hashes in 32 bands
+ * of two rows, posts sharing a third of their words are found with a
+ * probability above 97%, and posts sharing a tenth with one of about a quarter.
+ * <p>
+ * The index is built at startup on {@code blogapp.related.build-threads}
+ * threads, each reading and signing its own batch of posts, brought up to date
+ * from the outbox for posts created, updated, deleted or archived on this
+ * instance, and from the database for changes made on other instances. Its
+ * size is published as the {@code blogapp.related.*} gauges.
+ */
+@Service
+@Slf4j
+public class RelatedPostsServiceImpl implements RelatedPostsService, InvalidationListener, OutboxHandler {
+
+    // Bodies are cut to this many characters, the start of a post says enough about its subject.
+    private static final int MAX_TEXT_LENGTH = 20_000;
+
+    private static final int MIN_WORD_LENGTH = 3;
+
+    // Estimated heap of an owner entry: map entry, boxed key and record, the boxed IDs are mostly shared.
+    private static final int INDEXED_POST_BYTES = 76;
+
+    private static final Set<String> STOP_WORDS = Set.of("the", "and", "for", "are", "but", "not", "you", "all",
+            "any", "can", "had", "her", "was", "one", "our", "out", "has", "have", "him", "his", "how", "its", "may",
+            "now", "see", "who", "did", "get", "let", "she", "too", "use", "that", "with", "this", "from", "they",
+            "will", "would", "there", "their", "what", "about", "which", "when", "your", "were", "been", "into",
+            "than", "then", "them", "these", "some", "could", "other", "more", "also", "just", "only", "very",
+            "over", "such", "like", "each", "most", "where", "here", "should", "while");
+
+    // Autowiring the PostRepository to read the titles and owners of the posts, and the related posts.
+    @Autowired
+    private PostRepository postRepository;
+
+    // Autowiring the PostBodyRepository to read the bodies of the posts.
+    @Autowired
+    private PostBodyRepository postBodyRepository;
+
+    // Autowiring the CategoryRepository to tell deleted categories from updated ones.
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    // Autowiring the UserRepository to tell deleted users from updated ones.
+    @Autowired
+    private UserRepository userRepository;
+
+    // Autowiring the PlatformTransactionManager to read each batch of the build in a read-only transaction.
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Autowiring the TransactionTemplate to read changed posts from the primary, a replica may not have them yet.
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${blogapp.related.enabled:true}")
+    private boolean enabled;
+
+    @Value("${blogapp.related.hashes:64}")
+    private int hashes;
+
+    @Value("${blogapp.related.bands:32}")
+    private int bands;
+
+    @Value("${blogapp.related.max-bucket-size:100}")
+    private int maxBucketSize;
+
+    @Value("${blogapp.related.min-similarity:0.1}")
+    private double minSimilarity;
+
+    @Value("${blogapp.related.build-threads:4}")
+    private int buildThreads;
+
+    @Value("${blogapp.related.build-batch-size:500}")
+    private int buildBatchSize;
+
+    private final Timer buildTimer;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    // Reads share the index, writes and rebuilds are rare and take it exclusively.
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock.
+    private RelatedIndex index;
+
+    // Posts changed while the index is being built, read again once it is in place. Null when not building.
+    private volatile Set<Integer> changedWhileBuilding;
+
+    // Runs the rebuilds asked for by other instances, one at a time and off the thread receiving their events.
+    private ExecutorService rebuildExecutor;
+
+    // Set while a rebuild waits for its turn, so a burst of events queues one.
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+
+    public RelatedPostsServiceImpl(MeterRegistry meterRegistry) {
+        Gauge.builder("blogapp.related.posts", this, service -> service.footprint().ids())
+                .description("Posts in the related-posts index").register(meterRegistry);
+        Gauge.builder("blogapp.related.bucket.entries", this, service -> service.footprint().bucketEntries())
+                .description("Post IDs stored in the LSH buckets of the related-posts index").register(meterRegistry);
+        Gauge.builder("blogapp.related.memory", this, service -> service.footprint().estimatedBytes())
+                .description("Estimated heap used by the related-posts index").baseUnit("bytes")
+                .register(meterRegistry);
+        this.buildTimer = Timer.builder("blogapp.related.build").description("Time taken to build the related-posts index")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        index = new RelatedIndex(new MinHashIndex(hashes, bands, maxBucketSize));
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        rebuildExecutor = Executors.newSingleThreadExecutor(threadFactory("related-rebuild-"));
+    }
+
+    @PreDestroy
+    void stop() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    /**
+     * Finds the posts most similar to a post.
+     *
+     * @param postId The ID of the post.
+     * @param limit Maximum number of posts, capped at {@link AppConstants#MAX_RELATED_SIZE}.
+     * @return The summaries of the related posts, most similar first, empty when
+     *         the post is not indexed or nothing is similar enough.
+     */
+    @Override
+    public List<PostSummaryDTO> getRelatedPosts(Integer postId, int limit) {
+        List<MinHashIndex.Match> matches;
+        lock.readLock().lock();
+        try {
+            matches = index.minHash.similar(postId, Math.min(limit, AppConstants.MAX_RELATED_SIZE), minSimilarity);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (matches.isEmpty()) {
+            return List.of();
+        }
+        List<Integer> postIds = matches.stream().map(MinHashIndex.Match::id).toList();
+        Map<Integer, PostSummaryDTO> summaries = new HashMap<>();
+        postRepository.findSummariesByPostIdIn(postIds).forEach(summary -> summaries.put(summary.getPostId(), summary));
+        // A post deleted since the lookup is left out.
+        return postIds.stream().map(summaries::get).filter(summary -> summary != null).toList();
+    }
+
+    /**
+     * Signs the posts of the events again, and removes the posts that were
+     * deleted or archived. Image and comment changes are ignored, they do not
+     * change the words of a post.
+     *
+     * @param events The committed post and comment events.
+     */
+    @Override
+    public void onOutboxEvents(List<OutboxEvent> events) {
+        Set<Integer> postIds = new HashSet<>();
+        for (OutboxEvent event : events) {
+            switch (event.getType()) {
+                case POST_CREATED, POST_UPDATED, POST_DELETED, POST_ARCHIVED -> postIds.add(event.getAggregateId());
+                default -> {
+                }
+            }
+        }
+        reloadPosts(postIds);
+    }
+
+    /**
+     * Removes the posts of a deleted category, which are deleted with it.
+     *
+     * @param categoryId The ID of the deleted category.
+     */
+    @Override
+    public void categoryDeleted(Integer categoryId) {
+        write(index -> index.removePosts(post -> categoryId.equals(post.categoryId())));
+    }
+
+    /**
+     * Removes the posts of a deleted user, which are deleted with it.
+     *
+     * @param userId The ID of the deleted user.
+     */
+    @Override
+    public void userDeleted(Integer userId) {
+        write(index -> index.removePosts(post -> userId.equals(post.userId())));
+    }
+
+    /**
+     * Builds the index from the database and replaces the current one. Batches
+     * of post IDs are handed to a pool of threads as they are read, each thread
+     * reading the titles and bodies of its batch and signing them.
+     */
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        changedWhileBuilding = ConcurrentHashMap.newKeySet();
+        MinHashIndex minHash = new MinHashIndex(hashes, bands, maxBucketSize);
+        RelatedIndex loaded = new RelatedIndex(minHash);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, buildThreads), threadFactory("related-index-"));
+        try {
+            List<Future<List<SignedPost>>> batches = new ArrayList<>();
+            Integer afterPostId = 0;
+            List<Integer> postIds;
+            while (!(postIds = readPostIdsAfter(afterPostId)).isEmpty()) {
+                afterPostId = postIds.get(postIds.size() - 1);
+                List<Integer> batch = postIds;
+                batches.add(executor.submit(() -> readOnlyTransaction.execute(status -> sign(minHash, batch))));
+            }
+            for (Future<List<SignedPost>> batch : batches) {
+                batch.get().forEach(loaded::put);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            buildFailed(e);
+            return;
+        } catch (ExecutionException | RuntimeException e) {
+            buildFailed(e instanceof ExecutionException ? e.getCause() : e);
+            return;
+        } finally {
+            executor.shutdownNow();
+        }
+        write(index -> this.index = loaded);
+        Set<Integer> changed = changedWhileBuilding;
+        changedWhileBuilding = null;
+        reloadPosts(changed);
+        long nanos = System.nanoTime() - start;
+        buildTimer.record(nanos, TimeUnit.NANOSECONDS);
+        MinHashIndex.Footprint footprint = footprint();
+        log.atInfo().addKeyValue("posts", footprint.ids()).addKeyValue("bucketEntries", footprint.bucketEntries())
+                .addKeyValue("bytes", footprint.estimatedBytes()).addKeyValue("threads", buildThreads)
+                .addKeyValue("millis", nanos / 1_000_000).log("Related-posts index built");
+    }
+
+    /**
+     * Reads the posts changed on another instance again, and removes the posts
+     * of the categories and users deleted there. Events for a whole type queue
+     * a rebuild of the index instead, which reads every post.
+     *
+     * @param events The events published by another instance.
+     */
+    @Override
+    public void onRemoteInvalidation(Collection<InvalidationEvent> events) {
+        if (events.stream().anyMatch(InvalidationEvent::isTypeWide)) {
+            if (rebuildQueued.compareAndSet(false, true)) {
+                rebuildExecutor.execute(() -> {
+                    rebuildQueued.set(false);
+                    warmUp();
+                });
+            }
+            return;
+        }
+        Set<Integer> categoryIds = ids(events, InvalidationEvent.Type.CATEGORY);
+        Set<Integer> userIds = ids(events, InvalidationEvent.Type.USER);
+        if (!categoryIds.isEmpty()) {
+            categoryRepository.findAllById(categoryIds).forEach(category -> categoryIds.remove(category.getCategoryId()));
+        }
+        if (!userIds.isEmpty()) {
+            userRepository.findAllById(userIds).forEach(user -> userIds.remove(user.getId()));
+        }
+        // The ids left over are those of deleted categories and users.
+        categoryIds.forEach(this::categoryDeleted);
+        userIds.forEach(this::userDeleted);
+        reloadPosts(ids(events, InvalidationEvent.Type.POST));
+    }
+
+    // Posts that are not found any more were deleted or archived.
+    private void reloadPosts(Set<Integer> postIds) {
+        if (!enabled || postIds.isEmpty()) {
+            return;
+        }
+        Set<Integer> building = changedWhileBuilding;
+        if (building != null) {
+            building.addAll(postIds);
+        }
+        MinHashIndex minHash;
+        lock.readLock().lock();
+        try {
+            minHash = index.minHash;
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<SignedPost> posts = transactionTemplate.execute(status -> sign(minHash, postIds));
+        write(index -> {
+            Set<Integer> missing = new HashSet<>(postIds);
+            for (SignedPost post : posts) {
+                missing.remove(post.postId());
+                index.put(post);
+            }
+            missing.forEach(index::removePost);
+        });
+    }
+
+    // The current index is kept: a stale index is better than an instance that does not start.
+    private void buildFailed(Throwable cause) {
+        changedWhileBuilding = null;
+        log.atWarn().setCause(cause).log("Building the related-posts index failed, the previous index is kept");
+    }
+
+    private List<Integer> readPostIdsAfter(Integer afterPostId) {
+        return readOnlyTransaction.execute(
+                status -> postRepository.findPostIdsAfter(afterPostId, PageRequest.of(0, buildBatchSize)));
+    }
+
+    // Reads the title and body of each post and signs its words. Posts without any words get no signature.
+    private List<SignedPost> sign(MinHashIndex minHash, Collection<Integer> postIds) {
+        List<PostRepository.RelatedIndexEntry> entries = postRepository.findRelatedIndexEntriesByPostIdIn(postIds);
+        List<Integer> stored = entries.stream().filter(entry -> entry.getLegacyContent() == null)
+                .map(PostRepository.RelatedIndexEntry::getPostId).toList();
+        Map<Integer, String> bodies = new HashMap<>();
+        if (!stored.isEmpty()) {
+            postBodyRepository.findAllById(stored).forEach(body -> bodies.put(body.getPostId(),
+                    BodyCompressor.decompress(body.getCodec(), body.getOriginalLength(), body.getData())));
+        }
+        List<SignedPost> signed = new ArrayList<>(entries.size());
+        for (PostRepository.RelatedIndexEntry entry : entries) {
+            String body = entry.getLegacyContent() != null ? entry.getLegacyContent() : bodies.get(entry.getPostId());
+            Set<String> words = new HashSet<>();
+            addWords(entry.getTitle(), words);
+            addWords(body, words);
+            signed.add(new SignedPost(entry.getPostId(), minHash.signature(words),
+                    new IndexedPost(entry.getCategoryId(), entry.getUserId())));
+        }
+        return signed;
+    }
+
+    // The footprint of the signatures and buckets plus that of the owners of the posts.
+    private MinHashIndex.Footprint footprint() {
+        lock.readLock().lock();
+        try {
+            MinHashIndex.Footprint footprint = index.minHash.footprint();
+            return new MinHashIndex.Footprint(footprint.ids(), footprint.bucketEntries(),
+                    footprint.estimatedBytes() + (long) index.posts.size() * INDEXED_POST_BYTES);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(Consumer<RelatedIndex> update) {
+        lock.writeLock().lock();
+        try {
+            update.accept(index);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static Set<Integer> ids(Collection<InvalidationEvent> events, InvalidationEvent.Type type) {
+        Set<Integer> ids = new HashSet<>();
+        events.stream().filter(event -> event.type() == type).forEach(event -> ids.add(event.id()));
+        return ids;
+    }
+
+    // Lower-cased runs of letters and digits, without short and common words.
+    static void addWords(String text, Set<String> words) {
+        if (text == null) {
+            return;
+        }
+        int length = Math.min(text.length(), MAX_TEXT_LENGTH);
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i <= length;) {
+            int codePoint = i < length ? text.codePointAt(i) : ' ';
+            i += i < length ? Character.charCount(codePoint) : 1;
+            if (Character.isLetterOrDigit(codePoint)) {
+                word.appendCodePoint(Character.toLowerCase(codePoint));
+            } else if (!word.isEmpty()) {
+                if (word.length() >= MIN_WORD_LENGTH && !STOP_WORDS.contains(word.toString())) {
+                    words.add(word.toString());
+                }
+                word.setLength(0);
+            }
+        }
+    }
+
+    private static ThreadFactory threadFactory(String namePrefix) {
+        AtomicInteger threads = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private record IndexedPost(Integer categoryId, Integer userId) {
+    }
+
+    private record SignedPost(Integer postId, int[] signature, IndexedPost post) {
+    }
+
+    // The signatures plus the owners of the posts, to remove the posts of deleted categories and users. Not thread-safe.
+    private static final class RelatedIndex {
+
+        private final MinHashIndex minHash;
+
+        private final Map<Integer, IndexedPost> posts = new HashMap<>();
+
+        RelatedIndex(MinHashIndex minHash) {
+            this.minHash = minHash;
+        }
+
+        void put(SignedPost post) {
+            if (post.signature() == null) {
+                removePost(post.postId());
+            } else {
+                minHash.put(post.postId(), post.signature());
+                posts.put(post.postId(), post.post());
+            }
+        }
+
+        void removePost(Integer postId) {
+            minHash.remove(postId);
+            posts.remove(postId);
+        }
+
+        void removePosts(Predicate<IndexedPost> filter) {
+            posts.entrySet().stream().filter(entry -> filter.test(entry.getValue())).map(Map.Entry::getKey).toList()
+                    .forEach(this::removePost);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.blogapp.serviceImpl;
+
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.blogapp.dto.PostDTO;
+import com.blogapp.dto.PostRespose;
+import com.blogapp.services.RequestCoalescingService;
+import com.blogapp.utils.SingleFlight;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * This class implements the RequestCoalescingService interface so that
+ * concurrent identical reads share one database load: a post that misses the
+ * cache, for instance right after an eviction or a deploy, is read once however
+ * many requests ask for it at the same moment, and so is a page of posts.
+ * <p>
+ * Loads are coalesced per JVM with a {@link SingleFlight} per operation. Each
+ * has its own timeout, after which the waiting requests fail with 503 rather
+ * than pile onto the database themselves. A failed load fails every request
+ * waiting for it with the same exception. The invalidation bus reports changed
+ * posts, so that requests arriving after a write start a new load instead of
+ * joining one that may have read the data before it.
+ */
+@Service
+@Slf4j
+public class RequestCoalescingServiceImpl implements RequestCoalescingService {
+
+    private final boolean enabled;
+
+    private final SingleFlight<Integer, PostDTO> posts;
+
+    private final SingleFlight<Object, PostRespose<?>> postPages;
+
+    public RequestCoalescingServiceImpl(@Value("${blogapp.coalescing.enabled:true}") boolean enabled,
+            @Value("${blogapp.coalescing.post-timeout-ms:5000}") long postTimeoutMs,
+            @Value("${blogapp.coalescing.page-timeout-ms:5000}") long pageTimeoutMs, MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.posts = new SingleFlight<>(postTimeoutMs);
+        this.postPages = new SingleFlight<>(pageTimeoutMs);
+        registerMeters("getPostById", posts, meterRegistry);
+        registerMeters("getAllPosts", postPages, meterRegistry);
+    }
+
+    /**
+     * Loads a post, or waits for the load of the same post already running.
+     *
+     * @param postId The ID of the post.
+     * @param loader Reads the post from the database.
+     * @return The post.
+     * @throws ResponseStatusException with 503 when the running load takes longer than the timeout.
+     */
+    @Override
+    public PostDTO getPost(Integer postId, Supplier<PostDTO> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        try {
+            return posts.execute(postId, loader);
+        } catch (SingleFlight.TimeoutException e) {
+            log.atWarn().addKeyValue("postId", postId).log("Timed out waiting for a concurrent post load");
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Timed out loading post " + postId);
+        }
+    }
+
+    /**
+     * Loads a page of posts, or waits for the load of the same page already running.
+     *
+     * @param pageKey Identifies the page: its number, size, sort order and fields.
+     * @param loader Reads the page from the database.
+     * @return The page, shared with the other requests for it, so it must not be modified.
+     * @throws ResponseStatusException with 503 when the running load takes longer than the timeout.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> PostRespose<T> getPostPage(Object pageKey, Supplier<PostRespose<T>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        try {
+            // The key carries the requested fields, so a key always maps to one element type.
+            return (PostRespose<T>) postPages.execute(pageKey, (Supplier<PostRespose<?>>) (Supplier<?>) loader);
+        } catch (SingleFlight.TimeoutException e) {
+            log.atWarn().addKeyValue("page", pageKey).log("Timed out waiting for a concurrent page load");
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Timed out loading posts");
+        }
+    }
+
+    /**
+     * Called by the invalidation bus when posts changed, locally or on another instance.
+     *
+     * @param postId The ID of the changed post, or null when any post may have changed.
+     */
+    @Override
+    public void postsChanged(Integer postId) {
+        if (postId == null) {
+            posts.forgetAll();
+        } else {
+            posts.forget(postId);
+        }
+        //Any post can move in or out of any page.
+        postPages.forgetAll();
+    }
+
+    private static void registerMeters(String operation, SingleFlight<?, ?> flight, MeterRegistry meterRegistry) {
+        FunctionCounter.builder("blogapp.coalescing.loads", flight, SingleFlight::loads)
+                .description("Loads run for coalesced reads").tag("operation", operation).register(meterRegistry);
+        FunctionCounter.builder("blogapp.coalescing.coalesced", flight, SingleFlight::coalesced)
+                .description("Reads that waited for a concurrent identical load instead of running their own")
+                .tag("operation", operation).register(meterRegistry);
+        FunctionCounter.builder("blogapp.coalescing.timeouts", flight, SingleFlight::timeouts)
+                .description("Reads that gave up waiting for a concurrent identical load").tag("operation", operation)
+                .register(meterRegistry);
+        Gauge.builder("blogapp.coalescing.in.flight", flight, SingleFlight::inFlight)
+                .description("Loads currently running").tag("operation", operation).register(meterRegistry);
+    }
+}
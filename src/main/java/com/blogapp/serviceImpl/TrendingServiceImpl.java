@@ -0,0 +1,150 @@
+package com.blogapp.serviceImpl;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.blogapp.config.AppConstants;
+import com.blogapp.dto.PostSummaryDTO;
+import com.blogapp.dto.TrendingPostDTO;
+import com.blogapp.repositories.PostRepository;
+import com.blogapp.services.TrendingService;
+import com.blogapp.utils.TrendingWindow;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * This class implements the TrendingService interface to rank posts by recent
+ * activity: one point per view and {@code blogapp.trending.comment-weight}
+ * points per comment, over the last hour (12 buckets of 5 minutes) and the
+ * last day (24 buckets of an hour).
+ * <p>
+ * Views and comments only update the lock-free {@link TrendingWindow}
+ * sketches. The rankings, with the post summaries they show, are rebuilt
+ * every {@code blogapp.trending.refresh-interval-ms} and served from memory.
+ * Each instance ranks the traffic it receives.
+ */
+@Service
+@Slf4j
+public class TrendingServiceImpl implements TrendingService {
+
+    // Autowiring the PostRepository to load the summaries of trending posts.
+    @Autowired
+    private PostRepository postRepository;
+
+    private final int commentWeight;
+
+    private final Map<Window, TrendingWindow> windows = new EnumMap<>(Window.class);
+
+    // Replaced as a whole by refresh().
+    private volatile Map<Window, List<TrendingPostDTO>> rankings = Map.of();
+
+    public TrendingServiceImpl(@Value("${blogapp.trending.comment-weight:5}") int commentWeight,
+            @Value("${blogapp.trending.sketch-depth:4}") int sketchDepth,
+            @Value("${blogapp.trending.sketch-width:2048}") int sketchWidth,
+            @Value("${blogapp.trending.candidates:512}") int candidates) {
+        this.commentWeight = commentWeight;
+        windows.put(Window.HOUR, new TrendingWindow(12, TimeUnit.MINUTES.toMillis(5), sketchDepth, sketchWidth, candidates));
+        windows.put(Window.DAY, new TrendingWindow(24, TimeUnit.HOURS.toMillis(1), sketchDepth, sketchWidth, candidates));
+    }
+
+    /**
+     * Counts a view of a post.
+     *
+     * @param postId The ID of the viewed post.
+     */
+    @Override
+    public void postViewed(Integer postId) {
+        record(postId, 1);
+    }
+
+    /**
+     * Counts a comment on a post, once the comment is committed.
+     *
+     * @param postId The ID of the commented post.
+     */
+    @Override
+    public void postCommented(Integer postId) {
+        afterCommit(() -> record(postId, commentWeight));
+    }
+
+    /**
+     * Retrieves the most active posts of a window, as of the last refresh.
+     *
+     * @param window The window to rank.
+     * @param limit Maximum number of posts, capped at {@link AppConstants#MAX_TRENDING_SIZE}.
+     * @return The trending posts, highest score first.
+     */
+    @Override
+    public List<TrendingPostDTO> getTrendingPosts(Window window, int limit) {
+        List<TrendingPostDTO> ranking = rankings.getOrDefault(window, List.of());
+        return ranking.subList(0, Math.max(0, Math.min(limit, ranking.size())));
+    }
+
+    /**
+     * Ranks the candidates of every window and loads the summaries of the
+     * posts that made it, in one query. Deleted posts drop out here.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${blogapp.trending.refresh-interval-ms:10000}")
+    public void refresh() {
+        long now = System.currentTimeMillis();
+        Map<Window, List<TrendingWindow.Scored>> tops = new EnumMap<>(Window.class);
+        Set<Integer> postIds = new HashSet<>();
+        windows.forEach((window, sketch) -> {
+            List<TrendingWindow.Scored> top = sketch.top(AppConstants.MAX_TRENDING_SIZE, now);
+            tops.put(window, top);
+            top.forEach(scored -> postIds.add(scored.key()));
+        });
+        Map<Integer, PostSummaryDTO> summaries = postIds.isEmpty() ? Map.of()
+                : postRepository.findSummariesByPostIdIn(postIds).stream()
+                        .collect(Collectors.toMap(PostSummaryDTO::getPostId, Function.identity()));
+        Map<Window, List<TrendingPostDTO>> updated = new EnumMap<>(Window.class);
+        tops.forEach((window, top) -> {
+            List<TrendingPostDTO> ranking = new ArrayList<>();
+            for (TrendingWindow.Scored scored : top) {
+                PostSummaryDTO summary = summaries.get(scored.key());
+                if (summary != null) {
+                    ranking.add(new TrendingPostDTO(summary, scored.score()));
+                }
+            }
+            updated.put(window, List.copyOf(ranking));
+        });
+        rankings = updated;
+        log.atDebug().addKeyValue("posts", postIds.size()).addKeyValue("millis", System.currentTimeMillis() - now)
+                .log("Trending posts refreshed");
+    }
+
+    private void record(Integer postId, int weight) {
+        long now = System.currentTimeMillis();
+        for (TrendingWindow window : windows.values()) {
+            window.add(postId, weight, now);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -4,11 +4,22 @@ import java.util.List;
 
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import com.blogapp.config.CacheNames;
 import com.blogapp.dto.UserDTO;
 import com.blogapp.entities.User;
 import com.blogapp.exception.ResouceNotFoundException;
+import com.blogapp.invalidation.InvalidationBus;
+import com.blogapp.invalidation.InvalidationEvent;
+import com.blogapp.monitoring.LogMarkers;
 import com.blogapp.repositories.UserRepository;
+import com.blogapp.services.AutocompleteService;
+import com.blogapp.services.ExistenceFilterService;
+import com.blogapp.services.PostArchiveService;
+import com.blogapp.services.PostFeedService;
+import com.blogapp.services.RelatedPostsService;
 import com.blogapp.services.UserService;
 import lombok.extern.slf4j.Slf4j;
 
@@ -28,6 +39,30 @@ public class UserServiceImpl implements UserService {
     @Autowired
     private ModelMapper modelMapper;
 
+    // Autowiring the PostFeedService to drop the posts of deleted users from the feeds.
+    @Autowired
+    private PostFeedService postFeedService;
+
+    // Autowiring the InvalidationBus to evict cached users, and the posts embedding them, on every instance.
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    // Autowiring the AutocompleteService to drop the titles of deleted users' posts.
+    @Autowired
+    private AutocompleteService autocompleteService;
+
+    // Autowiring the ExistenceFilterService to keep the not-found filter current.
+    @Autowired
+    private ExistenceFilterService existenceFilterService;
+
+    // Autowiring the PostArchiveService to remove the archived posts of deleted users.
+    @Autowired
+    private PostArchiveService postArchiveService;
+
+    // Autowiring the RelatedPostsService to drop the deleted users' posts from the related-posts index.
+    @Autowired
+    private RelatedPostsService relatedPostsService;
+
     /**
      * Creates a new user.
      * 
@@ -35,10 +70,12 @@ public class UserServiceImpl implements UserService {
      * @return The created UserDTO.
      */
     @Override
+    @Transactional
     public UserDTO createUser(UserDTO userDTO) {
-        log.info("Creating new user with email: {}", userDTO.getEmail());
+        log.atDebug().addKeyValue("email", userDTO.getEmail()).log("Creating user");
         User savedUser = userRepository.save(dtoToUser(userDTO));
-        log.info("User created successfully with ID: {}", savedUser.getId());
+        existenceFilterService.userCreated(savedUser.getId());
+        log.atInfo().addKeyValue("userId", savedUser.getId()).log("User created");
         return userToDto(savedUser);
     }
 
@@ -51,8 +88,9 @@ public class UserServiceImpl implements UserService {
      * @throws ResouceNotFoundException if the user is not found.
      */
     @Override
+    @Transactional
     public UserDTO updateUser(UserDTO userDTO, Integer userId) {
-        log.info("Updating user with ID: {}", userId);
+        log.atDebug().addKeyValue("userId", userId).log("Updating user");
         User userFromRepo = userRepository.findById(userId)
                 .orElseThrow(() -> new ResouceNotFoundException("User with id " + userId + " not found!!"));
         userFromRepo.setName(userDTO.getName());
@@ -60,23 +98,27 @@ public class UserServiceImpl implements UserService {
         userFromRepo.setPassword(userDTO.getPassword());
         userFromRepo.setAbout(userDTO.getAbout());
         User updatedUser = userRepository.save(userFromRepo);
-        log.info("User with ID: {} updated successfully", userId);
+        postFeedService.userUpdated(userId, updatedUser.getName());
+        invalidationBus.publish(InvalidationEvent.Type.USER, userId);
+        log.atInfo().addKeyValue("userId", userId).log("User updated");
         return userToDto(updatedUser);
     }
 
     /**
-     * Retrieves a user by its ID.
+     * Retrieves a user by its ID. Read from the primary, as the result is cached.
      * 
      * @param userId The ID of the user to be retrieved.
      * @return The UserDTO.
      * @throws ResouceNotFoundException if the user is not found.
      */
     @Override
+    @Transactional
+    @Cacheable(cacheNames = CacheNames.USERS, key = "#userId")
     public UserDTO getUserById(Integer userId) {
-        log.info("Retrieving user with ID: {}", userId);
+        log.atDebug().addKeyValue("userId", userId).log("Retrieving user");
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResouceNotFoundException("User with id " + userId + " not found!!"));
-        log.info("User with ID: {} retrieved successfully", userId);
+        LogMarkers.atInfoSampled(log).addKeyValue("userId", userId).log("User retrieved");
         return userToDto(user);
     }
 
@@ -86,10 +128,11 @@ public class UserServiceImpl implements UserService {
      * @return A list of all UserDTO.
      */
     @Override
+    @Transactional(readOnly = true)
     public List<UserDTO> getAllUsers() {
-        log.info("Retrieving all users");
+        log.debug("Retrieving all users");
         List<User> users = userRepository.findAll();
-        log.info("All users retrieved successfully");
+        LogMarkers.atInfoSampled(log).addKeyValue("rows", users.size()).log("Users retrieved");
         return users.stream().map(this::userToDto).toList();
     }
 
@@ -100,12 +143,19 @@ public class UserServiceImpl implements UserService {
      * @throws ResouceNotFoundException if the user is not found.
      */
     @Override
+    @Transactional
     public void deleteUser(Integer userId) {
-        log.info("Deleting user with ID: {}", userId);
+        log.atDebug().addKeyValue("userId", userId).log("Deleting user");
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResouceNotFoundException("User with id " + userId + " not found!!"));
         userRepository.delete(user);
-        log.info("User with ID: {} deleted successfully", userId);
+        postArchiveService.userDeleted(userId);
+        postFeedService.userDeleted(userId);
+        autocompleteService.userDeleted(userId);
+        relatedPostsService.userDeleted(userId);
+        existenceFilterService.userDeleted(userId);
+        invalidationBus.publish(InvalidationEvent.Type.USER, userId);
+        log.atInfo().addKeyValue("userId", userId).log("User deleted");
     }
 
     /**
@@ -0,0 +1,362 @@
+package com.blogapp.serviceImpl;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+
+import com.blogapp.config.AppConstants;
+import com.blogapp.dto.CategoryDTO;
+import com.blogapp.dto.PostBatchEntryDTO;
+import com.blogapp.filters.WarmupRequestToken;
+import com.blogapp.repositories.CommentRepository;
+import com.blogapp.repositories.PostRepository;
+import com.blogapp.services.CategoryService;
+import com.blogapp.services.JsonResponseCacheService;
+import com.blogapp.services.PostService;
+import com.blogapp.services.UserService;
+import com.blogapp.services.WarmupService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * This class implements the WarmupService interface to warm the instance up
+ * before it takes traffic. Spring Boot reports the instance ready only once
+ * every ApplicationReadyEvent listener has returned, so a readiness probe keeps
+ * it out of the load balancer until the warm-up is done.
+ * <p>
+ * The warm-up runs in two phases on a pool of {@code blogapp.warmup.parallelism}
+ * threads, which also bounds the database connections it holds at once:
+ * <ul>
+ * <li>data: the most recent and the most commented posts, every category and the
+ * users who posted recently are read through the services, which fills their
+ * caches and the serialized response caches;</li>
+ * <li>jit: {@code blogapp.warmup.jit-requests} requests are sent to the hot read
+ * endpoints over loopback, so that the whole path from the filters to the message
+ * converters is compiled before real requests take it.</li>
+ * </ul>
+ * Everything stops at {@code blogapp.warmup.max-duration-ms}, and a failed load
+ * is logged and skipped: a cold instance is better than one that does not start.
+ */
+@Service
+@Slf4j
+public class WarmupServiceImpl implements WarmupService {
+
+    // Autowiring the PostRepository to find the most recent posts and the recently active users.
+    @Autowired
+    private PostRepository postRepository;
+
+    // Autowiring the CommentRepository to find the most commented posts.
+    @Autowired
+    private CommentRepository commentRepository;
+
+    // Autowiring the PostService to load the posts into the post cache.
+    @Autowired
+    private PostService postService;
+
+    // Autowiring the CategoryService to load the categories into the category cache.
+    @Autowired
+    private CategoryService categoryService;
+
+    // Autowiring the UserService to load the active users into the user cache.
+    @Autowired
+    private UserService userService;
+
+    // Autowiring the JsonResponseCacheService to serialize the loaded posts and categories.
+    @Autowired
+    private JsonResponseCacheService jsonResponseCacheService;
+
+    // Autowiring the WarmupRequestToken to mark the synthetic requests.
+    @Autowired
+    private WarmupRequestToken warmupRequestToken;
+
+    // Autowiring the Environment to read the port the server listens on.
+    @Autowired
+    private Environment environment;
+
+    // Autowiring the MeterRegistry to record how long the warm-up takes and what it loads.
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${blogapp.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${blogapp.warmup.parallelism:4}")
+    private int parallelism;
+
+    @Value("${blogapp.warmup.recent-posts:200}")
+    private int recentPosts;
+
+    @Value("${blogapp.warmup.popular-posts:200}")
+    private int popularPosts;
+
+    @Value("${blogapp.warmup.active-users:200}")
+    private int activeUsers;
+
+    @Value("${blogapp.warmup.active-user-days:30}")
+    private int activeUserDays;
+
+    @Value("${blogapp.warmup.jit-requests:500}")
+    private int jitRequests;
+
+    @Value("${blogapp.warmup.max-duration-ms:60000}")
+    private long maxDurationMs;
+
+    @Value("${blogapp.json-response-cache.enabled:true}")
+    private boolean jsonResponseCacheEnabled;
+
+    @Value("${server.servlet.context-path:}")
+    private String contextPath;
+
+    /**
+     * Loads the caches and sends the synthetic requests, within the configured time.
+     */
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxDurationMs);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, parallelism), threadFactory());
+        try {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            List<Integer> postIds = hotPostIds();
+            Result data = run(executor, dataTasks(postIds), deadline);
+            long dataNanos = stop(sample, "data");
+            sample = Timer.start(meterRegistry);
+            Result jit = run(executor, jitTasks(postIds), deadline);
+            long jitNanos = stop(sample, "jit");
+            log.atInfo().addKeyValue("posts", data.count("post")).addKeyValue("categories", data.count("category"))
+                    .addKeyValue("users", data.count("user")).addKeyValue("requests", jit.count("request"))
+                    .addKeyValue("failures", data.failures() + jit.failures())
+                    .addKeyValue("skipped", data.skipped() + jit.skipped())
+                    .addKeyValue("dataMillis", TimeUnit.NANOSECONDS.toMillis(dataNanos))
+                    .addKeyValue("jitMillis", TimeUnit.NANOSECONDS.toMillis(jitNanos))
+                    .addKeyValue("millis", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).log("Warm-up done");
+        } catch (RuntimeException e) {
+            log.atWarn().setCause(e).log("Warm-up failed, the instance starts cold");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // The most recent posts first, then the most commented ones not among them.
+    private List<Integer> hotPostIds() {
+        Set<Integer> ids = new LinkedHashSet<>();
+        if (recentPosts > 0) {
+            ids.addAll(postRepository.findRecentPostIds(PageRequest.of(0, recentPosts)));
+        }
+        if (popularPosts > 0) {
+            ids.addAll(commentRepository.findMostCommentedPostIds(PageRequest.of(0, popularPosts)));
+        }
+        return List.copyOf(ids);
+    }
+
+    private List<Task> dataTasks(List<Integer> postIds) {
+        List<Task> tasks = new ArrayList<>();
+        for (CategoryDTO category : categoryService.getAllCategories()) {
+            tasks.add(new Task("category", () -> {
+                categoryService.getCategory(category.getCategoryId());
+                return 1;
+            }));
+        }
+        if (jsonResponseCacheEnabled) {
+            tasks.add(new Task("categoryList", () -> {
+                jsonResponseCacheService.getAllCategories();
+                return 1;
+            }));
+        }
+        // A query per batch fills the post cache, the serialized copies are then made from it.
+        for (int from = 0; from < postIds.size(); from += AppConstants.MAX_BATCH_SIZE) {
+            List<Integer> batch = postIds.subList(from, Math.min(postIds.size(), from + AppConstants.MAX_BATCH_SIZE));
+            tasks.add(new Task("post", () -> {
+                List<PostBatchEntryDTO> entries = postService.getPostsByIds(batch);
+                int found = 0;
+                for (PostBatchEntryDTO entry : entries) {
+                    if (entry.isFound()) {
+                        found++;
+                        if (jsonResponseCacheEnabled) {
+                            jsonResponseCacheService.getPost(entry.getPostId());
+                        }
+                    }
+                }
+                return found;
+            }));
+        }
+        if (activeUsers > 0) {
+            Date since = new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(activeUserDays));
+            for (Integer userId : postRepository.findActiveUserIds(since, PageRequest.of(0, activeUsers))) {
+                tasks.add(new Task("user", () -> {
+                    userService.getUserById(userId);
+                    return 1;
+                }));
+            }
+        }
+        return tasks;
+    }
+
+    // Requests spread over the hot read endpoints, half of them asking for gzip, since
+    // compressed and plain responses take different paths.
+    private List<Task> jitTasks(List<Integer> postIds) {
+        String port = environment.getProperty("local.server.port");
+        if (jitRequests <= 0 || port == null) {
+            return List.of();
+        }
+        String base = "http://localhost:" + port + contextPath + "/api";
+        List<String> paths = new ArrayList<>();
+        paths.add("/post/getAllPosts");
+        paths.add("/post/latest");
+        paths.add("/category/getAllCategories");
+        if (!postIds.isEmpty()) {
+            paths.add("/post/getPostsByIds?ids=" + postIds.stream().limit(10).map(String::valueOf)
+                    .collect(Collectors.joining(",")));
+        }
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5)).build();
+        List<Task> tasks = new ArrayList<>(jitRequests);
+        for (int i = 0; i < jitRequests; i++) {
+            // Every other request reads a single post, the busiest endpoint.
+            String path = i % 2 == 0 && !postIds.isEmpty() ? "/post/getPostById/" + postIds.get(i / 2 % postIds.size())
+                    : paths.get(i / 2 % paths.size());
+            HttpRequest request = HttpRequest.newBuilder(URI.create(base + path)).timeout(Duration.ofSeconds(10))
+                    .header(WarmupRequestToken.HEADER, warmupRequestToken.value())
+                    .header(HttpHeaders.ACCEPT_ENCODING, i % 4 < 2 ? "gzip" : "identity").GET().build();
+            tasks.add(new Task("request", () -> {
+                try {
+                    int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                    if (status >= 500) {
+                        throw new IllegalStateException("Warm-up request " + request.uri() + " answered " + status);
+                    }
+                    return 1;
+                } catch (IOException e) {
+                    throw new IllegalStateException("Warm-up request " + request.uri() + " failed", e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted", e);
+                }
+            }));
+        }
+        return tasks;
+    }
+
+    // Runs the tasks on the pool, skipping those that would start past the deadline and
+    // cancelling the rest once it is reached.
+    private Result run(ExecutorService executor, List<Task> tasks, long deadline) {
+        Result result = new Result();
+        List<Future<?>> futures = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            futures.add(executor.submit(() -> {
+                if (System.nanoTime() - deadline >= 0) {
+                    result.skipped.incrementAndGet();
+                    return;
+                }
+                try {
+                    int items = task.load().getAsInt();
+                    result.add(task.type(), items);
+                    itemCounter(task.type()).increment(items);
+                } catch (RuntimeException e) {
+                    result.failures.incrementAndGet();
+                    meterRegistry.counter("blogapp.warmup.failures", "type", task.type()).increment();
+                    log.atDebug().setCause(e).addKeyValue("type", task.type()).log("Warm-up load failed");
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException | CancellationException e) {
+                future.cancel(true);
+                result.skipped.incrementAndGet();
+            } catch (ExecutionException e) {
+                result.failures.incrementAndGet();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(pending -> pending.cancel(true));
+                break;
+            }
+        }
+        return result;
+    }
+
+    private long stop(Timer.Sample sample, String phase) {
+        return sample.stop(Timer.builder("blogapp.warmup.duration").description("Time spent warming up before readiness")
+                .tag("phase", phase).register(meterRegistry));
+    }
+
+    private Counter itemCounter(String type) {
+        return Counter.builder("blogapp.warmup.items").description("Cache entries loaded and requests sent by the warm-up")
+                .tag("type", type).register(meterRegistry);
+    }
+
+    private static ThreadFactory threadFactory() {
+        AtomicInteger threads = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "warmup-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private record Task(String type, IntSupplier load) {
+    }
+
+    private static final class Result {
+
+        private final Map<String, AtomicInteger> counts = new ConcurrentHashMap<>();
+
+        private final AtomicInteger failures = new AtomicInteger();
+
+        private final AtomicInteger skipped = new AtomicInteger();
+
+        private void add(String type, int items) {
+            counts.computeIfAbsent(type, key -> new AtomicInteger()).addAndGet(items);
+        }
+
+        private int count(String type) {
+            AtomicInteger count = counts.get(type);
+            return count == null ? 0 : count.get();
+        }
+
+        private int failures() {
+            return failures.get();
+        }
+
+        private int skipped() {
+            return skipped.get();
+        }
+    }
+}
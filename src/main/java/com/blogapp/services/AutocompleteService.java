@@ -0,0 +1,18 @@
+package com.blogapp.services;
+
+import java.util.List;
+
+import com.blogapp.dto.SuggestionDTO;
+
+public interface AutocompleteService {
+
+	List<SuggestionDTO> suggest(String query, int limit);
+
+	void categorySaved(Integer categoryId, String title);
+
+	void categoryDeleted(Integer categoryId);
+
+	void userDeleted(Integer userId);
+
+	void warmUp();
+}
@@ -0,0 +1,18 @@
+package com.blogapp.services;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.blogapp.dto.CommentDTO;
+
+public interface CommentStreamService {
+
+	SseEmitter subscribe(Integer postId);
+
+	void commentCreated(Integer postId, CommentDTO comment);
+
+	void commentDeleted(Integer postId, Integer commentId);
+
+	void postDeleted(Integer postId);
+
+	void sendHeartbeats();
+}
@@ -0,0 +1,24 @@
+package com.blogapp.services;
+
+public interface ExistenceFilterService {
+
+	boolean mightHavePost(Integer postId);
+
+	boolean mightHaveUser(Integer userId);
+
+	boolean mightHaveImage(String fileName);
+
+	void postCreated(Integer postId);
+
+	void postDeleted(Integer postId);
+
+	void userCreated(Integer userId);
+
+	void userDeleted(Integer userId);
+
+	void imageStored(String fileName);
+
+	void rebuild();
+
+	void catchUp();
+}
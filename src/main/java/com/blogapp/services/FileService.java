@@ -2,11 +2,10 @@ package com.blogapp.services;
 
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.OutputStream;
 
 public interface FileService {
     String uploadFile(String path, MultipartFile file) throws IOException;
-    InputStream getResource(String path, String fileName) throws FileNotFoundException;
+    long copyResource(String path, String fileName, OutputStream out) throws IOException;
 }
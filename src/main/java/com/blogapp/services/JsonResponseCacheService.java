@@ -0,0 +1,30 @@
+package com.blogapp.services;
+
+public interface JsonResponseCacheService {
+
+	/**
+	 * A response body as it goes on the wire.
+	 *
+	 * @param json The UTF-8 JSON.
+	 * @param gzip The same bytes gzipped, or null when that does not pay off.
+	 * @param etag Strong entity tag of the JSON, quoted.
+	 */
+	record SerializedResponse(byte[] json, byte[] gzip, String etag) {
+
+		public int size() {
+			return json.length + (gzip == null ? 0 : gzip.length);
+		}
+
+		/**
+		 * Strong entity tag of the gzip bytes, which are another representation
+		 * than the JSON and so need a tag of their own.
+		 */
+		public String gzipEtag() {
+			return etag.substring(0, etag.length() - 1) + "-gzip\"";
+		}
+	}
+
+	SerializedResponse getPost(Integer postId);
+
+	SerializedResponse getAllCategories();
+}
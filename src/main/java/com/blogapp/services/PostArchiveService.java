@@ -0,0 +1,27 @@
+package com.blogapp.services;
+
+import java.util.List;
+
+import org.springframework.data.domain.Sort;
+
+import com.blogapp.dto.PostDTO;
+import com.blogapp.dto.PostSummaryDTO;
+
+public interface PostArchiveService {
+
+	int archiveOldPosts();
+
+	PostDTO getArchivedPost(Integer postId);
+
+	List<PostSummaryDTO> getArchivedPosts(long offset, int limit, Sort sort);
+
+	long countArchivedPosts();
+
+	List<PostSummaryDTO> getArchivedPostsByCategory(Integer categoryId);
+
+	List<PostSummaryDTO> getArchivedPostsByUser(Integer userId);
+
+	void categoryDeleted(Integer categoryId);
+
+	void userDeleted(Integer userId);
+}
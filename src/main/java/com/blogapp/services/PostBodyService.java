@@ -0,0 +1,19 @@
+package com.blogapp.services;
+
+import java.util.Collection;
+import java.util.Map;
+
+import com.blogapp.entities.Post;
+
+public interface PostBodyService {
+
+	String getBody(Post post);
+
+	Map<Integer, String> getBodies(Collection<Post> posts);
+
+	void createBody(Integer postId, String content);
+
+	void updateBody(Integer postId, String content);
+
+	int migrateLegacyBodies();
+}
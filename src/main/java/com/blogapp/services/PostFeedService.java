@@ -0,0 +1,22 @@
+package com.blogapp.services;
+
+import java.util.List;
+
+import com.blogapp.dto.PostSummaryDTO;
+
+public interface PostFeedService {
+
+	List<PostSummaryDTO> getLatestPosts(int limit);
+
+	List<PostSummaryDTO> getLatestPostsByCategory(Integer categoryId, int limit);
+
+	void categoryDeleted(Integer categoryId);
+
+	void userDeleted(Integer userId);
+
+	void categoryUpdated(Integer categoryId, String title);
+
+	void userUpdated(Integer userId, String name);
+
+	void warmUp();
+}
@@ -0,0 +1,8 @@
+package com.blogapp.services;
+
+import com.blogapp.dto.PostPageDTO;
+
+public interface PostPageService {
+
+	PostPageDTO getPostPage(Integer postId);
+}
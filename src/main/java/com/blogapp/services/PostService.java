@@ -1,10 +1,12 @@
 package com.blogapp.services;
 
 import java.util.List;
+import java.util.Map;
 
+import com.blogapp.dto.PostBatchEntryDTO;
 import com.blogapp.dto.PostDTO;
 import com.blogapp.dto.PostRespose;
-import com.blogapp.entities.Post;
+import com.blogapp.dto.PostSummaryDTO;
 
 public interface PostService {
  
@@ -13,14 +15,28 @@ public interface PostService {
 	PostDTO updatePost(PostDTO postDTO,Integer postId);
 	
 	void deletePost(Integer postId);
+
+	PostDTO patchPost(PostDTO postDTO,Integer postId);
+
+	PostDTO updatePostImage(Integer postId,String imageName);
 	
-	PostRespose getAllPosts(int pageNumber, int pageSize,String sortBy,String sortDir);
+	PostRespose<PostSummaryDTO> getAllPosts(int pageNumber, int pageSize,String sortBy,String sortDir,boolean includeArchived);
+
+	PostRespose<Map<String, Object>> getAllPosts(int pageNumber, int pageSize,String sortBy,String sortDir,List<String> fields);
 	
 	PostDTO getPostById(Integer postId);
+
+	List<PostBatchEntryDTO> getPostsByIds(List<Integer> postIds);
 	
-	List<PostDTO> getAllPostByCategoryId(Integer categoryId);
+	List<PostSummaryDTO> getAllPostByCategoryId(Integer categoryId,boolean includeArchived);
+
+	List<Map<String, Object>> getAllPostByCategoryId(Integer categoryId,List<String> fields);
 	
-	List<PostDTO>getAllPostByUser(Integer userId);
+	List<PostSummaryDTO> getAllPostByUser(Integer userId,boolean includeArchived);
+
+	List<Map<String, Object>> getAllPostByUser(Integer userId,List<String> fields);
 	
-	List<PostDTO> searchPostByKeyword(String keyword);
+	List<PostSummaryDTO> searchPostByKeyword(String keyword);
+
+	List<Map<String, Object>> searchPostByKeyword(String keyword,List<String> fields);
 }
@@ -0,0 +1,17 @@
+package com.blogapp.services;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import com.blogapp.dto.RecordingStatusDTO;
+
+public interface RecordingService {
+
+	RecordingStatusDTO startRecording(Long maxAgeSeconds, Long maxSizeMb, Long durationSeconds);
+
+	RecordingStatusDTO stopRecording() throws IOException;
+
+	RecordingStatusDTO getStatus();
+
+	Path getRecordingFile();
+}
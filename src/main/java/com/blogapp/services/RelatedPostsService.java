@@ -0,0 +1,16 @@
+package com.blogapp.services;
+
+import java.util.List;
+
+import com.blogapp.dto.PostSummaryDTO;
+
+public interface RelatedPostsService {
+
+	List<PostSummaryDTO> getRelatedPosts(Integer postId, int limit);
+
+	void categoryDeleted(Integer categoryId);
+
+	void userDeleted(Integer userId);
+
+	void warmUp();
+}
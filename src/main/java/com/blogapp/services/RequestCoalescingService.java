@@ -0,0 +1,15 @@
+package com.blogapp.services;
+
+import java.util.function.Supplier;
+
+import com.blogapp.dto.PostDTO;
+import com.blogapp.dto.PostRespose;
+
+public interface RequestCoalescingService {
+
+	PostDTO getPost(Integer postId, Supplier<PostDTO> loader);
+
+	<T> PostRespose<T> getPostPage(Object pageKey, Supplier<PostRespose<T>> loader);
+
+	void postsChanged(Integer postId);
+}
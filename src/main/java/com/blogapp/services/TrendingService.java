@@ -0,0 +1,20 @@
+package com.blogapp.services;
+
+import java.util.List;
+
+import com.blogapp.dto.TrendingPostDTO;
+
+public interface TrendingService {
+
+	enum Window {
+		HOUR, DAY
+	}
+
+	void postViewed(Integer postId);
+
+	void postCommented(Integer postId);
+
+	List<TrendingPostDTO> getTrendingPosts(Window window, int limit);
+
+	void refresh();
+}
@@ -0,0 +1,6 @@
+package com.blogapp.services;
+
+public interface WarmupService {
+
+	void warmUp();
+}
@@ -0,0 +1,90 @@
+package com.blogapp.utils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Lock-free AIMD concurrency limiter.
+ * <p>
+ * Requests are admitted while fewer than {@link #getLimit()} are in flight.
+ * Each completed request reports its latency: the limit grows by one for every
+ * {@code limit} fast completions (additive increase) and is cut by
+ * {@code backoffRatio} when a completion is slower than the latency threshold
+ * (multiplicative decrease, at most once per {@code cooldownNanos}).
+ */
+public class AdaptiveConcurrencyLimiter {
+
+	private final int minLimit;
+
+	private final int maxLimit;
+
+	private final long latencyThresholdNanos;
+
+	private final double backoffRatio;
+
+	private final long cooldownNanos;
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	// Current limit, stored as the raw bits of a double so it can grow by fractions.
+	private final AtomicLong limitBits;
+
+	private final AtomicLong lastDecrease = new AtomicLong(Long.MIN_VALUE);
+
+	public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long latencyThresholdNanos,
+			double backoffRatio, long cooldownNanos) {
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.latencyThresholdNanos = latencyThresholdNanos;
+		this.backoffRatio = backoffRatio;
+		this.cooldownNanos = cooldownNanos;
+		this.limitBits = new AtomicLong(Double.doubleToRawLongBits(initialLimit));
+	}
+
+	/**
+	 * @return true when the request may proceed; it must then call
+	 *         {@link #release(long, long)} exactly once.
+	 */
+	public boolean tryAcquire() {
+		int current = inFlight.incrementAndGet();
+		if (current > getLimit()) {
+			inFlight.decrementAndGet();
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Releases an admitted request and feeds its latency into the limit.
+	 */
+	public void release(long latencyNanos, long nowNanos) {
+		inFlight.decrementAndGet();
+		if (latencyNanos > latencyThresholdNanos) {
+			long last = lastDecrease.get();
+			if (nowNanos - last >= cooldownNanos && lastDecrease.compareAndSet(last, nowNanos)) {
+				updateLimit(limit -> Math.max(minLimit, limit * backoffRatio));
+			}
+		} else {
+			updateLimit(limit -> Math.min(maxLimit, limit + 1.0 / limit));
+		}
+	}
+
+	public int getLimit() {
+		return (int) Double.longBitsToDouble(limitBits.get());
+	}
+
+	public int getInFlight() {
+		return inFlight.get();
+	}
+
+	private void updateLimit(DoubleUnaryOperator update) {
+		while (true) {
+			long bits = limitBits.get();
+			double next = update.applyAsDouble(Double.longBitsToDouble(bits));
+			if (limitBits.compareAndSet(bits, Double.doubleToRawLongBits(next))) {
+				return;
+			}
+		}
+	}
+}
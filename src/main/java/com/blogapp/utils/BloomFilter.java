@@ -0,0 +1,112 @@
+package com.blogapp.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free Bloom filter over int and string keys.
+ * <p>
+ * Answers "definitely absent" or "possibly present": a key that was added is
+ * always reported present, a key that was not is reported present with
+ * roughly the configured false-positive rate while no more than the expected
+ * number of keys were added. Keys cannot be removed. Bits are set with an
+ * atomic OR, so adds and lookups can run concurrently.
+ */
+public class BloomFilter {
+
+	private final AtomicLongArray words;
+
+	private final long bits;
+
+	private final int hashes;
+
+	/**
+	 * @param expectedKeys Number of keys the filter is sized for.
+	 * @param falsePositiveRate Wanted false-positive rate at that size.
+	 */
+	public BloomFilter(long expectedKeys, double falsePositiveRate) {
+		long n = Math.max(1, expectedKeys);
+		long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+		this.words = new AtomicLongArray(Math.toIntExact((m + 63) / 64));
+		this.bits = words.length() * 64L;
+		this.hashes = Math.max(1, (int) Math.round((double) bits / n * Math.log(2)));
+	}
+
+	public void add(int key) {
+		add(mix(key));
+	}
+
+	public void add(String key) {
+		add(hash(key));
+	}
+
+	public boolean mightContain(int key) {
+		return mightContain(mix(key));
+	}
+
+	public boolean mightContain(String key) {
+		return mightContain(hash(key));
+	}
+
+	/**
+	 * Estimates the current false-positive rate from the share of bits set,
+	 * which grows past the configured one once more keys than expected were
+	 * added.
+	 */
+	public double expectedFalsePositiveRate() {
+		long set = 0;
+		for (int i = 0; i < words.length(); i++) {
+			set += Long.bitCount(words.get(i));
+		}
+		return Math.pow((double) set / bits, hashes);
+	}
+
+	public long bitSize() {
+		return bits;
+	}
+
+	// Double hashing: the k indexes are h1 + i * h2, from the two halves of one 64-bit hash.
+	private void add(long hash) {
+		int h1 = (int) hash;
+		int h2 = (int) (hash >>> 32);
+		for (int i = 1; i <= hashes; i++) {
+			long index = Integer.toUnsignedLong(h1 + i * h2) % bits;
+			long mask = 1L << index;
+			int word = (int) (index >>> 6);
+			if ((words.get(word) & mask) == 0) {
+				words.getAndAccumulate(word, mask, (current, bit) -> current | bit);
+			}
+		}
+	}
+
+	private boolean mightContain(long hash) {
+		int h1 = (int) hash;
+		int h2 = (int) (hash >>> 32);
+		for (int i = 1; i <= hashes; i++) {
+			long index = Integer.toUnsignedLong(h1 + i * h2) % bits;
+			if ((words.get((int) (index >>> 6)) & (1L << index)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static long hash(String key) {
+		// FNV-1a over the UTF-8 bytes, then the same finalizer as int keys.
+		long h = 0xcbf29ce484222325L;
+		for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+			h = (h ^ (b & 0xff)) * 0x100000001b3L;
+		}
+		return fmix(h);
+	}
+
+	private static long mix(int key) {
+		return fmix((key & 0xffffffffL) ^ 0x9e3779b97f4a7c15L);
+	}
+
+	private static long fmix(long h) {
+		h = (h ^ (h >>> 33)) * 0xff51afd7ed558ccdL;
+		h = (h ^ (h >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		return h ^ (h >>> 33);
+	}
+}
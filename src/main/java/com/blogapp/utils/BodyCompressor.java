@@ -0,0 +1,86 @@
+package com.blogapp.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Encodes post bodies for storage.
+ * <p>
+ * Bodies below a size threshold are stored as plain UTF-8: deflate saves little
+ * on short text and every read would pay for inflating it. Larger bodies are
+ * deflated, unless that does not make them smaller.
+ */
+public final class BodyCompressor {
+
+	public enum Codec {
+		NONE, DEFLATE
+	}
+
+	/**
+	 * @param codec          How {@code data} is encoded.
+	 * @param originalLength Length of the UTF-8 body in bytes.
+	 * @param data           The stored bytes.
+	 */
+	public record Compressed(Codec codec, int originalLength, byte[] data) {
+	}
+
+	private BodyCompressor() {
+	}
+
+	/**
+	 * @param body           The post body.
+	 * @param thresholdBytes Bodies shorter than this many UTF-8 bytes are not compressed.
+	 * @param level          Deflate level, 1 (fastest) to 9 (smallest).
+	 */
+	public static Compressed compress(String body, int thresholdBytes, int level) {
+		byte[] raw = body.getBytes(StandardCharsets.UTF_8);
+		if (raw.length < thresholdBytes) {
+			return new Compressed(Codec.NONE, raw.length, raw);
+		}
+		Deflater deflater = new Deflater(level);
+		try {
+			deflater.setInput(raw);
+			deflater.finish();
+			ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2);
+			byte[] buffer = new byte[Math.min(raw.length, 8192)];
+			while (!deflater.finished()) {
+				out.write(buffer, 0, deflater.deflate(buffer));
+			}
+			byte[] deflated = out.toByteArray();
+			return deflated.length < raw.length ? new Compressed(Codec.DEFLATE, raw.length, deflated)
+					: new Compressed(Codec.NONE, raw.length, raw);
+		} finally {
+			deflater.end();
+		}
+	}
+
+	public static String decompress(Codec codec, int originalLength, byte[] data) {
+		if (codec == Codec.NONE) {
+			return new String(data, StandardCharsets.UTF_8);
+		}
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(data);
+			byte[] raw = new byte[originalLength];
+			int length = 0;
+			while (length < originalLength && !inflater.finished()) {
+				int read = inflater.inflate(raw, length, originalLength - length);
+				if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+					break;
+				}
+				length += read;
+			}
+			if (length != originalLength) {
+				throw new IllegalStateException("Corrupt post body, expected " + originalLength + " bytes but got " + length);
+			}
+			return new String(raw, StandardCharsets.UTF_8);
+		} catch (DataFormatException e) {
+			throw new IllegalStateException("Corrupt post body", e);
+		} finally {
+			inflater.end();
+		}
+	}
+}
@@ -0,0 +1,40 @@
+package com.blogapp.utils;
+
+/**
+ * Reads the content codings a client accepts from its Accept-Encoding header.
+ */
+public final class ContentEncodings {
+
+	private ContentEncodings() {
+	}
+
+	/**
+	 * @param acceptEncoding The Accept-Encoding header, may be null.
+	 * @return Whether the client takes a gzip-encoded body, explicitly or
+	 *         through {@code *}, and did not rule it out with {@code q=0}.
+	 */
+	public static boolean acceptsGzip(String acceptEncoding) {
+		if (acceptEncoding == null) {
+			return false;
+		}
+		Boolean wildcard = null;
+		for (String coding : acceptEncoding.split(",")) {
+			String[] parts = coding.split(";");
+			String name = parts[0].trim();
+			boolean accepted = true;
+			for (int i = 1; i < parts.length; i++) {
+				String param = parts[i].trim();
+				if (param.startsWith("q=") || param.startsWith("Q=")) {
+					accepted = !param.substring(2).trim().matches("0(\\.0{0,3})?");
+				}
+			}
+			if (name.equalsIgnoreCase("gzip") || name.equalsIgnoreCase("x-gzip")) {
+				return accepted;
+			}
+			if (name.equals("*")) {
+				wildcard = accepted;
+			}
+		}
+		return Boolean.TRUE.equals(wildcard);
+	}
+}
@@ -0,0 +1,65 @@
+package com.blogapp.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free Count-Min sketch over int keys.
+ * <p>
+ * {@code depth} rows of {@code width} counters; a key adds to one counter per
+ * row, picked by a per-row hash, and its estimate is the smallest of those
+ * counters. Estimates never undercount and overcount by at most
+ * {@code e / width} of the total added, with probability
+ * {@code 1 - e^-depth}. Each update is one atomic add per row.
+ */
+public class CountMinSketch {
+
+	private final int depth;
+
+	private final int mask;
+
+	private final AtomicLongArray counters;
+
+	/**
+	 * @param depth Number of rows.
+	 * @param width Counters per row, rounded up to a power of two.
+	 */
+	public CountMinSketch(int depth, int width) {
+		this.depth = depth;
+		int size = Integer.highestOneBit(Math.max(1, width - 1)) << 1;
+		this.mask = size - 1;
+		this.counters = new AtomicLongArray(depth * size);
+	}
+
+	/**
+	 * Adds to the count of a key.
+	 *
+	 * @return The estimated count of the key after the add.
+	 */
+	public long add(int key, long count) {
+		long estimate = Long.MAX_VALUE;
+		for (int row = 0; row < depth; row++) {
+			estimate = Math.min(estimate, counters.addAndGet(index(row, key), count));
+		}
+		return estimate;
+	}
+
+	public long estimate(int key) {
+		long estimate = Long.MAX_VALUE;
+		for (int row = 0; row < depth; row++) {
+			estimate = Math.min(estimate, counters.get(index(row, key)));
+		}
+		return estimate;
+	}
+
+	private int index(int row, int key) {
+		return row * (mask + 1) + (int) (mix(key, row) & mask);
+	}
+
+	// One 64-bit finalizer per row, seeded by the row number, as independent hashes.
+	static long mix(int key, int seed) {
+		long h = (key & 0xffffffffL) ^ (0x9e3779b97f4a7c15L * (seed + 1));
+		h = (h ^ (h >>> 33)) * 0xff51afd7ed558ccdL;
+		h = (h ^ (h >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		return h ^ (h >>> 33);
+	}
+}
@@ -0,0 +1,44 @@
+package com.blogapp.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * gzip with a chosen deflate level, which {@link GZIPOutputStream} does not
+ * take as an argument.
+ */
+public final class Gzip {
+
+	private Gzip() {
+	}
+
+	/**
+	 * @param out   The stream receiving the gzip bytes.
+	 * @param level Deflate level, 1 (fastest) to 9 (smallest).
+	 * @return A stream whose {@code flush()} also flushes the pending deflate output.
+	 */
+	public static GZIPOutputStream newOutputStream(OutputStream out, int level) throws IOException {
+		return new GZIPOutputStream(out, 8192, true) {
+			{
+				def.setLevel(level);
+			}
+		};
+	}
+
+	/**
+	 * @param data  The bytes to compress.
+	 * @param level Deflate level, 1 (fastest) to 9 (smallest).
+	 */
+	public static byte[] compress(byte[] data, int level) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 3));
+		try (GZIPOutputStream gzip = newOutputStream(out, level)) {
+			gzip.write(data);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return out.toByteArray();
+	}
+}
@@ -0,0 +1,167 @@
+package com.blogapp.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Bounded, newest-first list of feed entries.
+ * <p>
+ * Writers (post create, update and delete) are rare and serialized; each one
+ * publishes a fresh array of at most {@code capacity} entries. Readers only
+ * read the current array, so serving a feed takes no lock and no database
+ * round trip.
+ *
+ * @param <T> Entry type.
+ */
+public class LatestPostsFeed<T> {
+
+	private final int capacity;
+
+	private final Comparator<T> newestFirst;
+
+	private final Function<T, Integer> idOf;
+
+	private volatile Object[] entries = new Object[0];
+
+	public LatestPostsFeed(int capacity, Comparator<T> newestFirst, Function<T, Integer> idOf) {
+		this.capacity = capacity;
+		this.newestFirst = newestFirst;
+		this.idOf = idOf;
+	}
+
+	/**
+	 * Inserts an entry, replacing any entry with the same id. Entries older than
+	 * the oldest retained one are dropped when the feed is full.
+	 */
+	public synchronized void upsert(T entry) {
+		Integer id = idOf.apply(entry);
+		List<T> next = new ArrayList<>(capacity + 1);
+		boolean inserted = false;
+		for (Object current : entries) {
+			@SuppressWarnings("unchecked")
+			T existing = (T) current;
+			if (idOf.apply(existing).equals(id)) {
+				continue;
+			}
+			if (!inserted && newestFirst.compare(entry, existing) <= 0) {
+				next.add(entry);
+				inserted = true;
+			}
+			next.add(existing);
+		}
+		if (!inserted) {
+			next.add(entry);
+		}
+		publish(next);
+	}
+
+	/**
+	 * Replaces the whole feed, e.g. when it is loaded from the database.
+	 */
+	public synchronized void reset(List<T> newestFirstEntries) {
+		List<T> next = new ArrayList<>(newestFirstEntries);
+		next.sort(newestFirst);
+		publish(next);
+	}
+
+	/**
+	 * Adds the entries whose id is not in the feed yet, keeping the entries
+	 * already there, which are at least as fresh. Used to refill a feed that lost
+	 * entries, from a read of the newest entries.
+	 */
+	public synchronized void fill(List<T> candidates) {
+		List<T> next = new ArrayList<>(entries.length + candidates.size());
+		Set<Integer> ids = new HashSet<>();
+		for (Object current : entries) {
+			@SuppressWarnings("unchecked")
+			T existing = (T) current;
+			next.add(existing);
+			ids.add(idOf.apply(existing));
+		}
+		for (T candidate : candidates) {
+			if (ids.add(idOf.apply(candidate))) {
+				next.add(candidate);
+			}
+		}
+		if (next.size() != entries.length) {
+			next.sort(newestFirst);
+			publish(next);
+		}
+	}
+
+	/**
+	 * Removes the entries matching the filter.
+	 *
+	 * @return Whether entries were removed from a full feed, which may now miss
+	 *         older entries that it had no room for, and should be refilled.
+	 */
+	public synchronized boolean removeIf(Predicate<T> filter) {
+		List<T> next = new ArrayList<>(entries.length);
+		for (Object current : entries) {
+			@SuppressWarnings("unchecked")
+			T existing = (T) current;
+			if (!filter.test(existing)) {
+				next.add(existing);
+			}
+		}
+		if (next.size() == entries.length) {
+			return false;
+		}
+		boolean wasFull = entries.length == capacity;
+		publish(next);
+		return wasFull;
+	}
+
+	/**
+	 * Replaces the entries matching the filter in place, keeping their
+	 * positions, e.g. when the name of their author changed.
+	 */
+	public synchronized void replaceIf(Predicate<T> filter, UnaryOperator<T> update) {
+		Object[] next = entries.clone();
+		boolean changed = false;
+		for (int i = 0; i < next.length; i++) {
+			@SuppressWarnings("unchecked")
+			T existing = (T) next[i];
+			if (filter.test(existing)) {
+				next[i] = update.apply(existing);
+				changed = true;
+			}
+		}
+		if (changed) {
+			entries = next;
+		}
+	}
+
+	public boolean remove(Integer id) {
+		return removeIf(entry -> idOf.apply(entry).equals(id));
+	}
+
+	/**
+	 * @return Up to {@code limit} of the newest entries.
+	 */
+	@SuppressWarnings("unchecked")
+	public List<T> latest(int limit) {
+		Object[] current = entries;
+		int size = Math.min(Math.max(limit, 0), current.length);
+		return (List<T>) Arrays.asList(Arrays.copyOf(current, size));
+	}
+
+	public int size() {
+		return entries.length;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	private void publish(List<T> next) {
+		entries = next.subList(0, Math.min(next.size(), capacity)).toArray();
+	}
+}
@@ -0,0 +1,351 @@
+package com.blogapp.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntConsumer;
+
+/**
+ * MinHash signatures bucketed with locality-sensitive hashing, answering "the
+ * ids whose token sets are most similar to this id's" without comparing it to
+ * every other id.
+ * <p>
+ * A signature holds, for each of {@code hashes} hash functions, the smallest
+ * hash over the tokens. Two signatures agree at a position with a probability
+ * equal to the Jaccard similarity of the two token sets. Signatures are cut
+ * into {@code bands} bands of {@code hashes / bands} rows, and ids whose
+ * signatures are equal over a whole band share that band's bucket: a pair with
+ * similarity s shares at least one bucket with probability
+ * 1 - (1 - s^rows)^bands. A lookup scores only the ids sharing a bucket with
+ * the given one, by the share of signature positions they agree on. A bucket
+ * holds at most {@code maxBucketSize} ids, later ids are only found through
+ * their other bands, so a lookup scores at most bands * maxBucketSize
+ * candidates however many ids are indexed.
+ * <p>
+ * Signing is thread-safe, so signatures can be computed in parallel and put
+ * afterwards. Everything else is not thread-safe.
+ */
+public class MinHashIndex {
+
+	// Estimated sizes for a 64-bit JVM with compressed references.
+	private static final int MAP_ENTRY_BYTES = 36;
+
+	private static final int INTEGER_BYTES = 16;
+
+	private static final int ARRAY_HEADER_BYTES = 16;
+
+	private final int hashes;
+
+	private final int bands;
+
+	private final int rows;
+
+	private final int maxBucketSize;
+
+	private final long[] seeds;
+
+	private final Map<Integer, int[]> signatures = new HashMap<>();
+
+	private final BandTable[] tables;
+
+	/**
+	 * @param hashes Length of the signatures, a multiple of bands.
+	 * @param bands Number of bands the signatures are cut into.
+	 * @param maxBucketSize Most ids a bucket holds.
+	 */
+	public MinHashIndex(int hashes, int bands, int maxBucketSize) {
+		if (bands <= 0 || hashes <= 0 || hashes % bands != 0 || maxBucketSize <= 0) {
+			throw new IllegalArgumentException("hashes must be a positive multiple of bands, maxBucketSize positive");
+		}
+		this.hashes = hashes;
+		this.bands = bands;
+		this.rows = hashes / bands;
+		this.maxBucketSize = maxBucketSize;
+		// Fixed seeds, so that a token set gets the same signature on every instance and after a restart.
+		this.seeds = new long[hashes];
+		for (int i = 0; i < hashes; i++) {
+			seeds[i] = fmix(0x9e3779b97f4a7c15L * (i + 1));
+		}
+		this.tables = new BandTable[bands];
+		for (int band = 0; band < bands; band++) {
+			tables[band] = new BandTable();
+		}
+	}
+
+	/**
+	 * Computes the signature of a token set.
+	 *
+	 * @param tokens The distinct tokens.
+	 * @return The signature, or null when there are no tokens.
+	 */
+	public int[] signature(Collection<String> tokens) {
+		if (tokens.isEmpty()) {
+			return null;
+		}
+		int[] signature = new int[hashes];
+		Arrays.fill(signature, Integer.MAX_VALUE);
+		for (String token : tokens) {
+			long base = hash(token);
+			for (int i = 0; i < hashes; i++) {
+				int h = (int) fmix(base ^ seeds[i]);
+				if (h < signature[i]) {
+					signature[i] = h;
+				}
+			}
+		}
+		return signature;
+	}
+
+	/**
+	 * Adds an id, or replaces its signature.
+	 *
+	 * @param id The id.
+	 * @param signature Its signature, from {@link #signature(Collection)}.
+	 */
+	public void put(int id, int[] signature) {
+		if (signature.length != hashes) {
+			throw new IllegalArgumentException("Signature has " + signature.length + " hashes, expected " + hashes);
+		}
+		remove(id);
+		signatures.put(id, signature);
+		for (int band = 0; band < bands; band++) {
+			tables[band].add(bandKey(signature, band), id, maxBucketSize);
+		}
+	}
+
+	public void remove(int id) {
+		int[] old = signatures.remove(id);
+		if (old != null) {
+			for (int band = 0; band < bands; band++) {
+				tables[band].remove(bandKey(old, band), id);
+			}
+		}
+	}
+
+	public boolean contains(int id) {
+		return signatures.containsKey(id);
+	}
+
+	public int size() {
+		return signatures.size();
+	}
+
+	/**
+	 * Finds the ids most similar to an indexed id.
+	 *
+	 * @param id The id.
+	 * @param limit Maximum number of ids returned.
+	 * @param minSimilarity Lowest estimated Jaccard similarity of the ids returned.
+	 * @return The ids, most similar first and the highest id first among equally
+	 *         similar ones, empty when the id is not indexed.
+	 */
+	public List<Match> similar(int id, int limit, double minSimilarity) {
+		int[] signature = signatures.get(id);
+		if (signature == null || limit <= 0) {
+			return List.of();
+		}
+		Set<Integer> candidates = new HashSet<>();
+		for (int band = 0; band < bands; band++) {
+			tables[band].forEach(bandKey(signature, band), candidate -> {
+				if (candidate != id) {
+					candidates.add(candidate);
+				}
+			});
+		}
+		List<Match> matches = new ArrayList<>();
+		for (Integer candidate : candidates) {
+			double similarity = similarity(signature, signatures.get(candidate));
+			if (similarity >= minSimilarity) {
+				matches.add(new Match(candidate, similarity));
+			}
+		}
+		matches.sort(Comparator.comparingDouble(Match::similarity).thenComparingInt(Match::id).reversed());
+		return matches.size() > limit ? List.copyOf(matches.subList(0, limit)) : matches;
+	}
+
+	/**
+	 * Estimates the heap used by the signatures and the buckets.
+	 */
+	public Footprint footprint() {
+		long bytes = signatures.size() * (MAP_ENTRY_BYTES + INTEGER_BYTES + align(ARRAY_HEADER_BYTES + Integer.BYTES * hashes));
+		long entries = 0;
+		for (BandTable table : tables) {
+			entries += table.used;
+			bytes += table.estimatedBytes();
+		}
+		return new Footprint(signatures.size(), entries, bytes);
+	}
+
+	public record Match(int id, double similarity) {
+	}
+
+	public record Footprint(int ids, long bucketEntries, long estimatedBytes) {
+	}
+
+	private double similarity(int[] a, int[] b) {
+		int equal = 0;
+		for (int i = 0; i < hashes; i++) {
+			if (a[i] == b[i]) {
+				equal++;
+			}
+		}
+		return (double) equal / hashes;
+	}
+
+	private int bandKey(int[] signature, int band) {
+		long key = band;
+		for (int i = band * rows; i < (band + 1) * rows; i++) {
+			key = fmix(key ^ (signature[i] & 0xffffffffL)) + 0x9e3779b97f4a7c15L;
+		}
+		return (int) (key ^ (key >>> 32));
+	}
+
+	private static long hash(String token) {
+		// FNV-1a over the UTF-8 bytes, then the Murmur3 finalizer.
+		long h = 0xcbf29ce484222325L;
+		for (byte b : token.getBytes(StandardCharsets.UTF_8)) {
+			h = (h ^ (b & 0xff)) * 0x100000001b3L;
+		}
+		return fmix(h);
+	}
+
+	private static long fmix(long h) {
+		h = (h ^ (h >>> 33)) * 0xff51afd7ed558ccdL;
+		h = (h ^ (h >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		return h ^ (h >>> 33);
+	}
+
+	private static long align(long bytes) {
+		return (bytes + 7) & ~7L;
+	}
+
+	// Open addressing multimap from band keys to ids, with linear probing and
+	// several slots per key. Removed slots are marked so that probing goes on
+	// past them, and are reused by later adds. Keys are 32-bit: two bands that
+	// collide only add candidates, which are scored on the whole signature.
+	// Uses 9 bytes per slot instead of the ~80 of a boxed map entry, most
+	// buckets holding a single id. Package-private for its tests.
+	static final class BandTable {
+
+		private static final byte EMPTY = 0;
+
+		private static final byte USED = 1;
+
+		private static final byte REMOVED = 2;
+
+		private int[] keys = new int[16];
+
+		private int[] ids = new int[16];
+
+		private byte[] states = new byte[16];
+
+		private int used;
+
+		private int removed;
+
+		void add(int key, int id, int maxBucketSize) {
+			if ((used + removed + 1) * 4 > keys.length * 3) {
+				rehash();
+			}
+			int mask = keys.length - 1;
+			int slot = key & mask;
+			int free = -1;
+			int bucketSize = 0;
+			while (states[slot] != EMPTY) {
+				if (states[slot] == USED && keys[slot] == key) {
+					if (ids[slot] == id) {
+						return;
+					}
+					bucketSize++;
+				} else if (states[slot] == REMOVED && free < 0) {
+					free = slot;
+				}
+				slot = (slot + 1) & mask;
+			}
+			if (bucketSize >= maxBucketSize) {
+				return;
+			}
+			if (free >= 0) {
+				slot = free;
+				removed--;
+			}
+			keys[slot] = key;
+			ids[slot] = id;
+			states[slot] = USED;
+			used++;
+		}
+
+		void remove(int key, int id) {
+			int mask = keys.length - 1;
+			for (int slot = key & mask; states[slot] != EMPTY; slot = (slot + 1) & mask) {
+				if (states[slot] == USED && keys[slot] == key && ids[slot] == id) {
+					states[slot] = REMOVED;
+					used--;
+					removed++;
+					return;
+				}
+			}
+		}
+
+		void forEach(int key, IntConsumer action) {
+			int mask = keys.length - 1;
+			for (int slot = key & mask; states[slot] != EMPTY; slot = (slot + 1) & mask) {
+				if (states[slot] == USED && keys[slot] == key) {
+					action.accept(ids[slot]);
+				}
+			}
+		}
+
+		int size() {
+			return used;
+		}
+
+		int capacity() {
+			return keys.length;
+		}
+
+		int removedSlots() {
+			return removed;
+		}
+
+		long estimatedBytes() {
+			return align(ARRAY_HEADER_BYTES + (long) Integer.BYTES * keys.length)
+					+ align(ARRAY_HEADER_BYTES + (long) Integer.BYTES * ids.length)
+					+ align(ARRAY_HEADER_BYTES + states.length);
+		}
+
+		// Drops the removed slots, and grows the table to a load of at most a half.
+		private void rehash() {
+			int capacity = 16;
+			while (capacity < (used + 1) * 2) {
+				capacity <<= 1;
+			}
+			int[] oldKeys = keys;
+			int[] oldIds = ids;
+			byte[] oldStates = states;
+			keys = new int[capacity];
+			ids = new int[capacity];
+			states = new byte[capacity];
+			removed = 0;
+			int mask = capacity - 1;
+			for (int i = 0; i < oldKeys.length; i++) {
+				if (oldStates[i] == USED) {
+					int slot = oldKeys[i] & mask;
+					while (states[slot] != EMPTY) {
+						slot = (slot + 1) & mask;
+					}
+					keys[slot] = oldKeys[i];
+					ids[slot] = oldIds[i];
+					states[slot] = USED;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,25 @@
+package com.blogapp.utils;
+
+import com.blogapp.config.AppConstants;
+
+/**
+ * The excerpt is the start of a post body, stored on the post row so lists
+ * never need the body itself.
+ */
+public final class PostExcerpts {
+
+	private PostExcerpts() {
+	}
+
+	public static String of(String content) {
+		if (content == null || content.length() <= AppConstants.EXCERPT_LENGTH) {
+			return content;
+		}
+		int end = AppConstants.EXCERPT_LENGTH;
+		// Do not split a surrogate pair.
+		if (Character.isHighSurrogate(content.charAt(end - 1))) {
+			end--;
+		}
+		return content.substring(0, end);
+	}
+}
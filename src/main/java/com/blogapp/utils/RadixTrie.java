@@ -0,0 +1,367 @@
+package com.blogapp.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Radix tree (compressed trie) from string keys to scored values, answering
+ * "the highest scored values whose key starts with a prefix".
+ * <p>
+ * Chains of nodes with a single child are merged into one edge label, so
+ * there are at most twice as many nodes as keys whatever their length.
+ * Every node also records the highest score anywhere below it. A query walks
+ * down to the prefix and then expands nodes best-first, so it stops after
+ * {@code limit} values without visiting the rest of the subtree.
+ * <p>
+ * Not thread-safe.
+ */
+public class RadixTrie<V> {
+
+	private static final Node<?>[] NO_CHILDREN = new Node<?>[0];
+
+	// Estimated sizes for a 64-bit JVM with compressed references.
+	private static final int NODE_BYTES = 32;
+
+	private static final int STRING_BYTES = 24;
+
+	private static final int ARRAY_HEADER_BYTES = 16;
+
+	private static final int REFERENCE_BYTES = 4;
+
+	private final Node<V> root = new Node<>("");
+
+	private int nodes = 1;
+
+	private int keys;
+
+	private int values;
+
+	// Estimated heap of all nodes, kept up to date by subtracting a node's share before it changes and adding it back after.
+	private long bytes = bytes(root);
+
+	/**
+	 * Adds a value under a key, or changes its score when already there.
+	 */
+	public void put(String key, V value, int score) {
+		put(root, key, 0, Objects.requireNonNull(value), score);
+	}
+
+	/**
+	 * Removes a value from a key.
+	 *
+	 * @return false when the value was not stored under the key.
+	 */
+	public boolean remove(String key, V value) {
+		return remove(root, key, 0, value);
+	}
+
+	/**
+	 * Returns the distinct values with the highest scores among the keys
+	 * starting with the prefix, best first.
+	 */
+	public List<V> top(String prefix, int limit) {
+		Node<V> node = root;
+		int offset = 0;
+		while (offset < prefix.length()) {
+			int index = childIndex(node, prefix.charAt(offset));
+			if (index < 0) {
+				return List.of();
+			}
+			Node<V> child = node.children[index];
+			int length = Math.min(child.label.length(), prefix.length() - offset);
+			if (!child.label.regionMatches(0, prefix, offset, length)) {
+				return List.of();
+			}
+			node = child;
+			offset += length;
+		}
+		Set<V> result = new LinkedHashSet<>();
+		PriorityQueue<Candidate<V>> queue = new PriorityQueue<>(
+				Comparator.comparingInt((Candidate<V> candidate) -> candidate.score()).reversed());
+		queue.add(new Candidate<>(node, null, node.maxScore));
+		while (!queue.isEmpty() && result.size() < limit) {
+			Candidate<V> candidate = queue.poll();
+			if (candidate.node() == null) {
+				// The same value can sit under several keys, the first time it comes out is its best.
+				result.add(candidate.value());
+				continue;
+			}
+			Node<V> expanded = candidate.node();
+			for (int i = 0; i < expanded.valueCount(); i++) {
+				queue.add(new Candidate<>(null, expanded.value(i), expanded.scores[i]));
+			}
+			for (Node<V> child : expanded.children) {
+				queue.add(new Candidate<>(child, null, child.maxScore));
+			}
+		}
+		return new ArrayList<>(result);
+	}
+
+	public int size() {
+		return values;
+	}
+
+	/**
+	 * Counts the nodes and estimates the heap they use, excluding the values
+	 * themselves, which are shared with the caller. Kept up to date by every
+	 * change, so this does not walk the tree.
+	 */
+	public Footprint footprint() {
+		return new Footprint(nodes, keys, values, bytes);
+	}
+
+	private void put(Node<V> node, String key, int offset, V value, int score) {
+		if (offset == key.length()) {
+			bytes -= bytes(node);
+			setValue(node, value, score);
+			bytes += bytes(node);
+		} else {
+			int index = childIndex(node, key.charAt(offset));
+			if (index < 0) {
+				Node<V> leaf = new Node<>(key.substring(offset));
+				setValue(leaf, value, score);
+				leaf.maxScore = score;
+				bytes -= bytes(node);
+				insertChild(node, -(index + 1), leaf);
+				bytes += bytes(node) + bytes(leaf);
+				nodes++;
+			} else {
+				Node<V> child = node.children[index];
+				int common = commonPrefixLength(child.label, key, offset);
+				if (common < child.label.length()) {
+					// The key leaves the edge half way, so the edge is split where it does.
+					Node<V> split = new Node<>(child.label.substring(0, common));
+					bytes -= bytes(child);
+					child.label = child.label.substring(common);
+					bytes += bytes(child);
+					split.children = newChildren(child);
+					split.maxScore = child.maxScore;
+					node.children[index] = split;
+					bytes += bytes(split);
+					nodes++;
+					child = split;
+				}
+				put(child, key, offset + common, value, score);
+			}
+		}
+		updateMaxScore(node);
+	}
+
+	private boolean remove(Node<V> node, String key, int offset, V value) {
+		boolean removed;
+		if (offset == key.length()) {
+			bytes -= bytes(node);
+			removed = removeValue(node, value);
+			bytes += bytes(node);
+		} else {
+			int index = childIndex(node, key.charAt(offset));
+			if (index < 0) {
+				return false;
+			}
+			Node<V> child = node.children[index];
+			if (!key.startsWith(child.label, offset)) {
+				return false;
+			}
+			removed = remove(child, key, offset + child.label.length(), value);
+			if (removed && child.values == null) {
+				if (child.children.length == 0) {
+					bytes -= bytes(node) + bytes(child);
+					removeChild(node, index);
+					bytes += bytes(node);
+					nodes--;
+				} else if (child.children.length == 1) {
+					// A valueless node with one child is merged back into a single edge.
+					Node<V> only = child.children[0];
+					bytes -= bytes(child) + bytes(only);
+					only.label = child.label + only.label;
+					bytes += bytes(only);
+					node.children[index] = only;
+					nodes--;
+				}
+			}
+		}
+		if (removed) {
+			updateMaxScore(node);
+		}
+		return removed;
+	}
+
+	private void setValue(Node<V> node, V value, int score) {
+		if (node.values == null) {
+			node.values = new Object[] { value };
+			node.scores = new int[] { score };
+			keys++;
+			values++;
+			return;
+		}
+		for (int i = 0; i < node.values.length; i++) {
+			if (node.values[i].equals(value)) {
+				node.scores[i] = score;
+				return;
+			}
+		}
+		int length = node.values.length;
+		node.values = Arrays.copyOf(node.values, length + 1);
+		node.scores = Arrays.copyOf(node.scores, length + 1);
+		node.values[length] = value;
+		node.scores[length] = score;
+		values++;
+	}
+
+	private boolean removeValue(Node<V> node, V value) {
+		if (node.values == null) {
+			return false;
+		}
+		for (int i = 0; i < node.values.length; i++) {
+			if (node.values[i].equals(value)) {
+				values--;
+				if (node.values.length == 1) {
+					node.values = null;
+					node.scores = null;
+					keys--;
+				} else {
+					node.values = without(node.values, i);
+					int[] scores = new int[node.scores.length - 1];
+					System.arraycopy(node.scores, 0, scores, 0, i);
+					System.arraycopy(node.scores, i + 1, scores, i, scores.length - i);
+					node.scores = scores;
+				}
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// The node's own share: its label and arrays, not its children.
+	private static long bytes(Node<?> node) {
+		long bytes = NODE_BYTES + STRING_BYTES + align(ARRAY_HEADER_BYTES + node.label.length());
+		if (node.children.length > 0) {
+			bytes += align(ARRAY_HEADER_BYTES + REFERENCE_BYTES * node.children.length);
+		}
+		if (node.values != null) {
+			bytes += align(ARRAY_HEADER_BYTES + REFERENCE_BYTES * node.values.length)
+					+ align(ARRAY_HEADER_BYTES + Integer.BYTES * node.scores.length);
+		}
+		return bytes;
+	}
+
+	private static <V> void updateMaxScore(Node<V> node) {
+		int max = Integer.MIN_VALUE;
+		if (node.scores != null) {
+			for (int score : node.scores) {
+				max = Math.max(max, score);
+			}
+		}
+		for (Node<V> child : node.children) {
+			max = Math.max(max, child.maxScore);
+		}
+		node.maxScore = max;
+	}
+
+	// Children are sorted by the first character of their label, which is unique among siblings.
+	private static <V> int childIndex(Node<V> node, char first) {
+		int low = 0;
+		int high = node.children.length - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			char c = node.children[middle].label.charAt(0);
+			if (c < first) {
+				low = middle + 1;
+			} else if (c > first) {
+				high = middle - 1;
+			} else {
+				return middle;
+			}
+		}
+		return -(low + 1);
+	}
+
+	private static <V> void insertChild(Node<V> node, int index, Node<V> child) {
+		Node<V>[] children = Arrays.copyOf(node.children, node.children.length + 1);
+		System.arraycopy(children, index, children, index + 1, node.children.length - index);
+		children[index] = child;
+		node.children = children;
+	}
+
+	private static <V> void removeChild(Node<V> node, int index) {
+		node.children = node.children.length == 1 ? emptyChildren() : without(node.children, index);
+	}
+
+	private static <T> T[] without(T[] array, int index) {
+		T[] result = Arrays.copyOf(array, array.length - 1);
+		System.arraycopy(array, index + 1, result, index, result.length - index);
+		return result;
+	}
+
+	private static int commonPrefixLength(String label, String key, int offset) {
+		int length = Math.min(label.length(), key.length() - offset);
+		int i = 0;
+		while (i < length && label.charAt(i) == key.charAt(offset + i)) {
+			i++;
+		}
+		return i;
+	}
+
+	private static long align(long bytes) {
+		return (bytes + 7) & ~7L;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <V> Node<V>[] emptyChildren() {
+		return (Node<V>[]) NO_CHILDREN;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <V> Node<V>[] newChildren(Node<V> child) {
+		Node<V>[] children = (Node<V>[]) new Node<?>[1];
+		children[0] = child;
+		return children;
+	}
+
+	/**
+	 * Size of the tree.
+	 *
+	 * @param nodes Number of nodes, including the root.
+	 * @param keys Number of distinct keys.
+	 * @param values Number of key and value pairs.
+	 * @param estimatedBytes Estimated heap used by the nodes, labels and arrays.
+	 */
+	public record Footprint(int nodes, int keys, int values, long estimatedBytes) {
+	}
+
+	private record Candidate<V>(Node<V> node, V value, int score) {
+	}
+
+	private static final class Node<V> {
+
+		private String label;
+
+		private Node<V>[] children = emptyChildren();
+
+		// Parallel arrays, null when no key ends here.
+		private Object[] values;
+
+		private int[] scores;
+
+		private int maxScore = Integer.MIN_VALUE;
+
+		private Node(String label) {
+			this.label = label;
+		}
+
+		private int valueCount() {
+			return values == null ? 0 : values.length;
+		}
+
+		@SuppressWarnings("unchecked")
+		private V value(int index) {
+			return (V) values[index];
+		}
+	}
+}
@@ -0,0 +1,154 @@
+package com.blogapp.utils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Shares one in-flight load between concurrent callers asking for the same key.
+ * <p>
+ * The first caller for a key runs the load on its own thread, callers that
+ * arrive while it runs wait for its result and get the same value, or the same
+ * exception. Nothing is kept once the load finishes: a caller arriving after
+ * that starts a new one.
+ * <p>
+ * Waiters give up when the load has been running for longer than the timeout,
+ * and a load running longer than that is not joined any more, so one stuck
+ * load does not hold up every later request for its key.
+ */
+public class SingleFlight<K, V> {
+
+	private final ConcurrentHashMap<K, Flight<V>> flights = new ConcurrentHashMap<>();
+
+	private final long timeoutNanos;
+
+	private final LongAdder loads = new LongAdder();
+
+	private final LongAdder coalesced = new LongAdder();
+
+	private final LongAdder timeouts = new LongAdder();
+
+	/**
+	 * @param timeoutMillis How long a load may run before waiters give up on it.
+	 */
+	public SingleFlight(long timeoutMillis) {
+		this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+	}
+
+	/**
+	 * Runs the load for a key, or waits for the one already running.
+	 *
+	 * @param key The key of the load.
+	 * @param loader Runs the load when no other caller is running it.
+	 * @return The loaded value.
+	 * @throws TimeoutException when the running load took longer than the timeout.
+	 */
+	public V execute(K key, Supplier<V> loader) {
+		long now = System.nanoTime();
+		Flight<V> flight = new Flight<>(now);
+		while (true) {
+			Flight<V> current = flights.putIfAbsent(key, flight);
+			if (current == null) {
+				return lead(key, flight, loader);
+			}
+			long remaining = timeoutNanos - (now - current.startedNanos);
+			if (remaining > 0) {
+				coalesced.increment();
+				return await(current, remaining);
+			}
+			if (flights.replace(key, current, flight)) {
+				return lead(key, flight, loader);
+			}
+		}
+	}
+
+	/**
+	 * Stops later callers from joining the running load for a key, e.g. because
+	 * it may have read data that a write has changed since.
+	 */
+	public void forget(K key) {
+		flights.remove(key);
+	}
+
+	public void forgetAll() {
+		flights.clear();
+	}
+
+	public int inFlight() {
+		return flights.size();
+	}
+
+	// Loads run by a caller of execute.
+	public long loads() {
+		return loads.sum();
+	}
+
+	// Callers that waited for another caller's load instead of running their own.
+	public long coalesced() {
+		return coalesced.sum();
+	}
+
+	// Waiters that gave up on a load.
+	public long timeouts() {
+		return timeouts.sum();
+	}
+
+	private V lead(K key, Flight<V> flight, Supplier<V> loader) {
+		loads.increment();
+		try {
+			V value = loader.get();
+			flight.result.complete(value);
+			return value;
+		} catch (RuntimeException | Error e) {
+			flight.result.completeExceptionally(e);
+			throw e;
+		} finally {
+			flights.remove(key, flight);
+		}
+	}
+
+	private V await(Flight<V> flight, long remainingNanos) {
+		try {
+			return flight.result.get(remainingNanos, TimeUnit.NANOSECONDS);
+		} catch (ExecutionException e) {
+			// The leader's own exception, so waiters fail the same way it did.
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			if (e.getCause() instanceof Error cause) {
+				throw cause;
+			}
+			throw new IllegalStateException(e.getCause());
+		} catch (java.util.concurrent.TimeoutException e) {
+			timeouts.increment();
+			throw new TimeoutException();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for a concurrent load", e);
+		}
+	}
+
+	/**
+	 * Thrown to a waiter when the load it waits for runs longer than the timeout.
+	 */
+	public static class TimeoutException extends RuntimeException {
+
+		private TimeoutException() {
+			super("Timed out waiting for a concurrent load", null, false, false);
+		}
+	}
+
+	private static final class Flight<V> {
+
+		private final long startedNanos;
+
+		private final CompletableFuture<V> result = new CompletableFuture<>();
+
+		private Flight(long startedNanos) {
+			this.startedNanos = startedNanos;
+		}
+	}
+}
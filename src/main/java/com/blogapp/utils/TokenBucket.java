@@ -0,0 +1,63 @@
+package com.blogapp.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket.
+ * <p>
+ * The bucket is kept in its GCRA form: instead of a token count and a refill
+ * timestamp it stores a single "theoretical arrival time", the instant at
+ * which the bucket would be full again. Taking {@code n} tokens moves that
+ * instant forward by {@code n} refill intervals, and the request is admitted
+ * when the instant stays within {@code capacity} intervals of now. One CAS on
+ * one {@code long} per request, no lock and no allocation.
+ */
+public class TokenBucket {
+
+	private final long nanosPerToken;
+
+	private final long burstNanos;
+
+	private final AtomicLong theoreticalArrival;
+
+	/**
+	 * @param capacity        Maximum number of tokens the bucket holds.
+	 * @param tokensPerSecond Rate at which tokens are refilled.
+	 * @param nowNanos        Current {@link System#nanoTime()}, the bucket starts full.
+	 */
+	public TokenBucket(long capacity, double tokensPerSecond, long nowNanos) {
+		this.nanosPerToken = (long) (1_000_000_000L / tokensPerSecond);
+		this.burstNanos = capacity * nanosPerToken;
+		this.theoreticalArrival = new AtomicLong(nowNanos);
+	}
+
+	/**
+	 * Tries to take tokens from the bucket.
+	 *
+	 * @param tokens   Number of tokens the request costs.
+	 * @param nowNanos Current {@link System#nanoTime()}.
+	 * @return 0 when the tokens were taken, otherwise the number of nanoseconds
+	 *         after which the same request would be admitted.
+	 */
+	public long tryAcquire(int tokens, long nowNanos) {
+		long increment = tokens * nanosPerToken;
+		while (true) {
+			long current = theoreticalArrival.get();
+			long next = Math.max(current, nowNanos) + increment;
+			long excess = next - nowNanos - burstNanos;
+			if (excess > 0) {
+				return excess;
+			}
+			if (theoreticalArrival.compareAndSet(current, next)) {
+				return 0;
+			}
+		}
+	}
+
+	/**
+	 * @return true when the bucket has refilled completely and can be dropped.
+	 */
+	public boolean isIdle(long nowNanos) {
+		return theoreticalArrival.get() <= nowNanos;
+	}
+}
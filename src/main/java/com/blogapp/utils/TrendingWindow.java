@@ -0,0 +1,197 @@
+package com.blogapp.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Heaviest int keys over a sliding time window, in bounded memory and with
+ * lock-free updates.
+ * <p>
+ * The window is a ring of {@code buckets} time buckets of
+ * {@code bucketMillis} each. Every bucket holds a {@link CountMinSketch} for
+ * the counts and a small table of heavy-hitter candidates, the keys with the
+ * highest estimates seen in that bucket. An update adds to the sketch of the
+ * current bucket and offers the key to its candidates; both are CAS-based.
+ * Buckets that fall out of the window are replaced by the next ones, which is
+ * how old activity decays.
+ * <p>
+ * {@link #top(int, long)} sums each candidate's estimates over the live
+ * buckets and keeps the best ones with a size-bounded heap. It reads
+ * {@code buckets * candidates} keys and is meant to run periodically, off the
+ * request path.
+ */
+public class TrendingWindow {
+
+	// Candidate slots a key may occupy, starting at its hash.
+	private static final int PROBES = 4;
+
+	private final long bucketMillis;
+
+	private final int sketchDepth;
+
+	private final int sketchWidth;
+
+	private final int candidates;
+
+	private final AtomicReferenceArray<Bucket> ring;
+
+	/**
+	 * @param buckets Number of buckets in the window.
+	 * @param bucketMillis Time covered by each bucket.
+	 * @param sketchDepth Rows of each bucket's sketch.
+	 * @param sketchWidth Counters per row of each bucket's sketch.
+	 * @param candidates Candidate slots per bucket, rounded up to a power of two.
+	 */
+	public TrendingWindow(int buckets, long bucketMillis, int sketchDepth, int sketchWidth, int candidates) {
+		this.bucketMillis = bucketMillis;
+		this.sketchDepth = sketchDepth;
+		this.sketchWidth = sketchWidth;
+		this.candidates = Integer.highestOneBit(Math.max(PROBES, candidates) - 1) << 1;
+		this.ring = new AtomicReferenceArray<>(buckets);
+	}
+
+	/**
+	 * Adds to the count of a key in the current bucket.
+	 *
+	 * @param key A non-negative key.
+	 * @param weight The amount to add.
+	 * @param nowMillis Current {@link System#currentTimeMillis()}.
+	 */
+	public void add(int key, int weight, long nowMillis) {
+		Bucket bucket = bucket(nowMillis / bucketMillis);
+		if (bucket != null) {
+			bucket.offer(key, bucket.sketch.add(key, weight));
+		}
+	}
+
+	/**
+	 * Returns the keys with the highest counts over the window, highest first.
+	 *
+	 * @param limit Maximum number of keys.
+	 * @param nowMillis Current {@link System#currentTimeMillis()}.
+	 */
+	public List<Scored> top(int limit, long nowMillis) {
+		long current = nowMillis / bucketMillis;
+		List<Bucket> live = new ArrayList<>();
+		for (int i = 0; i < ring.length(); i++) {
+			Bucket bucket = ring.get(i);
+			if (bucket != null && bucket.number > current - ring.length() && bucket.number <= current) {
+				live.add(bucket);
+			}
+		}
+		Set<Integer> keys = new HashSet<>();
+		live.forEach(bucket -> bucket.collectKeys(keys));
+		PriorityQueue<Scored> best = new PriorityQueue<>(Comparator.comparingLong(Scored::score));
+		for (Integer key : keys) {
+			long score = 0;
+			for (Bucket bucket : live) {
+				score += bucket.sketch.estimate(key);
+			}
+			if (best.size() < limit) {
+				best.add(new Scored(key, score));
+			} else if (limit > 0 && score > best.peek().score()) {
+				best.poll();
+				best.add(new Scored(key, score));
+			}
+		}
+		List<Scored> result = new ArrayList<>(best);
+		result.sort(Comparator.comparingLong(Scored::score).reversed());
+		return result;
+	}
+
+	// The bucket with the given number, created when its slot still holds an older one.
+	private Bucket bucket(long number) {
+		int slot = (int) (number % ring.length());
+		while (true) {
+			Bucket bucket = ring.get(slot);
+			if (bucket != null && bucket.number >= number) {
+				// A bucket from the future means the clock went back, the update is dropped.
+				return bucket.number == number ? bucket : null;
+			}
+			Bucket fresh = new Bucket(number, new CountMinSketch(sketchDepth, sketchWidth), candidates);
+			if (ring.compareAndSet(slot, bucket, fresh)) {
+				return fresh;
+			}
+		}
+	}
+
+	/**
+	 * A key and its estimated count over the window.
+	 */
+	public record Scored(int key, long score) {
+	}
+
+	private static final class Bucket {
+
+		private final long number;
+
+		private final CountMinSketch sketch;
+
+		// Key in the high and estimate in the low 32 bits, 0 when empty.
+		private final AtomicLongArray slots;
+
+		private Bucket(long number, CountMinSketch sketch, int candidates) {
+			this.number = number;
+			this.sketch = sketch;
+			this.slots = new AtomicLongArray(candidates);
+		}
+
+		// Keeps the key when it is already a candidate, a slot is free or it beats the
+		// weakest candidate among its probe slots. Lossy under contention, never blocks.
+		private void offer(int key, long estimate) {
+			long packed = ((long) key << 32) | Math.min(estimate, 0xffffffffL);
+			int mask = slots.length() - 1;
+			int start = (int) CountMinSketch.mix(key, -1) & mask;
+			for (int attempt = 0; attempt < PROBES; attempt++) {
+				int victim = -1;
+				long victimValue = 0;
+				for (int probe = 0; probe < PROBES; probe++) {
+					int slot = (start + probe) & mask;
+					long value = slots.get(slot);
+					if (value == 0) {
+						if (slots.compareAndSet(slot, 0, packed)) {
+							return;
+						}
+						value = slots.get(slot);
+					}
+					if ((int) (value >>> 32) == key) {
+						// The stored estimate only steers eviction, refreshing it when it has doubled
+						// keeps hot keys from contending on their slot with every update.
+						if ((value & 0xffffffffL) * 2 > estimate || slots.compareAndSet(slot, value, packed)) {
+							return;
+						}
+						victim = -1;
+						break;
+					}
+					if (victim < 0 || (value & 0xffffffffL) < (victimValue & 0xffffffffL)) {
+						victim = slot;
+						victimValue = value;
+					}
+				}
+				if (victim >= 0) {
+					if ((victimValue & 0xffffffffL) >= estimate) {
+						return;
+					}
+					if (slots.compareAndSet(victim, victimValue, packed)) {
+						return;
+					}
+				}
+			}
+		}
+
+		private void collectKeys(Set<Integer> keys) {
+			for (int i = 0; i < slots.length(); i++) {
+				long value = slots.get(i);
+				if (value != 0) {
+					keys.add((int) (value >>> 32));
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,45 @@
+-- Schema as previously created by hibernate ddl-auto=update.
+-- Existing databases are baselined at this version and skip this script.
+
+CREATE TABLE categories (
+    category_id INT NOT NULL AUTO_INCREMENT,
+    title VARCHAR(100) NOT NULL,
+    description VARCHAR(255),
+    PRIMARY KEY (category_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE users (
+    id INT NOT NULL,
+    user_name VARCHAR(100) NOT NULL,
+    about VARCHAR(255),
+    email VARCHAR(255),
+    password VARCHAR(255),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE users_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+INSERT INTO users_seq VALUES (1);
+
+CREATE TABLE post (
+    post_id INT NOT NULL AUTO_INCREMENT,
+    category_id INT,
+    user_id INT,
+    date DATETIME(6),
+    content VARCHAR(255),
+    image_name VARCHAR(255),
+    title VARCHAR(255) NOT NULL,
+    PRIMARY KEY (post_id),
+    CONSTRAINT FKjl0ab1c7s7gsd0tp830a7oogx FOREIGN KEY (category_id) REFERENCES categories (category_id),
+    CONSTRAINT FK7ky67sgi7k0ayf22652f7763r FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE comments (
+    id INT NOT NULL AUTO_INCREMENT,
+    post_id INT,
+    content VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT FKbqnvawwwv4gtlctsi3o7vs131 FOREIGN KEY (post_id) REFERENCES post (post_id)
+) ENGINE = InnoDB;
@@ -0,0 +1,20 @@
+-- One index per repository query path. Each one ends with the primary key so
+-- date-sorted pages have a stable order without a filesort.
+
+-- PostRepository.findByCategory / findByCategoryOrderByDateDescPostIdDesc
+CREATE INDEX idx_post_category_date ON post (category_id, date, post_id);
+
+-- PostRepository.findByUser, newest posts of a user
+CREATE INDEX idx_post_user_date ON post (user_id, date, post_id);
+
+-- getAllPosts sorted by date, findAllByOrderByDateDescPostIdDesc
+CREATE INDEX idx_post_date ON post (date, post_id);
+
+-- UserRepository.findByEmail
+CREATE INDEX idx_users_email ON users (email);
+
+-- comments of a post, in creation order
+CREATE INDEX idx_comments_post ON comments (post_id, id);
+
+-- PostRepository.searchByTitle
+CREATE FULLTEXT INDEX ft_post_title ON post (title);
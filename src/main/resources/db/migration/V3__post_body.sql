@@ -0,0 +1,20 @@
+-- Post bodies move out of the post row into post_body, compressed when they
+-- are large (see BodyCompressor). The post row keeps a short excerpt for lists.
+--
+-- Both statements are online on MySQL 8: a new table, and an instant column
+-- added at the end of post. Existing bodies stay in post.content and are
+-- copied over in small batches by PostBodyServiceImpl.migrateLegacyBodies while
+-- the application serves traffic. Reads fall back to post.content until a
+-- row is migrated. The column is dropped by a later migration once
+-- SELECT COUNT(*) FROM post WHERE content IS NOT NULL returns 0.
+
+CREATE TABLE post_body (
+    post_id INT NOT NULL,
+    codec VARCHAR(16) NOT NULL,
+    original_length INT NOT NULL,
+    data MEDIUMBLOB NOT NULL,
+    PRIMARY KEY (post_id),
+    CONSTRAINT fk_post_body_post FOREIGN KEY (post_id) REFERENCES post (post_id) ON DELETE CASCADE
+) ENGINE = InnoDB;
+
+ALTER TABLE post ADD COLUMN excerpt VARCHAR(200), ALGORITHM = INSTANT;
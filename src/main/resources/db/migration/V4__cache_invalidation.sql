@@ -0,0 +1,14 @@
+-- Shared log of cache invalidations (see JdbcInvalidationTransport). Each
+-- instance inserts a row per changed entity and polls for rows with a higher
+-- id written by the other instances. Rows are only read for a few seconds and
+-- are purged after blogapp.invalidation.retention-minutes.
+
+CREATE TABLE cache_invalidation (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    origin VARCHAR(64) NOT NULL,
+    entity_type VARCHAR(16) NOT NULL,
+    entity_id INT,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_cache_invalidation_created_at (created_at)
+) ENGINE = InnoDB;
@@ -0,0 +1,18 @@
+-- Transactional outbox (see Outbox). Post and comment writes insert a row per
+-- change in the same transaction as the change itself; the instance that wrote
+-- it delivers it to the OutboxHandler beans once committed and deletes it.
+-- Rows that failed blogapp.outbox.max-attempts times stay behind, with their
+-- last error, until they are fixed and their attempts reset to 0.
+
+CREATE TABLE outbox_event (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    origin VARCHAR(64) NOT NULL,
+    event_type VARCHAR(32) NOT NULL,
+    aggregate_id INT NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    attempts INT NOT NULL,
+    next_attempt_at DATETIME(6) NOT NULL,
+    last_error VARCHAR(512),
+    PRIMARY KEY (id),
+    INDEX idx_outbox_event_origin (origin, id)
+) ENGINE = InnoDB;
@@ -0,0 +1,73 @@
+-- Archive of old posts (see PostArchiveServiceImpl). Posts older than
+-- blogapp.archive.max-age-days are moved here in batches together with their
+-- body and comments, so that post and comments only hold recent history and
+-- their indexes stay small. The list endpoints read the archive only when
+-- called with includeArchived=true.
+--
+-- Both tables are partitioned by year of the post date. MySQL requires the
+-- partitioning column in every unique key, hence the two-column primary keys,
+-- and does not support foreign keys on partitioned tables: rows of deleted
+-- users and categories are removed by the application. Years after 2030 fall
+-- into p_max until it is split with
+-- ALTER TABLE ... REORGANIZE PARTITION p_max INTO (PARTITION p2031 VALUES LESS THAN ('2032-01-01'), PARTITION p_max VALUES LESS THAN (MAXVALUE)).
+-- Old years can be dropped with ALTER TABLE ... DROP PARTITION.
+
+CREATE TABLE post_archive (
+    post_id INT NOT NULL,
+    category_id INT,
+    user_id INT,
+    date DATETIME(6) NOT NULL,
+    title VARCHAR(255) NOT NULL,
+    excerpt VARCHAR(200),
+    content VARCHAR(255),
+    image_name VARCHAR(255),
+    body_codec VARCHAR(16),
+    body_original_length INT,
+    body_data MEDIUMBLOB,
+    archived_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (post_id, date),
+    INDEX idx_post_archive_date (date, post_id),
+    INDEX idx_post_archive_category_date (category_id, date),
+    INDEX idx_post_archive_user_date (user_id, date)
+) ENGINE = InnoDB
+PARTITION BY RANGE COLUMNS (date) (
+    PARTITION p_old VALUES LESS THAN ('2020-01-01'),
+    PARTITION p2020 VALUES LESS THAN ('2021-01-01'),
+    PARTITION p2021 VALUES LESS THAN ('2022-01-01'),
+    PARTITION p2022 VALUES LESS THAN ('2023-01-01'),
+    PARTITION p2023 VALUES LESS THAN ('2024-01-01'),
+    PARTITION p2024 VALUES LESS THAN ('2025-01-01'),
+    PARTITION p2025 VALUES LESS THAN ('2026-01-01'),
+    PARTITION p2026 VALUES LESS THAN ('2027-01-01'),
+    PARTITION p2027 VALUES LESS THAN ('2028-01-01'),
+    PARTITION p2028 VALUES LESS THAN ('2029-01-01'),
+    PARTITION p2029 VALUES LESS THAN ('2030-01-01'),
+    PARTITION p2030 VALUES LESS THAN ('2031-01-01'),
+    PARTITION p_max VALUES LESS THAN (MAXVALUE)
+);
+
+-- post_date is the date of the comment's post, so a post and its comments
+-- share a partition and are dropped together.
+CREATE TABLE comments_archive (
+    id INT NOT NULL,
+    post_id INT NOT NULL,
+    post_date DATETIME(6) NOT NULL,
+    content VARCHAR(255),
+    PRIMARY KEY (id, post_date),
+    INDEX idx_comments_archive_post (post_id)
+) ENGINE = InnoDB
+PARTITION BY RANGE COLUMNS (post_date) (
+    PARTITION p_old VALUES LESS THAN ('2020-01-01'),
+    PARTITION p2020 VALUES LESS THAN ('2021-01-01'),
+    PARTITION p2021 VALUES LESS THAN ('2022-01-01'),
+    PARTITION p2022 VALUES LESS THAN ('2023-01-01'),
+    PARTITION p2023 VALUES LESS THAN ('2024-01-01'),
+    PARTITION p2024 VALUES LESS THAN ('2025-01-01'),
+    PARTITION p2025 VALUES LESS THAN ('2026-01-01'),
+    PARTITION p2026 VALUES LESS THAN ('2027-01-01'),
+    PARTITION p2027 VALUES LESS THAN ('2028-01-01'),
+    PARTITION p2028 VALUES LESS THAN ('2029-01-01'),
+    PARTITION p2029 VALUES LESS THAN ('2030-01-01'),
+    PARTITION p2030 VALUES LESS THAN ('2031-01-01'),
+    PARTITION p_max VALUES LESS THAN (MAXVALUE)
+);
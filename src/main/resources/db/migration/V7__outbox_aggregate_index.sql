@@ -0,0 +1,5 @@
+-- Lets the outbox poll check whether an event's post has an earlier event
+-- waiting for a retry (see OutboxEventRepository.findPending) without
+-- scanning the other events of the instance.
+
+CREATE INDEX idx_outbox_event_origin_aggregate ON outbox_event (origin, aggregate_id, id);
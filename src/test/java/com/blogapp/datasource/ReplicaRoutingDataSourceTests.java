@@ -0,0 +1,105 @@
+package com.blogapp.datasource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.blogapp.config.DataSourceRoutingProperties.Selection;
+
+/**
+ * Routes against two embedded H2 databases standing in for the primary and a
+ * replica; each holds a single row naming itself.
+ */
+class ReplicaRoutingDataSourceTests {
+
+	private ReplicaNode replica;
+
+	private WriteStickiness stickiness;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private TransactionTemplate readOnly;
+
+	private TransactionTemplate readWrite;
+
+	@BeforeEach
+	void setUp() {
+		DataSource primary = embedded("primary");
+		replica = new ReplicaNode("replica", embedded("replica"));
+		stickiness = new WriteStickiness(60_000);
+		ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, List.of(replica),
+				Selection.ROUND_ROBIN, stickiness);
+		routing.afterPropertiesSet();
+		DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+		readWrite = new TransactionTemplate(transactionManager);
+		readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+	}
+
+	@Test
+	void readOnlyTransactionsGoToReplicaAndWritesToPrimary() {
+		assertThat(readOnlyNode()).isEqualTo("replica");
+		assertThat(readWriteNode()).isEqualTo("primary");
+	}
+
+	@Test
+	void clientReadsItsOwnWritesFromPrimary() {
+		WriteStickiness.bindClient("writer");
+		try {
+			readWrite.executeWithoutResult(status -> node());
+			assertThat(readOnlyNode()).isEqualTo("primary");
+		} finally {
+			WriteStickiness.clearClient();
+		}
+		WriteStickiness.bindClient("reader");
+		try {
+			assertThat(readOnlyNode()).isEqualTo("replica");
+		} finally {
+			WriteStickiness.clearClient();
+		}
+	}
+
+	@Test
+	void laggingReplicaFallsBackToPrimary() {
+		new ReplicaLagMonitor(List.of(replica), "SELECT 30", 5).checkLag();
+		assertThat(replica.isHealthy()).isFalse();
+		assertThat(readOnlyNode()).isEqualTo("primary");
+
+		new ReplicaLagMonitor(List.of(replica), "SELECT 0", 5).checkLag();
+		assertThat(readOnlyNode()).isEqualTo("replica");
+	}
+
+	private String readOnlyNode() {
+		return readOnly.execute(status -> node());
+	}
+
+	private String readWriteNode() {
+		return readWrite.execute(status -> node());
+	}
+
+	private String node() {
+		return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+	}
+
+	private static DataSource embedded(String name) {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(
+				"jdbc:h2:mem:" + name + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(20))");
+		jdbcTemplate.update("INSERT INTO node VALUES (?)", name);
+		return dataSource;
+	}
+}
@@ -0,0 +1,81 @@
+package com.blogapp.filters;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.blogapp.RestfulblogapplicationApplication;
+
+/**
+ * Sends admin requests to a running server, spelled the ways a servlet
+ * container and Spring MVC route to the same controller.
+ */
+class AdminTokenFilterTests {
+
+	private static final String TOKEN = "admin-secret";
+
+	private static ConfigurableApplicationContext context;
+
+	private static final HttpClient client = HttpClient.newHttpClient();
+
+	@BeforeAll
+	static void start() {
+		context = new SpringApplicationBuilder(RestfulblogapplicationApplication.class).web(WebApplicationType.SERVLET)
+				.run("--server.port=0", "--spring.datasource.url=jdbc:h2:mem:admin-token;MODE=MySQL;DB_CLOSE_DELAY=-1",
+						"--spring.datasource.driver-class-name=org.h2.Driver",
+						"--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+						"--spring.jpa.hibernate.ddl-auto=create", "--spring.flyway.enabled=false",
+						"--blogapp.invalidation.transport=MEMORY", "--blogapp.warmup.enabled=false",
+						"--blogapp.jfr.endpoint.enabled=true", "--blogapp.admin.token=" + TOKEN);
+	}
+
+	@AfterAll
+	static void stop() {
+		if (context != null) {
+			context.close();
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "/api/admin/jfr/status", "/api/%61dmin/jfr/status", "/%61pi/admin/jfr/status",
+			"/api;x=1/admin/jfr/status", "/api/admin;x=1/jfr/status", "/api/admin/jfr;x=1/status" })
+	void refusesAdminRequestsWithoutToken(String path) throws Exception {
+		assertThat(get(path, null).statusCode()).isEqualTo(401);
+		assertThat(get(path, "wrong").statusCode()).isEqualTo(401);
+		// Reaches the controller, which has no recording to report.
+		assertThat(get(path, TOKEN).statusCode()).isEqualTo(404);
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "/api/%61dmin/jfr/start", "/api;x=1/admin/jfr/start" })
+	void refusesToStartRecordingWithoutToken(String path) throws Exception {
+		HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri(path)).POST(HttpRequest.BodyPublishers.noBody())
+				.build(), HttpResponse.BodyHandlers.ofString());
+		assertThat(response.statusCode()).isEqualTo(401);
+		assertThat(get("/api/admin/jfr/status", TOKEN).statusCode()).isEqualTo(404);
+	}
+
+	private static HttpResponse<String> get(String path, String token) throws IOException, InterruptedException {
+		HttpRequest.Builder request = HttpRequest.newBuilder(uri(path));
+		if (token != null) {
+			request.header(AdminTokenFilter.HEADER, token);
+		}
+		return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+	}
+
+	private static URI uri(String path) {
+		return URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port") + path);
+	}
+}
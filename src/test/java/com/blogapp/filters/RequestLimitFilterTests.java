@@ -0,0 +1,108 @@
+package com.blogapp.filters;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.blogapp.RestfulblogapplicationApplication;
+import com.blogapp.utils.AdaptiveConcurrencyLimiter;
+
+/**
+ * Sends API requests to a running server, spelled the ways a servlet container
+ * and Spring MVC route to the same controller, and checks that the rate limiter
+ * and the concurrency limiter apply to each of them.
+ */
+class RequestLimitFilterTests {
+
+	private static final int CAPACITY = 5;
+
+	private static ConfigurableApplicationContext context;
+
+	private static final HttpClient client = HttpClient.newHttpClient();
+
+	private static final AtomicInteger clients = new AtomicInteger();
+
+	@BeforeAll
+	static void start() {
+		// Clients are told apart by X-Forwarded-For, so that each test starts with a full bucket.
+		context = new SpringApplicationBuilder(RestfulblogapplicationApplication.class).web(WebApplicationType.SERVLET)
+				.run("--server.port=0", "--spring.datasource.url=jdbc:h2:mem:request-limit;MODE=MySQL;DB_CLOSE_DELAY=-1",
+						"--spring.datasource.driver-class-name=org.h2.Driver",
+						"--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+						"--spring.jpa.hibernate.ddl-auto=create", "--spring.flyway.enabled=false",
+						"--blogapp.invalidation.transport=MEMORY", "--blogapp.warmup.enabled=false",
+						"--blogapp.ratelimit.capacity=" + CAPACITY, "--blogapp.ratelimit.refill-per-second=0.001",
+						"--blogapp.ratelimit.trust-forwarded-for=true");
+	}
+
+	@AfterAll
+	static void stop() {
+		if (context != null) {
+			context.close();
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "/api/post/latest", "/api;x/post/latest", "/%61pi/post/latest", "/api/post;x=1/latest" })
+	void rateLimitsEverySpelling(String path) throws Exception {
+		String client = newClient();
+		List<Integer> statuses = new ArrayList<>();
+		for (int i = 0; i <= CAPACITY; i++) {
+			statuses.add(get(path, client).statusCode());
+		}
+		assertThat(statuses.subList(0, CAPACITY)).containsOnly(200);
+		assertThat(statuses.get(CAPACITY)).isEqualTo(429);
+	}
+
+	@Test
+	void chargesEndpointCostOnDecodedPath() throws Exception {
+		// getPostPage costs 3 tokens of the 5, so the second request is refused.
+		String client = newClient();
+		assertThat(get("/api/post;x=1/getPostPage/1", client).statusCode()).isNotEqualTo(429);
+		assertThat(get("/api/post;x=1/getPostPage/1", client).statusCode()).isEqualTo(429);
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "/api/post/latest", "/api;x/post/latest", "/%61pi/post/latest" })
+	void shedsEverySpellingWhenAtLimit(String path) throws Exception {
+		AdaptiveConcurrencyLimiter limiter = context.getBean(ConcurrencyLimitFilter.class).getLimiter();
+		int held = 0;
+		while (limiter.tryAcquire()) {
+			held++;
+		}
+		try {
+			assertThat(get(path, newClient()).statusCode()).isEqualTo(503);
+		} finally {
+			for (int i = 0; i < held; i++) {
+				limiter.release(0, System.nanoTime());
+			}
+		}
+		assertThat(get(path, newClient()).statusCode()).isEqualTo(200);
+	}
+
+	private static String newClient() {
+		return "10.0.0." + clients.incrementAndGet();
+	}
+
+	private static HttpResponse<String> get(String path, String client) throws IOException, InterruptedException {
+		return RequestLimitFilterTests.client.send(HttpRequest.newBuilder(URI.create(
+				"http://localhost:" + context.getEnvironment().getProperty("local.server.port") + path))
+				.header("X-Forwarded-For", client).build(), HttpResponse.BodyHandlers.ofString());
+	}
+}
@@ -0,0 +1,146 @@
+package com.blogapp.invalidation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.blogapp.RestfulblogapplicationApplication;
+import com.blogapp.config.CacheNames;
+import com.blogapp.dto.CategoryDTO;
+import com.blogapp.dto.CommentDTO;
+import com.blogapp.dto.PostDTO;
+import com.blogapp.dto.UserDTO;
+import com.blogapp.services.CategoryService;
+import com.blogapp.services.CommentService;
+import com.blogapp.services.PostFeedService;
+import com.blogapp.services.PostService;
+import com.blogapp.services.UserService;
+
+/**
+ * Runs two application contexts on one embedded H2 database, standing in for
+ * two instances behind a load balancer: writes made through one must reach the
+ * caches and feeds of the other.
+ */
+class InvalidationBusTests {
+
+	private ConfigurableApplicationContext writer;
+
+	private ConfigurableApplicationContext reader;
+
+	@AfterEach
+	void tearDown() {
+		if (reader != null) {
+			reader.close();
+		}
+		if (writer != null) {
+			writer.close();
+		}
+	}
+
+	@Test
+	void inMemoryTransportReachesOtherContext() {
+		writer = start("memory", "MEMORY", "create");
+		reader = start("memory", "MEMORY", "none");
+		assertWritesReachReader();
+	}
+
+	@Test
+	void jdbcTransportReachesOtherContext() throws SQLException {
+		try (Connection connection = DriverManager.getConnection(url("jdbc"), "root", "root");
+				Statement statement = connection.createStatement()) {
+			statement.execute("CREATE TABLE cache_invalidation (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+					+ "origin VARCHAR(64) NOT NULL, entity_type VARCHAR(16) NOT NULL, entity_id INT, "
+					+ "created_at DATETIME(6) NOT NULL)");
+		}
+		writer = start("jdbc", "JDBC", "create");
+		reader = start("jdbc", "JDBC", "none");
+		assertWritesReachReader();
+	}
+
+	private void assertWritesReachReader() {
+		UserDTO user = writer.getBean(UserService.class).createUser(user("alice"));
+		CategoryDTO category = writer.getBean(CategoryService.class).createCategory(category("tech"));
+		PostDTO post = new PostDTO();
+		post.setTitle("First title");
+		post.setContent("Some body text");
+		int postId = writer.getBean(PostService.class).createPost(post, user.getId(), category.getCategoryId()).getPostId();
+
+		// Once the post is in the reader's feed the reader has applied the creation, whose
+		// eviction would otherwise race with the read below.
+		await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> assertThat(
+				reader.getBean(PostFeedService.class).getLatestPosts(10)).extracting("postId").contains(postId));
+		PostService readerPosts = reader.getBean(PostService.class);
+		assertThat(readerPosts.getPostById(postId).getTitle()).isEqualTo("First title");
+		assertThat(reader.getBean(CacheManager.class).getCache(CacheNames.POSTS).get(postId)).isNotNull();
+
+		PostDTO patch = new PostDTO();
+		patch.setTitle("Second title");
+		writer.getBean(PostService.class).patchPost(patch, postId);
+		await().atMost(Duration.ofSeconds(10))
+				.untilAsserted(() -> assertThat(readerPosts.getPostById(postId).getTitle()).isEqualTo("Second title"));
+		await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> assertThat(
+				reader.getBean(PostFeedService.class).getLatestPosts(10)).extracting("title").contains("Second title"));
+
+		CommentDTO comment = new CommentDTO();
+		comment.setContent("nice");
+		writer.getBean(CommentService.class).createComment(comment, postId);
+		await().atMost(Duration.ofSeconds(10))
+				.untilAsserted(() -> assertThat(readerPosts.getPostById(postId).getComments()).hasSize(1));
+
+		UserService readerUsers = reader.getBean(UserService.class);
+		assertThat(readerUsers.getUserById(user.getId()).getName()).isEqualTo("alice");
+		writer.getBean(UserService.class).updateUser(user("bob"), user.getId());
+		await().atMost(Duration.ofSeconds(10))
+				.untilAsserted(() -> assertThat(readerUsers.getUserById(user.getId()).getName()).isEqualTo("bob"));
+		// The cached post embeds its user, so it is evicted as well.
+		assertThat(readerPosts.getPostById(postId).getUser().getName()).isEqualTo("bob");
+
+		CategoryService readerCategories = reader.getBean(CategoryService.class);
+		assertThat(readerCategories.getCategory(category.getCategoryId()).getCategoryDescription()).isEqualTo("tech");
+		writer.getBean(CategoryService.class).updateCategory(category("science"), category.getCategoryId());
+		await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> assertThat(
+				readerCategories.getCategory(category.getCategoryId()).getCategoryDescription()).isEqualTo("science"));
+	}
+
+	// Arguments rather than default properties, which application.properties would override.
+	private static ConfigurableApplicationContext start(String database, String transport, String ddlAuto) {
+		return new SpringApplicationBuilder(RestfulblogapplicationApplication.class).web(WebApplicationType.NONE)
+				.run("--spring.datasource.url=" + url(database), "--spring.datasource.driver-class-name=org.h2.Driver",
+						"--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+						"--spring.jpa.hibernate.ddl-auto=" + ddlAuto, "--spring.flyway.enabled=false",
+						"--blogapp.invalidation.transport=" + transport, "--blogapp.invalidation.channel=" + database,
+						"--blogapp.invalidation.poll-interval-ms=100");
+	}
+
+	private static String url(String database) {
+		return "jdbc:h2:mem:invalidation-" + database + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+	}
+
+	private static UserDTO user(String name) {
+		UserDTO user = new UserDTO();
+		user.setName(name);
+		user.setEmail(name + "@example.com");
+		user.setPassword("secret");
+		user.setAbout("about " + name);
+		return user;
+	}
+
+	private static CategoryDTO category(String text) {
+		CategoryDTO category = new CategoryDTO();
+		category.setCategoryTitle(text);
+		category.setCategoryDescription(text);
+		return category;
+	}
+}
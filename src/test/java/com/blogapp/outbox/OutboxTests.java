@@ -0,0 +1,247 @@
+package com.blogapp.outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.blogapp.RestfulblogapplicationApplication;
+import com.blogapp.entities.OutboxEvent;
+import com.blogapp.entities.OutboxEvent.Type;
+import com.blogapp.invalidation.InvalidationBus;
+import com.blogapp.repositories.OutboxEventRepository;
+
+/**
+ * Runs the outbox of an application context on an embedded H2 database, with
+ * an extra handler that records what it is handed and fails for chosen posts.
+ * The idle poll interval is an hour, so deliveries after the first poll come
+ * from the batch and retry rules only.
+ */
+class OutboxTests {
+
+	private static final int BATCH_SIZE = 2;
+
+	private static final int MAX_ATTEMPTS = 3;
+
+	private static final long RETRY_BACKOFF_MS = 1000;
+
+	private static final long MAX_RETRY_BACKOFF_MS = 1500;
+
+	private ConfigurableApplicationContext context;
+
+	@AfterEach
+	void tearDown() {
+		if (context != null) {
+			context.close();
+		}
+	}
+
+	@Test
+	void deliversTheEventsOfAPostInOrderAndDoesNotHoldBackOtherPosts() {
+		context = start("order");
+		RecordingHandler handler = context.getBean(RecordingHandler.class);
+		handler.failing.add(1);
+		append(new Object[][] { { Type.POST_CREATED, 1 }, { Type.POST_CREATED, 2 }, { Type.POST_UPDATED, 1 },
+				{ Type.POST_UPDATED, 2 }, { Type.COMMENT_ADDED, 1 } });
+
+		// Post 2 goes through while post 1 waits for its retry.
+		await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> assertThat(handler.delivered())
+				.containsExactly(event(2, Type.POST_CREATED), event(2, Type.POST_UPDATED)));
+		assertThat(handler.failures.get(1)).isNotEmpty();
+		// Only the failed event counts an attempt, the later ones of its post wait behind it.
+		assertThat(repository().findAll(Sort.by("id"))).extracting(OutboxEvent::getAggregateId, OutboxEvent::getType,
+				OutboxEvent::getAttempts).containsExactly(tuple(1, Type.POST_CREATED, 1), tuple(1, Type.POST_UPDATED, 0),
+						tuple(1, Type.COMMENT_ADDED, 0));
+
+		handler.failing.clear();
+		await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> assertThat(repository().count()).isZero());
+		assertThat(handler.delivered()).containsExactly(event(2, Type.POST_CREATED), event(2, Type.POST_UPDATED),
+				event(1, Type.POST_CREATED), event(1, Type.POST_UPDATED), event(1, Type.COMMENT_ADDED));
+	}
+
+	@Test
+	void backsOffAndGivesUpAfterMaxAttempts() throws InterruptedException {
+		context = start("backoff");
+		RecordingHandler handler = context.getBean(RecordingHandler.class);
+		handler.failing.add(5);
+		append(new Object[][] { { Type.POST_CREATED, 5 } });
+
+		OutboxEvent first = await().atMost(Duration.ofSeconds(10)).until(() -> repository().findAll().get(0),
+				event -> event.getAttempts() == 1);
+		assertThat(first.getNextAttemptAt().getTime() - handler.lastFailure(5)).isBetween(RETRY_BACKOFF_MS, RETRY_BACKOFF_MS + 500);
+		assertThat(first.getLastError()).contains("post 5 failed");
+
+		// Doubled, then capped by the maximum backoff.
+		OutboxEvent second = await().atMost(Duration.ofSeconds(10)).until(() -> repository().findAll().get(0),
+				event -> event.getAttempts() == 2);
+		assertThat(second.getNextAttemptAt().getTime() - handler.lastFailure(5)).isBetween(MAX_RETRY_BACKOFF_MS,
+				MAX_RETRY_BACKOFF_MS + 500);
+
+		// Kept for inspection after the last attempt, and never handed over again.
+		await().atMost(Duration.ofSeconds(10)).until(() -> repository().findAll().get(0).getAttempts() == MAX_ATTEMPTS);
+		int handed = handler.failures.get(5).size();
+		Thread.sleep(MAX_RETRY_BACKOFF_MS + 500);
+		assertThat(handler.failures.get(5)).hasSize(handed);
+		assertThat(repository().count()).isEqualTo(1);
+		Date retryAt = tx().execute(status -> repository().findNextAttemptAfter(nodeId(), MAX_ATTEMPTS, new Date()));
+		assertThat(retryAt).isNull();
+	}
+
+	@Test
+	void pollsAgainRightAfterAFullBatch() {
+		context = start("batch");
+		RecordingHandler handler = context.getBean(RecordingHandler.class);
+		append(new Object[][] { { Type.POST_CREATED, 1 }, { Type.POST_CREATED, 2 }, { Type.POST_CREATED, 3 },
+				{ Type.POST_CREATED, 4 }, { Type.POST_CREATED, 5 } });
+
+		// Without the next poll being brought forward, all but the first batch would wait for the idle poll.
+		await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> assertThat(handler.delivered()).hasSize(5));
+		assertThat(handler.batches).extracting(List::size).containsExactly(BATCH_SIZE, BATCH_SIZE, 1);
+		assertThat(handler.delivered()).extracting(RecordedEvent::postId).containsExactly(1, 2, 3, 4, 5);
+	}
+
+	@Test
+	void adoptsTheEventsOtherInstancesLeftUndelivered() {
+		context = start("orphans");
+		RecordingHandler handler = context.getBean(RecordingHandler.class);
+		Date hourAgo = new Date(System.currentTimeMillis() - 3_600_000);
+		OutboxEvent dead = new OutboxEvent("stopped", Type.POST_UPDATED, 8, hourAgo);
+		dead.setAttempts(MAX_ATTEMPTS);
+		tx().executeWithoutResult(status -> repository().saveAll(List.of(new OutboxEvent("stopped", Type.POST_CREATED, 7, hourAgo),
+				new OutboxEvent("running", Type.POST_CREATED, 9, new Date()), dead)));
+
+		context.getBean(Outbox.class).adoptOrphans();
+
+		await().atMost(Duration.ofSeconds(10))
+				.untilAsserted(() -> assertThat(handler.delivered()).containsExactly(event(7, Type.POST_CREATED)));
+		// Recent events of a running instance, and events given up on, stay where they are.
+		assertThat(repository().findAll()).extracting(OutboxEvent::getOrigin, OutboxEvent::getAggregateId)
+				.containsExactlyInAnyOrder(tuple("running", 9), tuple("stopped", 8));
+	}
+
+	@Test
+	void findPendingSkipsEventsBehindARetryOfTheirPost() {
+		context = start("pending");
+		// Another origin, so that the outbox of the context leaves these rows alone.
+		String origin = "elsewhere";
+		Date now = new Date();
+		Date later = new Date(now.getTime() + 60_000);
+		Date earlier = new Date(now.getTime() - 60_000);
+		tx().executeWithoutResult(status -> {
+			repository().save(pending(origin, 1, Type.POST_CREATED, earlier, 1, later));
+			repository().save(pending(origin, 2, Type.POST_CREATED, earlier, MAX_ATTEMPTS, earlier));
+			repository().save(pending(origin, 1, Type.POST_UPDATED, earlier, 0, earlier));
+			repository().save(pending(origin, 2, Type.POST_UPDATED, earlier, 0, earlier));
+			repository().save(pending(origin, 3, Type.POST_CREATED, earlier, 0, earlier));
+			repository().save(pending(origin, 4, Type.POST_CREATED, now, 0, later));
+		});
+
+		List<OutboxEvent> due = tx().execute(status -> repository().findPending(origin, MAX_ATTEMPTS, now,
+				PageRequest.of(0, 10)));
+		// Post 1 waits behind its retry, post 2 is not held back by an event given up on.
+		assertThat(due).extracting(OutboxEvent::getAggregateId, OutboxEvent::getType).containsExactly(tuple(2, Type.POST_UPDATED),
+				tuple(3, Type.POST_CREATED));
+		assertThat(tx().execute(status -> repository().findNextAttemptAfter(origin, MAX_ATTEMPTS, now)).getTime())
+				.isEqualTo(later.getTime());
+	}
+
+	private void append(Object[][] events) {
+		Outbox outbox = context.getBean(Outbox.class);
+		tx().executeWithoutResult(status -> {
+			for (Object[] event : events) {
+				outbox.append((Type) event[0], (Integer) event[1]);
+			}
+		});
+	}
+
+	private OutboxEventRepository repository() {
+		return context.getBean(OutboxEventRepository.class);
+	}
+
+	private TransactionTemplate tx() {
+		return context.getBean(TransactionTemplate.class);
+	}
+
+	private String nodeId() {
+		return context.getBean(InvalidationBus.class).getNodeId();
+	}
+
+	private static OutboxEvent pending(String origin, int postId, Type type, Date createdAt, int attempts, Date nextAttemptAt) {
+		OutboxEvent event = new OutboxEvent(origin, type, postId, createdAt);
+		event.setAttempts(attempts);
+		event.setNextAttemptAt(nextAttemptAt);
+		return event;
+	}
+
+	private static RecordedEvent event(int postId, Type type) {
+		return new RecordedEvent(postId, type);
+	}
+
+	// Arguments rather than default properties, which application.properties would override.
+	private static ConfigurableApplicationContext start(String database) {
+		return new SpringApplicationBuilder(RestfulblogapplicationApplication.class, RecordingHandler.class)
+				.web(WebApplicationType.NONE)
+				.run("--spring.datasource.url=jdbc:h2:mem:outbox-" + database + ";MODE=MySQL;DB_CLOSE_DELAY=-1",
+						"--spring.datasource.driver-class-name=org.h2.Driver",
+						"--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+						"--spring.jpa.hibernate.ddl-auto=create", "--spring.flyway.enabled=false",
+						"--blogapp.invalidation.transport=MEMORY", "--blogapp.outbox.poll-interval-ms=20",
+						"--blogapp.outbox.idle-poll-interval-ms=3600000", "--blogapp.outbox.batch-size=" + BATCH_SIZE,
+						"--blogapp.outbox.max-attempts=" + MAX_ATTEMPTS, "--blogapp.outbox.retry-backoff-ms=" + RETRY_BACKOFF_MS,
+						"--blogapp.outbox.max-retry-backoff-ms=" + MAX_RETRY_BACKOFF_MS,
+						"--blogapp.outbox.orphan-timeout-ms=60000", "--blogapp.outbox.orphan-check-interval-ms=3600000");
+	}
+
+	record RecordedEvent(int postId, Type type) {
+	}
+
+	// Fails a whole delivery when it holds an event of a failing post, as a handler whose update throws would.
+	static class RecordingHandler implements OutboxHandler {
+
+		final Set<Integer> failing = ConcurrentHashMap.newKeySet();
+
+		final Map<Integer, List<Long>> failures = new ConcurrentHashMap<>();
+
+		final List<List<RecordedEvent>> batches = new CopyOnWriteArrayList<>();
+
+		@Override
+		public void onOutboxEvents(List<OutboxEvent> events) {
+			for (OutboxEvent event : events) {
+				if (failing.contains(event.getAggregateId())) {
+					failures.computeIfAbsent(event.getAggregateId(), postId -> new CopyOnWriteArrayList<>())
+							.add(System.currentTimeMillis());
+					throw new IllegalStateException("post " + event.getAggregateId() + " failed");
+				}
+			}
+			batches.add(events.stream().map(event -> event(event.getAggregateId(), event.getType())).toList());
+		}
+
+		long lastFailure(int postId) {
+			List<Long> times = failures.get(postId);
+			return times.get(times.size() - 1);
+		}
+
+		List<RecordedEvent> delivered() {
+			List<RecordedEvent> delivered = new ArrayList<>();
+			batches.forEach(delivered::addAll);
+			return delivered;
+		}
+	}
+}
@@ -0,0 +1,58 @@
+package com.blogapp.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class BloomFilterTests {
+
+	@Test
+	void reportsEveryAddedKeyPresent() {
+		BloomFilter filter = new BloomFilter(10_000, 0.01);
+		for (int key = 0; key < 10_000; key++) {
+			filter.add(key * 7);
+			filter.add("post-" + key + ".jpg");
+		}
+		for (int key = 0; key < 10_000; key++) {
+			assertThat(filter.mightContain(key * 7)).isTrue();
+			assertThat(filter.mightContain("post-" + key + ".jpg")).isTrue();
+		}
+	}
+
+	@Test
+	void keepsTheConfiguredFalsePositiveRateAtTheExpectedSize() {
+		int expected = 20_000;
+		double rate = 0.01;
+		BloomFilter ints = new BloomFilter(expected, rate);
+		BloomFilter strings = new BloomFilter(expected, rate);
+		// Consecutive ids and names, as post ids and image names are.
+		for (int key = 0; key < expected; key++) {
+			ints.add(key);
+			strings.add("image-" + key + ".png");
+		}
+		int probes = 100_000;
+		int intHits = 0;
+		int stringHits = 0;
+		for (int key = expected; key < expected + probes; key++) {
+			if (ints.mightContain(key)) {
+				intHits++;
+			}
+			if (strings.mightContain("image-" + key + ".png")) {
+				stringHits++;
+			}
+		}
+		// 1% of 100 000 probes is 1000 hits, with a standard deviation of about 31.
+		assertThat(intHits).isBetween(500, 1500);
+		assertThat(stringHits).isBetween(500, 1500);
+		assertThat(ints.expectedFalsePositiveRate()).isBetween(rate / 2, rate * 1.5);
+	}
+
+	@Test
+	void exceedsTheConfiguredRatePastTheExpectedSize() {
+		BloomFilter filter = new BloomFilter(1000, 0.01);
+		for (int key = 0; key < 4000; key++) {
+			filter.add(key);
+		}
+		assertThat(filter.expectedFalsePositiveRate()).isGreaterThan(0.1);
+	}
+}
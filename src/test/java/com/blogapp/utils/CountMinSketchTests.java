@@ -0,0 +1,45 @@
+package com.blogapp.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class CountMinSketchTests {
+
+	@Test
+	void countsExactlyWithoutCollisions() {
+		CountMinSketch sketch = new CountMinSketch(4, 1024);
+		sketch.add(7, 3);
+		assertThat(sketch.add(7, 2)).isEqualTo(5);
+		assertThat(sketch.estimate(7)).isEqualTo(5);
+		assertThat(sketch.estimate(8)).isZero();
+	}
+
+	@Test
+	void neverUndercountsAndStaysWithinTheErrorBound() {
+		int width = 256;
+		CountMinSketch sketch = new CountMinSketch(4, width);
+		long[] exact = new long[5000];
+		long total = 0;
+		Random random = new Random(1);
+		for (int i = 0; i < 100_000; i++) {
+			// Skewed towards small keys, as post activity is.
+			int key = (int) (exact.length * Math.pow(random.nextDouble(), 3));
+			sketch.add(key, 1);
+			exact[key]++;
+			total++;
+		}
+		int overBound = 0;
+		for (int key = 0; key < exact.length; key++) {
+			long estimate = sketch.estimate(key);
+			assertThat(estimate).isGreaterThanOrEqualTo(exact[key]);
+			if (estimate - exact[key] > Math.E * total / width) {
+				overBound++;
+			}
+		}
+		// Each key exceeds the bound with probability e^-4, under 2%.
+		assertThat(overBound).isLessThan(exact.length / 50);
+	}
+}
@@ -0,0 +1,161 @@
+package com.blogapp.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class MinHashIndexTests {
+
+	@Test
+	void addsAndRemovesIdsPerKey() {
+		MinHashIndex.BandTable table = new MinHashIndex.BandTable();
+		table.add(1, 10, 8);
+		table.add(1, 11, 8);
+		table.add(2, 12, 8);
+		table.add(1, 10, 8);
+
+		assertThat(table.size()).isEqualTo(3);
+		assertThat(ids(table, 1)).containsExactlyInAnyOrder(10, 11);
+		assertThat(ids(table, 2)).containsExactly(12);
+		assertThat(ids(table, 3)).isEmpty();
+
+		table.remove(1, 10);
+		table.remove(1, 12);
+		table.remove(3, 10);
+		assertThat(table.size()).isEqualTo(2);
+		assertThat(ids(table, 1)).containsExactly(11);
+		assertThat(ids(table, 2)).containsExactly(12);
+	}
+
+	@Test
+	void probesPastAndReusesRemovedSlots() {
+		MinHashIndex.BandTable table = new MinHashIndex.BandTable();
+		// All three start probing at slot 0 of the 16.
+		table.add(0, 1, 8);
+		table.add(16, 2, 8);
+		table.add(32, 3, 8);
+
+		table.remove(16, 2);
+		assertThat(table.removedSlots()).isEqualTo(1);
+		assertThat(ids(table, 32)).containsExactly(3);
+		assertThat(ids(table, 16)).isEmpty();
+
+		// Takes the slot of the removed id, passed on the way to the first empty one.
+		table.add(48, 4, 8);
+		assertThat(table.removedSlots()).isZero();
+		assertThat(table.size()).isEqualTo(3);
+		assertThat(ids(table, 48)).containsExactly(4);
+		assertThat(ids(table, 32)).containsExactly(3);
+		table.remove(32, 3);
+		assertThat(ids(table, 48)).containsExactly(4);
+		assertThat(ids(table, 0)).containsExactly(1);
+	}
+
+	@Test
+	void keepsEveryIdWhenGrowing() {
+		MinHashIndex.BandTable table = new MinHashIndex.BandTable();
+		for (int id = 0; id < 1000; id++) {
+			// Two ids per key, so that buckets are carried over by each rehash.
+			table.add(key(id / 2), id, 8);
+		}
+		assertThat(table.size()).isEqualTo(1000);
+		assertThat(table.capacity()).isGreaterThanOrEqualTo(1000 * 4 / 3);
+		for (int id = 0; id < 1000; id += 2) {
+			assertThat(ids(table, key(id / 2))).containsExactlyInAnyOrder(id, id + 1);
+		}
+	}
+
+	@Test
+	void dropsRemovedSlotsOnRehash() {
+		MinHashIndex.BandTable table = new MinHashIndex.BandTable();
+		for (int key = 0; key < 6; key++) {
+			table.add(key, key, 8);
+			table.remove(key, key);
+		}
+		// Each starts probing at an empty slot of its own, so none fills a removed one.
+		for (int key = 6; key < 13; key++) {
+			table.add(key, key, 8);
+		}
+		// The 13th slot went over three quarters of 16, counting the removed ones, and the
+		// rehash dropped those: 7 ids fit in 16 slots again.
+		assertThat(table.size()).isEqualTo(7);
+		assertThat(table.removedSlots()).isZero();
+		assertThat(table.capacity()).isEqualTo(16);
+		for (int key = 0; key < 13; key++) {
+			assertThat(ids(table, key)).isEqualTo(key < 6 ? List.of() : List.of(key));
+		}
+	}
+
+	@Test
+	void capsBucketSize() {
+		MinHashIndex.BandTable table = new MinHashIndex.BandTable();
+		for (int id = 0; id < 10; id++) {
+			table.add(7, id, 3);
+		}
+		assertThat(ids(table, 7)).containsExactlyInAnyOrder(0, 1, 2);
+
+		table.remove(7, 1);
+		table.add(7, 9, 3);
+		assertThat(ids(table, 7)).containsExactlyInAnyOrder(0, 2, 9);
+	}
+
+	@Test
+	void ranksMostSimilarFirstThenHighestId() {
+		// One row per band, so ids sharing any signature position are candidates.
+		MinHashIndex index = new MinHashIndex(4, 4, 10);
+		index.put(1, new int[] { 1, 2, 3, 4 });
+		index.put(2, new int[] { 1, 2, 3, 5 });
+		index.put(3, new int[] { 1, 2, 9, 9 });
+		index.put(4, new int[] { 1, 2, 3, 6 });
+		index.put(5, new int[] { 7, 7, 7, 7 });
+
+		assertThat(index.similar(1, 10, 0)).containsExactly(new MinHashIndex.Match(4, 0.75),
+				new MinHashIndex.Match(2, 0.75), new MinHashIndex.Match(3, 0.5));
+		assertThat(index.similar(1, 10, 0.6)).extracting(MinHashIndex.Match::id).containsExactly(4, 2);
+		assertThat(index.similar(1, 1, 0)).extracting(MinHashIndex.Match::id).containsExactly(4);
+		assertThat(index.similar(5, 10, 0)).isEmpty();
+		assertThat(index.similar(6, 10, 0)).isEmpty();
+	}
+
+	@Test
+	void replacesAndRemovesIds() {
+		MinHashIndex index = new MinHashIndex(4, 4, 10);
+		index.put(1, new int[] { 1, 2, 3, 4 });
+		index.put(2, new int[] { 1, 2, 3, 5 });
+		assertThat(index.similar(1, 10, 0)).extracting(MinHashIndex.Match::id).containsExactly(2);
+
+		index.put(2, new int[] { 8, 8, 8, 8 });
+		assertThat(index.size()).isEqualTo(2);
+		assertThat(index.similar(1, 10, 0)).isEmpty();
+		assertThat(index.footprint().bucketEntries()).isEqualTo(8);
+
+		index.remove(2);
+		assertThat(index.contains(2)).isFalse();
+		assertThat(index.similar(2, 10, 0)).isEmpty();
+		assertThat(index.footprint().ids()).isEqualTo(1);
+		assertThat(index.footprint().bucketEntries()).isEqualTo(4);
+	}
+
+	@Test
+	void signsEqualTokenSetsEqually() {
+		MinHashIndex index = new MinHashIndex(64, 16, 10);
+		assertThat(index.signature(Set.of("spring", "boot", "cache")))
+				.isEqualTo(new MinHashIndex(64, 16, 10).signature(List.of("cache", "boot", "spring")));
+		assertThat(index.signature(List.of())).isNull();
+	}
+
+	// Spreads keys over the table, as band keys are.
+	private static int key(int i) {
+		return i * 0x9e3779b1;
+	}
+
+	private static List<Integer> ids(MinHashIndex.BandTable table, int key) {
+		List<Integer> ids = new ArrayList<>();
+		table.forEach(key, ids::add);
+		return ids;
+	}
+}
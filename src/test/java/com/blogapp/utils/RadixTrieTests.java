@@ -0,0 +1,104 @@
+package com.blogapp.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class RadixTrieTests {
+
+	@Test
+	void findsValuesByPrefix() {
+		RadixTrie<String> trie = new RadixTrie<>();
+		trie.put("spring", "spring", 1);
+		trie.put("spring boot", "boot", 2);
+		trie.put("summer", "summer", 3);
+
+		assertThat(trie.top("spr", 10)).containsExactly("boot", "spring");
+		assertThat(trie.top("spring b", 10)).containsExactly("boot");
+		assertThat(trie.top("s", 10)).containsExactly("summer", "boot", "spring");
+		assertThat(trie.top("x", 10)).isEmpty();
+		assertThat(trie.top("springs", 10)).isEmpty();
+	}
+
+	@Test
+	void splitsAnEdgeWhereKeysDiverge() {
+		RadixTrie<String> trie = new RadixTrie<>();
+		trie.put("testing", "testing", 1);
+		assertThat(trie.footprint().nodes()).isEqualTo(2);
+
+		trie.put("tester", "tester", 2);
+		// root, "test", "ing" and "er"
+		assertThat(trie.footprint().nodes()).isEqualTo(4);
+		trie.put("test", "test", 3);
+		assertThat(trie.footprint().nodes()).isEqualTo(4);
+
+		assertThat(trie.top("test", 10)).containsExactly("test", "tester", "testing");
+		assertThat(trie.top("testi", 10)).containsExactly("testing");
+		assertThat(trie.top("tes", 10)).containsExactly("test", "tester", "testing");
+	}
+
+	@Test
+	void removesValuesAndMergesEdgesBack() {
+		RadixTrie<String> trie = new RadixTrie<>();
+		trie.put("testing", "testing", 1);
+		trie.put("tester", "tester", 2);
+
+		assertThat(trie.remove("tester", "other")).isFalse();
+		assertThat(trie.remove("test", "tester")).isFalse();
+		assertThat(trie.remove("tester", "tester")).isTrue();
+
+		assertThat(trie.top("test", 10)).containsExactly("testing");
+		assertThat(trie.footprint()).isEqualTo(build(List.of("testing")).footprint());
+		assertThat(trie.remove("testing", "testing")).isTrue();
+		assertThat(trie.footprint()).isEqualTo(new RadixTrie<String>().footprint());
+	}
+
+	@Test
+	void ranksByScoreAndReturnsEachValueOnce() {
+		RadixTrie<String> trie = new RadixTrie<>();
+		trie.put("alpha", "a", 1);
+		trie.put("alphabet", "b", 5);
+		trie.put("alpine", "c", 3);
+		// The same value under a second key counts with its best score.
+		trie.put("alpaca", "a", 4);
+
+		assertThat(trie.top("al", 10)).containsExactly("b", "a", "c");
+		assertThat(trie.top("al", 2)).containsExactly("b", "a");
+		assertThat(trie.size()).isEqualTo(4);
+
+		trie.put("alpha", "a", 10);
+		assertThat(trie.top("al", 1)).containsExactly("a");
+		assertThat(trie.size()).isEqualTo(4);
+
+		trie.remove("alphabet", "b");
+		assertThat(trie.top("alph", 10)).containsExactly("a");
+	}
+
+	@Test
+	void keepsFootprintUpToDateAcrossChanges() {
+		List<String> words = List.of("post", "poster", "posting", "postal", "pot", "potato", "a", "ab", "abc");
+		RadixTrie<String> trie = new RadixTrie<>();
+		for (String word : words) {
+			trie.put(word, word, word.length());
+		}
+		assertThat(trie.footprint()).isEqualTo(build(words).footprint());
+
+		trie.remove("poster", "poster");
+		trie.remove("pot", "pot");
+		trie.remove("ab", "ab");
+		List<String> left = List.of("post", "posting", "postal", "potato", "a", "abc");
+		assertThat(trie.footprint()).isEqualTo(build(left).footprint());
+		assertThat(trie.footprint().keys()).isEqualTo(left.size());
+	}
+
+	// Inserted in reverse order, so that the tree is reached through other splits.
+	private static RadixTrie<String> build(List<String> words) {
+		RadixTrie<String> trie = new RadixTrie<>();
+		for (int i = words.size() - 1; i >= 0; i--) {
+			trie.put(words.get(i), words.get(i), words.get(i).length());
+		}
+		return trie;
+	}
+}
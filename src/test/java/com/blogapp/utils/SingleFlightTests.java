@@ -0,0 +1,152 @@
+package com.blogapp.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTests {
+
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	@AfterEach
+	void stop() {
+		release.countDown();
+		executor.shutdownNow();
+	}
+
+	@Test
+	void waitersGetTheLeadersValue() throws Exception {
+		SingleFlight<Integer, String> flight = new SingleFlight<>(10_000);
+		CompletableFuture<String> leader = run(flight, 1, blocked("leader"));
+		await().atMost(Duration.ofSeconds(10)).until(() -> flight.inFlight() == 1);
+		CompletableFuture<String> first = run(flight, 1, () -> "first");
+		CompletableFuture<String> second = run(flight, 1, () -> "second");
+		await().atMost(Duration.ofSeconds(10)).until(() -> flight.coalesced() == 2);
+
+		release.countDown();
+		assertThat(leader.get(10, TimeUnit.SECONDS)).isEqualTo("leader");
+		assertThat(first.get(10, TimeUnit.SECONDS)).isEqualTo("leader");
+		assertThat(second.get(10, TimeUnit.SECONDS)).isEqualTo("leader");
+		assertThat(flight.loads()).isEqualTo(1);
+		assertThat(flight.inFlight()).isZero();
+
+		// Nothing is kept once the load finished.
+		assertThat(flight.execute(1, () -> "next")).isEqualTo("next");
+		assertThat(flight.loads()).isEqualTo(2);
+	}
+
+	@Test
+	void waitersGetTheLeadersException() throws Exception {
+		SingleFlight<Integer, String> flight = new SingleFlight<>(10_000);
+		IllegalArgumentException failure = new IllegalArgumentException("load failed");
+		CompletableFuture<String> leader = run(flight, 1, () -> {
+			blocked("leader").get();
+			throw failure;
+		});
+		await().atMost(Duration.ofSeconds(10)).until(() -> flight.inFlight() == 1);
+		CompletableFuture<String> waiter = run(flight, 1, () -> "waiter");
+		await().atMost(Duration.ofSeconds(10)).until(() -> flight.coalesced() == 1);
+
+		release.countDown();
+		assertThatThrownBy(() -> leader.get(10, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class).cause().isSameAs(failure);
+		assertThatThrownBy(() -> waiter.get(10, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class).cause().isSameAs(failure);
+		assertThat(flight.loads()).isEqualTo(1);
+	}
+
+	@Test
+	void waiterTimesOut() throws Exception {
+		SingleFlight<Integer, String> flight = new SingleFlight<>(200);
+		CompletableFuture<String> leader = run(flight, 1, blocked("leader"));
+		await().atMost(Duration.ofSeconds(10)).until(() -> flight.inFlight() == 1);
+
+		long start = System.nanoTime();
+		assertThatThrownBy(() -> flight.execute(1, () -> "waiter")).isInstanceOf(SingleFlight.TimeoutException.class);
+		assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(5));
+		assertThat(flight.timeouts()).isEqualTo(1);
+
+		// The leader itself is not bound by the timeout.
+		release.countDown();
+		assertThat(leader.get(10, TimeUnit.SECONDS)).isEqualTo("leader");
+	}
+
+	@Test
+	void replacesAFlightOlderThanTheTimeout() throws Exception {
+		SingleFlight<Integer, String> flight = new SingleFlight<>(200);
+		CompletableFuture<String> stuck = run(flight, 1, blocked("stuck"));
+		await().atMost(Duration.ofSeconds(10)).until(() -> flight.inFlight() == 1);
+		Thread.sleep(300);
+
+		assertThat(flight.execute(1, () -> "fresh")).isEqualTo("fresh");
+		assertThat(flight.loads()).isEqualTo(2);
+		assertThat(flight.coalesced()).isZero();
+
+		// The stuck load finishing late does not remove a flight that replaced it.
+		CountDownLatch releaseLeader = new CountDownLatch(1);
+		CompletableFuture<String> leader = run(flight, 1, () -> {
+			try {
+				releaseLeader.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return "leader";
+		});
+		await().atMost(Duration.ofSeconds(10)).until(() -> flight.loads() == 3);
+		release.countDown();
+		assertThat(stuck.get(10, TimeUnit.SECONDS)).isEqualTo("stuck");
+		assertThat(flight.inFlight()).isEqualTo(1);
+		releaseLeader.countDown();
+		assertThat(leader.get(10, TimeUnit.SECONDS)).isEqualTo("leader");
+		assertThat(flight.inFlight()).isZero();
+	}
+
+	@Test
+	void forgetMakesLaterCallersStartANewLoad() throws Exception {
+		SingleFlight<Integer, String> flight = new SingleFlight<>(10_000);
+		CompletableFuture<String> before = run(flight, 1, blocked("before"));
+		CompletableFuture<String> other = run(flight, 2, blocked("other"));
+		await().atMost(Duration.ofSeconds(10)).until(() -> flight.inFlight() == 2);
+
+		flight.forget(1);
+		assertThat(flight.execute(1, () -> "after")).isEqualTo("after");
+		assertThat(flight.loads()).isEqualTo(3);
+		assertThat(flight.coalesced()).isZero();
+
+		// Key 2 was not forgotten, so its running load is still joined.
+		CompletableFuture<String> joined = run(flight, 2, () -> "joined");
+		await().atMost(Duration.ofSeconds(10)).until(() -> flight.coalesced() == 1);
+		release.countDown();
+		assertThat(before.get(10, TimeUnit.SECONDS)).isEqualTo("before");
+		assertThat(other.get(10, TimeUnit.SECONDS)).isEqualTo("other");
+		assertThat(joined.get(10, TimeUnit.SECONDS)).isEqualTo("other");
+	}
+
+	private CompletableFuture<String> run(SingleFlight<Integer, String> flight, int key, Supplier<String> loader) {
+		return CompletableFuture.supplyAsync(() -> flight.execute(key, loader), executor);
+	}
+
+	// A load that runs until the test releases it.
+	private Supplier<String> blocked(String value) {
+		return () -> {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return value;
+		};
+	}
+}
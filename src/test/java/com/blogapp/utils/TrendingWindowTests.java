@@ -0,0 +1,68 @@
+package com.blogapp.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class TrendingWindowTests {
+
+	private static final long BUCKET = 1000;
+
+	@Test
+	void ranksKeysByTheirCountOverTheWindow() {
+		TrendingWindow window = new TrendingWindow(3, BUCKET, 4, 1024, 64);
+		window.add(1, 1, 0);
+		window.add(2, 5, 0);
+		window.add(3, 2, BUCKET);
+		window.add(1, 3, 2 * BUCKET);
+
+		assertThat(window.top(10, 2 * BUCKET)).containsExactly(new TrendingWindow.Scored(2, 5),
+				new TrendingWindow.Scored(1, 4), new TrendingWindow.Scored(3, 2));
+		assertThat(window.top(2, 2 * BUCKET)).extracting(TrendingWindow.Scored::key).containsExactly(2, 1);
+		assertThat(window.top(0, 2 * BUCKET)).isEmpty();
+	}
+
+	@Test
+	void forgetsBucketsThatLeftTheWindow() {
+		TrendingWindow window = new TrendingWindow(3, BUCKET, 4, 1024, 64);
+		window.add(1, 10, 0);
+		window.add(2, 1, 2 * BUCKET);
+
+		assertThat(window.top(10, 2 * BUCKET)).extracting(TrendingWindow.Scored::key).containsExactly(1, 2);
+		// Bucket 0 is out of a three-bucket window at bucket 3, even before its slot is reused.
+		assertThat(window.top(10, 3 * BUCKET)).containsExactly(new TrendingWindow.Scored(2, 1));
+		window.add(3, 1, 3 * BUCKET);
+		assertThat(window.top(10, 3 * BUCKET)).extracting(TrendingWindow.Scored::key).containsExactlyInAnyOrder(2, 3);
+		assertThat(window.top(10, 10 * BUCKET)).isEmpty();
+	}
+
+	@Test
+	void dropsUpdatesFromBeforeTheCurrentBucketOfTheirSlot() {
+		TrendingWindow window = new TrendingWindow(2, BUCKET, 4, 1024, 64);
+		window.add(1, 1, 2 * BUCKET);
+		// Bucket 0 shares the slot of bucket 2, which is newer: the clock went back.
+		window.add(1, 5, 0);
+
+		assertThat(window.top(10, 2 * BUCKET)).containsExactly(new TrendingWindow.Scored(1, 1));
+	}
+
+	@Test
+	void keepsHeavyKeysAmongManyLightOnes() {
+		TrendingWindow window = new TrendingWindow(1, BUCKET, 4, 2048, 64);
+		for (int key = 100; key < 5100; key++) {
+			window.add(key, 1, 0);
+		}
+		for (int i = 0; i < 50; i++) {
+			for (int key = 1; key <= 5; key++) {
+				window.add(key, key, 0);
+			}
+		}
+
+		List<TrendingWindow.Scored> top = window.top(5, 0);
+		assertThat(top).extracting(TrendingWindow.Scored::key).containsExactly(5, 4, 3, 2, 1);
+		// Count-Min estimates may only overcount.
+		assertThat(top.get(0).score()).isGreaterThanOrEqualTo(250);
+	}
+}